@@ -61,6 +61,11 @@ import static java.util.Objects.requireNonNull;
  * However, collection-typed relationships are automatically provided as lazy-loading proxies, thus there usually is no
  * reason to make them {@link Lazy}.
  * </p>
+ * <p>
+ * The {@link Lazy} instances returned by {@link #filter(Predicate)}, {@link #map(Function)} and {@link #flatMap(Function)}
+ * are lazy themselves and memoize their result: The predicate or function is applied at most once, when the
+ * resulting value is first accessed, even if the value is accessed concurrently.
+ * </p>
  *
  * @since 4.3.0
  * @param <T> the type of the lazy-loaded object.
@@ -96,32 +101,36 @@ public interface Lazy<T> {
     }
 
     /**
+     * The predicate is applied at most once, when the value of the returned {@link Lazy} is first accessed.
+     *
      * @see java.util.Optional#filter
      */
     @Nonnull
     default Lazy<T> filter(Predicate<? super T> predicate) {
-        return () -> asOptional().filter(predicate);
+        requireNonNull(predicate);
+        return new MemoizingLazy<>(() -> asOptional().filter(predicate));
     }
 
     /**
+     * The function is applied at most once, when the value of the returned {@link Lazy} is first accessed.
+     *
      * @see java.util.Optional#map
      */
     @Nonnull
     default <U> Lazy<U> map(Function<? super T, ? extends U> f) {
-        return () -> asOptional().map(f);
+        requireNonNull(f);
+        return new MemoizingLazy<>(() -> asOptional().map(f));
     }
 
     /**
+     * The function is applied at most once, when the value of the returned {@link Lazy} is first accessed.
+     *
      * @see java.util.Optional#flatMap
      */
     @Nonnull
     default <U> Lazy<U> flatMap(Function<? super T, Lazy<U>> f) {
         requireNonNull(f);
-        if (!isPresent()) {
-            return java.util.Optional::empty;
-        } else {
-            return requireNonNull(f.apply(get()));
-        }
+        return new MemoizingLazy<>(() -> asOptional().flatMap(t -> requireNonNull(f.apply(t)).asOptional()));
     }
 
     /**
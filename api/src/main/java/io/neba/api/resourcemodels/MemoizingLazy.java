@@ -0,0 +1,59 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+ */
+package io.neba.api.resourcemodels;
+
+import javax.annotation.Nonnull;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Lazy} obtaining its value from a loader at most once, even under concurrent access.
+ * The loader is released once the value is loaded. Used by the {@link Lazy#map(java.util.function.Function) combinators}
+ * of {@link Lazy} to ensure that e.g. expensive mapping functions are not evaluated again whenever the value is accessed.
+ *
+ * @param <T> the type of the lazy-loaded object.
+ */
+final class MemoizingLazy<T> implements Lazy<T> {
+    private Supplier<Optional<T>> loader;
+    // Safely publishes the loaded value. null until the value is loaded.
+    private volatile Optional<T> value;
+
+    MemoizingLazy(@Nonnull Supplier<Optional<T>> loader) {
+        this.loader = requireNonNull(loader);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<T> asOptional() {
+        Optional<T> value = this.value;
+        if (value == null) {
+            value = load();
+        }
+        return value;
+    }
+
+    private synchronized Optional<T> load() {
+        Optional<T> value = this.value;
+        if (value == null) {
+            value = requireNonNull(this.loader.get());
+            this.loader = null;
+            this.value = value;
+        }
+        return value;
+    }
+}
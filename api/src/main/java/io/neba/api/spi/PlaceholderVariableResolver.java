@@ -21,6 +21,11 @@ import javax.annotation.Nonnull;
 /**
  * A source for values of variables of the form <pre>${key}</pre>, as
  * supported by the {@link io.neba.api.annotations.Path} annotation.
+ * <p>
+ * Paths containing variables are resolved whenever a resource is mapped to a model. If the values provided by
+ * a resolver are stable for the lifetime of the resolver or for the duration of a request, the resolver should declare
+ * this via {@link #getCacheability()} to allow NEBA to cache the resolved paths accordingly.
+ * </p>
  *
  * @author Olaf Otto
  * @since 1.0.0
@@ -35,4 +40,36 @@ public interface PlaceholderVariableResolver {
      * variable name.
      */
     String resolve(@Nonnull String variableName);
+
+    /**
+     * Declares for how long the values provided by this resolver - including the absence of a value - may be cached.
+     * Paths are only cached in the narrowest scope declared by the resolvers that were consulted to resolve them.
+     *
+     * @return never <code>null</code>. Defaults to {@link Cacheability#NONE}.
+     * @since 5.2.0
+     */
+    @Nonnull
+    default Cacheability getCacheability() {
+        return Cacheability.NONE;
+    }
+
+    /**
+     * The scope in which values {@link #resolve(String) resolved} by a {@link PlaceholderVariableResolver} may be cached.
+     *
+     * @since 5.2.0
+     */
+    enum Cacheability {
+        /**
+         * The resolved values never change for the lifetime of the resolver service.
+         */
+        STATIC,
+        /**
+         * The resolved values do not change during a request, e.g. because they depend on the requested page.
+         */
+        REQUEST,
+        /**
+         * The resolved values may change at any time and must not be cached.
+         */
+        NONE
+    }
 }
@@ -17,10 +17,17 @@ package io.neba.api.resourcemodels;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.util.Optional.of;
+import static java.util.concurrent.Executors.newFixedThreadPool;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.fail;
 
@@ -112,6 +119,91 @@ public class LazyTest {
                 .isEqualTo("mapped");
     }
 
+    @Test
+    public void testMapIsLazyAndMemoized() {
+        withValue();
+        AtomicInteger invocations = new AtomicInteger();
+        Lazy<Object> mapped = this.testee.map(t -> {
+            invocations.incrementAndGet();
+            return "mapped";
+        });
+
+        assertThat(invocations.get()).isZero();
+
+        assertThat(mapped.isPresent()).isTrue();
+        assertThat(mapped.get()).isEqualTo("mapped");
+        assertThat(mapped.orElse("other")).isEqualTo("mapped");
+
+        assertThat(invocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFilterIsLazyAndMemoized() {
+        withValue();
+        AtomicInteger invocations = new AtomicInteger();
+        Lazy<Object> filtered = this.testee.filter(t -> invocations.incrementAndGet() > 0);
+
+        assertThat(invocations.get()).isZero();
+
+        assertThat(filtered.isPresent()).isTrue();
+        assertThat(filtered.get()).isEqualTo("value");
+
+        assertThat(invocations.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void testFlatMapIsLazyAndMemoized() {
+        withValue();
+        AtomicInteger invocations = new AtomicInteger();
+        Lazy<Object> mapped = this.testee.flatMap(t -> {
+            invocations.incrementAndGet();
+            return () -> of("mapped");
+        });
+
+        assertThat(invocations.get()).isZero();
+
+        assertThat(mapped.isPresent()).isTrue();
+        assertThat(mapped.get()).isEqualTo("mapped");
+
+        assertThat(invocations.get()).isEqualTo(1);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testFlatMapRejectsNullResult() {
+        withValue();
+        this.testee.flatMap(t -> null).isPresent();
+    }
+
+    @Test
+    public void testMapIsAppliedOnceUnderConcurrentAccess() throws Exception {
+        withValue();
+        AtomicInteger invocations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Lazy<Object> mapped = this.testee.map(t -> {
+            invocations.incrementAndGet();
+            return "mapped";
+        });
+
+        ExecutorService executor = newFixedThreadPool(8);
+        try {
+            List<Future<Object>> results = new ArrayList<>();
+            for (int i = 0; i < 8; ++i) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return mapped.get();
+                }));
+            }
+            start.countDown();
+            for (Future<Object> result : results) {
+                assertThat(result.get()).isEqualTo("mapped");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(invocations.get()).isEqualTo(1);
+    }
+
     @Test
     public void testOrElse() {
         withoutValue();
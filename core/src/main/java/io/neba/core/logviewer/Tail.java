@@ -16,29 +16,39 @@
 package io.neba.core.logviewer;
 
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.SeekableByteChannel;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.neba.core.logviewer.Tail.Mode.TAIL;
 import static java.lang.Math.max;
-import static java.lang.Thread.sleep;
-import static java.nio.ByteBuffer.allocate;
-import static java.nio.file.Files.newByteChannel;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.nio.ByteBuffer.allocateDirect;
+import static java.nio.channels.FileChannel.open;
 import static java.nio.file.StandardOpenOption.READ;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.io.IOUtils.closeQuietly;
 
 /**
  * A non-blocking tail implementation allowing to read an arbitrary number of bytes from the end of a file
  * and follow changes to it.
+ * <br />
+ * A tail does not occupy a thread: It reads and sends one chunk of the file at a time in the thread pool of the
+ * {@link TailScheduler}. The next chunk is only read once the client has received the previous one, such that
+ * slow clients do not cause data to pile up in memory. When {@link Mode#FOLLOW following} a file, the tail
+ * continues reading when the {@link TailScheduler} {@link #signal() signals} that the file may have changed.
  *
  * @author Olaf Otto
  */
-public class Tail implements Runnable {
+public class Tail {
     private final Mode mode;
 
     public enum Mode {
@@ -47,22 +57,55 @@ public class Tail implements Runnable {
     }
 
     private static final int AWAIT_FILE_ROTATION_MILLIS = 1000;
-    private static final int TAIL_CHECK_INTERVAL_MILLIS = 500;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private final TailScheduler scheduler;
     private final RemoteEndpoint remoteEndpoint;
     private final File file;
+    private final Path path;
     private final long bytesToTail;
 
-    private boolean stopped = false;
+    /**
+     * The number of signals received since the tail last caught up with the file. The tail is
+     * only executed by the thread that increments the signals from zero, or upon completion of a write.
+     */
+    private final AtomicInteger signals = new AtomicInteger();
+    private final WriteCallback continueAfterWrite = new WriteCallback() {
+        @Override
+        public void writeFailed(Throwable x) {
+            logger.error("Unable to send " + file.getAbsolutePath() + " to the client, stopping.", x);
+            stop();
+            scheduler.execute(Tail.this::drain);
+        }
+
+        @Override
+        public void writeSuccess() {
+            scheduler.execute(Tail.this::drain);
+        }
+    };
+
+    // Only accessed by the thread currently executing the tail
+    private ByteBuffer readBuffer;
+    private FileChannel channel;
+    private long position;
+    private long totalBytesRead;
+    private long missingSinceNanos = -1;
+    private boolean closed = false;
+
+    private volatile boolean stopped = false;
 
     /**
+     * @param scheduler must not be <code>null</code>.
      * @param remoteEndpoint must not be <code>null</code>.
      * @param file must not be <code>null</code>.
      * @param bytesToTail the number of bytes up to which are immediately read from the file.
      */
-    Tail(RemoteEndpoint remoteEndpoint, File file, long bytesToTail, Mode mode) {
+    Tail(TailScheduler scheduler, RemoteEndpoint remoteEndpoint, File file, long bytesToTail, Mode mode) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("constructor parameter scheduler must not be null");
+        }
         if (remoteEndpoint == null) {
             throw new IllegalArgumentException("constructor parameter remoteEndpoint must not be null");
         }
@@ -73,83 +116,139 @@ public class Tail implements Runnable {
             throw new IllegalArgumentException("constructor parameter mode must not be null");
         }
 
+        this.scheduler = scheduler;
         this.mode = mode;
         this.bytesToTail = bytesToTail;
         this.remoteEndpoint = remoteEndpoint;
         this.file = file;
+        this.path = file.toPath().toAbsolutePath();
     }
 
-    @Override
-    public void run() {
-        SeekableByteChannel channel = null;
-
-        try {
-            channel = newByteChannel(this.file.toPath(), READ);
+    /**
+     * Begins reading the file in the thread pool of the {@link TailScheduler}.
+     */
+    void start() {
+        this.scheduler.add(this);
+        signal();
+    }
 
-            long availableInByte = this.file.length();
-            long startingFromInByte = max(availableInByte - this.bytesToTail, 0);
+    /**
+     * Stops reading the file. Resources are released asynchronously.
+     */
+    void stop() {
+        this.stopped = true;
+        this.scheduler.remove(this);
+        signal();
+    }
 
-            channel.position(startingFromInByte);
+    /**
+     * Notifies the tail that the file may have changed.
+     */
+    void signal() {
+        if (this.signals.getAndIncrement() == 0) {
+            this.scheduler.execute(this::drain);
+        }
+    }
 
-            long position = startingFromInByte;
-            long totalBytesRead = 0L;
+    Mode getMode() {
+        return this.mode;
+    }
 
-            // Read up to this amount of data from the file at once.
-            ByteBuffer readBuffer = allocate(4096);
-            while (!this.stopped) {
+    Path getPath() {
+        return this.path;
+    }
 
-                // The file might be temporarily gone during rotation. Wait, then decide
-                // whether the file is considered gone permanently or whether a rotation has occurred.
-                if (!this.file.exists()) {
-                    sleep(AWAIT_FILE_ROTATION_MILLIS);
-                }
-                if (!this.file.exists()) {
-                    this.remoteEndpoint.sendString("file not found");
-                    return;
-                }
+    private void drain() {
+        int signals;
+        do {
+            signals = this.signals.get();
+            if (!read()) {
+                // A chunk is being sent to the client, which continues draining once the chunk was sent.
+                return;
+            }
+        } while (this.signals.addAndGet(-signals) != 0);
+    }
 
-                if (position > this.file.length()) {
-                    this.remoteEndpoint.sendString("file rotated");
-                    position = 0;
-                    closeQuietly(channel);
-                    channel = newByteChannel(this.file.toPath(), READ);
-                }
+    /**
+     * @return whether the tail is done reading, i.e. reached the end of the file or was stopped, or <code>false</code> if
+     * a chunk of the file is being sent to the client.
+     */
+    private boolean read() {
+        if (this.closed) {
+            return true;
+        }
+        if (this.stopped) {
+            close();
+            return true;
+        }
 
-                int read = channel.read(readBuffer);
+        try {
+            if (this.channel == null) {
+                this.channel = open(this.path, READ);
+                this.readBuffer = allocateDirect(BUFFER_SIZE);
+                this.position = max(this.channel.size() - this.bytesToTail, 0);
+                this.channel.position(this.position);
+            }
 
-                if (read == -1) {
-                    if (mode == TAIL) {
-                        // EOF, we are done.
-                        return;
-                    }
-                    // If we are in follow mode, reaching the end of the file might signal a file rotation. Sleep and re-try.
-                    sleep(TAIL_CHECK_INTERVAL_MILLIS);
-                    continue;
+            // The file might be temporarily gone during rotation. Wait, then decide
+            // whether the file is considered gone permanently or whether a rotation has occurred.
+            if (!this.file.exists()) {
+                if (this.missingSinceNanos == -1) {
+                    this.missingSinceNanos = nanoTime();
+                    this.scheduler.schedule(this::signal, AWAIT_FILE_ROTATION_MILLIS);
+                    return true;
+                }
+                if (NANOSECONDS.toMillis(nanoTime() - this.missingSinceNanos) < AWAIT_FILE_ROTATION_MILLIS) {
+                    return true;
                 }
+                this.remoteEndpoint.sendString("file not found");
+                close();
+                return true;
+            }
+            this.missingSinceNanos = -1;
 
-                totalBytesRead += read;
+            if (this.position > this.file.length()) {
+                this.remoteEndpoint.sendString("file rotated");
+                this.position = 0;
+                closeQuietly(this.channel);
+                this.channel = open(this.path, READ);
+            }
 
-                position = channel.position();
-                readBuffer.flip();
-                this.remoteEndpoint.sendBytes(readBuffer);
-                readBuffer.clear();
+            this.readBuffer.clear();
+            if (this.mode == TAIL) {
+                this.readBuffer.limit((int) min(BUFFER_SIZE, this.bytesToTail - this.totalBytesRead));
+            }
+            int read = this.channel.read(this.readBuffer);
 
-                if (mode == TAIL && totalBytesRead >= this.bytesToTail) {
-                    return;
+            if (read == -1 || read == 0) {
+                if (this.mode == TAIL) {
+                    // EOF, we are done.
+                    close();
                 }
+                // If we are following the file, continue once the file was changed.
+                return true;
             }
+
+            this.totalBytesRead += read;
+            this.position = this.channel.position();
+            this.readBuffer.flip();
+            if (this.mode == TAIL && this.totalBytesRead >= this.bytesToTail) {
+                this.stopped = true;
+            }
+            this.remoteEndpoint.sendBytes(this.readBuffer, this.continueAfterWrite);
+            return false;
         } catch (IOException e) {
             this.logger.error("Unable to tail " + this.file.getAbsolutePath() + ".", e);
-        } catch (InterruptedException e) {
-            if (!this.stopped) {
-                this.logger.error("Stopped tailing " + this.file.getAbsolutePath() + ", got interrupted.", e);
-            }
-        } finally {
-            closeQuietly(channel);
+            close();
+            return true;
         }
     }
 
-    void stop() {
-        this.stopped = true;
+    private void close() {
+        this.closed = true;
+        this.scheduler.remove(this);
+        closeQuietly(this.channel);
+        this.channel = null;
+        this.readBuffer = null;
     }
 }
@@ -0,0 +1,214 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.logviewer;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.file.FileSystems.getDefault;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Executes all {@link Tail tails} using a small, shared thread pool and notifies {@link Tail.Mode#FOLLOW following}
+ * tails of changes to their files using a single {@link WatchService}, e.g. inotify on Linux. Tails thus do not occupy a
+ * thread while waiting for changes or while their data is sent to the client.
+ * <br />
+ * Watch services may not report changes, e.g. on network file systems, or may report them with a considerable delay.
+ * Followed files are thus additionally re-checked at a low frequency.
+ */
+@Component(service = TailScheduler.class)
+public class TailScheduler {
+    private static final int READER_THREADS = 2;
+    private static final long RECHECK_INTERVAL_MILLIS = 5000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final Set<Tail> tails = ConcurrentHashMap.newKeySet();
+    private final Map<Path, Set<Tail>> followedByDirectory = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> watchKeys = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService executor;
+    private WatchService watchService;
+
+    @Activate
+    protected void activate() {
+        this.executor = newScheduledThreadPool(READER_THREADS, daemonThreads("neba-logviewer-tail-"));
+        this.executor.scheduleWithFixedDelay(this::recheck, RECHECK_INTERVAL_MILLIS, RECHECK_INTERVAL_MILLIS, MILLISECONDS);
+
+        try {
+            this.watchService = getDefault().newWatchService();
+            Thread watcher = new Thread(this::watch, "neba-logviewer-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException | UnsupportedOperationException e) {
+            this.logger.warn("Unable to watch log files for changes, followed log files are re-checked every " +
+                    RECHECK_INTERVAL_MILLIS + " ms.", e);
+        }
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        new ArrayList<>(this.tails).forEach(Tail::stop);
+
+        if (this.watchService != null) {
+            try {
+                this.watchService.close();
+            } catch (IOException e) {
+                this.logger.debug("Unable to close the log file watch service.", e);
+            }
+        }
+
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(1, SECONDS)) {
+                this.executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            this.executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Executes a step of the tail in the shared thread pool. Tasks submitted after the scheduler was
+     * {@link #deactivate() deactivated} are discarded.
+     */
+    void execute(Runnable task) {
+        try {
+            this.executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            this.logger.debug("Discarding a tail task, the scheduler is shut down.", e);
+        }
+    }
+
+    /**
+     * Executes a step of the tail in the shared thread pool after the given delay.
+     */
+    void schedule(Runnable task, long delayInMillis) {
+        try {
+            this.executor.schedule(task, delayInMillis, MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            this.logger.debug("Discarding a tail task, the scheduler is shut down.", e);
+        }
+    }
+
+    /**
+     * @param tail must not be <code>null</code>. Is {@link Tail#signal() signaled} whenever its file may have changed
+     *             until it is {@link #remove(Tail) removed}.
+     */
+    void add(Tail tail) {
+        this.tails.add(tail);
+        if (tail.getMode() != Tail.Mode.FOLLOW) {
+            return;
+        }
+
+        Path directory = tail.getPath().getParent();
+        this.followedByDirectory.compute(directory, (d, followers) -> {
+            Set<Tail> result = followers == null ? ConcurrentHashMap.newKeySet() : followers;
+            result.add(tail);
+            if (this.watchService != null && !this.watchKeys.containsKey(d)) {
+                try {
+                    this.watchKeys.put(d, d.register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE));
+                } catch (IOException | ClosedWatchServiceException e) {
+                    this.logger.warn("Unable to watch " + d + " for changes, changes to " + tail.getPath() +
+                            " are only detected every " + RECHECK_INTERVAL_MILLIS + " ms.", e);
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * @param tail must not be <code>null</code>.
+     */
+    void remove(Tail tail) {
+        this.tails.remove(tail);
+        if (tail.getMode() != Tail.Mode.FOLLOW) {
+            return;
+        }
+
+        this.followedByDirectory.computeIfPresent(tail.getPath().getParent(), (directory, followers) -> {
+            followers.remove(tail);
+            if (!followers.isEmpty()) {
+                return followers;
+            }
+            WatchKey key = this.watchKeys.remove(directory);
+            if (key != null) {
+                key.cancel();
+            }
+            return null;
+        });
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = this.watchService.take();
+                Set<Tail> followers = this.followedByDirectory.get((Path) key.watchable());
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (followers == null) {
+                        continue;
+                    }
+                    for (Tail tail : followers) {
+                        if (event.kind() == OVERFLOW || tail.getPath().getFileName().equals(event.context())) {
+                            tail.signal();
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            this.logger.debug("Stopped watching log files for changes.");
+        }
+    }
+
+    private void recheck() {
+        this.followedByDirectory.values().forEach(followers -> followers.forEach(Tail::signal));
+    }
+
+    private static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -34,9 +34,12 @@ public class TailServlet extends WebSocketServlet {
     @Reference
     private LogFiles logFiles;
 
+    @Reference
+    private TailScheduler tailScheduler;
+
     @Override
     public void configure(WebSocketServletFactory factory) {
         factory.getPolicy().setIdleTimeout(SECONDS.toMillis(30));
-        factory.setCreator((servletUpgradeRequest, servletUpgradeResponse) -> new TailSocket(logFiles));
+        factory.setCreator((servletUpgradeRequest, servletUpgradeResponse) -> new TailSocket(logFiles, tailScheduler));
     }
 }
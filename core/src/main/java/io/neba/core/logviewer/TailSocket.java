@@ -22,14 +22,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.concurrent.ExecutorService;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static io.neba.core.logviewer.Tail.Mode.FOLLOW;
 import static io.neba.core.logviewer.Tail.Mode.TAIL;
 import static java.lang.Math.round;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static java.util.regex.Pattern.compile;
 import static org.apache.commons.lang3.math.NumberUtils.toFloat;
 
@@ -41,25 +39,29 @@ import static org.apache.commons.lang3.math.NumberUtils.toFloat;
 public class TailSocket extends WebSocketAdapter {
     private static final Pattern TAIL_COMMAND = compile("((?<mode>tail|follow):(?<amount>([0-9]+\\.)?[0-9]+)mb:(?<path>.+))");
     private final Logger logger = LoggerFactory.getLogger(getClass());
-    private ExecutorService executorService = newSingleThreadExecutor();
 
     private final LogFiles logFiles;
+    private final TailScheduler tailScheduler;
     private Tail tail;
 
     /**
-     * @param logFiles must not be <code>null</code>.
+     * @param logFiles      must not be <code>null</code>.
+     * @param tailScheduler must not be <code>null</code>.
      */
-    TailSocket(LogFiles logFiles) {
+    TailSocket(LogFiles logFiles, TailScheduler tailScheduler) {
         if (logFiles == null) {
             throw new IllegalArgumentException("Method argument logFiles must not be null.");
         }
+        if (tailScheduler == null) {
+            throw new IllegalArgumentException("Method argument tailScheduler must not be null.");
+        }
         this.logFiles = logFiles;
+        this.tailScheduler = tailScheduler;
     }
 
     @Override
     public void onWebSocketClose(int statusCode, String reason) {
         stopTail();
-        this.executorService.shutdownNow();
         super.onWebSocketClose(statusCode, reason);
     }
 
@@ -117,17 +119,14 @@ public class TailSocket extends WebSocketAdapter {
 
     private void tail(File file, long bytesToTail, Mode mode) {
         stopTail();
-        this.tail = new Tail(getRemote(), file, bytesToTail, mode);
-        this.executorService.execute(this.tail);
+        this.tail = new Tail(this.tailScheduler, getRemote(), file, bytesToTail, mode);
+        this.tail.start();
     }
 
     private void stopTail() {
         if (this.tail != null) {
-            synchronized (this.tail) {
-                this.tail.stop();
-                this.tail.notify();
-                this.tail = null;
-            }
+            this.tail.stop();
+            this.tail = null;
         }
     }
 
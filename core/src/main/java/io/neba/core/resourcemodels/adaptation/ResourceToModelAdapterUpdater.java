@@ -36,14 +36,22 @@ import org.slf4j.LoggerFactory;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.stream.Collectors;
 
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.lang3.ClassUtils.getAllInterfaces;
 import static org.apache.commons.lang3.ClassUtils.getAllSuperclasses;
 import static org.apache.sling.api.adapter.AdapterFactory.ADAPTABLE_CLASSES;
@@ -66,12 +74,23 @@ import static org.osgi.framework.Constants.SERVICE_VENDOR;
  * {@link io.neba.core.resourcemodels.registration.ModelRegistrar}.
  * This enables direct {@link Resource#adaptTo(Class) adaptation} to the resource
  * models without having to provide all available models as service metadata at build time.
+ * <br />
+ * Since every re-registration of the adapter factory causes Sling to discard its adapter caches, {@link #refresh() refreshes}
+ * are coalesced: The adapter factory is updated once no further refresh was requested for a
+ * {@link Configuration#refreshQuietPeriod() quiet period}, but no later than {@link #MAXIMUM_REFRESH_DELAY_FACTOR} quiet periods
+ * after the first pending refresh. The adapter factory is only re-registered if the adapter types have changed.
  *
  * @author Olaf Otto
  */
 @Component(service = ResourceToModelAdapterUpdater.class)
 @Designate(ocd = ResourceToModelAdapterUpdater.Configuration.class)
 public class ResourceToModelAdapterUpdater {
+    /**
+     * Refreshes are postponed for at most this many quiet periods, such that continuous refresh requests
+     * do not prevent updates.
+     */
+    static final int MAXIMUM_REFRESH_DELAY_FACTOR = 10;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Reference
@@ -81,14 +100,27 @@ public class ResourceToModelAdapterUpdater {
 
     private BundleContext context = null;
     private ServiceRegistration<AdapterFactory> resourceToModelAdapterRegistration = null;
-    private ExecutorService executorService;
+    private ScheduledExecutorService executorService;
     private Configuration configuration;
 
+    /**
+     * The adapter types of the models of each bundle, by bundle ID. Only accessed by the updating thread.
+     */
+    private final Map<Long, BundleAdapterTypes> adapterTypesByBundle = new HashMap<>();
+    /**
+     * The adapter types the adapter factory is currently registered with.
+     */
+    private Set<String> registeredAdapterTypeNames;
+
+    private final Object refreshLock = new Object();
+    private ScheduledFuture<?> pendingUpdate;
+    private long firstPendingRefresh;
+
     @Activate
     protected void activate(Configuration configuration, BundleContext context) {
         this.configuration = configuration;
         this.context = context;
-        this.executorService = newSingleThreadExecutor();
+        this.executorService = newSingleThreadScheduledExecutor();
         registerModelAdapter();
     }
 
@@ -97,15 +129,32 @@ public class ResourceToModelAdapterUpdater {
         this.executorService.shutdownNow();
     }
 
+    /**
+     * Signals that the registered models have changed. The adapter factory is updated asynchronously
+     * once no further refreshes are signaled for the configured quiet period.
+     */
     public void refresh() {
-        this.executorService.execute(() -> {
-            if (isModelAdapterUpdatable()) {
-                updateModelAdapter();
+        final long quietPeriod = MILLISECONDS.toNanos(max(0, this.configuration.refreshQuietPeriod()));
+
+        synchronized (this.refreshLock) {
+            final long now = nanoTime();
+            // A pending update that has not yet started absorbs this refresh. Otherwise, a new update is required,
+            // as a running update may not reflect the changes this refresh signals.
+            if (this.pendingUpdate == null || !this.pendingUpdate.cancel(false)) {
+                this.firstPendingRefresh = now;
             }
-        });
+            final long remainingDelay = quietPeriod * MAXIMUM_REFRESH_DELAY_FACTOR - (now - this.firstPendingRefresh);
+            final long delay = max(0, min(quietPeriod, remainingDelay));
+
+            this.pendingUpdate = this.executorService.schedule(() -> {
+                if (isModelAdapterUpdatable()) {
+                    updateModelAdapter();
+                }
+            }, delay, NANOSECONDS);
+        }
     }
 
-    void setExecutorService(ExecutorService executorService) {
+    void setExecutorService(ScheduledExecutorService executorService) {
         this.executorService = executorService;
     }
 
@@ -124,20 +173,31 @@ public class ResourceToModelAdapterUpdater {
      * Sling does not detect changes to the state of an {@link AdapterFactory} service. Their
      * properties are only read when the service is registered. Thus
      * the service is unregistered and re-registered when changing its properties
-     * (e.g. adding new adaptable types).
+     * (e.g. adding new adaptable types). Since Sling discards its adapter caches
+     * whenever an adapter factory is registered, the service is left untouched if the adapter types did not change.
      */
     private void updateModelAdapter() {
+        Set<String> adapterTypeNames = getAdapterTypeNames();
+        if (adapterTypeNames.equals(this.registeredAdapterTypeNames)) {
+            this.logger.debug("The adapter types of the resource models did not change, skipping the update of the resource to model adapter.");
+            return;
+        }
         unregisterModelAdapter();
-        registerModelAdapter();
+        registerModelAdapter(adapterTypeNames);
+    }
+
+    private void registerModelAdapter() {
+        registerModelAdapter(getAdapterTypeNames());
     }
 
     /**
      * {@link BundleContext#registerService(String, Object, Dictionary) Registers}
      * the {@link ResourceToModelAdapter}, i.e. publishes it as an OSGi service.
      */
-    private void registerModelAdapter() {
-        Dictionary<String, Object> properties = createResourceToModelAdapterProperties();
+    private void registerModelAdapter(Set<String> adapterTypeNames) {
+        Dictionary<String, Object> properties = createResourceToModelAdapterProperties(adapterTypeNames);
         this.resourceToModelAdapterRegistration = this.context.registerService(AdapterFactory.class, this.adapter, properties);
+        this.registeredAdapterTypeNames = adapterTypeNames;
     }
 
     private void unregisterModelAdapter() {
@@ -148,10 +208,9 @@ public class ResourceToModelAdapterUpdater {
         }
     }
 
-    private Dictionary<String, Object> createResourceToModelAdapterProperties() {
+    private Dictionary<String, Object> createResourceToModelAdapterProperties(Set<String> adapterTypeNames) {
         Dictionary<String, Object> properties = new Hashtable<>();
-        Set<String> fullyQualifiedNamesOfRegisteredModels = getAdapterTypeNames();
-        properties.put(ADAPTER_CLASSES, fullyQualifiedNamesOfRegisteredModels.toArray());
+        properties.put(ADAPTER_CLASSES, adapterTypeNames.toArray());
         String[] adaptableClasses = configuration.allowAdaptingFromRequest() ?
                 new String[]{Resource.class.getName(), SlingHttpServletRequest.class.getName()} :
                 new String[]{Resource.class.getName()};
@@ -165,17 +224,37 @@ public class ResourceToModelAdapterUpdater {
      * Obtains all {@link OsgiModelSource model sources} from the
      * {@link io.neba.core.resourcemodels.registration.ModelRegistrar} and adds the {@link OsgiModelSource#getModelType()
      * model type name} as well as the type name of all of its superclasses and
-     * interfaces to the set.
+     * interfaces to the set. The type names are maintained per bundle and only re-computed for
+     * bundles whose model types have changed since the last invocation.
      *
      * @return never null but rather an empty set.
      * @see org.apache.commons.lang3.ClassUtils#getAllInterfaces(Class)
      * @see org.apache.commons.lang3.ClassUtils#getAllSuperclasses(Class)
      */
     private Set<String> getAdapterTypeNames() {
-        List<OsgiModelSource<?>> modelSources = this.registry.getModelSources();
+        Map<Long, Set<Class<?>>> modelTypesByBundle = new HashMap<>();
+        for (OsgiModelSource<?> source : this.registry.getModelSources()) {
+            modelTypesByBundle.computeIfAbsent(source.getBundleId(), id -> new HashSet<>()).add(source.getModelType());
+        }
+
+        this.adapterTypesByBundle.keySet().retainAll(modelTypesByBundle.keySet());
+        modelTypesByBundle.forEach((bundleId, modelTypes) -> {
+            BundleAdapterTypes adapterTypes = this.adapterTypesByBundle.get(bundleId);
+            if (adapterTypes == null || !adapterTypes.modelTypes.equals(modelTypes)) {
+                this.adapterTypesByBundle.put(bundleId, new BundleAdapterTypes(modelTypes));
+            }
+        });
+
+        Set<String> modelNames = new HashSet<>();
+        for (BundleAdapterTypes adapterTypes : this.adapterTypesByBundle.values()) {
+            modelNames.addAll(adapterTypes.typeNames);
+        }
+        return modelNames;
+    }
+
+    private static Set<String> getAdapterTypeNames(Set<Class<?>> modelTypes) {
         Set<String> modelNames = new HashSet<>();
-        for (OsgiModelSource<?> source : modelSources) {
-            Class<?> c = source.getModelType();
+        for (Class<?> c : modelTypes) {
             modelNames.add(c.getName());
             modelNames.addAll(toClassnameList(getAllInterfaces(c)));
             List<Class<?>> allSuperclasses = getAllSuperclasses(c);
@@ -186,7 +265,7 @@ public class ResourceToModelAdapterUpdater {
         return modelNames;
     }
 
-    private Collection<String> toClassnameList(List<Class<?>> l) {
+    private static Collection<String> toClassnameList(List<Class<?>> l) {
         List<String> classNames = new ArrayList<>(l.size());
         classNames.addAll(l.stream().map(Class::getName).collect(Collectors.toList()));
         return classNames;
@@ -198,5 +277,24 @@ public class ResourceToModelAdapterUpdater {
                 name = "Adapt from request",
                 description = "Support adapting the sling request to a model. This is a shortcut for retrieving the resource from the request and adapting it.")
         boolean allowAdaptingFromRequest() default true;
+
+        @AttributeDefinition(
+                name = "Refresh quiet period",
+                description = "Changes to the registered models are applied to the adapter factory once no further changes occurred for this period, " +
+                        "in milliseconds. Changes are applied no later than ten quiet periods after the first change.")
+        int refreshQuietPeriod() default 500;
+    }
+
+    /**
+     * The model types of a bundle and the corresponding adapter type names.
+     */
+    private static class BundleAdapterTypes {
+        private final Set<Class<?>> modelTypes;
+        private final Set<String> typeNames;
+
+        private BundleAdapterTypes(Set<Class<?>> modelTypes) {
+            this.modelTypes = modelTypes;
+            this.typeNames = getAdapterTypeNames(modelTypes);
+        }
     }
 }
@@ -0,0 +1,111 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.core.util.Key;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+/**
+ * The key of a model in the {@link RequestScopedResourceModelCache}. Combines the resource path, resource type and
+ * resolver identity with the key provided by the cache user and, in safe mode, the fingerprint of the current
+ * request state. Unlike a generic {@link Key}, this key does not require a varargs array and compares
+ * the request fingerprint, which is interned per request, by identity.
+ */
+final class CacheKey {
+    private static final long SEED = 0xCBF29CE484222325L;
+
+    private final String resourcePath;
+    private final String resourceType;
+    private final Object resolverIdentity;
+    private final Key key;
+    private final Key requestFingerprint;
+    private final long fingerprint;
+    private final int hashCode;
+
+    /**
+     * @param resourcePath       can be <code>null</code>.
+     * @param resourceType       can be <code>null</code>.
+     * @param resolverIdentity   must not be <code>null</code>.
+     * @param key                must not be <code>null</code>.
+     * @param requestFingerprint the fingerprint of the current request state, or <code>null</code> if the cached
+     *                           model is not scoped to the request state.
+     */
+    CacheKey(@CheckForNull String resourcePath,
+             @CheckForNull String resourceType,
+             @Nonnull Object resolverIdentity,
+             @Nonnull Key key,
+             @CheckForNull Key requestFingerprint) {
+        this.resourcePath = resourcePath;
+        this.resourceType = resourceType;
+        this.resolverIdentity = resolverIdentity;
+        this.key = key;
+        this.requestFingerprint = requestFingerprint;
+
+        long fingerprint = mix(SEED, Objects.hashCode(resourcePath));
+        fingerprint = mix(fingerprint, key.hashCode());
+        fingerprint = mix(fingerprint, Objects.hashCode(resourceType));
+        fingerprint = mix(fingerprint, resolverIdentity.hashCode());
+        fingerprint = mix(fingerprint, Objects.hashCode(requestFingerprint));
+        this.fingerprint = fingerprint;
+        this.hashCode = (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+
+    private static long mix(long fingerprint, int hashCode) {
+        long mixed = (fingerprint ^ hashCode) * 0x9E3779B97F4A7C15L;
+        return mixed ^ (mixed >>> 29);
+    }
+
+    /**
+     * @return a 64-bit hash of this key. Equal keys have equal fingerprints, but keys with equal
+     * fingerprints are not necessarily equal.
+     */
+    long fingerprint() {
+        return this.fingerprint;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        CacheKey other = (CacheKey) obj;
+        return this.fingerprint == other.fingerprint &&
+                // Fingerprints are interned per request, and keys never outlive their request.
+                this.requestFingerprint == other.requestFingerprint &&
+                Objects.equals(this.resourcePath, other.resourcePath) &&
+                this.key.equals(other.key) &&
+                Objects.equals(this.resourceType, other.resourceType) &&
+                this.resolverIdentity.equals(other.resolverIdentity);
+    }
+
+    @Override
+    public String toString() {
+        return "CacheKey {" + this.resourcePath + ", " + this.key + ", " + this.resourceType + ", " +
+                this.resolverIdentity + (this.requestFingerprint == null ? "" : ", " + this.requestFingerprint) + '}';
+    }
+}
@@ -0,0 +1,178 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.core.resourcemodels.metadata.ResourceModelStatistics;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+
+/**
+ * The storage of the {@link RequestScopedResourceModelCache}. An open-addressing (linear probing) table
+ * keyed by the {@link CacheKey#fingerprint() 64-bit fingerprint} of a {@link CacheKey}. Keys with equal fingerprints are
+ * verified using {@link CacheKey#equals(Object)}. Known <code>null</code> results are represented by the
+ * {@link #NULL_MODEL} sentinel. The table is only allocated when the first model is stored, since
+ * many requests never resolve a model. Entries are never removed.
+ * <br />
+ * Each entry references the {@link ResourceModelStatistics} of the stored model, such that a cache hit
+ * is counted without resolving the model's metadata.
+ * <br />
+ * This store is not thread-safe; it is confined to the thread of a single request.
+ */
+final class RequestCacheStore {
+    /**
+     * Represents a model that is known to be <code>null</code>.
+     */
+    static final Object NULL_MODEL = new Object();
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] fingerprints;
+    private CacheKey[] keys;
+    private Object[] models;
+    private ResourceModelStatistics[] statistics;
+    private int size;
+
+    private int lookups;
+    private int hits;
+
+    /**
+     * @param key must not be <code>null</code>.
+     * @return the stored model, {@link #NULL_MODEL} if the model is known to be <code>null</code>, or <code>null</code>
+     * if the key is not known to this store. {@link ResourceModelStatistics#countCacheHit() Counts a cache hit} if a
+     * model is found.
+     */
+    @CheckForNull
+    Object get(@Nonnull CacheKey key) {
+        ++this.lookups;
+        if (this.keys == null) {
+            return null;
+        }
+
+        final long fingerprint = key.fingerprint();
+        final int mask = this.keys.length - 1;
+        for (int i = indexOf(fingerprint, mask); this.keys[i] != null; i = (i + 1) & mask) {
+            if (this.fingerprints[i] == fingerprint && this.keys[i].equals(key)) {
+                ++this.hits;
+                if (this.statistics[i] != null) {
+                    this.statistics[i].countCacheHit();
+                }
+                return this.models[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * @param key        must not be <code>null</code>.
+     * @param model      can be <code>null</code>.
+     * @param statistics the statistics of the model. Can be <code>null</code>, e.g. if the model is <code>null</code>.
+     */
+    void put(@Nonnull CacheKey key, @CheckForNull Object model, @CheckForNull ResourceModelStatistics statistics) {
+        if (this.keys == null) {
+            this.fingerprints = new long[INITIAL_CAPACITY];
+            this.keys = new CacheKey[INITIAL_CAPACITY];
+            this.models = new Object[INITIAL_CAPACITY];
+            this.statistics = new ResourceModelStatistics[INITIAL_CAPACITY];
+        }
+
+        final long fingerprint = key.fingerprint();
+        final Object storedModel = model == null ? NULL_MODEL : model;
+        final int mask = this.keys.length - 1;
+
+        int i = indexOf(fingerprint, mask);
+        for (; this.keys[i] != null; i = (i + 1) & mask) {
+            if (this.fingerprints[i] == fingerprint && this.keys[i].equals(key)) {
+                this.models[i] = storedModel;
+                this.statistics[i] = statistics;
+                return;
+            }
+        }
+
+        this.fingerprints[i] = fingerprint;
+        this.keys[i] = key;
+        this.models[i] = storedModel;
+        this.statistics[i] = statistics;
+
+        // Keep the load factor at or below 1/2 to keep probe sequences short.
+        if (++this.size << 1 > this.keys.length) {
+            resize();
+        }
+    }
+
+    /**
+     * @return the number of stored entries.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * @return the number of {@link #get(CacheKey) lookups}.
+     */
+    int getLookups() {
+        return this.lookups;
+    }
+
+    /**
+     * @return the number of {@link #get(CacheKey) lookups} that yielded a stored entry, including
+     * {@link #NULL_MODEL known null models}.
+     */
+    int getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the ratio of {@link #getHits() hits} to {@link #getLookups() lookups}, or 0 if there were no lookups.
+     */
+    double getHitRatio() {
+        return this.lookups == 0 ? 0 : (double) this.hits / this.lookups;
+    }
+
+    private void resize() {
+        final long[] previousFingerprints = this.fingerprints;
+        final CacheKey[] previousKeys = this.keys;
+        final Object[] previousModels = this.models;
+        final ResourceModelStatistics[] previousStatistics = this.statistics;
+
+        final int capacity = previousKeys.length << 1;
+        this.fingerprints = new long[capacity];
+        this.keys = new CacheKey[capacity];
+        this.models = new Object[capacity];
+        this.statistics = new ResourceModelStatistics[capacity];
+
+        final int mask = capacity - 1;
+        for (int j = 0; j < previousKeys.length; ++j) {
+            if (previousKeys[j] == null) {
+                continue;
+            }
+            int i = indexOf(previousFingerprints[j], mask);
+            while (this.keys[i] != null) {
+                i = (i + 1) & mask;
+            }
+            this.fingerprints[i] = previousFingerprints[j];
+            this.keys[i] = previousKeys[j];
+            this.models[i] = previousModels[j];
+            this.statistics[i] = previousStatistics[j];
+        }
+    }
+
+    private static int indexOf(long fingerprint, int mask) {
+        return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+    }
+}
@@ -17,6 +17,7 @@
 package io.neba.core.resourcemodels.caching;
 
 import io.neba.core.resourcemodels.metadata.ResourceModelMetaDataRegistrar;
+import io.neba.core.resourcemodels.metadata.ResourceModelStatistics;
 import io.neba.core.util.Key;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.request.RequestPathInfo;
@@ -44,7 +45,9 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
-import static java.util.Optional.ofNullable;
+import static io.neba.core.resourcemodels.caching.RequestCacheStore.NULL_MODEL;
+import static java.lang.String.format;
+import static java.util.Optional.empty;
 import static org.apache.commons.lang3.StringUtils.substringBefore;
 import static org.osgi.framework.Constants.SERVICE_RANKING;
 import static org.osgi.framework.Constants.SERVICE_VENDOR;
@@ -67,8 +70,7 @@ import static org.osgi.framework.Constants.SERVICE_VENDOR;
 )
 @Designate(ocd = RequestScopedResourceModelCache.Configuration.class)
 public class RequestScopedResourceModelCache implements Filter {
-    private final ThreadLocal<Map<Key, Optional<?>>> cacheHolder = new ThreadLocal<>();
-    private final ThreadLocal<SlingHttpServletRequest> requestHolder = new ThreadLocal<>();
+    private final ThreadLocal<RequestState> requestStateHolder = new ThreadLocal<>();
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
     @Reference
@@ -102,24 +104,23 @@ public class RequestScopedResourceModelCache implements Filter {
             return null;
         }
 
-        Map<Key, Optional<?>> cache = this.cacheHolder.get();
-        if (cache == null) {
+        RequestState requestState = this.requestStateHolder.get();
+        if (requestState == null) {
             this.logger.debug("No cache found, the cache will not be used.");
             return null;
         }
 
-        final Optional<T> lookupResult;
-        if (this.configuration.safeMode()) {
-            lookupResult = (Optional<T>) cache.get(createSafeModeKey(resource, key));
-        } else {
-            lookupResult = (Optional<T>) cache.get(createKey(resource, key));
+        final Object model = requestState.cache.get(createKey(resource, key, requestState));
+
+        if (model == null) {
+            return null;
         }
 
-        if (lookupResult != null && lookupResult.isPresent()) {
-            metaDataRegistrar.get(lookupResult.get().getClass()).getStatistics().countCacheHit();
+        if (model == NULL_MODEL) {
+            return empty();
         }
 
-        return lookupResult;
+        return Optional.of((T) model);
     }
 
     /**
@@ -140,20 +141,15 @@ public class RequestScopedResourceModelCache implements Filter {
             return;
         }
 
-        Map<Key, Optional<?>> cache = this.cacheHolder.get();
-        if (cache == null) {
+        RequestState requestState = this.requestStateHolder.get();
+        if (requestState == null) {
             this.logger.debug("No cache found, the cache will not be used.");
             return;
         }
 
-        final Optional<?> storedValue = ofNullable(model);
-
-        if (this.configuration.safeMode()) {
-            cache.put(createSafeModeKey(resource, key), storedValue);
-            return;
-        }
-
-        cache.put(createKey(resource, key), storedValue);
+        // Resolve the model statistics once when caching the model rather than upon each cache hit.
+        final ResourceModelStatistics statistics = model == null ? null : this.metaDataRegistrar.get(model.getClass()).getStatistics();
+        requestState.cache.put(createKey(resource, key, requestState), model, statistics);
     }
 
     /**
@@ -171,17 +167,25 @@ public class RequestScopedResourceModelCache implements Filter {
         }
 
         final SlingHttpServletRequest slingHttpServletRequest = (SlingHttpServletRequest) request;
-        this.requestHolder.set(slingHttpServletRequest);
-        this.cacheHolder.set(new HashMap<>(256));
+        final RequestState requestState = new RequestState(slingHttpServletRequest);
+        this.requestStateHolder.set(requestState);
 
         try {
             chain.doFilter(slingHttpServletRequest, response);
         } finally {
-            this.cacheHolder.remove();
-            this.requestHolder.remove();
+            this.requestStateHolder.remove();
+            logStatistics(slingHttpServletRequest, requestState.cache);
         }
     }
 
+    private void logStatistics(@Nonnull SlingHttpServletRequest request, @Nonnull RequestCacheStore cache) {
+        if (!this.logger.isDebugEnabled()) {
+            return;
+        }
+        this.logger.debug("Cached {} models for request {}, {} of {} lookups were cache hits (hit ratio {}).",
+                cache.size(), request.getRequestURI(), cache.getHits(), cache.getLookups(), format("%.2f", cache.getHitRatio()));
+    }
+
     @Override
     public void init(FilterConfig filterConfig) {
         // ignore
@@ -192,50 +196,21 @@ public class RequestScopedResourceModelCache implements Filter {
         // ignore
     }
 
-    /**
-     * The provided key may be wrapped to add more key elements in order
-     * to restrict the cached object's scope to a specific component when safe mode is enabled.
-     *
-     * @return A request-state sensitive key if the cached if the current thread is a HTTP request, the original key if not.
-     * @see #createKey(Resource, Key)
-     */
-    @Nonnull
-    private Key createSafeModeKey(@Nonnull Resource resource, @Nonnull Key key) {
-        // Create a request-state sensitive key to scope the cached model to a request with specific parameters.
-        final SlingHttpServletRequest request = this.requestHolder.get();
-
-        if (request == null) {
-            return key;
-        }
-
-        final RequestPathInfo requestPathInfo = request.getRequestPathInfo();
-        return new Key(
-                resource.getPath(),
-                key,
-                resource.getResourceType(),
-                identityOf(resource.getResourceResolver()),
-
-                substringBefore(requestPathInfo.getResourcePath(), "/jcr:content"),
-                requestPathInfo.getSelectorString(),
-                requestPathInfo.getExtension(),
-                requestPathInfo.getSuffix(),
-                request.getQueryString());
-    }
-
     /**
      * Create a key by combining the given key with standardized resource information.
      * Here, it is essential to  not only include the resource path but also the resource type, since the same resource path might be
      * included (synthetic resources...) with different resource types, and the resource resolver identity, since different resource resolvers
      * may be used within the same request and they might feature different views on resource trees, e.g. through deviating privileges.
+     * In safe mode, the key is additionally scoped to the {@link RequestState#fingerprint() current request state}.
      */
     @Nonnull
-    private static Key createKey(@Nonnull Resource resource, @Nonnull Key key) {
-        return new Key(
+    private CacheKey createKey(@Nonnull Resource resource, @Nonnull Key key, @Nonnull RequestState requestState) {
+        return new CacheKey(
                 resource.getPath(),
-                key,
                 resource.getResourceType(),
-                identityOf(resource.getResourceResolver())
-        );
+                identityOf(resource.getResourceResolver()),
+                key,
+                this.configuration.safeMode() ? requestState.fingerprint() : null);
     }
 
     /**
@@ -253,6 +228,73 @@ public class RequestScopedResourceModelCache implements Filter {
         return resourceResolver;
     }
 
+    /**
+     * The cache and request of the current thread. In safe mode, cached models are scoped to a fingerprint of the
+     * request state (requested page, selectors, extension, suffix and query string). Computing this fingerprint is
+     * comparatively expensive, thus it is only re-computed if the request state changed, e.g. during
+     * includes or forwards. Fingerprints are interned to allow comparing them by identity.
+     */
+    private static class RequestState {
+        private final RequestCacheStore cache = new RequestCacheStore();
+        private final SlingHttpServletRequest request;
+        private Map<Key, Key> fingerprints;
+
+        // The request state the current fingerprint was computed from.
+        private String resourcePath;
+        private String selectorString;
+        private String extension;
+        private String suffix;
+        private String queryString;
+        private Key fingerprint;
+
+        RequestState(@Nonnull SlingHttpServletRequest request) {
+            this.request = request;
+        }
+
+        /**
+         * @return the interned fingerprint of the current request state. Never <code>null</code>.
+         */
+        @Nonnull
+        Key fingerprint() {
+            final RequestPathInfo requestPathInfo = this.request.getRequestPathInfo();
+            final String resourcePath = requestPathInfo.getResourcePath();
+            final String selectorString = requestPathInfo.getSelectorString();
+            final String extension = requestPathInfo.getExtension();
+            final String suffix = requestPathInfo.getSuffix();
+            final String queryString = this.request.getQueryString();
+
+            // The request path info returns the same string instances as long as the request state does not change.
+            if (this.fingerprint != null &&
+                    resourcePath == this.resourcePath &&
+                    selectorString == this.selectorString &&
+                    extension == this.extension &&
+                    suffix == this.suffix &&
+                    queryString == this.queryString) {
+                return this.fingerprint;
+            }
+
+            this.resourcePath = resourcePath;
+            this.selectorString = selectorString;
+            this.extension = extension;
+            this.suffix = suffix;
+            this.queryString = queryString;
+
+            final Key fingerprint = new Key(
+                    substringBefore(resourcePath, "/jcr:content"),
+                    selectorString,
+                    extension,
+                    suffix,
+                    queryString);
+
+            if (this.fingerprints == null) {
+                this.fingerprints = new HashMap<>(8);
+            }
+
+            this.fingerprint = this.fingerprints.computeIfAbsent(fingerprint, k -> k);
+            return this.fingerprint;
+        }
+    }
+
     @ObjectClassDefinition(name = "NEBA request-scoped resource model cache", description = "Provides a request-scoped resource model cache")
     public @interface Configuration {
         @AttributeDefinition(
@@ -266,8 +308,8 @@ public class RequestScopedResourceModelCache implements Filter {
                         "such as selectors, suffix, extension and the query string. Should @ResourceModels erroneously cache such state, " +
                         "e.g. by initializing the corresponding value once in a @AfterMapping method, safemode prevents errors caused " +
                         "when performing subsequent internal changes to the request state (e.g. during forwards and includes). Note that " +
-                        "enabling this feature is likely to a significant negative performance impact. It is highly recommended to disable " +
-                        "safemode in favor of safe-to-cache @ResourceModels.")
+                        "enabling this feature reduces the effectiveness of the cache, as models are only re-used within the same request state. " +
+                        "It is recommended to disable safemode in favor of safe-to-cache @ResourceModels.")
         boolean safeMode() default false;
     }
 }
@@ -26,6 +26,8 @@ import java.lang.reflect.Field;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static org.apache.commons.lang3.ClassUtils.primitiveToWrapper;
 import static org.osgi.service.component.annotations.ReferenceCardinality.MULTIPLE;
@@ -63,7 +65,11 @@ public class AnnotatedFieldMappers {
         }
     }
 
-    private final ConcurrentDistinctMultiValueMap<Field, AnnotationMapping<?, ?>> cache = new ConcurrentDistinctMultiValueMap<>();
+    private static final AnnotationMapping<?, ?>[] NO_MAPPINGS = new AnnotationMapping<?, ?>[0];
+
+    // The compatible mappers of each field are resolved once into an immutable array. The cache is replaced
+    // rather than cleared when mappers change, such that ongoing lookups using the previous mappers do not populate the new cache.
+    private volatile Map<Field, AnnotationMapping<?, ?>[]> cache = new ConcurrentHashMap<>(256);
     private final ConcurrentDistinctMultiValueMap<Class<? extends Annotation>, AnnotatedFieldMapper<?, ?>> fieldMappers = new ConcurrentDistinctMultiValueMap<>();
 
     @Reference(cardinality = MULTIPLE, policy = DYNAMIC, unbind = "unbind")
@@ -72,7 +78,7 @@ public class AnnotatedFieldMappers {
             throw new IllegalArgumentException("Method argument mapper must not be null.");
         }
         this.fieldMappers.put(mapper.getAnnotationType(), mapper);
-        this.cache.clear();
+        this.cache = new ConcurrentHashMap<>(256);
     }
 
     /**
@@ -83,29 +89,35 @@ public class AnnotatedFieldMappers {
             return;
         }
         this.fieldMappers.removeValue(mapper);
-        this.cache.clear();
+        this.cache = new ConcurrentHashMap<>(256);
     }
 
     /**
      * @param metaData must not be <code>null</code>.
-     * @return never <code>null</code> but rather an empty collection.
+     * @return never <code>null</code> but rather an empty array. The returned array is shared and must not be modified.
      */
-    public Collection<AnnotationMapping<?, ?>> get(MappedFieldMetaData metaData) {
+    public AnnotationMapping<?, ?>[] get(MappedFieldMetaData metaData) {
         if (metaData == null) {
             throw new IllegalArgumentException("Method argument metaData must not be null.");
         }
 
-        Collection<AnnotationMapping<?, ?>> mappers = this.cache.get(metaData.getField());
+        // Fast path: No custom mappers exist.
+        if (this.fieldMappers.isEmpty()) {
+            return NO_MAPPINGS;
+        }
+
+        final Map<Field, AnnotationMapping<?, ?>[]> cache = this.cache;
+        AnnotationMapping<?, ?>[] mappings = cache.get(metaData.getField());
 
-        if (mappers != null) {
-            return mappers;
+        if (mappings != null) {
+            return mappings;
         }
 
-        return this.cache.computeIfAbsent(metaData.getField(), key -> resolveCompatibleMappers(metaData));
+        return cache.computeIfAbsent(metaData.getField(), key -> resolveCompatibleMappers(metaData));
     }
 
     @SuppressWarnings({"rawtypes", "unchecked"})
-    private Collection<AnnotationMapping<?, ?>> resolveCompatibleMappers(MappedFieldMetaData metaData) {
+    private AnnotationMapping<?, ?>[] resolveCompatibleMappers(MappedFieldMetaData metaData) {
         List<AnnotationMapping<?, ?>> compatibleMappers = new ArrayList<>();
         for (Annotation annotation : metaData.getAnnotations()) {
             Collection<AnnotatedFieldMapper<?, ?>> mappersForAnnotation = this.fieldMappers.get(annotation.annotationType());
@@ -121,6 +133,6 @@ public class AnnotatedFieldMappers {
                 }
             }
         }
-        return compatibleMappers;
+        return compatibleMappers.isEmpty() ? NO_MAPPINGS : compatibleMappers.toArray(NO_MAPPINGS);
     }
 }
@@ -21,6 +21,7 @@ import io.neba.api.spi.AnnotatedFieldMapper;
 import io.neba.api.spi.ResourceModelFactory;
 import io.neba.core.resourcemodels.metadata.MappedFieldMetaData;
 import io.neba.core.util.PrimitiveAndEnumSupportingValueMap;
+import io.neba.core.util.PropertyConverters.PropertyConverter;
 import io.neba.core.util.ReflectionUtil;
 import io.neba.core.util.ResourcePaths;
 import org.apache.sling.api.resource.Resource;
@@ -38,6 +39,7 @@ import java.util.Optional;
 import java.util.concurrent.Callable;
 
 import static io.neba.core.resourcemodels.mapping.AnnotatedFieldMappers.AnnotationMapping;
+import static io.neba.core.util.PropertyConverters.converterFor;
 import static io.neba.core.util.ReflectionUtil.instantiateCollectionType;
 import static io.neba.core.util.StringUtil.appendToAll;
 import static java.util.Optional.ofNullable;
@@ -55,6 +57,7 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 public class FieldValueMappingCallback {
     private final Object model;
     private final ValueMap properties;
+    private ValueMap propertiesOfMappers;
     private final Resource resource;
     private final AnnotatedFieldMappers annotatedFieldMappers;
     private final PlaceholderVariableResolvers placeholderVariableResolvers;
@@ -90,7 +93,7 @@ public class FieldValueMappingCallback {
         }
 
         this.model = model;
-        this.properties = toValueMap(resource);
+        this.properties = resource.adaptTo(ValueMap.class);
         this.resource = resource;
         this.annotatedFieldMappers = mappers;
         this.placeholderVariableResolvers = resolvers;
@@ -176,9 +179,16 @@ public class FieldValueMappingCallback {
      */
     @SuppressWarnings({"unchecked", "rawtypes"})
     private Object applyCustomMappings(FieldData fieldData, final Object value) {
+        final AnnotationMapping<?, ?>[] mappings = this.annotatedFieldMappers.get(fieldData.metaData);
+        if (mappings.length == 0) {
+            return value;
+        }
+
+        // Mappers must not retain the ongoing mapping, thus it is re-used for all mappers of the field.
+        final OngoingFieldMapping ongoingMapping = new OngoingFieldMapping(this.model, fieldData, this.resource, getPropertiesOfMappers());
         Object result = value;
-        for (final AnnotationMapping<?, ?> mapping : this.annotatedFieldMappers.get(fieldData.metaData)) {
-            result = mapping.getMapper().map(new OngoingFieldMapping(this.model, result, mapping, fieldData, this.resource, this.properties));
+        for (final AnnotationMapping<?, ?> mapping : mappings) {
+            result = mapping.getMapper().map(ongoingMapping.with(result, mapping));
         }
         return result;
     }
@@ -368,6 +378,12 @@ public class FieldValueMappingCallback {
      * @return the resolved value, or <code>null</code>.
      */
     private Object resolvePropertyTypedValue(FieldData field) {
+        final PropertyConverter converter = field.metaData.getPropertyConverter();
+        if (converter != null && !field.isAbsolute() && !field.isRelative()) {
+            // The conversion was prepared with the metadata of the field
+            return converter.convert(getProperties(field), field.path);
+        }
+
         Object value;
         if (field.metaData.isInstantiableCollectionType()) {
             value = getArrayPropertyAsCollection(field);
@@ -388,15 +404,20 @@ public class FieldValueMappingCallback {
      *
      * @return the resolved value, or <code>null</code>.
      */
+    @SuppressWarnings("unchecked")
     private <T> T resolvePropertyTypedValue(FieldData field, Class<T> propertyType) {
         if (field.isAbsolute() || field.isRelative()) {
             return resolvePropertyTypedValueFromForeignResource(field, propertyType);
         }
+        return (T) converterFor(propertyType).convert(getProperties(field), field.path);
+    }
+
+    private ValueMap getProperties(FieldData field) {
         if (this.properties == null) {
             throw new IllegalStateException("Tried to map the property " + field +
                     " even though the resource has no properties.");
         }
-        return this.properties.get(field.path, propertyType);
+        return this.properties;
     }
 
     /**
@@ -420,6 +441,7 @@ public class FieldValueMappingCallback {
      *
      * @return the resolved value, or <code>null</code>.
      */
+    @SuppressWarnings("unchecked")
     private <T> T resolvePropertyTypedValueFromForeignResource(FieldData field, Class<T> propertyType) {
         Resource property = this.resource.getResourceResolver().getResource(this.resource, field.path);
         if (property == null) {
@@ -442,7 +464,7 @@ public class FieldValueMappingCallback {
             return null;
         }
 
-        return new PrimitiveAndEnumSupportingValueMap(properties).get(property.getName(), propertyType);
+        return (T) converterFor(propertyType).convert(properties, property.getName());
     }
 
     /**
@@ -473,7 +495,7 @@ public class FieldValueMappingCallback {
      */
     private String evaluateFieldPath(MappedFieldMetaData fieldMetaData) {
         ResourcePaths.ResourcePath path = fieldMetaData.getPath();
-        return (path.hasPlaceholders() ? path.resolve(this.placeholderVariableResolvers::resolve) : path).getPath();
+        return path.hasPlaceholders() ? this.placeholderVariableResolvers.resolve(path) : path.getPath();
     }
 
     /**
@@ -487,18 +509,18 @@ public class FieldValueMappingCallback {
     }
 
     /**
-     * Provides the properties of the resource as a {@link PrimitiveAndEnumSupportingValueMap}.
+     * Provides the properties of the resource as a {@link PrimitiveAndEnumSupportingValueMap} to
+     * {@link AnnotatedFieldMapper custom field mappers}. The value map is only created if a custom mapper is applied, as
+     * the properties of fields are converted using the {@link MappedFieldMetaData#getPropertyConverter() prepared converters}.
      *
-     * @param resource must not be <code>null</code>.
      * @return the value map, or <code>null</code> if the resource has no properties,
      * e.g. if it is synthetic.
      */
-    private static ValueMap toValueMap(Resource resource) {
-        ValueMap propertyMap = resource.adaptTo(ValueMap.class);
-        if (propertyMap != null) {
-            propertyMap = new PrimitiveAndEnumSupportingValueMap(propertyMap);
+    private ValueMap getPropertiesOfMappers() {
+        if (this.propertiesOfMappers == null && this.properties != null) {
+            this.propertiesOfMappers = new PrimitiveAndEnumSupportingValueMap(this.properties);
         }
-        return propertyMap;
+        return this.propertiesOfMappers;
     }
 
     private Object getField(FieldData fieldData) {
@@ -577,7 +599,10 @@ public class FieldValueMappingCallback {
     }
 
     /**
-     * Implements explicit lazy-loading via {@link io.neba.api.resourcemodels.Lazy}.
+     * Implements explicit lazy-loading via {@link io.neba.api.resourcemodels.Lazy}. Loading the value requires the entire
+     * context of the mapping, e.g. to apply {@link AnnotatedFieldMapper custom mappers}, thus the
+     * {@link FieldValueMappingCallback} is retained until the value is loaded. Afterwards, it is released such that
+     * models retaining lazy fields do not keep the mapped resource and its properties reachable.
      *
      * @author Olaf Otto
      */
@@ -592,10 +617,11 @@ public class FieldValueMappingCallback {
 
         private static final Object NULL = new Object();
 
-        private final FieldData fieldData;
-        private final FieldValueMappingCallback callback;
+        private FieldData fieldData;
+        private FieldValueMappingCallback callback;
 
-        private Object value = NULL;
+        // Safely publishes the loaded value, which may be null.
+        private volatile Object value = NULL;
 
         LazyFieldValue(FieldData fieldData, FieldValueMappingCallback callback) {
             this.fieldData = fieldData;
@@ -608,26 +634,33 @@ public class FieldValueMappingCallback {
         @Override
         @Nonnull
         public java.util.Optional<Object> asOptional() {
-            if (this.value == NULL) {
-                load();
+            Object value = this.value;
+            if (value == NULL) {
+                value = load();
             }
-            return ofNullable(this.value);
+            return ofNullable(value);
         }
 
         /**
          * The semantics of the value holder must adhere to the semantics of a non-lazy-loaded field value:
          * The value is loaded exactly once, subsequent or concurrent access to the field value means accessing the
-         * same value. Thus, the value is retained and this method is thread-safe.
+         * same value. Thus, the value is retained and this method is thread-safe. Once loaded, the value is
+         * read without locking.
          */
-        private synchronized void load() {
-            if (this.value == NULL) {
-                this.value = this.callback.resumeMapping(this.fieldData);
+        private synchronized Object load() {
+            Object value = this.value;
+            if (value == NULL) {
+                value = this.callback.resumeMapping(this.fieldData);
+                this.callback = null;
+                this.fieldData = null;
+                this.value = value;
             }
+            return value;
         }
     }
 
     /**
-     * Lazy-loads collections of children.
+     * Lazy-loads collections of children. Is released by the lazy loading proxy once the children are loaded.
      *
      * @author Olaf Otto
      * @see #resolveChildren(FieldData)
@@ -649,7 +682,7 @@ public class FieldValueMappingCallback {
     }
 
     /**
-     * Lazy-loads collections of references.
+     * Lazy-loads collections of references. Is released by the lazy loading proxy once the references are loaded.
      *
      * @author Olaf Otto
      * @see #createCollectionOfReferences(io.neba.core.resourcemodels.mapping.FieldValueMappingCallback.FieldData, String[])
@@ -676,30 +709,37 @@ public class FieldValueMappingCallback {
      * @author Olaf Otto
      */
     private static class OngoingFieldMapping<FieldType, AnnotationType extends Annotation> implements AnnotatedFieldMapper.OngoingMapping<FieldType, AnnotationType> {
-        private final FieldType resolvedValue;
-        private final AnnotationMapping<FieldType, AnnotationType> mapping;
         private final FieldData fieldData;
         private final Object model;
         private final Resource resource;
         private final ValueMap properties;
         private final MappedFieldMetaData metaData;
+        private FieldType resolvedValue;
+        private AnnotationMapping<FieldType, AnnotationType> mapping;
 
         OngoingFieldMapping(Object model,
-                            FieldType resolvedValue,
-                            AnnotationMapping<FieldType, AnnotationType> mapping,
                             FieldData fieldData,
                             Resource resource,
                             ValueMap properties) {
 
             this.model = model;
-            this.resolvedValue = resolvedValue;
-            this.mapping = mapping;
             this.metaData = fieldData.metaData;
             this.fieldData = fieldData;
             this.resource = resource;
             this.properties = properties;
         }
 
+        /**
+         * Prepares this instance for the invocation of the next mapper.
+         *
+         * @return this instance.
+         */
+        OngoingFieldMapping<FieldType, AnnotationType> with(FieldType resolvedValue, AnnotationMapping<FieldType, AnnotationType> mapping) {
+            this.resolvedValue = resolvedValue;
+            this.mapping = mapping;
+            return this;
+        }
+
         @CheckForNull
         @Override
         public FieldType getResolvedValue() {
@@ -88,8 +88,10 @@ public class Mapping<T> {
         if (o == null || getClass() != o.getClass()) return false;
 
         Mapping<?> mapping = (Mapping<?>) o;
-        return srcPath.equals(mapping.srcPath) &&
-                metadata.equals(mapping.metadata);
+        // Metadata instances are unique per model type and thus compared by identity.
+        return hashCode == mapping.hashCode &&
+                metadata == mapping.metadata &&
+                srcPath.equals(mapping.srcPath);
     }
 
     @Override
@@ -22,30 +22,37 @@ import org.osgi.service.component.annotations.Component;
 import javax.annotation.CheckForNull;
 import java.util.EmptyStackException;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
-import static java.lang.ThreadLocal.withInitial;
+import static java.lang.System.identityHashCode;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
 
 
 /**
  * Provides thread-local tracking of mapping invocations in order to support cycles in mappings
  * and gather statistical data regarding mapping depths of
  * {@link io.neba.api.annotations.ResourceModel resource models}.
+ * <br />
+ * Nested mappings occur for virtually every resource model of a component tree, thus the tracking is designed
+ * not to allocate any objects while mappings are ongoing: The outermost mapping is held in fields and nested mappings
+ * in arrays, mappings and resource model metadata are compared by identity wherever possible and the number of ongoing
+ * mappings per resource model is kept in an open-addressing table. The thread-local {@link MappingStack} is removed once
+ * it is empty and no mappings are recorded, such that pooled threads do not retain models, metadata or
+ * classes of this bundle. Thus, a mapping that is not nested only allocates the small {@link MappingStack} itself.
  *
  * @author Olaf Otto
  */
 @Component(service = NestedMappingSupport.class)
 @SuppressWarnings("rawtypes")
 public class NestedMappingSupport {
-    // Recording meta information of occurred mappings requires tracking resource to object mappings that may
-    // span multiple successive independent mappings, e.g. in case of lazy loading. the recorded meta data
-    // thus requires its own scope.
-    private final ThreadLocal<Map<Object, Mapping<?>>> recordedMappings = new ThreadLocal<>();
-
-    // Recursive mappings always occurs within the same thread. This thread locale tracks the respective
-    // mapping stack.
-    private final ThreadLocal<MappingStack> mappingStack = withInitial(() -> new MappingStack(recordedMappings.get()));
+    // Recursive mappings always occurs within the same thread. This thread local tracks the respective
+    // mapping stack. Recording meta information of occurred mappings requires tracking resource to object mappings that may
+    // span multiple successive independent mappings, e.g. in case of lazy loading. The recorded meta data is thus
+    // held by the stack as well, but survives emptying the stack.
+    private final ThreadLocal<MappingStack> mappingStack = new ThreadLocal<>();
 
     /**
      * Contract: When invoked and <code>null</code> is returned,
@@ -61,7 +68,7 @@ public class NestedMappingSupport {
         if (mapping == null) {
             throw new IllegalArgumentException("Method argument mapping must not be null");
         }
-        MappingStack mappingStack = this.mappingStack.get();
+        MappingStack mappingStack = getOrCreateMappingStack();
         Mapping<T> alreadyExistingMapping = mappingStack.get(mapping);
         if (alreadyExistingMapping == null) {
             mappingStack.push(mapping);
@@ -74,47 +81,60 @@ public class NestedMappingSupport {
      * Recorded mappings are available via {@link #getRecordedMappings()}.
      */
     public void beginRecordingMappings() {
-        this.recordedMappings.set(new HashMap<>(128));
+        getOrCreateMappingStack().recordedMappings = new HashMap<>(128);
     }
 
     /**
      * @return the currently {@link #beginRecordingMappings() recorded mappings}, or <code>null</code>.
      */
     @CheckForNull
-    public Map<Object, Mapping<?>> getRecordedMappings(){
-        return this.recordedMappings.get();
+    public Map<Object, Mapping<?>> getRecordedMappings() {
+        MappingStack mappingStack = this.mappingStack.get();
+        return mappingStack == null ? null : mappingStack.recordedMappings;
     }
 
     /**
      * Ends recording mappings for this thread and removes all recorded mappings.
      */
     public void endRecordingMappings() {
-        this.recordedMappings.remove();
+        MappingStack mappingStack = this.mappingStack.get();
+        if (mappingStack == null) {
+            return;
+        }
+        mappingStack.recordedMappings = null;
+        if (mappingStack.isEmpty()) {
+            this.mappingStack.remove();
+        }
     }
 
     /**
-     * Ends a mapping that was {@link #push(Mapping) begun}. Removes thread-local tracking once the mapping stack is empty.
+     * Ends a mapping that was {@link #push(Mapping) begun}. Removes thread-local tracking once the mapping stack
+     * is empty, unless mappings are {@link #beginRecordingMappings() recorded}.
      */
     void pop() {
         MappingStack mappingStack = this.mappingStack.get();
-        if (mappingStack.pop() == 0) {
+        if (mappingStack == null) {
+            throw new EmptyStackException();
+        }
+        if (mappingStack.pop() == 0 && mappingStack.recordedMappings == null) {
             this.mappingStack.remove();
         }
     }
 
     /**
-     * @return An unsafe view of the ongoing mappings. Modifications to the returned set will modify
-     * the state of this instance. Never null.
+     * @return A snapshot of the ongoing mappings, starting with the outermost mapping. Never null.
      */
     Iterable<Mapping> getMappingStack() {
-        return this.mappingStack.get().getMappings();
+        MappingStack mappingStack = this.mappingStack.get();
+        return mappingStack == null ? emptyList() : mappingStack.getMappings();
     }
 
     /**
      * @return The mapping that was last {@link #push(Mapping) pushed} and not yet {@link #pop() popped}.
      */
     Mapping<?> peek() {
-        return this.mappingStack.get().peek();
+        MappingStack mappingStack = this.mappingStack.get();
+        return mappingStack == null ? null : mappingStack.peek();
     }
 
     /**
@@ -126,114 +146,225 @@ public class NestedMappingSupport {
         if (metadata == null) {
             throw new IllegalArgumentException("Method argument metadata must not be null");
         }
-        return this.mappingStack.get().contains(metadata);
+        MappingStack mappingStack = this.mappingStack.get();
+        return mappingStack != null && mappingStack.contains(metadata);
+    }
+
+    private MappingStack getOrCreateMappingStack() {
+        MappingStack mappingStack = this.mappingStack.get();
+        if (mappingStack == null) {
+            mappingStack = new MappingStack();
+            this.mappingStack.set(mappingStack);
+        }
+        return mappingStack;
     }
 
     /**
-     * Represents the stack of the currently ongoing mappings.
+     * Represents the stack of the currently ongoing mappings of a thread. Most mappings are not nested, e.g. the mapping
+     * of a component's model, thus the outermost mapping is held in fields and the arrays tracking nested mappings
+     * are only allocated once a mapping is nested. All operations except for allocating or growing these arrays
+     * are allocation-free.
      *
      * @author Olaf Otto
      */
     private static class MappingStack {
-        // Contains the stack view of the nested mappings
-        private final Map<Mapping, Mapping> stack = new LinkedHashMap<>(8);
-        // Contains the occurrence count of each resource model metadata (model type) currently in the stack
-        private final Map<ResourceModelMetaData, Count> metaData = new HashMap<>(8);
-        // If not null, contains all completed mappings.
-        private final Map<Object, Mapping<?>> recordedMappings;
-
-        private Entry<?> tail = null;
+        private static final int INITIAL_DEPTH = 16;
+        private static final int INITIAL_METADATA_CAPACITY = 16;
+
+        // The outermost mapping, its hash code and resource model metadata.
+        private Mapping root;
+        private int rootHashCode;
+        private ResourceModelMetaData rootMetadata;
+
+        // Contains the stack of the nested mappings (excluding the root) and their hash codes, the latter allowing
+        // a cheap linear scan for an equal ongoing mapping. Allocated upon the first nested mapping.
+        private Mapping[] mappings;
+        private int[] hashCodes;
+        private int depth = 0;
+
+        // An open-addressing (linear probing) table of the resource model metadata (model types) of the nested mappings
+        // and their respective occurrence count. Keys are never removed while mappings are ongoing -
+        // a count of zero means that there is no ongoing nested mapping for the model - but the entire table is cleared
+        // once the stack is empty. Allocated upon the first nested mapping.
+        private ResourceModelMetaData[] metadata;
+        private int[] counts;
+        private int numberOfMetadata = 0;
 
-        MappingStack(Map<Object, Mapping<?>> recordedMappings) {
-            this.recordedMappings = recordedMappings;
-        }
+        // If not null, contains all completed mappings.
+        private Map<Object, Mapping<?>> recordedMappings;
 
         <T> void push(Mapping<T> mapping) {
-            this.tail = new Entry<>(mapping, this.tail);
-            // We are keeping an occurrence count in order to only remove resource model metadata
-            // if no mapping for the corresponding resource model is left on the stack.
-            Count occurrenceCount = new Count();
-            Count previousCount = this.metaData.put(mapping.getMetadata(), occurrenceCount);
-            if (previousCount != null) {
-                occurrenceCount.add(previousCount);
+            if (this.depth == 0) {
+                this.root = mapping;
+                this.rootHashCode = mapping.hashCode();
+                this.rootMetadata = mapping.getMetadata();
+                this.depth = 1;
+                return;
             }
-            this.stack.put(mapping, mapping);
+
+            final int index = this.depth - 1;
+            if (this.mappings == null) {
+                this.mappings = new Mapping[INITIAL_DEPTH];
+                this.hashCodes = new int[INITIAL_DEPTH];
+                this.metadata = new ResourceModelMetaData[INITIAL_METADATA_CAPACITY];
+                this.counts = new int[INITIAL_METADATA_CAPACITY];
+            } else if (index == this.mappings.length) {
+                this.mappings = copyOf(this.mappings, index << 1);
+                this.hashCodes = copyOf(this.hashCodes, index << 1);
+            }
+            this.mappings[index] = mapping;
+            this.hashCodes[index] = mapping.hashCode();
+            ++this.depth;
+
+            // We are keeping an occurrence count in order to only consider resource model metadata
+            // as ongoing if a mapping for the corresponding resource model is left on the stack.
+            // The slot must be determined prior to accessing the counts as it may resize the table.
+            final int slot = slotOf(mapping.getMetadata());
+            ++this.counts[slot];
         }
 
         /**
-         * Removes the last {@link #push(Mapping) pused mapping} form the stack.
+         * Removes the last {@link #push(Mapping) pushed mapping} from the stack.
          *
          * @return the stack depth after removing the mapping.
          */
         int pop() {
-            if (tail == null) {
+            if (this.depth == 0) {
                 throw new EmptyStackException();
             }
-            this.stack.remove(this.tail.mapping);
 
-            final ResourceModelMetaData metadata = this.tail.mapping.getMetadata();
-            Count count = this.metaData.remove(metadata);
-            if (count.decrement() != 0) {
-                this.metaData.put(metadata, count);
+            final Mapping<?> mapping;
+            if (this.depth == 1) {
+                mapping = this.root;
+                this.root = null;
+                this.rootMetadata = null;
+                clearMetadata();
+            } else {
+                final int index = this.depth - 2;
+                mapping = this.mappings[index];
+                this.mappings[index] = null;
+                final int slot = slotOf(mapping.getMetadata());
+                --this.counts[slot];
             }
+            --this.depth;
 
-            if (recordedMappings != null) {
-                this.recordedMappings.put(this.tail.mapping.getMappedModel(), this.tail.mapping);
+            if (this.recordedMappings != null) {
+                this.recordedMappings.put(mapping.getMappedModel(), mapping);
             }
 
-            tail = tail.previous;
+            return this.depth;
+        }
 
-            return stack.size();
+        boolean isEmpty() {
+            return this.depth == 0;
         }
 
         Mapping<?> peek() {
-            return tail == null ? null : tail.mapping;
+            if (this.depth == 0) {
+                return null;
+            }
+            return this.depth == 1 ? this.root : this.mappings[this.depth - 2];
         }
 
         @SuppressWarnings("unchecked")
         <T> Mapping<T> get(Mapping<?> mapping) {
-            return this.stack.get(mapping);
+            if (this.depth == 0) {
+                return null;
+            }
+            final int hashCode = mapping.hashCode();
+            for (int i = this.depth - 2; i >= 0; --i) {
+                if (this.hashCodes[i] == hashCode && (this.mappings[i] == mapping || this.mappings[i].equals(mapping))) {
+                    return this.mappings[i];
+                }
+            }
+            if (this.rootHashCode == hashCode && (this.root == mapping || this.root.equals(mapping))) {
+                return this.root;
+            }
+            return null;
         }
 
         Iterable<Mapping> getMappings() {
-            return this.stack.keySet();
+            if (this.depth == 0) {
+                return emptyList();
+            }
+            final Mapping[] mappings = new Mapping[this.depth];
+            mappings[0] = this.root;
+            if (this.depth > 1) {
+                System.arraycopy(this.mappings, 0, mappings, 1, this.depth - 1);
+            }
+            return asList(mappings);
         }
 
         boolean contains(ResourceModelMetaData metadata) {
-            return this.metaData.containsKey(metadata);
+            if (this.depth == 0) {
+                return false;
+            }
+            if (this.rootMetadata == metadata) {
+                return true;
+            }
+            if (this.metadata == null) {
+                return false;
+            }
+            final int mask = this.metadata.length - 1;
+            for (int i = identityHashCode(metadata) & mask; this.metadata[i] != null; i = (i + 1) & mask) {
+                if (this.metadata[i] == metadata) {
+                    return this.counts[i] != 0;
+                }
+            }
+            return false;
         }
 
         /**
-         * A backwards-linked map entry representing a mapping and its predecessor in the stack.
-         * This is mostly because there is no decent stack datastructure in standard java
-         * that combines Stack-Semantics with Set Semantics (Linear iterations, get by position and constant-time contains operations).
+         * @return the index of the given metadata in the open-addressing table, adding the metadata
+         * with a count of zero if it is not yet contained.
          */
-        private static class Entry<T> {
-            private final Mapping<T> mapping;
-            private Entry<?> previous;
+        private int slotOf(ResourceModelMetaData metadata) {
+            int mask = this.metadata.length - 1;
+            int i = identityHashCode(metadata) & mask;
+            for (; this.metadata[i] != null; i = (i + 1) & mask) {
+                if (this.metadata[i] == metadata) {
+                    return i;
+                }
+            }
 
-            private Entry(Mapping<T> mapping, Entry<?> previous) {
-                this.mapping = mapping;
-                this.previous = previous;
+            // Keep the load factor at or below 1/2 to keep probe sequences short.
+            if ((this.numberOfMetadata + 1) << 1 > this.metadata.length) {
+                resizeMetadata();
+                return slotOf(metadata);
             }
-        }
 
-        /**
-         * A mutable key occurrence count in a map.
-         *
-         * @author Olaf Otto
-         */
-        private static class Count {
-            private int i = 1;
+            this.metadata[i] = metadata;
+            ++this.numberOfMetadata;
+            return i;
+        }
 
-            public void add(Count other) {
-                i += other.i;
+        private void resizeMetadata() {
+            final ResourceModelMetaData[] previousMetadata = this.metadata;
+            final int[] previousCounts = this.counts;
+            this.metadata = new ResourceModelMetaData[previousMetadata.length << 1];
+            this.counts = new int[previousMetadata.length << 1];
+
+            final int mask = this.metadata.length - 1;
+            for (int j = 0; j < previousMetadata.length; ++j) {
+                if (previousMetadata[j] == null) {
+                    continue;
+                }
+                int i = identityHashCode(previousMetadata[j]) & mask;
+                while (this.metadata[i] != null) {
+                    i = (i + 1) & mask;
+                }
+                this.metadata[i] = previousMetadata[j];
+                this.counts[i] = previousCounts[j];
             }
+        }
 
-            int decrement() {
-                --i;
-                return i;
+        private void clearMetadata() {
+            if (this.numberOfMetadata == 0) {
+                return;
             }
+            fill(this.metadata, null);
+            fill(this.counts, 0);
+            this.numberOfMetadata = 0;
         }
     }
 }
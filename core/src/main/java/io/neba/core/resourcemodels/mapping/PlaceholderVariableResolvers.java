@@ -1,61 +1,208 @@
 package io.neba.core.resourcemodels.mapping;
 
 import io.neba.api.spi.PlaceholderVariableResolver;
+import io.neba.api.spi.PlaceholderVariableResolver.Cacheability;
+import io.neba.core.util.ResourcePaths.ResourcePath;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import javax.annotation.Nonnull;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
 
+import static io.neba.api.spi.PlaceholderVariableResolver.Cacheability.NONE;
+import static io.neba.api.spi.PlaceholderVariableResolver.Cacheability.REQUEST;
+import static io.neba.api.spi.PlaceholderVariableResolver.Cacheability.STATIC;
 import static java.lang.System.getProperty;
 import static java.lang.System.getenv;
+import static java.util.Collections.emptyMap;
+import static org.osgi.framework.Constants.SERVICE_RANKING;
+import static org.osgi.framework.Constants.SERVICE_VENDOR;
 import static org.osgi.service.component.annotations.ReferenceCardinality.MULTIPLE;
 import static org.osgi.service.component.annotations.ReferencePolicy.DYNAMIC;
 
 /**
+ * Resolves placeholders of the form <code>${name}</code> in {@link ResourcePath paths} using the registered
+ * {@link PlaceholderVariableResolver placeholder variable resolvers}, environment variables and system properties,
+ * in that order.
+ * <br />
+ * Resolved paths are cached according to the narrowest {@link PlaceholderVariableResolver#getCacheability() cacheability}
+ * of the resolvers consulted for the resolution. Environment variables and system properties are considered
+ * {@link Cacheability#STATIC static}. Paths cacheable for the {@link Cacheability#REQUEST request} are cached
+ * while a request is processed by this filter.
+ *
  * @author Olaf Otto
  */
-@Component(service = PlaceholderVariableResolvers.class)
-public class PlaceholderVariableResolvers {
-    private final Collection<PlaceholderVariableResolver> resolvers = new ArrayList<>();
+@Component(
+        service = {PlaceholderVariableResolvers.class, Filter.class},
+        property = {
+                SERVICE_VENDOR + "=neba.io",
+                "sling.filter.scope=REQUEST",
+                SERVICE_RANKING + ":Integer=9000"
+        }
+)
+public class PlaceholderVariableResolvers implements Filter {
+    // Marks the thread as processing a request until the first request-scoped path is cached.
+    private static final Map<String, String> NO_REQUEST_SCOPED_PATHS = emptyMap();
+
+    private final List<PlaceholderVariableResolver> resolvers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<Map<String, String>> requestScopedPaths = new ThreadLocal<>();
+    // Replaced rather than cleared when resolvers change, such that ongoing resolutions using
+    // the previous resolvers do not populate the new cache.
+    private volatile Map<String, String> staticPaths = new ConcurrentHashMap<>();
+    // Whether any of the resolvers is request-scoped, determined upon the first request after the resolvers change.
+    private volatile Boolean hasRequestScopedResolvers;
 
     @Reference(
             cardinality = MULTIPLE,
             policy = DYNAMIC,
             unbind = "unbind")
-    protected void bind(PlaceholderVariableResolver resolver) {
+    protected synchronized void bind(PlaceholderVariableResolver resolver) {
         this.resolvers.add(resolver);
+        this.staticPaths = new ConcurrentHashMap<>();
+        this.hasRequestScopedResolvers = null;
     }
 
     @SuppressWarnings("unused")
-    protected void unbind(PlaceholderVariableResolver resolver) {
+    protected synchronized void unbind(PlaceholderVariableResolver resolver) {
         if (resolver == null) {
             return;
         }
         this.resolvers.remove(resolver);
+        this.staticPaths = new ConcurrentHashMap<>();
+        this.hasRequestScopedResolvers = null;
+    }
+
+    /**
+     * @param path must not be <code>null</code>.
+     * @return the path with all placeholders resolved. Never <code>null</code>.
+     */
+    @Nonnull
+    String resolve(@Nonnull ResourcePath path) {
+        if (path == null) {
+            throw new IllegalArgumentException("Method argument path must not be null");
+        }
+
+        if (!path.hasPlaceholders()) {
+            return path.getPath();
+        }
+
+        final String unresolvedPath = path.getPath();
+        final Map<String, String> staticPaths = this.staticPaths;
+        String resolvedPath = staticPaths.get(unresolvedPath);
+        if (resolvedPath != null) {
+            return resolvedPath;
+        }
+
+        Map<String, String> requestScopedPaths = this.requestScopedPaths.get();
+        if (requestScopedPaths != null) {
+            resolvedPath = requestScopedPaths.get(unresolvedPath);
+            if (resolvedPath != null) {
+                return resolvedPath;
+            }
+        }
+
+        final Resolution resolution = new Resolution();
+        resolvedPath = path.resolve(resolution).getPath();
+
+        if (resolution.cacheability == STATIC) {
+            staticPaths.put(unresolvedPath, resolvedPath);
+        } else if (resolution.cacheability == REQUEST && requestScopedPaths != null) {
+            if (requestScopedPaths == NO_REQUEST_SCOPED_PATHS) {
+                requestScopedPaths = new HashMap<>();
+                this.requestScopedPaths.set(requestScopedPaths);
+            }
+            requestScopedPaths.put(unresolvedPath, resolvedPath);
+        }
+
+        return resolvedPath;
     }
 
     /**
-     * @param variableName must not be <code>null</code>.
-     * @return the resolved value, or <code>null</code> if no value could be resolved.
+     * Provides a request-scoped cache for resolved paths if any of the resolvers is {@link Cacheability#REQUEST request-scoped}.
+     * The cache is only created once a request-scoped path is resolved.
      */
-    String resolve(String variableName) {
-        if (variableName == null) {
-            throw new IllegalArgumentException("Method argument variableName must not be null");
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!hasRequestScopedResolvers() || this.requestScopedPaths.get() != null) {
+            chain.doFilter(request, response);
+            return;
         }
 
-        for (PlaceholderVariableResolver resolver : resolvers) {
-            String resolved = resolver.resolve(variableName);
+        this.requestScopedPaths.set(NO_REQUEST_SCOPED_PATHS);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            this.requestScopedPaths.remove();
+        }
+    }
+
+    private boolean hasRequestScopedResolvers() {
+        Boolean hasRequestScopedResolvers = this.hasRequestScopedResolvers;
+        if (hasRequestScopedResolvers == null) {
+            // Synchronized with bind and unbind, such that the result does not outlive a change of the resolvers.
+            synchronized (this) {
+                hasRequestScopedResolvers = this.hasRequestScopedResolvers;
+                if (hasRequestScopedResolvers == null) {
+                    hasRequestScopedResolvers = this.resolvers.stream().anyMatch(r -> r.getCacheability() == REQUEST);
+                    this.hasRequestScopedResolvers = hasRequestScopedResolvers;
+                }
+            }
+        }
+        return hasRequestScopedResolvers;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) {
+        // ignore
+    }
+
+    @Override
+    public void destroy() {
+        // ignore
+    }
+
+    /**
+     * Resolves variables and tracks the narrowest {@link Cacheability} of the consulted resolvers.
+     */
+    private class Resolution implements Function<String, String> {
+        private Cacheability cacheability = STATIC;
+
+        @Override
+        public String apply(String variableName) {
+            for (PlaceholderVariableResolver resolver : resolvers) {
+                narrowTo(resolver.getCacheability());
+                String resolved = resolver.resolve(variableName);
+                if (resolved != null) {
+                    return resolved;
+                }
+            }
+
+            String resolved = getenv(variableName);
             if (resolved != null) {
                 return resolved;
             }
-        }
 
-        String resolved = getenv(variableName);
-        if (resolved != null) {
-            return resolved;
+            return getProperty(variableName, null);
         }
 
-        return getProperty(variableName, null);
+        private void narrowTo(Cacheability cacheability) {
+            if (cacheability == null) {
+                this.cacheability = NONE;
+            } else if (cacheability.compareTo(this.cacheability) > 0) {
+                this.cacheability = cacheability;
+            }
+        }
     }
 }
@@ -22,6 +22,7 @@ import io.neba.api.annotations.Reference;
 import io.neba.api.annotations.This;
 import io.neba.api.resourcemodels.Lazy;
 import io.neba.core.util.Annotations;
+import io.neba.core.util.PropertyConverters.PropertyConverter;
 import io.neba.core.util.ReflectionUtil;
 import io.neba.core.util.ResourcePaths;
 import net.bytebuddy.ByteBuddy;
@@ -38,6 +39,8 @@ import java.util.Date;
 import java.util.concurrent.Callable;
 
 import static io.neba.core.util.Annotations.annotations;
+import static io.neba.core.util.PropertyConverters.collectionConverterFor;
+import static io.neba.core.util.PropertyConverters.converterFor;
 import static io.neba.core.util.ReflectionUtil.getInstantiableCollectionTypes;
 import static io.neba.core.util.ReflectionUtil.makeAccessible;
 import static io.neba.core.util.ReflectionUtil.getBoundaryOfParametrizedType;
@@ -94,6 +97,7 @@ public class MappedFieldMetaData {
     private final Class<?> fieldType;
     private final Class<?> modelType;
     private final Class<? extends NebaDelegatingLazyLoadingProxy> collectionProxyFactory;
+    private final PropertyConverter propertyConverter;
 
     /**
      * Immediately extracts all metadata for the provided field.
@@ -137,6 +141,7 @@ public class MappedFieldMetaData {
 
         enforceInstantiableCollectionTypeForExplicitlyMappedFields();
         this.collectionProxyFactory = prepareProxyFactoryForCollectionTypes();
+        this.propertyConverter = preparePropertyConverter();
 
         makeAccessible(field);
     }
@@ -153,6 +158,23 @@ public class MappedFieldMetaData {
         }
     }
 
+    /**
+     * Prepares the conversion of the property value for fields that are mapped from a property of the resource,
+     * such that the conversion need not be determined each time the field is mapped.
+     *
+     * @return the converter, or <code>null</code> if the field is not mapped from a property or is a reference.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private PropertyConverter preparePropertyConverter() {
+        if (!this.isPropertyType || this.isReference) {
+            return null;
+        }
+        if (this.isInstantiableCollectionType) {
+            return collectionConverterFor((Class<? extends Collection>) this.fieldType, this.typeParameter);
+        }
+        return converterFor(this.fieldType);
+    }
+
     /**
      * If the field type is eligible for automated lazy-loading, prepare a proxy class for the field type that delegates
      * all method calls to the {@link NebaLazyLoadingHandler}. To associate this handler with instances of the generated proxy class,
@@ -351,6 +373,14 @@ public class MappedFieldMetaData {
         return this.isPropertyType;
     }
 
+    /**
+     * @return the converter reading the value of this field from the properties of a resource,
+     * or <code>null</code> if this field {@link #isPropertyType() is not a property type} or {@link #isReference() is a reference}.
+     */
+    public PropertyConverter getPropertyConverter() {
+        return this.propertyConverter;
+    }
+
     /**
      * Whether the type of this field is assignable from {@link java.util.Collection}.
      */
@@ -444,12 +474,14 @@ public class MappedFieldMetaData {
 
     /**
      * A simple lazy loader that will obtain a value from a provided {@link Callable} at most once,
-     * and retain the {@link Callable#call() obtained value} in an instance field.
+     * and retain the {@link Callable#call() obtained value} in an instance field. The {@link Callable}
+     * is released once the value is obtained, as it may reference the entire context of the mapping, such
+     * as the mapped resource, which must not remain reachable from the model.
      */
     private static class NebaLazyLoadingHandler implements InvocationHandler {
         static final Object UNSET = new Object();
-        private final Callable<?> factory;
-        private Object target = UNSET;
+        private Callable<?> factory;
+        private volatile Object target = UNSET;
 
         private NebaLazyLoadingHandler(final Callable<?> factory) {
             this.factory = factory;
@@ -457,11 +489,20 @@ public class MappedFieldMetaData {
 
         @Override
         public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+            Object target = this.target;
             if (target == UNSET) {
-                target = factory.call();
+                target = load();
             }
             return method.invoke(target, args);
         }
+
+        private synchronized Object load() throws Exception {
+            if (this.target == UNSET) {
+                this.target = this.factory.call();
+                this.factory = null;
+            }
+            return this.target;
+        }
     }
 
 }
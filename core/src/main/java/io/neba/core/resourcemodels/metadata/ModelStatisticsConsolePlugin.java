@@ -16,6 +16,7 @@
 
 package io.neba.core.resourcemodels.metadata;
 
+import io.neba.core.resourcemodels.registration.ModelRegistry;
 import org.apache.felix.webconsole.AbstractWebConsolePlugin;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
@@ -42,6 +43,8 @@ import static org.osgi.framework.Constants.SERVICE_VENDOR;
  * Provides a RESTFul JSON API for {@link io.neba.api.annotations.ResourceModel} metadata,
  * i.e. the metadata collected at both registration and runtime. The metadata - in particular the
  * {@link ResourceModelStatistics} - is visualized by this console plugin on the client-side using D3.js.
+ * The counters of the {@link ModelRegistry model registry} lookup cache are provided at
+ * <code>{@value #STATISTICS_API_PATH}{@value #LOOKUP_CACHE_STATISTICS_PATH}</code>.
  *
  * @author Olaf Otto
  */
@@ -58,9 +61,12 @@ public class ModelStatisticsConsolePlugin extends AbstractWebConsolePlugin {
     private static final long serialVersionUID = -8676958166611686979L;
     private static final String STATISTICS_API_PATH = "/api/statistics";
     private static final String RESET_API_PATH = "/api/reset";
+    private static final String LOOKUP_CACHE_STATISTICS_PATH = "/lookupcache";
 
     @Reference
     private ResourceModelMetaDataRegistrar modelMetaDataRegistrar;
+    @Reference
+    private ModelRegistry modelRegistry;
 
     @SuppressWarnings("unused")
     public String getCategory() {
@@ -111,6 +117,8 @@ public class ModelStatisticsConsolePlugin extends AbstractWebConsolePlugin {
     private void getModelMetadata(String typePath, HttpServletResponse res) throws IOException {
         if (typePath.isEmpty()) {
             provideStatisticsOfAllModels(res);
+        } else if (typePath.equals(LOOKUP_CACHE_STATISTICS_PATH)) {
+            provideLookupCacheStatistics(res);
         } else {
             String typeName = typePath.substring(1);
             provideStatisticsOfModel(typeName, res);
@@ -145,6 +153,11 @@ public class ModelStatisticsConsolePlugin extends AbstractWebConsolePlugin {
         }
     }
 
+    private void provideLookupCacheStatistics(HttpServletResponse res) throws IOException {
+        prepareJsonResponse(res);
+        res.getWriter().write(toJson(this.modelRegistry.getLookupCacheStatistics()));
+    }
+
     private void prepareJsonResponse(HttpServletResponse res) {
         res.setCharacterEncoding("UTF-8");
         res.setContentType("application/json; charset=UTF-8");
@@ -125,9 +125,20 @@ public class ResourceModelMetaData {
     private final MethodMetaData[] afterMappingMethods;
     private final String typeName;
 
-    private final ResourceModelStatistics statistics = new ResourceModelStatistics();
+    private final ResourceModelStatistics statistics;
 
     public ResourceModelMetaData(Class<?> modelType) {
+        this(modelType, new ResourceModelStatistics());
+    }
+
+    /**
+     * @param modelType  must not be <code>null</code>.
+     * @param statistics must not be <code>null</code>. The statistics of the model, e.g. retained from the metadata
+     *                   of a previous version of the same model type.
+     */
+    ResourceModelMetaData(Class<?> modelType, ResourceModelStatistics statistics) {
+        this.statistics = statistics;
+
         FieldMetadataCreator fc = new FieldMetadataCreator(modelType);
         getAllFieldsList(modelType).forEach(fc);
 
@@ -21,11 +21,22 @@ import org.osgi.framework.Bundle;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.CRC32;
 
+import static java.lang.Math.min;
+import static java.lang.System.currentTimeMillis;
+import static java.lang.Runtime.getRuntime;
+import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
 
 /**
@@ -42,22 +53,83 @@ public class ResourceModelMetaDataRegistrar {
      * @author Olaf Otto
      */
     private static class ResourceModelMetadataHolder {
+        // Represents a type without metadata in the type lookup.
+        private static final ResourceModelMetadataHolder NONE = new ResourceModelMetadataHolder(null, null, null);
+
         private final OsgiModelSource<?> source;
         private final ResourceModelMetaData metaData;
+        private final Long bytecodeChecksum;
 
-        private ResourceModelMetadataHolder(OsgiModelSource<?> source, ResourceModelMetaData metaData) {
+        private ResourceModelMetadataHolder(OsgiModelSource<?> source, ResourceModelMetaData metaData, Long bytecodeChecksum) {
             this.source = source;
             this.metaData = metaData;
+            this.bytecodeChecksum = bytecodeChecksum;
+        }
+    }
+
+    /**
+     * The statistics of a removed model and the checksum of the model type's bytecode. Allows retaining the statistics
+     * if an unchanged model type is registered again, e.g. when its bundle is updated.
+     */
+    private static class RetainedStatistics {
+        private final long bytecodeChecksum;
+        private final ResourceModelStatistics statistics;
+        private final long retainedAt;
+
+        private RetainedStatistics(long bytecodeChecksum, ResourceModelStatistics statistics, long retainedAt) {
+            this.bytecodeChecksum = bytecodeChecksum;
+            this.statistics = statistics;
+            this.retainedAt = retainedAt;
+        }
+    }
+
+    /**
+     * An immutable view on the registered metadata. Resolving the metadata of a type, which may be an enhanced
+     * (e.g. CGLib) subclass of the resource model, is memoized per type using a {@link ClassValue}, which
+     * is considerably faster than a map lookup and name inspection of the type. As each modification publishes a new snapshot,
+     * the memoized lookup results never become stale.
+     */
+    private static class Snapshot {
+        private final Map<Class<?>, ResourceModelMetadataHolder> cache;
+        private final ClassValue<ResourceModelMetadataHolder> lookup = new ClassValue<ResourceModelMetadataHolder>() {
+            @Override
+            protected ResourceModelMetadataHolder computeValue(Class<?> type) {
+                // Optimistic lookup: The model types are most likely not enhanced by CGLib.
+                ResourceModelMetadataHolder metaDataHolder = cache.get(type);
+
+                if (metaDataHolder == null) {
+                    // The model type might have been enhanced, explicitly lookup with the user (non-enhanced) class.
+                    metaDataHolder = cache.get(getUserClass(type));
+                }
+
+                return metaDataHolder == null ? ResourceModelMetadataHolder.NONE : metaDataHolder;
+            }
+        };
+
+        private Snapshot(Map<Class<?>, ResourceModelMetadataHolder> cache) {
+            this.cache = cache;
         }
     }
 
-    private Map<Class<?>, ResourceModelMetadataHolder> cache = new HashMap<>(512);
+    /**
+     * The maximum number of removed models for which statistics are retained.
+     */
+    private static final int MAX_RETAINED_STATISTICS = 10000;
+    /**
+     * The time after which the retained statistics of a removed model expire. A model bundle that is updated
+     * registers its models again well within this time.
+     */
+    private static final long RETAINED_STATISTICS_TIME_TO_LIVE_MILLIS = 30 * 60 * 1000L;
+
+    private volatile Snapshot snapshot = new Snapshot(new HashMap<>(512));
+    private final Map<String, RetainedStatistics> retainedStatistics = new ConcurrentHashMap<>();
+    private long retainedStatisticsTimeToLive = RETAINED_STATISTICS_TIME_TO_LIVE_MILLIS;
 
     /**
      * @return the {@link ResourceModelMetaData} of all currently known resource models.
      */
     public Collection<ResourceModelMetaData> get() {
-        return this.cache.values()
+        return this.snapshot.cache.values()
                 .stream()
                 .map(holder -> holder.metaData)
                 .collect(toList());
@@ -73,15 +145,9 @@ public class ResourceModelMetaDataRegistrar {
             throw new IllegalArgumentException("Method argument modelType must not be null.");
         }
 
-        // Optimistic lookup: The model types are most likely not enhanced by CGLib.
-        ResourceModelMetadataHolder metaDataHolder = this.cache.get(modelType);
-
-        if (metaDataHolder == null) {
-            // The model type might have been enhanced, explicitly lookup with the user (non-enhanced) class.
-            metaDataHolder = this.cache.get(getUserClass(modelType));
-        }
+        ResourceModelMetadataHolder metaDataHolder = this.snapshot.lookup.get(modelType);
 
-        if (metaDataHolder == null) {
+        if (metaDataHolder == ResourceModelMetadataHolder.NONE) {
             throw new IllegalStateException("Unable to obtain resource model metadata for " + modelType +
                     " - this type was either never registered or has been removed, i.e. " +
                     " it's source bundle was uninstalled.");
@@ -96,23 +162,95 @@ public class ResourceModelMetaDataRegistrar {
      *
      * @param modelSource must not be <code>null</code>.
      */
-    public synchronized void register(OsgiModelSource<?> modelSource) {
+    public void register(OsgiModelSource<?> modelSource) {
         if (modelSource == null) {
             throw new IllegalArgumentException("method parameter modelSource must not be null");
         }
 
-        Class<?> modelType = modelSource.getModelType();
-        ResourceModelMetaData modelMetaData = new ResourceModelMetaData(modelType);
-        ResourceModelMetadataHolder holder = new ResourceModelMetadataHolder(modelSource, modelMetaData);
+        register(singletonList(modelSource));
+    }
+
+    /**
+     * Creates the {@link ResourceModelMetaData} for all models represented by the provided model sources
+     * and publishes them at once. Since creating the metadata involves reflection and the generation of
+     * lazy-loading proxy types, the metadata of multiple models is created in parallel.
+     * <br />
+     * The statistics of a previously removed model are retained if the bytecode of the model type is unchanged,
+     * e.g. when the bundle containing the model was updated.
+     *
+     * @param modelSources must not be <code>null</code>.
+     */
+    public void register(Collection<OsgiModelSource<?>> modelSources) {
+        if (modelSources == null) {
+            throw new IllegalArgumentException("Method argument modelSources must not be null.");
+        }
+        if (modelSources.isEmpty()) {
+            return;
+        }
 
-        Map<Class<?>, ResourceModelMetadataHolder> newCache = copyCache();
-        newCache.put(getUserClass(modelType), holder);
+        List<ResourceModelMetadataHolder> holders = createMetaData(modelSources);
 
-        this.cache = newCache;
+        synchronized (this) {
+            Map<Class<?>, ResourceModelMetadataHolder> newCache = copyCache();
+            for (ResourceModelMetadataHolder holder : holders) {
+                newCache.put(getUserClass(holder.source.getModelType()), holder);
+            }
+            this.snapshot = new Snapshot(newCache);
+        }
+    }
+
+    private List<ResourceModelMetadataHolder> createMetaData(Collection<OsgiModelSource<?>> modelSources) {
+        int parallelism = min(getRuntime().availableProcessors(), modelSources.size());
+        if (parallelism < 2) {
+            return modelSources.stream().map(this::createMetaData).collect(toList());
+        }
+
+        // A dedicated pool prevents blocking the common pool shared by all bundles for the duration of the registration.
+        // Parallel streams executed by a task of a fork join pool use the pool of that task.
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return pool.submit(() -> modelSources
+                    .parallelStream()
+                    .map(this::createMetaData)
+                    .collect(toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while creating the metadata of " + modelSources.size() + " resource models.", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unable to create the metadata of " + modelSources.size() + " resource models.", cause);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ResourceModelMetadataHolder createMetaData(OsgiModelSource<?> modelSource) {
+        Class<?> modelType = getUserClass(modelSource.getModelType());
+        Long bytecodeChecksum = bytecodeChecksumOf(modelType);
+
+        ResourceModelStatistics statistics = null;
+        RetainedStatistics retained = this.retainedStatistics.get(modelType.getName());
+        if (retained != null && bytecodeChecksum != null && retained.bytecodeChecksum == bytecodeChecksum &&
+                !isExpired(retained, currentTimeMillis()) && this.retainedStatistics.remove(modelType.getName(), retained)) {
+            statistics = retained.statistics;
+        }
+
+        ResourceModelMetaData metaData = statistics == null ?
+                new ResourceModelMetaData(modelSource.getModelType()) :
+                new ResourceModelMetaData(modelSource.getModelType(), statistics);
+
+        return new ResourceModelMetadataHolder(modelSource, metaData, bytecodeChecksum);
     }
 
     /**
-     * Removes the metadata of all models contained in the provided bundle from the registrar.
+     * Removes the metadata of all models contained in the provided bundle from the registrar. The statistics
+     * of the removed models are retained for a limited time, see {@link #register(Collection)}.
      *
      * @param bundle must not be <code>null</code>
      */
@@ -121,22 +259,62 @@ public class ResourceModelMetaDataRegistrar {
             throw new IllegalArgumentException("method parameter bundle must not be null");
         }
 
+        final long now = currentTimeMillis();
+        this.retainedStatistics.values().removeIf(retained -> isExpired(retained, now));
+
         Map<Class<?>, ResourceModelMetadataHolder> newCache = copyCache();
         Iterator<Map.Entry<Class<?>, ResourceModelMetadataHolder>> it = newCache.entrySet().iterator();
         while (it.hasNext()) {
-            OsgiModelSource<?> source = it.next().getValue().source;
-            if (source.getBundleId() == bundle.getBundleId()) {
+            Map.Entry<Class<?>, ResourceModelMetadataHolder> entry = it.next();
+            ResourceModelMetadataHolder holder = entry.getValue();
+            if (holder.source.getBundleId() == bundle.getBundleId()) {
                 it.remove();
+                retainStatistics(entry.getKey(), holder, now);
             }
         }
-        this.cache = newCache;
+        this.snapshot = new Snapshot(newCache);
+    }
+
+    private void retainStatistics(Class<?> modelType, ResourceModelMetadataHolder holder, long now) {
+        if (holder.bytecodeChecksum != null && this.retainedStatistics.size() < MAX_RETAINED_STATISTICS) {
+            this.retainedStatistics.put(modelType.getName(), new RetainedStatistics(holder.bytecodeChecksum, holder.metaData.getStatistics(), now));
+        }
+    }
+
+    private boolean isExpired(RetainedStatistics retained, long now) {
+        return now - retained.retainedAt >= this.retainedStatisticsTimeToLive;
+    }
+
+    /**
+     * @return the CRC-32 checksum of the bytecode of the given type, or <code>null</code> if the bytecode is not available.
+     */
+    private static Long bytecodeChecksumOf(Class<?> type) {
+        ClassLoader classLoader = type.getClassLoader();
+        if (classLoader == null) {
+            return null;
+        }
+
+        try (InputStream in = classLoader.getResourceAsStream(type.getName().replace('.', '/') + ".class")) {
+            if (in == null) {
+                return null;
+            }
+            CRC32 checksum = new CRC32();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                checksum.update(buffer, 0, read);
+            }
+            return checksum.getValue();
+        } catch (IOException e) {
+            return null;
+        }
     }
 
     private Map<Class<?>, ResourceModelMetadataHolder> copyCache() {
-        return new HashMap<>(this.cache);
+        return new HashMap<>(this.snapshot.cache);
     }
 
-    private Class<?> getUserClass(Class<?> type) {
+    private static Class<?> getUserClass(Class<?> type) {
         if (type.getName().contains("$$")) {
             Class<?> superclass = type.getSuperclass();
             if (superclass != null && Object.class != superclass) {
@@ -146,8 +324,13 @@ public class ResourceModelMetaDataRegistrar {
         return type;
     }
 
+    void setRetainedStatisticsTimeToLive(long retainedStatisticsTimeToLive) {
+        this.retainedStatisticsTimeToLive = retainedStatisticsTimeToLive;
+    }
+
     @Deactivate
-    protected void deactivate() {
-        this.cache.clear();
+    protected synchronized void deactivate() {
+        this.snapshot = new Snapshot(new HashMap<>(512));
+        this.retainedStatistics.clear();
     }
 }
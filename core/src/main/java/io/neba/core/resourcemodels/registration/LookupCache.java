@@ -0,0 +1,291 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * A capacity-bounded cache for the results of {@link ModelRegistry model lookups}.
+ * <br />
+ * Reads are lock-free. Eviction uses two FIFO queues: New entries are admitted to a small probationary queue.
+ * Entries that were read while in the probationary queue are promoted to the main queue once they reach its head,
+ * all others are evicted. Entries in the main queue are re-queued as long as they were read since they were last
+ * considered for eviction. Thus, a scan of many distinct keys that are used only once cannot displace the frequently
+ * used entries in the main queue.
+ * <br />
+ * Counts hits, misses, evictions and the time spent loading values to allow sizing the cache.
+ *
+ * @param <K> the key type.
+ * @param <V> the value type.
+ */
+final class LookupCache<K, V> {
+    /**
+     * The share of the capacity reserved for the probationary queue.
+     */
+    private static final int PROBATIONARY_SHARE_PERCENT = 10;
+    /**
+     * The maximum access frequency tracked for entries in the main queue.
+     */
+    private static final int MAX_FREQUENCY = 3;
+
+    private final int capacity;
+    private final int probationaryCapacity;
+    private final Map<K, Entry<K, V>> entries;
+    private final ArrayDeque<Entry<K, V>> probationaryQueue = new ArrayDeque<>();
+    private final ArrayDeque<Entry<K, V>> mainQueue = new ArrayDeque<>();
+    private final Object evictionLock = new Object();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder loadTimeNanos = new LongAdder();
+
+    /**
+     * Incremented whenever the cache is {@link #clear() cleared}. Values loaded before the cache was cleared are not
+     * stored, as they may stem from a state that is no longer valid.
+     */
+    private volatile int generation;
+
+    /**
+     * @param capacity the maximum number of entries. Must be greater than zero.
+     */
+    LookupCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Method argument capacity must be greater than zero, got " + capacity + ".");
+        }
+        this.capacity = capacity;
+        this.probationaryCapacity = Math.max(1, capacity * PROBATIONARY_SHARE_PERCENT / 100);
+        this.entries = new ConcurrentHashMap<>(Math.min(capacity, 1024));
+    }
+
+    /**
+     * @param key    must not be <code>null</code>.
+     * @param loader must not be <code>null</code>. Loads the value if the key is not cached. The value is cached
+     *               even if it is <code>null</code>.
+     * @return the cached or loaded value.
+     */
+    @CheckForNull
+    V get(@Nonnull K key, @Nonnull Function<K, V> loader) {
+        Entry<K, V> entry = this.entries.get(key);
+        if (entry != null) {
+            this.hits.increment();
+            entry.touch();
+            return entry.value;
+        }
+
+        this.misses.increment();
+        final int generation = this.generation;
+        final long start = nanoTime();
+        final V value = loader.apply(key);
+        this.loadTimeNanos.add(nanoTime() - start);
+
+        synchronized (this.evictionLock) {
+            if (generation != this.generation) {
+                return value;
+            }
+            Entry<K, V> existing = this.entries.get(key);
+            if (existing != null) {
+                return existing.value;
+            }
+            entry = new Entry<>(key, value);
+            this.entries.put(key, entry);
+            this.probationaryQueue.addLast(entry);
+            while (this.entries.size() > this.capacity) {
+                evict();
+            }
+        }
+
+        return value;
+    }
+
+    /**
+     * Removes all entries. Does not reset the counters.
+     */
+    void clear() {
+        synchronized (this.evictionLock) {
+            ++this.generation;
+            this.entries.clear();
+            this.probationaryQueue.clear();
+            this.mainQueue.clear();
+        }
+    }
+
+    /**
+     * Removes all entries with values matching the predicate. Values that are being loaded while entries are removed
+     * are not stored, as they may stem from a state that is no longer valid.
+     *
+     * @param predicate must not be <code>null</code>.
+     * @return the number of removed entries.
+     */
+    int removeIf(@Nonnull Predicate<V> predicate) {
+        int removed = 0;
+        synchronized (this.evictionLock) {
+            ++this.generation;
+            removed += removeIf(this.probationaryQueue, predicate);
+            removed += removeIf(this.mainQueue, predicate);
+        }
+        return removed;
+    }
+
+    private int removeIf(ArrayDeque<Entry<K, V>> queue, Predicate<V> predicate) {
+        int removed = 0;
+        for (Iterator<Entry<K, V>> it = queue.iterator(); it.hasNext(); ) {
+            Entry<K, V> entry = it.next();
+            if (predicate.test(entry.value)) {
+                it.remove();
+                this.entries.remove(entry.key);
+                ++removed;
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    int getCapacity() {
+        return this.capacity;
+    }
+
+    long getHits() {
+        return this.hits.sum();
+    }
+
+    long getMisses() {
+        return this.misses.sum();
+    }
+
+    long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    /**
+     * @param max the maximum number of values to return.
+     * @return the values of the most frequently used entries, i.e. the entries in the main queue followed by
+     * the entries of the probationary queue that were read since they were added. Never <code>null</code>.
+     */
+    @Nonnull
+    List<V> getFrequentlyUsedValues(int max) {
+        List<V> values = new ArrayList<>(Math.min(max, this.capacity));
+        synchronized (this.evictionLock) {
+            for (Iterator<Entry<K, V>> it = this.mainQueue.iterator(); it.hasNext() && values.size() < max; ) {
+                values.add(it.next().value);
+            }
+            for (Iterator<Entry<K, V>> it = this.probationaryQueue.iterator(); it.hasNext() && values.size() < max; ) {
+                Entry<K, V> entry = it.next();
+                if (entry.frequency > 0) {
+                    values.add(entry.value);
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @return a snapshot of the capacity, size and counters of this cache, e.g. for rendering as JSON. Never <code>null</code>.
+     */
+    @Nonnull
+    Map<String, Object> getStatistics() {
+        long hits = getHits();
+        long misses = getMisses();
+        long lookups = hits + misses;
+        long loadTimeNanos = this.loadTimeNanos.sum();
+
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("capacity", this.capacity);
+        statistics.put("size", size());
+        statistics.put("hits", hits);
+        statistics.put("misses", misses);
+        statistics.put("hitRatio", lookups == 0 ? 0D : (double) hits / lookups);
+        statistics.put("evictions", getEvictions());
+        statistics.put("totalLoadTime", NANOSECONDS.toMillis(loadTimeNanos));
+        statistics.put("averageLoadTime", misses == 0 ? 0D : (double) loadTimeNanos / misses / 1_000_000D);
+        return statistics;
+    }
+
+    /**
+     * Evicts a single entry. Must be invoked while holding the {@link #evictionLock}.
+     */
+    private void evict() {
+        while (true) {
+            if (this.probationaryQueue.size() > this.probationaryCapacity || this.mainQueue.isEmpty()) {
+                Entry<K, V> candidate = this.probationaryQueue.pollFirst();
+                if (candidate == null) {
+                    return;
+                }
+                if (candidate.frequency > 0) {
+                    candidate.frequency = 0;
+                    this.mainQueue.addLast(candidate);
+                    continue;
+                }
+                remove(candidate);
+                return;
+            }
+
+            Entry<K, V> candidate = this.mainQueue.pollFirst();
+            if (candidate.frequency > 0) {
+                --candidate.frequency;
+                this.mainQueue.addLast(candidate);
+                continue;
+            }
+            remove(candidate);
+            return;
+        }
+    }
+
+    private void remove(Entry<K, V> entry) {
+        this.entries.remove(entry.key);
+        this.evictions.increment();
+    }
+
+    /**
+     * A cached value and its approximate access frequency. The frequency is updated without synchronization
+     * as lost updates only marginally affect the eviction order.
+     */
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+        private volatile int frequency;
+
+        private Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        private void touch() {
+            int frequency = this.frequency;
+            if (frequency < MAX_FREQUENCY) {
+                this.frequency = frequency + 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.OsgiModelSource;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.CheckForNull;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.neba.core.util.ClassHierarchyIterator.hierarchyOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.sling.api.resource.ResourceResolverFactory.SUBSERVICE;
+
+/**
+ * Periodically persists the {@link ModelRegistry#getFrequentLookups(int) most frequently used model lookups}
+ * to the bundle data area. Upon activation, the persisted lookups are repeated in the background once the models
+ * are registered, such that the {@link ModelRegistry} lookup cache is populated before the lookups are
+ * requested by regular traffic.
+ * <br />
+ * Lookups are persisted as {@link LookupRecord records} containing the path of a resource for which the lookup
+ * was performed. Lookups are repeated for these resources rather than for their resource and node types, since
+ * the models of a resource depend on its type hierarchies, which can only be resolved for an actual resource. Records of
+ * resources that no longer exist are skipped. Resources are read using the <code>{@value #SUBSERVICE_NAME}</code>
+ * sub service, which requires a service user mapping granting read access to the content.
+ */
+@Component(immediate = true)
+@Designate(ocd = LookupCacheWarmup.Configuration.class)
+public class LookupCacheWarmup {
+    static final String DATA_FILE_NAME = "lookupcache-warmup.txt";
+    static final String SUBSERVICE_NAME = "lookupcache-warmup";
+    /**
+     * Models are considered registered once no models were added or removed for this duration.
+     */
+    private static final long REGISTRATION_QUIET_PERIOD_MILLIS = 10000;
+    private static final long REPLAY_POLL_INTERVAL_SECONDS = 5;
+    private static final int MAX_REPLAY_POLLS = 60;
+    private static final long TERMINATION_TIMEOUT_SECONDS = 10;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private ModelRegistry registry;
+    @Reference
+    private ResourceResolverFactory resourceResolverFactory;
+
+    private ScheduledExecutorService executorService;
+    private Configuration configuration;
+    private File dataFile;
+    private int replayPolls;
+
+    @Activate
+    protected void activate(BundleContext context, Configuration configuration) {
+        this.configuration = configuration;
+        if (!configuration.enabled()) {
+            return;
+        }
+
+        this.dataFile = context.getDataFile(DATA_FILE_NAME);
+        if (this.dataFile == null) {
+            this.logger.info("The lookup cache warm-up is disabled since the platform provides no bundle data area.");
+            return;
+        }
+
+        if (this.executorService == null) {
+            this.executorService = newSingleThreadScheduledExecutor();
+        }
+
+        List<LookupRecord> records = read();
+        if (!records.isEmpty()) {
+            this.executorService.schedule(() -> replayWhenModelsAreRegistered(records), REPLAY_POLL_INTERVAL_SECONDS, SECONDS);
+        }
+
+        this.executorService.scheduleWithFixedDelay(
+                this::persist,
+                configuration.persistenceInterval(),
+                configuration.persistenceInterval(),
+                MINUTES);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if (this.executorService == null) {
+            return;
+        }
+        this.executorService.shutdownNow();
+        try {
+            // Replays stop once interrupted. A periodic persistence in progress is awaited, such that the final
+            // persistence does not race it.
+            if (!this.executorService.awaitTermination(TERMINATION_TIMEOUT_SECONDS, SECONDS)) {
+                this.logger.debug("The lookup cache warm-up tasks did not terminate within {} seconds.", TERMINATION_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        persist();
+    }
+
+    void setExecutorService(ScheduledExecutorService executorService) {
+        this.executorService = executorService;
+    }
+
+    /**
+     * Persists the most frequently used lookups. The existing records are retained if there are
+     * no frequently used lookups, e.g. since the lookup cache was just cleared. The records are written to a
+     * distinct temporary file that atomically replaces the data file, such that concurrent invocations cannot
+     * corrupt the data file.
+     */
+    void persist() {
+        List<LookupRecord> records = this.registry.getFrequentLookups(this.configuration.maximumNumberOfLookups());
+        if (records.isEmpty()) {
+            return;
+        }
+
+        Path temporaryFile = null;
+        try {
+            temporaryFile = Files.createTempFile(this.dataFile.getParentFile().toPath(), DATA_FILE_NAME, ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temporaryFile, UTF_8)) {
+                for (LookupRecord record : records) {
+                    writer.write(record.toLine());
+                    writer.newLine();
+                }
+            }
+            Files.move(temporaryFile, this.dataFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+            this.logger.debug("Persisted {} model lookups to {}.", records.size(), this.dataFile);
+        } catch (IOException e) {
+            this.logger.warn("Unable to persist the model lookups to " + this.dataFile + ".", e);
+            deleteQuietly(temporaryFile);
+        }
+    }
+
+    private void deleteQuietly(@CheckForNull Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            this.logger.debug("Unable to delete the temporary file " + file + ".", e);
+        }
+    }
+
+    private List<LookupRecord> read() {
+        List<LookupRecord> records = new ArrayList<>();
+        if (!this.dataFile.exists()) {
+            return records;
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(this.dataFile.toPath(), UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null && records.size() < this.configuration.maximumNumberOfLookups()) {
+                LookupRecord record = LookupRecord.parse(line);
+                if (record != null) {
+                    records.add(record);
+                }
+            }
+        } catch (IOException e) {
+            this.logger.warn("Unable to read the persisted model lookups from " + this.dataFile + ".", e);
+        }
+        return records;
+    }
+
+    /**
+     * Replays the lookups once models are registered, i.e. models exist and no models were
+     * added or removed for a {@link #REGISTRATION_QUIET_PERIOD_MILLIS quiet period}. Gives up if the
+     * models are not registered after {@link #MAX_REPLAY_POLLS} attempts.
+     */
+    void replayWhenModelsAreRegistered(List<LookupRecord> records) {
+        boolean modelsAreRegistered = !this.registry.getModelSources().isEmpty() &&
+                System.currentTimeMillis() - this.registry.getLastModification() >= REGISTRATION_QUIET_PERIOD_MILLIS;
+
+        if (modelsAreRegistered) {
+            replay(records);
+            return;
+        }
+
+        if (++this.replayPolls < MAX_REPLAY_POLLS) {
+            this.executorService.schedule(() -> replayWhenModelsAreRegistered(records), REPLAY_POLL_INTERVAL_SECONDS, SECONDS);
+        } else {
+            this.logger.info("Models were not registered in time, skipping the replay of {} persisted model lookups.", records.size());
+        }
+    }
+
+    private void replay(List<LookupRecord> records) {
+        ResourceResolver resolver;
+        try {
+            resolver = this.resourceResolverFactory.getServiceResourceResolver(singletonMap(SUBSERVICE, SUBSERVICE_NAME));
+        } catch (LoginException e) {
+            this.logger.info("Unable to replay the persisted model lookups: No valid service user mapping for io.neba.neba-core:{} exists.",
+                    SUBSERVICE_NAME, e);
+            return;
+        }
+
+        int replayed = 0;
+        long start = System.currentTimeMillis();
+        try {
+            for (LookupRecord record : records) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                Resource resource = resolver.getResource(record.getResourcePath());
+                if (resource != null && replay(record, resource)) {
+                    ++replayed;
+                }
+            }
+        } finally {
+            resolver.close();
+        }
+
+        this.logger.info("Replayed {} of {} persisted model lookups in {} ms.", replayed, records.size(), System.currentTimeMillis() - start);
+    }
+
+    private boolean replay(LookupRecord record, Resource resource) {
+        switch (record.getKind()) {
+            case MOST_SPECIFIC:
+                this.registry.lookupMostSpecificModels(resource);
+                return true;
+            case ALL_MODELS:
+                this.registry.lookupAllModels(resource);
+                return true;
+            case MODEL_NAME:
+                this.registry.lookupMostSpecificModels(resource, record.getArgument());
+                return true;
+            case TARGET_TYPE:
+                Class<?> targetType = findTargetType(record.getArgument());
+                if (targetType == null) {
+                    return false;
+                }
+                this.registry.lookupMostSpecificModels(resource, targetType);
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Lookups target the type of a registered model or one of its supertypes. The type must thus be contained in
+     * the type hierarchy of a registered model.
+     *
+     * @return the type, or <code>null</code> if no registered model has a type with the given name in its hierarchy.
+     */
+    @CheckForNull
+    private Class<?> findTargetType(String typeName) {
+        for (OsgiModelSource<?> source : this.registry.getModelSources()) {
+            for (Class<?> type : hierarchyOf(source.getModelType())) {
+                if (type.getName().equals(typeName)) {
+                    return type;
+                }
+            }
+        }
+        return null;
+    }
+
+    @ObjectClassDefinition(
+            name = "NEBA model lookup cache warm-up",
+            description = "Persists the most frequently used model lookups and repeats them after a restart to warm up the lookup cache. " +
+                    "Requires a service user mapping for io.neba.neba-core:" + SUBSERVICE_NAME + " with read access to the content.")
+    public @interface Configuration {
+        @AttributeDefinition(
+                name = "Enabled",
+                description = "Whether to persist and replay model lookups.")
+        boolean enabled() default true;
+
+        @AttributeDefinition(
+                name = "Persistence interval",
+                description = "The interval, in minutes, in which the most frequently used lookups are persisted.")
+        int persistenceInterval() default 5;
+
+        @AttributeDefinition(
+                name = "Maximum number of lookups",
+                description = "The maximum number of lookups that are persisted and replayed.")
+        int maximumNumberOfLookups() default 1000;
+    }
+}
@@ -0,0 +1,136 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Objects;
+
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Describes a {@link ModelRegistry model lookup} such that it can be persisted and repeated, e.g.
+ * to {@link LookupCacheWarmup warm up} the lookup cache after a restart. A lookup is described by the path of
+ * a resource it was performed for, the kind of lookup and the lookup argument, i.e. the model name or the
+ * name of the target type.
+ */
+final class LookupRecord {
+    /**
+     * The kinds of lookups supported by the {@link ModelRegistry}.
+     */
+    enum Kind {
+        MOST_SPECIFIC,
+        ALL_MODELS,
+        MODEL_NAME,
+        TARGET_TYPE
+    }
+
+    private static final char SEPARATOR = '\t';
+
+    /**
+     * @param line can be <code>null</code>.
+     * @return the record represented by the line, or <code>null</code> if the line does not represent
+     * a {@link #toLine() record}.
+     */
+    @CheckForNull
+    static LookupRecord parse(@CheckForNull String line) {
+        if (isEmpty(line)) {
+            return null;
+        }
+
+        String[] elements = line.split(String.valueOf(SEPARATOR), 3);
+        if (elements.length != 3 || isEmpty(elements[2])) {
+            return null;
+        }
+
+        Kind kind;
+        try {
+            kind = Kind.valueOf(elements[0]);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        String argument = isEmpty(elements[1]) ? null : elements[1];
+        if ((kind == Kind.MODEL_NAME || kind == Kind.TARGET_TYPE) && argument == null) {
+            return null;
+        }
+
+        return new LookupRecord(elements[2], kind, argument);
+    }
+
+    private final String resourcePath;
+    private final Kind kind;
+    private final String argument;
+
+    /**
+     * @param resourcePath must not be <code>null</code>.
+     * @param kind         must not be <code>null</code>.
+     * @param argument     the model name or target type name. Can be <code>null</code>.
+     */
+    LookupRecord(@Nonnull String resourcePath, @Nonnull Kind kind, @CheckForNull String argument) {
+        this.resourcePath = resourcePath;
+        this.kind = kind;
+        this.argument = argument;
+    }
+
+    @Nonnull
+    String getResourcePath() {
+        return this.resourcePath;
+    }
+
+    @Nonnull
+    Kind getKind() {
+        return this.kind;
+    }
+
+    @CheckForNull
+    String getArgument() {
+        return this.argument;
+    }
+
+    /**
+     * @return a single-line representation of this record that can be {@link #parse(String) parsed}. Never <code>null</code>.
+     */
+    @Nonnull
+    String toLine() {
+        return this.kind.name() + SEPARATOR + (this.argument == null ? "" : this.argument) + SEPARATOR + this.resourcePath;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.resourcePath, this.kind, this.argument);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        LookupRecord other = (LookupRecord) obj;
+        return this.kind == other.kind &&
+                this.resourcePath.equals(other.resourcePath) &&
+                Objects.equals(this.argument, other.argument);
+    }
+
+    @Override
+    public String toString() {
+        return "LookupRecord {" + this.kind + ", " + this.argument + ", " + this.resourcePath + '}';
+    }
+}
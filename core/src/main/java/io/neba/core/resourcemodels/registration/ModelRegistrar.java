@@ -34,8 +34,11 @@ import org.slf4j.Logger;
 
 import java.lang.annotation.IncompleteAnnotationException;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static io.neba.core.util.BundleUtil.displayNameOf;
+import static java.lang.System.currentTimeMillis;
 import static org.apache.commons.lang3.StringUtils.join;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -97,12 +100,21 @@ public class ModelRegistrar {
         final Collection<ModelDefinition<?>> modelDefinitions = factory.getModelDefinitions();
 
         logger.info("Registering {} resource models from bundle: " + displayNameOf(bundle) + " ...", modelDefinitions.size());
-        modelDefinitions.forEach(d -> {
-            final OsgiModelSource<?> source = new OsgiModelSource<>(d, factory, bundle);
-            this.resourceModelMetaDataRegistrar.register(source);
-            this.registry.add(getTypes(d), source);
-            logger.debug("Registered model {} as a model for the resource types {}.", d.getName(), join(getTypes(d), ","));
-        });
+        final long start = currentTimeMillis();
+
+        // Sources are registered in bulk: The metadata of all models is created at once, and the registry
+        // is updated at once, rather than updating both once per model.
+        final Map<OsgiModelSource<?>, String[]> typesBySource = new LinkedHashMap<>(modelDefinitions.size() * 2);
+        modelDefinitions.forEach(d -> typesBySource.put(new OsgiModelSource<>(d, factory, bundle), getTypes(d)));
+
+        this.resourceModelMetaDataRegistrar.register(typesBySource.keySet());
+        this.registry.addAll(typesBySource);
+
+        if (logger.isDebugEnabled()) {
+            typesBySource.forEach((source, types) ->
+                    logger.debug("Registered model {} as a model for the resource types {}.", source.getModelName(), join(types, ",")));
+        }
+        logger.info("Registered {} resource models from bundle: " + displayNameOf(bundle) + " in {} ms.", typesBySource.size(), currentTimeMillis() - start);
 
         this.resourceToModelAdapterUpdater.refresh();
     }
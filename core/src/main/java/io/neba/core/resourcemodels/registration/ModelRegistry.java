@@ -23,24 +23,33 @@ import io.neba.core.util.OsgiModelSource;
 import io.neba.core.util.ResolvedModelSource;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
 import org.osgi.framework.Bundle;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import static io.neba.core.resourcemodels.registration.MappableTypeHierarchy.mappableTypeHierarchyOf;
 import static io.neba.core.util.BundleUtil.displayNameOf;
 import static io.neba.core.util.NodeUtil.geMixinTypes;
 import static io.neba.core.util.NodeUtil.getPrimaryType;
+import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableCollection;
+import static org.apache.commons.lang3.StringUtils.join;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -51,38 +60,11 @@ import static org.slf4j.LoggerFactory.getLogger;
  * @author Olaf Otto
  */
 @Component(service = ModelRegistry.class)
+@Designate(ocd = ModelRegistry.Configuration.class)
 public class ModelRegistry {
-    /**
-     * Generate a {@link Key} representing both the
-     * {@link org.apache.sling.api.resource.Resource#getResourceType() sling resource type},
-     * {@link javax.jcr.Node#getPrimaryNodeType() primary node type} and the {@link Node#getMixinNodeTypes() mixin types}
-     * of the resource, if any. Rationale: Resources may have the same <code>sling:resourceType</code>, but different primary or mixin types,
-     * thus potentially producing different results when mapped. The cache must thus use these
-     * types as a key for cached adaptation results.<br />
-     *
-     * @param resource           must not be <code>null</code>.
-     * @param furtherKeyElements can be <code>null</code>
-     * @return never <code>null</code>.
-     */
-    private static Key key(Resource resource, Object... furtherKeyElements) {
-        final Key furtherElementsKey = furtherKeyElements == null ? null : new Key(furtherKeyElements);
-        final Node node = resource.adaptTo(Node.class);
-
-        if (node == null) {
-            return new Key(resource.getResourceType(), furtherElementsKey);
-        }
-
-        try {
-            return new Key(
-                    resource.getResourceType(),
-                    resource.getResourceSuperType(),
-                    getPrimaryType(node),
-                    geMixinTypes(node),
-                    furtherElementsKey);
-        } catch (RepositoryException e) {
-            throw new RuntimeException("Unable to retrieve the primary type of " + resource + ".", e);
-        }
-    }
+    private static final int DEFAULT_LOOKUP_CACHE_CAPACITY = 10000;
+    private static final String JCR_PRIMARYTYPE = "jcr:primaryType";
+    private static final String JCR_MIXINTYPES = "jcr:mixinTypes";
 
     /**
      * @param source can be <code>null</code>.
@@ -136,8 +118,67 @@ public class ModelRegistry {
     }
 
     private final ConcurrentDistinctMultiValueMap<String, OsgiModelSource<?>> typeNameToModelSourcesMap = new ConcurrentDistinctMultiValueMap<>();
-    private final ConcurrentDistinctMultiValueMap<Key, ResolvedModelSource<?>> lookupCache = new ConcurrentDistinctMultiValueMap<>();
+    private volatile LookupCache<Key, CachedLookup> lookupCache = new LookupCache<>(DEFAULT_LOOKUP_CACHE_CAPACITY);
+    private volatile long lastModification = System.currentTimeMillis();
     private final Logger logger = getLogger(getClass());
+    /**
+     * Whether any registered type name may be the name of a JCR node type. Node type names never contain
+     * a slash, whereas resource types usually do. If no node type is mapped, the node types of a resource
+     * cannot affect the lookup result and are not part of the lookup {@link #key(Resource, Object...) key}.
+     */
+    private volatile boolean nodeTypesMayBeMapped = false;
+
+    /**
+     * Generate a {@link Key} representing both the
+     * {@link org.apache.sling.api.resource.Resource#getResourceType() sling resource type},
+     * {@link javax.jcr.Node#getPrimaryNodeType() primary node type} and the {@link Node#getMixinNodeTypes() mixin types}
+     * of the resource, if any. Rationale: Resources may have the same <code>sling:resourceType</code>, but different primary or mixin types,
+     * thus potentially producing different results when mapped. The cache must thus use these
+     * types as a key for cached adaptation results.<br />
+     * The node types are only part of the key if {@link #nodeTypesMayBeMapped a model may be mapped to a node type}. They are read from
+     * the resource's {@link Resource#getValueMap() properties} if possible, as adapting the resource to a {@link Node}
+     * and retrieving its node types is significantly more expensive.
+     *
+     * @param resource           must not be <code>null</code>.
+     * @param furtherKeyElements can be <code>null</code>
+     * @return never <code>null</code>.
+     */
+    private Key key(Resource resource, Object... furtherKeyElements) {
+        final Key furtherElementsKey = furtherKeyElements == null ? null : new Key(furtherKeyElements);
+
+        if (!this.nodeTypesMayBeMapped) {
+            return new Key(resource.getResourceType(), resource.getResourceSuperType(), furtherElementsKey);
+        }
+
+        final ValueMap properties = resource.getValueMap();
+        final String primaryType = properties == null ? null : properties.get(JCR_PRIMARYTYPE, String.class);
+        if (primaryType != null) {
+            final String[] mixinTypes = properties.get(JCR_MIXINTYPES, String[].class);
+            return new Key(
+                    resource.getResourceType(),
+                    resource.getResourceSuperType(),
+                    primaryType,
+                    mixinTypes == null || mixinTypes.length == 0 ? null : join(mixinTypes, ','),
+                    furtherElementsKey);
+        }
+
+        final Node node = resource.adaptTo(Node.class);
+
+        if (node == null) {
+            return new Key(resource.getResourceType(), furtherElementsKey);
+        }
+
+        try {
+            return new Key(
+                    resource.getResourceType(),
+                    resource.getResourceSuperType(),
+                    getPrimaryType(node),
+                    geMixinTypes(node),
+                    furtherElementsKey);
+        } catch (RepositoryException e) {
+            throw new RuntimeException("Unable to retrieve the primary type of " + resource + ".", e);
+        }
+    }
 
     /**
      * Finds the most specific models for the given {@link Resource}. The model's model
@@ -157,10 +198,12 @@ public class ModelRegistry {
 
         Key key = key(resource, modelName);
 
-        Collection<ResolvedModelSource<?>> matchingModels = this.lookupCache.get(key);
-        if (matchingModels == null) {
-            matchingModels = lookupCache.computeIfAbsent(key, k -> resolveMostSpecificModelSources(resource, modelName));
-        }
+        Collection<ResolvedModelSource<?>> matchingModels = this.lookupCache.get(key, k -> {
+            List<String> visitedTypes = new ArrayList<>();
+            return new CachedLookup(
+                    resolveMostSpecificModelSources(resource, modelName, visitedTypes), visitedTypes,
+                    resource, LookupRecord.Kind.MODEL_NAME, modelName);
+        }).models;
 
         return nullIfEmpty(matchingModels);
     }
@@ -180,10 +223,12 @@ public class ModelRegistry {
 
         final Key key = key(resource);
 
-        Collection<ResolvedModelSource<?>> matchingModels = this.lookupCache.get(key);
-        if (matchingModels == null) {
-            matchingModels = lookupCache.computeIfAbsent(key, k -> resolveMostSpecificModelSources(resource));
-        }
+        Collection<ResolvedModelSource<?>> matchingModels = this.lookupCache.get(key, k -> {
+            List<String> visitedTypes = new ArrayList<>();
+            return new CachedLookup(
+                    resolveModelSources(resource, null, true, visitedTypes), visitedTypes,
+                    resource, LookupRecord.Kind.MOST_SPECIFIC, null);
+        }).models;
 
         return nullIfEmpty(matchingModels);
     }
@@ -203,10 +248,12 @@ public class ModelRegistry {
 
         final Key key = key(resource, "allModels");
 
-        Collection<ResolvedModelSource<?>> matchingModels = this.lookupCache.get(key);
-        if (matchingModels == null) {
-            matchingModels = lookupCache.computeIfAbsent(key, k -> resolveModelSources(resource, null, false));
-        }
+        Collection<ResolvedModelSource<?>> matchingModels = this.lookupCache.get(key, k -> {
+            List<String> visitedTypes = new ArrayList<>();
+            return new CachedLookup(
+                    resolveModelSources(resource, null, false, visitedTypes), visitedTypes,
+                    resource, LookupRecord.Kind.ALL_MODELS, null);
+        }).models;
 
         return nullIfEmpty(matchingModels);
     }
@@ -229,14 +276,21 @@ public class ModelRegistry {
 
         final Key key = key(resource, targetType);
 
-        Collection<ResolvedModelSource<?>> matchingModels = this.lookupCache.get(key);
-        if (matchingModels == null) {
-            matchingModels = lookupCache.computeIfAbsent(key, k -> resolveMostSpecificModelSources(resource, targetType));
-        }
+        Collection<ResolvedModelSource<?>> matchingModels = this.lookupCache.get(key, k -> {
+            List<String> visitedTypes = new ArrayList<>();
+            return new CachedLookup(
+                    resolveModelSources(resource, targetType, true, visitedTypes), visitedTypes,
+                    resource, LookupRecord.Kind.TARGET_TYPE, targetType.getName());
+        }).models;
 
         return nullIfEmpty(matchingModels);
     }
 
+    @Activate
+    protected void activate(Configuration configuration) {
+        this.lookupCache = new LookupCache<>(configuration.lookupCacheCapacity());
+    }
+
     /**
      * Clears the registry upon shutdown.
      */
@@ -248,17 +302,24 @@ public class ModelRegistry {
     }
 
     /**
-     * Removes all resource models originating from the given bundle from this registry.
+     * Removes all resource models originating from the given bundle from this registry. Only the cached lookups
+     * that depend on the types of the removed models are invalidated.
      *
      * @param bundle must not be <code>null</code>.
      */
-    void removeResourceModels(final Bundle bundle) {
+    synchronized void removeResourceModels(final Bundle bundle) {
         this.logger.info("Removing resource models of bundle " + displayNameOf(bundle) + "...");
         MatchedBundlesPredicate sourcesWithBundles = new MatchedBundlesPredicate(bundle);
-        for (Collection<OsgiModelSource<?>> values : this.typeNameToModelSourcesMap.values()) {
-            CollectionUtils.filter(values, sourcesWithBundles);
-        }
-        clearLookupCaches();
+        Set<String> affectedTypes = new HashSet<>();
+        this.typeNameToModelSourcesMap.forEach((type, sources) -> {
+            int filteredElements = sourcesWithBundles.getFilteredElements();
+            CollectionUtils.filter(sources, sourcesWithBundles);
+            if (sourcesWithBundles.getFilteredElements() != filteredElements) {
+                affectedTypes.add(type);
+            }
+        });
+        this.lastModification = System.currentTimeMillis();
+        invalidateLookupsOf(affectedTypes, true);
         this.logger.info("Removed " + sourcesWithBundles.getFilteredElements()
                 + " resource models of bundle " + displayNameOf(bundle) + "...");
     }
@@ -277,16 +338,61 @@ public class ModelRegistry {
     }
 
     /**
-     * Adds the type[] -&t; model relationship to the registry.
+     * Adds the type[] -&gt; model relationship to the registry.
      *
      * @param types  must not be <code>null</code>.
      * @param source must not be <code>null</code>.
      */
-    public void add(String[] types, OsgiModelSource<?> source) {
+    public synchronized void add(String[] types, OsgiModelSource<?> source) {
+        boolean nodeTypesWereMapped = this.nodeTypesMayBeMapped;
+        register(types, source);
+        this.lastModification = System.currentTimeMillis();
+        invalidateLookupsOf(new HashSet<>(asList(types)), nodeTypesWereMapped);
+    }
+
+    /**
+     * Adds the type[] -&gt; model relationships of all provided sources to the registry. In contrast
+     * to {@link #add(String[], OsgiModelSource) adding} the sources one by one, the lookup caches are invalidated only once.
+     *
+     * @param typesBySource must not be <code>null</code>.
+     */
+    public synchronized void addAll(Map<OsgiModelSource<?>, String[]> typesBySource) {
+        if (typesBySource == null) {
+            throw new IllegalArgumentException("Method argument typesBySource must not be null.");
+        }
+        boolean nodeTypesWereMapped = this.nodeTypesMayBeMapped;
+        Set<String> affectedTypes = new HashSet<>();
+        typesBySource.forEach((source, types) -> {
+            register(types, source);
+            affectedTypes.addAll(asList(types));
+        });
+        this.lastModification = System.currentTimeMillis();
+        invalidateLookupsOf(affectedTypes, nodeTypesWereMapped);
+    }
+
+    private void register(String[] types, OsgiModelSource<?> source) {
         for (String resourceType : types) {
             this.typeNameToModelSourcesMap.put(resourceType, source);
+            if (resourceType.indexOf('/') == -1) {
+                this.nodeTypesMayBeMapped = true;
+            }
         }
-        clearLookupCaches();
+    }
+
+    /**
+     * Invalidates the cached lookups depending on any of the given types. If node types became mappable, all lookups
+     * are invalidated, as their {@link #key(Resource, Object...) keys} do not contain the node types of the resources.
+     */
+    private void invalidateLookupsOf(Set<String> types, boolean nodeTypesWereMapped) {
+        if (!nodeTypesWereMapped && this.nodeTypesMayBeMapped) {
+            clearLookupCaches();
+            return;
+        }
+        if (types.isEmpty()) {
+            return;
+        }
+        int invalidated = this.lookupCache.removeIf(lookup -> lookup.dependsOnAny(types));
+        this.logger.debug("Invalidated {} cached lookups depending on {} changed types.", invalidated, types.size());
     }
 
     /**
@@ -297,34 +403,49 @@ public class ModelRegistry {
     }
 
     /**
-     * Clears all quick lookup caches for resource models, but
-     * not the registry itself.
+     * @return the capacity, size, hit, miss and eviction counters and load times of the model lookup cache.
+     * Never <code>null</code>.
      */
-    void clearLookupCaches() {
-        this.lookupCache.clear();
-        this.logger.debug("Cache cleared.");
+    public Map<String, Object> getLookupCacheStatistics() {
+        return this.lookupCache.getStatistics();
     }
 
-    private void clearRegisteredModels() {
-        this.typeNameToModelSourcesMap.clear();
-        this.logger.debug("Registry cleared.");
+    /**
+     * @param max the maximum number of records.
+     * @return records of the most frequently used lookups, e.g. for {@link LookupCacheWarmup warming up} the lookup cache
+     * after a restart. Never <code>null</code>.
+     */
+    List<LookupRecord> getFrequentLookups(int max) {
+        List<CachedLookup> lookups = this.lookupCache.getFrequentlyUsedValues(max);
+        List<LookupRecord> records = new ArrayList<>(lookups.size());
+        for (CachedLookup lookup : lookups) {
+            if (lookup.record != null) {
+                records.add(lookup.record);
+            }
+        }
+        return records;
     }
 
     /**
-     * @see #resolveMostSpecificModelSources(org.apache.sling.api.resource.Resource, Class)
+     * @return the time of the last addition or removal of models, in milliseconds since the epoch.
      */
-    private Collection<ResolvedModelSource<?>> resolveMostSpecificModelSources(Resource resource) {
-        return resolveMostSpecificModelSources(resource, (Class<?>) null);
+    public long getLastModification() {
+        return this.lastModification;
     }
 
     /**
-     * @see #resolveModelSources(org.apache.sling.api.resource.Resource, Class, boolean)
+     * Clears all quick lookup caches for resource models, but
+     * not the registry itself.
      */
-    private Collection<ResolvedModelSource<?>> resolveMostSpecificModelSources(
-            Resource resource,
-            Class<?> compatibleType) {
+    void clearLookupCaches() {
+        this.lookupCache.clear();
+        this.logger.debug("Cache cleared.");
+    }
 
-        return resolveModelSources(resource, compatibleType, true);
+    private void clearRegisteredModels() {
+        this.typeNameToModelSourcesMap.clear();
+        this.nodeTypesMayBeMapped = false;
+        this.logger.debug("Registry cleared.");
     }
 
     /**
@@ -335,11 +456,15 @@ public class ModelRegistry {
      * @param compatibleType      can be <code>null</code>. If provided, only models
      *                            compatible to the given type are returned.
      * @param resolveMostSpecific whether to resolve only the most specific models.
+     * @param visitedTypes        must not be <code>null</code>. Receives the types the result depends on, i.e. the mappable types
+     *                            that were inspected.
      * @return never <code>null</code> but rather an empty collection.
      */
-    private Collection<ResolvedModelSource<?>> resolveModelSources(Resource resource, Class<?> compatibleType, boolean resolveMostSpecific) {
+    private Collection<ResolvedModelSource<?>> resolveModelSources(Resource resource, Class<?> compatibleType, boolean resolveMostSpecific,
+                                                                   Collection<String> visitedTypes) {
         Collection<ResolvedModelSource<?>> sources = new ArrayList<>(64);
         for (final String resourceType : mappableTypeHierarchyOf(resource)) {
+            visitedTypes.add(resourceType);
             Collection<OsgiModelSource<?>> allSourcesForType = this.typeNameToModelSourcesMap.get(resourceType);
             Collection<OsgiModelSource<?>> sourcesForCompatibleType = filter(allSourcesForType, compatibleType);
             if (sourcesForCompatibleType != null && !sourcesForCompatibleType.isEmpty()) {
@@ -363,12 +488,15 @@ public class ModelRegistry {
      * matches the given model name.
      *
      * @param resource  must not be <code>null</code>.
-     * @param modelName can be <code>null</code>.
+     * @param modelName    can be <code>null</code>.
+     * @param visitedTypes must not be <code>null</code>. Receives the types the result depends on, i.e. the mappable types
+     *                     that were inspected.
      * @return never <code>null</code> but rather an empty collection.
      */
-    private Collection<ResolvedModelSource<?>> resolveMostSpecificModelSources(Resource resource, String modelName) {
+    private Collection<ResolvedModelSource<?>> resolveMostSpecificModelSources(Resource resource, String modelName, Collection<String> visitedTypes) {
         Collection<ResolvedModelSource<?>> sources = new ArrayList<>();
         for (final String resourceType : mappableTypeHierarchyOf(resource)) {
+            visitedTypes.add(resourceType);
             Collection<OsgiModelSource<?>> allSourcesForType = this.typeNameToModelSourcesMap.get(resourceType);
             Collection<OsgiModelSource<?>> sourcesWithMatchingModelName = filter(allSourcesForType, modelName);
             if (sourcesWithMatchingModelName != null && !sourcesWithMatchingModelName.isEmpty()) {
@@ -383,4 +511,46 @@ public class ModelRegistry {
         }
         return unmodifiableCollection(sources);
     }
+
+    /**
+     * The cached result of a lookup, the mappable types the result depends on and the {@link LookupRecord record}
+     * describing the lookup, if the resource has a path.
+     */
+    private static final class CachedLookup {
+        private final Collection<ResolvedModelSource<?>> models;
+        private final String[] visitedTypes;
+        private final LookupRecord record;
+
+        private CachedLookup(Collection<ResolvedModelSource<?>> models, Collection<String> visitedTypes,
+                             Resource resource, LookupRecord.Kind kind, String argument) {
+            this.models = models;
+            this.visitedTypes = visitedTypes.toArray(new String[0]);
+            String path = resource.getPath();
+            this.record = path == null ? null : new LookupRecord(path, kind, argument);
+        }
+
+        /**
+         * A lookup result may only change if models are added to or removed from a type that was inspected
+         * during the lookup.
+         */
+        private boolean dependsOnAny(Set<String> types) {
+            for (String type : this.visitedTypes) {
+                if (types.contains(type)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    @ObjectClassDefinition(name = "NEBA model registry", description = "Registers the @ResourceModels of all bundles and looks up the models for resources.")
+    public @interface Configuration {
+        @AttributeDefinition(
+                name = "Lookup cache capacity",
+                description = "The maximum number of cached model lookups. Each distinct combination of resource type, " +
+                        "resource super type, node types and requested model type or name requires an entry. " +
+                        "Rarely used entries are evicted once the capacity is exceeded. The cache statistics " +
+                        "shown in the model registry console help to determine a suitable capacity.")
+        int lookupCacheCapacity() default DEFAULT_LOOKUP_CACHE_CAPACITY;
+    }
 }
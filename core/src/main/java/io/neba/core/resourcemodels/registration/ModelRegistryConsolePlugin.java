@@ -393,7 +393,23 @@ public class ModelRegistryConsolePlugin extends AbstractWebConsolePlugin {
                 " is <a href='" + getServletContext().getContextPath() + "/system/console/configMgr/'>configured</a>" +
                 " or the mapping is invalid, and using the default admin account has failed." +
                 " This console plugin will not be able to access the repository.");
-        response.getWriter().printf(template, getNumberOfModels(), configurationHint);
+        response.getWriter().printf(template, getNumberOfModels(), getLookupCacheSummary(), configurationHint);
+    }
+
+    private String getLookupCacheSummary() {
+        Map<String, Object> statistics = this.registry.getLookupCacheStatistics();
+        if (statistics.isEmpty()) {
+            return "";
+        }
+        return String.format(
+                "<br /> Lookup cache: %s of %s entries used, %s hits, %s misses (hit ratio %.1f%%), %s evictions, %.3f ms average lookup time on misses.",
+                statistics.get("size"),
+                statistics.get("capacity"),
+                statistics.get("hits"),
+                statistics.get("misses"),
+                ((Number) statistics.get("hitRatio")).doubleValue() * 100,
+                statistics.get("evictions"),
+                ((Number) statistics.get("averageLoadTime")).doubleValue());
     }
 
     private Object getNumberOfModels() {
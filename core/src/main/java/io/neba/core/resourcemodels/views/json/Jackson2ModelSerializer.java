@@ -16,8 +16,10 @@
 package io.neba.core.resourcemodels.views.json;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import io.neba.core.resourcemodels.mapping.Mapping;
 import io.neba.core.resourcemodels.views.json.JsonViewSupport.Configuration;
@@ -25,16 +27,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.Map;
 import java.util.function.Supplier;
 
+import static com.fasterxml.jackson.databind.SerializationFeature.FLUSH_AFTER_WRITE_VALUE;
 import static java.lang.Boolean.parseBoolean;
 import static java.util.Arrays.stream;
 
 /**
- * Writes arbitrary objects to JSON.
+ * Writes arbitrary objects to JSON or, if the respective optional jackson dataformat modules are present,
+ * to one of the binary {@link ViewFormat formats}. All formats share the same {@link ObjectMapper} and thus
+ * the same {@link JsonViewSupport} configuration.
  */
 class Jackson2ModelSerializer {
     private static final String SERIALIZATION_PREFIX = SerializationFeature.class.getSimpleName() + ".";
@@ -43,6 +52,7 @@ class Jackson2ModelSerializer {
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final JsonFactory jsonFactory;
     private final ObjectMapper mapper;
+    private final Map<ViewFormat, JsonFactory> binaryFactories = new EnumMap<>(ViewFormat.class);
 
     Jackson2ModelSerializer(@Nonnull Supplier<Map<Object, Mapping<?>>> recordedMappingsSupplier, @Nonnull String[] jacksonConfigurations, boolean addTypeAttribute) {
         this.mapper = new ObjectMapper();
@@ -53,6 +63,11 @@ class Jackson2ModelSerializer {
             }
         }));
         this.jsonFactory = new JsonFactory();
+        for (ViewFormat format : ViewFormat.values()) {
+            if (format.isBinary()) {
+                loadBinaryFactory(format);
+            }
+        }
 
         stream(jacksonConfigurations)
                 .map(config -> config.split("="))
@@ -81,10 +96,105 @@ class Jackson2ModelSerializer {
                 });
     }
 
+    /**
+     * The binary dataformat modules are optional. Their factories are thus loaded reflectively, i.e. without a
+     * static dependency to the respective module.
+     */
+    private void loadBinaryFactory(@Nonnull ViewFormat format) {
+        try {
+            Class<?> factoryType = getClass().getClassLoader().loadClass(format.getFactoryClassName());
+            this.binaryFactories.put(format, (JsonFactory) factoryType.getDeclaredConstructor().newInstance());
+            logger.info("Found {} from {}. The {} format is enabled for JSON views.", factoryType.getName(), factoryType.getClassLoader(), format);
+        } catch (ClassNotFoundException | LinkageError e) {
+            logger.debug("The {} format is not available for JSON views since {} cannot be found.", format, format.getFactoryClassName());
+        } catch (ReflectiveOperationException e) {
+            logger.error("Unable to instantiate " + format.getFactoryClassName() + ", the " + format + " format is not available for JSON views.", e);
+        }
+    }
+
+    /**
+     * Pre-builds and caches the serializers of the given types. Serializers are otherwise built when a type is first
+     * serialized, i.e. during a request.
+     *
+     * @param types must not be <code>null</code>.
+     * @return the number of types for which a serializer was built.
+     */
+    int warmUp(@Nonnull Collection<Class<?>> types) {
+        int serializable = 0;
+        for (Class<?> type : types) {
+            try {
+                if (this.mapper.canSerialize(type)) {
+                    ++serializable;
+                }
+            } catch (RuntimeException | LinkageError e) {
+                logger.debug("Unable to pre-build the serializer for {}, the serializer is built upon first use.", type, e);
+            }
+        }
+        return serializable;
+    }
+
+    /**
+     * @return whether the given format can be {@link #serialize(OutputStream, Object, ViewFormat) serialized}.
+     */
+    boolean supports(@Nonnull ViewFormat format) {
+        return !format.isBinary() || this.binaryFactories.containsKey(format);
+    }
+
     void serialize(@Nonnull PrintWriter writer, @Nonnull Object model) throws IOException {
         this.jsonFactory
                 .createGenerator(writer)
                 .setCodec(this.mapper)
                 .writeObject(model);
     }
+
+    /**
+     * @return a writer serializing one model per line to the given writer. Must be {@link LineWriter#close() closed} after use.
+     */
+    @Nonnull
+    LineWriter lineWriter(@Nonnull PrintWriter writer) throws IOException {
+        return new LineWriter(this.mapper.writer().without(FLUSH_AFTER_WRITE_VALUE), this.jsonFactory.createGenerator(writer));
+    }
+
+    /**
+     * @param format must be {@link #supports(ViewFormat) supported}.
+     */
+    void serialize(@Nonnull OutputStream out, @Nonnull Object model, @Nonnull ViewFormat format) throws IOException {
+        JsonFactory factory = format.isBinary() ? this.binaryFactories.get(format) : this.jsonFactory;
+        if (factory == null) {
+            throw new IllegalArgumentException("The format " + format + " is not supported.");
+        }
+        factory.createGenerator(out)
+                .setCodec(this.mapper)
+                .writeObject(model);
+    }
+
+    /**
+     * Writes <a href="http://ndjson.org/">newline-delimited JSON</a> using a single generator. Models are not flushed
+     * individually; the output is only flushed when explicitly requested or when the writer is closed.
+     */
+    static class LineWriter implements Closeable {
+        private final ObjectWriter writer;
+        private final JsonGenerator generator;
+
+        private LineWriter(@Nonnull ObjectWriter writer, @Nonnull JsonGenerator generator) {
+            this.writer = writer;
+            this.generator = generator;
+            // Root values are separated by line breaks instead of the default space.
+            this.generator.setRootValueSeparator(null);
+        }
+
+        void write(@Nonnull Object model) throws IOException {
+            this.writer.writeValue(this.generator, model);
+            this.generator.writeRaw('\n');
+        }
+
+        void flush() throws IOException {
+            this.generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.generator.close();
+        }
+    }
 }
@@ -16,9 +16,16 @@
 package io.neba.core.resourcemodels.views.json;
 
 import io.neba.api.services.ResourceModelResolver;
+import io.neba.core.resourcemodels.mapping.AnnotatedFieldMappers;
 import io.neba.core.resourcemodels.mapping.NestedMappingSupport;
+import io.neba.core.resourcemodels.metadata.MappedFieldMetaData;
+import io.neba.core.resourcemodels.metadata.ResourceModelMetaData;
+import io.neba.core.resourcemodels.metadata.ResourceModelMetaDataRegistrar;
+import io.neba.core.resourcemodels.registration.ModelRegistry;
+import io.neba.core.util.OsgiModelSource;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.servlets.SlingAllMethodsServlet;
 import org.osgi.framework.BundleEvent;
 import org.osgi.framework.BundleListener;
@@ -34,14 +41,29 @@ import org.osgi.service.metatype.annotations.Option;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.servlet.Servlet;
 import java.io.IOException;
+import java.util.Collection;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.regex.Pattern;
 
+import static io.neba.core.resourcemodels.views.json.ViewFormat.JSON;
+import static io.neba.core.resourcemodels.views.json.ViewFormat.NDJSON;
 import static io.neba.core.util.BundleUtil.displayNameOf;
+import static java.util.Arrays.stream;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Collections.emptySet;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.regex.Pattern.compile;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
 import static javax.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
@@ -49,7 +71,10 @@ import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
 
 @Component(
         property = {
-                "sling.servlet.extensions=json"
+                "sling.servlet.extensions=json",
+                "sling.servlet.extensions=smile",
+                "sling.servlet.extensions=cbor",
+                "sling.servlet.extensions=ndjson"
         },
         service = Servlet.class
 )
@@ -58,6 +83,12 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
     private static final Logger LOGGER = LoggerFactory.getLogger(JsonViewServlets.class);
     private static final Pattern EXPECTED_MODEL_NAME = compile("[A-z0-9_\\-#]+");
     private static final long serialVersionUID = -7762218328479266916L;
+    /**
+     * Models are registered in bulk per bundle, but several bundles are usually (re-)deployed together. The serializer is refreshed
+     * once the registered models have not changed for this period, rather than once per bundle.
+     */
+    private static final long REGISTRATION_QUIET_PERIOD_MILLIS = 2000;
+    private static final long REGISTRATION_POLL_INTERVAL_SECONDS = 1;
 
     @Reference
     private ResourceModelResolver modelResolver;
@@ -65,7 +96,22 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
     @Reference
     private NestedMappingSupport nestedMappingSupport;
 
-    private Jackson2ModelSerializer serializer;
+    @Reference
+    private ModelRegistry modelRegistry;
+
+    @Reference
+    private ResourceModelMetaDataRegistrar metaDataRegistrar;
+
+    @Reference
+    private AnnotatedFieldMappers fieldMappers;
+
+    private volatile Jackson2ModelSerializer serializer;
+    // The IDs of the bundles whose models were registered when the serializer was last refreshed. These bundles may
+    // already be unregistered from the model registry when they are stopped, thus they must be remembered.
+    private volatile Set<Long> modelBundleIds = emptySet();
+    // The last modification of the model registry reflected by the current serializer.
+    private volatile long refreshedModification;
+    private ScheduledExecutorService executorService;
     private Configuration configuration;
     private String bundleName;
     private ComponentContext context;
@@ -77,22 +123,72 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
         this.context = context;
         this.context.getBundleContext().addBundleListener(this);
         refresh();
+
+        if (this.serializer == null) {
+            // The optional Jackson dependency is missing, there is nothing to refresh.
+            return;
+        }
+        if (this.executorService == null) {
+            this.executorService = newSingleThreadScheduledExecutor();
+        }
+        this.executorService.scheduleWithFixedDelay(
+                this::refreshIfModelsChanged,
+                REGISTRATION_POLL_INTERVAL_SECONDS,
+                REGISTRATION_POLL_INTERVAL_SECONDS,
+                SECONDS);
     }
 
     @Deactivate
     protected void deactivate() {
         this.context.getBundleContext().removeBundleListener(this);
+        if (this.executorService != null) {
+            this.executorService.shutdownNow();
+        }
+    }
+
+    void setExecutorService(ScheduledExecutorService executorService) {
+        this.executorService = executorService;
     }
 
     /**
-     * Check if the optional Jackson dependency is available
+     * Models are registered asynchronously, e.g. once the application context of a model bundle is started.
+     * Refreshes the serializer once the registered models have changed and
+     * the {@link #REGISTRATION_QUIET_PERIOD_MILLIS registration has settled}, such that new models are warmed up.
+     */
+    void refreshIfModelsChanged() {
+        try {
+            long lastModification = this.modelRegistry.getLastModification();
+            if (lastModification != this.refreshedModification &&
+                    currentTimeMillis() - lastModification >= REGISTRATION_QUIET_PERIOD_MILLIS) {
+                refresh();
+            }
+        } catch (RuntimeException e) {
+            // Do not suppress subsequent executions of this periodic task.
+            LOGGER.error("Unable to refresh the JSON view serializer after the registered models have changed.", e);
+        }
+    }
+
+    /**
+     * Check if the optional Jackson dependency is available. If so, creates a new serializer and
+     * {@link Jackson2ModelSerializer#warmUp(Collection) warms it up} using all currently registered models before
+     * it replaces the current serializer. Thus, requests are never served by a cold serializer after a refresh.
      */
     public void refresh() {
         //
         try {
             Class<?> generatorClass = getClass().getClassLoader().loadClass("com.fasterxml.jackson.core.JsonGenerator");
             LOGGER.info("Found JSON generator from {}. JSON views are enabled.", generatorClass.getClassLoader());
-            this.serializer = new Jackson2ModelSerializer(nestedMappingSupport::getRecordedMappings, this.configuration.jacksonSettings(), this.configuration.addTypeAttribute());
+            long lastModification = this.modelRegistry.getLastModification();
+            Jackson2ModelSerializer serializer = new Jackson2ModelSerializer(nestedMappingSupport::getRecordedMappings, this.configuration.jacksonSettings(), this.configuration.addTypeAttribute());
+
+            List<OsgiModelSource<?>> modelSources = this.modelRegistry.getModelSources();
+            List<Class<?>> modelTypes = modelSources.stream().map(OsgiModelSource::getModelType).collect(toList());
+            int warmedUp = serializer.warmUp(modelTypes);
+            LOGGER.debug("Pre-built the JSON serializers of {} out of {} models.", warmedUp, modelTypes.size());
+
+            this.modelBundleIds = modelSources.stream().map(OsgiModelSource::getBundleId).collect(toSet());
+            this.serializer = serializer;
+            this.refreshedModification = lastModification;
         } catch (ClassNotFoundException e) {
             LOGGER.info("JSON views will not be available since Jackson2 cannot be found from bundle {}. Jackson is an optional dependency. " +
                     "To use the NEBA model to JSON mapping, install at least the jackson-core " +
@@ -102,7 +198,15 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
 
     /**
      * The expected pattern is
-     * /some/resource/path.[general json view selector].[optional model name selector].json
+     * /some/resource/path.[general json view selector].[optional model name selector].[json|smile|cbor]
+     * <p>
+     * The binary formats Smile and CBOR are only available if the respective jackson dataformat module is present.
+     * They are either requested explicitly via the extension or negotiated via the <code>Accept</code> header
+     * of a <code>.json</code> request.
+     * <p>
+     * The <code>ndjson</code> extension streams the {@link io.neba.api.annotations.Children} of the model of the requested resource as
+     * <a href="http://ndjson.org/">newline-delimited JSON</a>, one element per line. Each child is adapted and written
+     * before the next child is adapted; the elements are thus neither collected in a list nor buffered as a whole.
      */
     @Override
     protected void doGet(@Nonnull SlingHttpServletRequest request, @Nonnull SlingHttpServletResponse response) throws IOException {
@@ -112,9 +216,18 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
             return;
         }
 
+        ViewFormat format = resolveFormat(request);
+        if (format == null) {
+            response.sendError(SC_NOT_FOUND, "The requested format is not available.");
+            return;
+        }
+
         String etag = null;
-        if (configuration.generateEtag()) {
-            etag = "W/\"" + request.getResource().getResourceMetadata().getModificationTime() + "-" + request.getResource().getPath() + '"';
+        // The modification date of the requested resource does not reflect changes to its children, thus a streamed
+        // view of the children cannot be validated using the etag.
+        if (configuration.generateEtag() && format != NDJSON) {
+            etag = "W/\"" + request.getResource().getResourceMetadata().getModificationTime() + "-" + request.getResource().getPath() +
+                    (format == JSON ? "" : "-" + format.getExtension()) + '"';
             Enumeration<String> clientEtags = request.getHeaders("If-None-Match");
             if (clientEtags.hasMoreElements()) {
                 while (clientEtags.hasMoreElements()) {
@@ -126,49 +239,192 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
             }
         }
 
+        String[] selectors = request.getRequestPathInfo().getSelectors();
+        if (selectors.length != 1 && selectors.length != 2) {
+            response.sendError(SC_BAD_REQUEST, "Invalid selectors. The expected format is <json servlet selector>[.<optional model name>]");
+            return;
+        }
+
+        String modelName = selectors.length == 2 ? selectors[1] : null;
+        if (modelName != null && !EXPECTED_MODEL_NAME.matcher(modelName).matches()) {
+            // XSS security check: Since we echo the model name if no model was found and the model name is user input, we must make sure
+            // only to echo or record input matching a specific format.
+            response.sendError(SC_BAD_REQUEST, "Invalid model name. The model name must match the pattern " + EXPECTED_MODEL_NAME.pattern());
+            return;
+        }
+
+        if (format == NDJSON) {
+            streamChildren(request, response, modelName);
+            return;
+        }
+
         nestedMappingSupport.beginRecordingMappings();
         try {
-            String[] selectors = request.getRequestPathInfo().getSelectors();
-            Object model;
-
-            if (selectors.length == 1) {
-                model = modelResolver.resolveMostSpecificModel(request.getResource());
-                if (model == null) {
-                    response.sendError(SC_NOT_FOUND, "No model could be resolved for resource " + request.getResource().getPath());
-                    return;
-                }
-            } else if (selectors.length == 2) {
-                String modelName = selectors[1];
-
-                if (!EXPECTED_MODEL_NAME.matcher(modelName).matches()) {
-                    // XSS security check: Since we echo the model name if no model was found and the model name is user input, we must make sure
-                    // only to echo or record input matching a specific format.
-                    response.sendError(SC_BAD_REQUEST, "Invalid model name. The model name must match the pattern " + EXPECTED_MODEL_NAME.pattern());
-                    return;
-                }
-
-                model = modelResolver.resolveMostSpecificModelWithName(request.getResource(), modelName);
-                if (model == null) {
-                    response.sendError(SC_NOT_FOUND, "No model with name " + modelName + " could be resolved for resource " + request.getResource().getPath());
-                    return;
-                }
-            } else {
-                response.sendError(SC_BAD_REQUEST, "Invalid selectors. The expected format is <json servlet selector>[.<optional model name>]");
+            Object model = resolveModel(request, response, modelName);
+            if (model == null) {
                 return;
             }
 
-            response.setContentType("application/json");
+            response.setContentType(format.getContentType());
             response.setHeader("Cache-Control", configuration.cacheControlHeader());
             if (etag != null) {
                 response.setHeader("Etag", etag);
             }
-            response.setCharacterEncoding(this.configuration.encoding());
-            serializer.serialize(response.getWriter(), model);
+            if (isNegotiable(request)) {
+                response.setHeader("Vary", "Accept");
+            }
+
+            if (format.isBinary()) {
+                serializer.serialize(response.getOutputStream(), model, format);
+            } else {
+                response.setCharacterEncoding(this.configuration.encoding());
+                serializer.serialize(response.getWriter(), model);
+            }
         } finally {
             nestedMappingSupport.endRecordingMappings();
         }
     }
 
+    /**
+     * @return the most specific model of the requested resource, or the most specific model with the given name. If no such
+     * model exists, responds with {@link javax.servlet.http.HttpServletResponse#SC_NOT_FOUND} and returns <code>null</code>.
+     */
+    @CheckForNull
+    private Object resolveModel(@Nonnull SlingHttpServletRequest request, @Nonnull SlingHttpServletResponse response, @CheckForNull String modelName) throws IOException {
+        if (modelName == null) {
+            Object model = modelResolver.resolveMostSpecificModel(request.getResource());
+            if (model == null) {
+                response.sendError(SC_NOT_FOUND, "No model could be resolved for resource " + request.getResource().getPath());
+            }
+            return model;
+        }
+
+        Object model = modelResolver.resolveMostSpecificModelWithName(request.getResource(), modelName);
+        if (model == null) {
+            response.sendError(SC_NOT_FOUND, "No model with name " + modelName + " could be resolved for resource " + request.getResource().getPath());
+        }
+        return model;
+    }
+
+    /**
+     * Writes the elements of the {@link io.neba.api.annotations.Children} field of the model of the requested resource as
+     * newline-delimited JSON. The children are listed and adapted just like when the field is mapped, but one by one
+     * instead of collecting them. Mappings are recorded per child, such that the recorded mappings do not grow with the number of children.
+     * <br />
+     * Only fields whose elements can be obtained this way are streamed, i.e. fields for the children of the model's resource
+     * without {@link io.neba.api.annotations.Path}, {@link io.neba.api.annotations.Reference}, <code>resolveBelowEveryChild</code>
+     * or custom field mappers. Other fields and models without exactly one such field are rejected with
+     * {@link javax.servlet.http.HttpServletResponse#SC_BAD_REQUEST}.
+     *
+     * @param modelName can be <code>null</code>, in which case the most specific model of the requested resource is used.
+     */
+    private void streamChildren(@Nonnull SlingHttpServletRequest request, @Nonnull SlingHttpServletResponse response, @CheckForNull String modelName) throws IOException {
+        final MappedFieldMetaData childrenField;
+        nestedMappingSupport.beginRecordingMappings();
+        try {
+            Object model = resolveModel(request, response, modelName);
+            if (model == null) {
+                return;
+            }
+            childrenField = getStreamableChildrenField(model, response);
+            if (childrenField == null) {
+                return;
+            }
+        } finally {
+            nestedMappingSupport.endRecordingMappings();
+        }
+
+        response.setContentType(NDJSON.getContentType());
+        response.setHeader("Cache-Control", configuration.cacheControlHeader());
+        response.setCharacterEncoding(this.configuration.encoding());
+
+        final Class<?> elementType = childrenField.getTypeParameter();
+        final int flushInterval = this.configuration.ndjsonFlushInterval();
+        int linesSinceFlush = 0;
+
+        try (Jackson2ModelSerializer.LineWriter lines = serializer.lineWriter(response.getWriter())) {
+            Iterator<Resource> children = request.getResource().listChildren();
+            while (children.hasNext()) {
+                Resource child = children.next();
+                nestedMappingSupport.beginRecordingMappings();
+                try {
+                    Object element = elementType.isInstance(child) ? child : child.adaptTo(elementType);
+                    if (element == null) {
+                        continue;
+                    }
+                    lines.write(element);
+                } finally {
+                    nestedMappingSupport.endRecordingMappings();
+                }
+
+                if (flushInterval > 0 && ++linesSinceFlush == flushInterval) {
+                    lines.flush();
+                    linesSinceFlush = 0;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the {@link io.neba.api.annotations.Children} field of the model if it {@link #streamChildren can be streamed}. Otherwise,
+     * responds with {@link javax.servlet.http.HttpServletResponse#SC_BAD_REQUEST} and returns <code>null</code>.
+     */
+    @CheckForNull
+    private MappedFieldMetaData getStreamableChildrenField(@Nonnull Object model, @Nonnull SlingHttpServletResponse response) throws IOException {
+        final ResourceModelMetaData metaData = this.metaDataRegistrar.get(model.getClass());
+        final String typeName = metaData.getTypeName();
+        final List<MappedFieldMetaData> childrenFields = stream(metaData.getMappableFields())
+                .filter(MappedFieldMetaData::isChildrenAnnotationPresent)
+                .collect(toList());
+
+        if (childrenFields.size() != 1) {
+            response.sendError(SC_BAD_REQUEST, "Only models with exactly one @Children field can be streamed, " +
+                    "but the model " + typeName + " has " + childrenFields.size() + ".");
+            return null;
+        }
+
+        MappedFieldMetaData field = childrenFields.get(0);
+        if (field.isReference() ||
+                field.isPathAnnotationPresent() ||
+                field.isResolveBelowEveryChildPathPresentOnChildren() ||
+                this.fieldMappers.get(field).length != 0) {
+            response.sendError(SC_BAD_REQUEST, "The @Children field " + field.getField().getName() + " of the model " + typeName +
+                    " cannot be streamed. Only the children of the model's resource without @Path, @Reference, " +
+                    "resolveBelowEveryChild or custom field mappers can be streamed.");
+            return null;
+        }
+        return field;
+    }
+
+    /**
+     * @return the format explicitly requested via the extension, the format negotiated via the <code>Accept</code> header for
+     * <code>.json</code> requests, or <code>null</code> if a format was requested explicitly but is not available.
+     */
+    @CheckForNull
+    private ViewFormat resolveFormat(@Nonnull SlingHttpServletRequest request) {
+        ViewFormat format = ViewFormat.forExtension(request.getRequestPathInfo().getExtension());
+        if (format == null || format == JSON) {
+            return ViewFormat.negotiate(request.getHeader("Accept"), this.serializer::supports);
+        }
+        return this.serializer.supports(format) ? format : null;
+    }
+
+    /**
+     * @return whether the response format depends on the <code>Accept</code> header, i.e. whether caches must vary by it.
+     */
+    private boolean isNegotiable(@Nonnull SlingHttpServletRequest request) {
+        ViewFormat requested = ViewFormat.forExtension(request.getRequestPathInfo().getExtension());
+        if (requested != null && requested != JSON) {
+            return false;
+        }
+        for (ViewFormat format : ViewFormat.values()) {
+            if (format.isBinary() && this.serializer.supports(format)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @Override
     public void init() {
         LOGGER.info("Servlet instance started");
@@ -181,9 +437,27 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
 
     @Override
     public void bundleChanged(BundleEvent event) {
-        // We do not care about the specific type of bundle change but generally assume it may potentially cause
-        // classes to change that have been cached in the object mapper.
-        refresh();
+        // Unresolved bundles discard their classes. Only bundles contributing models can change classes that have been cached
+        // in the object mapper. Rebuilding the serializer discards all of jackson's serializer caches, thus all other bundles are ignored.
+        // New models are warmed up once they are registered, see refreshIfModelsChanged().
+        if (event.getType() != BundleEvent.UNRESOLVED) {
+            return;
+        }
+        if (isModelBundle(event.getBundle().getBundleId())) {
+            refresh();
+        }
+    }
+
+    private boolean isModelBundle(long bundleId) {
+        if (this.modelBundleIds.contains(bundleId)) {
+            return true;
+        }
+        for (OsgiModelSource<?> source : this.modelRegistry.getModelSources()) {
+            if (source.getBundleId() == bundleId) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @ObjectClassDefinition(
@@ -192,7 +466,10 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
                     "Renders resources as JSON using a NEBA model." +
                             "The used model is either the most specific NEBA model for the requested resource's type or a model " +
                             "with the name specified in the selectors, provided that model is for a compatible resource type. " +
-                            "The JSON view can thus be resolved using </resource/path>.<one of the configured selectors>[.<optional specific model name>].json")
+                            "The JSON view can thus be resolved using </resource/path>.<one of the configured selectors>[.<optional specific model name>].json. " +
+                            "If the jackson-dataformat-smile or jackson-dataformat-cbor bundles are installed, the view is also available in the respective binary format, " +
+                            "either using the .smile or .cbor extension or by sending an Accept header with application/x-jackson-smile or application/cbor. " +
+                            "Using the .ndjson extension streams the @Children of the model of the resource as newline-delimited JSON, one element per line.")
     public @interface Configuration {
         @AttributeDefinition(
                 name = "Encoding",
@@ -245,6 +522,12 @@ public class JsonViewServlets extends SlingAllMethodsServlet implements BundleLi
                         "This is useful e.g. to determine the frontend components responsible for rendering generated JSON.")
         boolean addTypeAttribute() default false;
 
+        @AttributeDefinition(
+                name = "NDJSON flush interval",
+                description = "When streaming the @Children of a model as newline-delimited JSON (.ndjson), flush the response " +
+                        "after this number of elements were written. A value of 0 or less only flushes the response once all elements were written.")
+        int ndjsonFlushInterval() default 100;
+
         @AttributeDefinition(
                 name = "Generate Etag",
                 description = "Generate an Etag header based on the path and modification date of the request's resource. " +
@@ -82,23 +82,46 @@ class JsonViewSupport extends SimpleModule {
         private static final long serialVersionUID = -2810312324356307359L;
         private final Supplier<Map<Object, Mapping<?>>> mappings;
         private final Configuration configuration;
+        // Whether the bean defines its own ":type" property, for the unfiltered and filtered properties.
+        // The property names of a serializer instance never change, thus this is computed once per instance.
+        private final boolean hasTypeProperty;
+        private final boolean hasFilteredTypeProperty;
 
         ResourceModelSerializer(Supplier<Map<Object, Mapping<?>>> mappings, BeanSerializer bs, Configuration configuration) {
             super(bs);
             this.mappings = mappings;
             this.configuration = configuration;
+            this.hasTypeProperty = containsTypeProperty(_props);
+            this.hasFilteredTypeProperty = containsTypeProperty(_filteredProps);
         }
 
         ResourceModelSerializer(BeanSerializerBase src, ObjectIdWriter objectIdWriter, Object filterId, Supplier<Map<Object, Mapping<?>>> mappings, Configuration configuration) {
             super(src, objectIdWriter, filterId);
             this.mappings = mappings;
             this.configuration = configuration;
+            this.hasTypeProperty = containsTypeProperty(_props);
+            this.hasFilteredTypeProperty = containsTypeProperty(_filteredProps);
         }
 
         ResourceModelSerializer(BeanSerializerBase src, Set<String> toIgnore, Supplier<Map<Object, Mapping<?>>> mappings, Configuration configuration) {
             super(src, toIgnore);
             this.mappings = mappings;
             this.configuration = configuration;
+            this.hasTypeProperty = containsTypeProperty(_props);
+            this.hasFilteredTypeProperty = containsTypeProperty(_filteredProps);
+        }
+
+        private static boolean containsTypeProperty(BeanPropertyWriter[] properties) {
+            if (properties == null) {
+                return false;
+            }
+            for (BeanPropertyWriter property : properties) {
+                // Filtered properties may contain null elements for properties excluded from a view
+                if (property != null && property.getName().equals(":type")) {
+                    return true;
+                }
+            }
+            return false;
         }
 
         @Override
@@ -152,28 +175,25 @@ class JsonViewSupport extends SimpleModule {
 
         private void maybeAddTypeAttribute(@Nonnull Object bean, @Nonnull JsonGenerator gen, @Nonnull SerializerProvider provider) throws IOException {
             if (this.configuration.addTypeAttribute()) {
+                // Do not override user-defined ":type" properties.
+                if (hasTypeProperty(provider)) {
+                    return;
+                }
+
                 Mapping<?> mapping = mappings.get().get(bean);
                 if (mapping == null) {
                     return;
                 }
-                // This is costly, but jackson does not provide a data structure to look up
-                // bean attributes in a more efficient way.
-                for (BeanPropertyWriter property : getBeanProperties(provider)) {
-                    if (property.getName().equals(":type")) {
-                        // Do not override user-defined ":type" properties.
-                        return;
-                    }
-                }
 
                 gen.writeStringField(":type", mapping.getResourceType());
             }
         }
 
-        private BeanPropertyWriter[] getBeanProperties(@Nonnull SerializerProvider provider) {
+        private boolean hasTypeProperty(@Nonnull SerializerProvider provider) {
             if (_filteredProps != null && provider.getActiveView() != null) {
-                return _filteredProps;
+                return this.hasFilteredTypeProperty;
             } else {
-                return _props;
+                return this.hasTypeProperty;
             }
         }
     }
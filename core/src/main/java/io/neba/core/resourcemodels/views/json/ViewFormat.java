@@ -0,0 +1,151 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+package io.neba.core.resourcemodels.views.json;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.function.Predicate;
+
+import static java.lang.Double.parseDouble;
+import static java.lang.Math.max;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.substringAfter;
+import static org.apache.commons.lang3.StringUtils.substringBefore;
+
+/**
+ * The output formats supported by the {@link JsonViewServlets}. Besides JSON, the binary formats
+ * <a href="https://github.com/FasterXML/smile-format-specification">Smile</a> and
+ * <a href="https://tools.ietf.org/html/rfc7049">CBOR</a> are supported, provided the respective optional
+ * jackson dataformat module is available. {@link #NDJSON} streams one JSON document per line.
+ * This type must not reference any jackson type as jackson is an optional dependency.
+ */
+enum ViewFormat {
+    JSON("application/json", "json", null),
+    SMILE("application/x-jackson-smile", "smile", "com.fasterxml.jackson.dataformat.smile.SmileFactory"),
+    CBOR("application/cbor", "cbor", "com.fasterxml.jackson.dataformat.cbor.CBORFactory"),
+    NDJSON("application/x-ndjson", "ndjson", null);
+
+    private final String contentType;
+    private final String extension;
+    private final String factoryClassName;
+
+    ViewFormat(@Nonnull String contentType, @Nonnull String extension, @CheckForNull String factoryClassName) {
+        this.contentType = contentType;
+        this.extension = extension;
+        this.factoryClassName = factoryClassName;
+    }
+
+    /**
+     * @param extension can be <code>null</code>.
+     * @return the format associated with the given request extension, or <code>null</code> if there is no such format.
+     */
+    @CheckForNull
+    static ViewFormat forExtension(@CheckForNull String extension) {
+        for (ViewFormat format : values()) {
+            if (format.extension.equals(extension)) {
+                return format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Negotiates the format based on the media types listed in a HTTP <code>Accept</code> header. Binary formats are
+     * only chosen if they are explicitly accepted and available. The accepted binary format with the highest quality
+     * (<code>q</code>) wins, the first listed one if several have the same quality. Media types with a quality of zero are
+     * not acceptable. The result is {@link #JSON} if no binary format is acceptable or if JSON is accepted with a
+     * higher quality, e.g. via <code>application/json</code> or a wildcard.
+     *
+     * @param acceptHeader can be <code>null</code>.
+     * @param isAvailable  must not be <code>null</code>.
+     * @return never <code>null</code>.
+     */
+    @Nonnull
+    static ViewFormat negotiate(@CheckForNull String acceptHeader, @Nonnull Predicate<ViewFormat> isAvailable) {
+        if (isBlank(acceptHeader)) {
+            return JSON;
+        }
+
+        ViewFormat bestBinaryFormat = null;
+        double bestBinaryQuality = 0;
+        double jsonQuality = 0;
+
+        for (String mediaRange : acceptHeader.split(",")) {
+            String mediaType = substringBefore(mediaRange, ";").trim();
+            double quality = qualityOf(mediaRange);
+            if (quality <= 0) {
+                continue;
+            }
+            if (JSON.contentType.equalsIgnoreCase(mediaType) || "*/*".equals(mediaType) || "application/*".equalsIgnoreCase(mediaType)) {
+                jsonQuality = max(jsonQuality, quality);
+                continue;
+            }
+            for (ViewFormat format : values()) {
+                if (format.isBinary() && format.contentType.equalsIgnoreCase(mediaType) &&
+                        quality > bestBinaryQuality && isAvailable.test(format)) {
+                    bestBinaryFormat = format;
+                    bestBinaryQuality = quality;
+                }
+            }
+        }
+
+        return bestBinaryFormat == null || jsonQuality > bestBinaryQuality ? JSON : bestBinaryFormat;
+    }
+
+    /**
+     * @return the value of the <code>q</code> parameter of the media range, 1 if there is no such parameter
+     * or 0 if the parameter is invalid.
+     */
+    private static double qualityOf(@Nonnull String mediaRange) {
+        String[] parameters = mediaRange.split(";");
+        for (int i = 1; i < parameters.length; ++i) {
+            String parameter = parameters[i].trim();
+            if (parameter.length() > 1 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q') &&
+                    parameter.substring(1).trim().startsWith("=")) {
+                try {
+                    double quality = parseDouble(substringAfter(parameter, "=").trim());
+                    return quality >= 0 && quality <= 1 ? quality : 0;
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    @Nonnull
+    String getContentType() {
+        return contentType;
+    }
+
+    @Nonnull
+    String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @return the fully qualified name of the jackson <code>JsonFactory</code> producing this format,
+     * or <code>null</code> for the textual formats {@link #JSON} and {@link #NDJSON}, which are always available.
+     */
+    @CheckForNull
+    String getFactoryClassName() {
+        return factoryClassName;
+    }
+
+    boolean isBinary() {
+        return this.factoryClassName != null;
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 
 /**
@@ -63,6 +64,13 @@ public class ConcurrentDistinctMultiValueMap<K, V> {
         return this.store.values();
     }
 
+    /**
+     * @param action must not be <code>null</code>. Invoked with each key and the collection stored for the key.
+     */
+    public void forEach(BiConsumer<? super K, ? super Collection<V>> action) {
+        this.store.forEach(action);
+    }
+
     public void put(K key, Collection<V> values) {
         this.store.computeIfAbsent(key, k -> new ConcurrentLinkedDistinctQueue<>()).addAll(values);
     }
@@ -19,17 +19,18 @@ package io.neba.core.util;
 import org.apache.sling.api.resource.ValueMap;
 
 import javax.annotation.Nonnull;
-import java.lang.reflect.Array;
 import java.util.Collection;
 import java.util.Map;
 import java.util.Set;
 
-import static org.apache.commons.lang3.ClassUtils.primitiveToWrapper;
+import static io.neba.core.util.PropertyConverters.converterFor;
 
 /**
  * This {@link ValueMap} decorator converts primitive types passed to {@link #get(String, Class)} or
  * {@link #get(String, Object)} to their boxed equivalents prior to their retrieval from the
  * wrapped value map, as the standard value map does not support primitive type retrieval.
+ * Enum types and arrays of enum types are resolved from the names of the enum constants.
+ * Conversions are performed by the {@link PropertyConverters#converterFor(Class) converter} of the requested type.
  *
  * @author Olaf Otto
  */
@@ -55,56 +56,7 @@ public class PrimitiveAndEnumSupportingValueMap implements ValueMap {
             throw new IllegalArgumentException("Method argument type must not be null.");
         }
 
-        if (type.isEnum()) {
-            return getEnumInstance(name, (Class<Enum>) type);
-        }
-
-        if (type.isArray() && type.getComponentType().isEnum()) {
-            return getEnumInstanceArray(name, type);
-        }
-
-        final Class<?> boxedType = primitiveToWrapper(type);
-        return (T) this.map.get(name, boxedType);
-    }
-
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private <T> T getEnumInstance(@Nonnull String name, @Nonnull Class<Enum> type) {
-        String instanceName = this.map.get(name, String.class);
-        if (instanceName == null) {
-            return null;
-        }
-
-        try {
-            return (T) Enum.valueOf(type, instanceName);
-        } catch (IllegalArgumentException e) {
-            return null;
-        }
-    }
-
-    @SuppressWarnings({"unchecked", "rawtypes"})
-    private <T> T getEnumInstanceArray(@Nonnull String name, @Nonnull Class<T> type) {
-        String[] instanceNames = this.map.get(name, String[].class);
-        if (instanceNames == null) {
-            return null;
-        }
-        Enum[] enumInstances = (Enum[]) Array.newInstance(type.getComponentType(), instanceNames.length);
-
-        int numberOfEnumInstances = 0;
-        for (String instanceName : instanceNames) {
-            try {
-                enumInstances[numberOfEnumInstances] = Enum.valueOf((Class<Enum>) type.getComponentType(), instanceName);
-                ++numberOfEnumInstances;
-            } catch (IllegalArgumentException e) {
-                // Ignore; continue.
-            }
-        }
-        if (numberOfEnumInstances == enumInstances.length) {
-            return (T) enumInstances;
-        }
-
-        Enum[] effectiveInstances = (Enum[]) Array.newInstance(type.getComponentType(), numberOfEnumInstances);
-        System.arraycopy(enumInstances, 0, effectiveInstances, 0, effectiveInstances.length);
-        return (T) effectiveInstances;
+        return (T) converterFor(type).convert(this.map, name);
     }
 
     @Override
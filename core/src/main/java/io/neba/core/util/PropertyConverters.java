@@ -0,0 +1,281 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+package io.neba.core.util;
+
+import org.apache.sling.api.resource.ValueMap;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import static io.neba.core.util.ReflectionUtil.instantiateCollectionType;
+import static java.util.Collections.addAll;
+import static org.apache.commons.lang3.ClassUtils.primitiveToWrapper;
+
+/**
+ * A factory for {@link PropertyConverter property converters}. Converters are created once for a specific target type,
+ * e.g. when the metadata of a resource model field is created, such that reading a property does not require determining
+ * how to convert it. Supports the same conversions as {@link PrimitiveAndEnumSupportingValueMap}, and additionally
+ * converts array properties to collections.
+ */
+public class PropertyConverters {
+    private static final ClassValue<PropertyConverter> CONVERTERS = new ClassValue<PropertyConverter>() {
+        @Override
+        protected PropertyConverter computeValue(Class<?> type) {
+            return createConverter(type);
+        }
+    };
+
+    /**
+     * Reads a property from a {@link ValueMap} and converts it to a specific type.
+     */
+    public interface PropertyConverter {
+        /**
+         * @param properties must not be <code>null</code>.
+         * @param name       must not be <code>null</code>.
+         * @return the converted property value, or <code>null</code> if the property does not exist or cannot be converted.
+         */
+        @CheckForNull
+        Object convert(@Nonnull ValueMap properties, @Nonnull String name);
+    }
+
+    /**
+     * @param type must not be <code>null</code>. Primitive types are converted to their boxed equivalent.
+     * @return a converter for the given type. Converters are created once per type. Never <code>null</code>.
+     */
+    @Nonnull
+    public static PropertyConverter converterFor(@Nonnull Class<?> type) {
+        if (type == null) {
+            throw new IllegalArgumentException("Method argument type must not be null.");
+        }
+
+        return CONVERTERS.get(type);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static PropertyConverter createConverter(Class<?> type) {
+        if (type.isEnum()) {
+            return new EnumConverter(new EnumConstants((Class<Enum>) type));
+        }
+
+        if (type.isArray() && type.getComponentType().isEnum()) {
+            return new EnumArrayConverter(new EnumConstants((Class<Enum>) type.getComponentType()));
+        }
+
+        return new TypeConverter(primitiveToWrapper(type));
+    }
+
+    /**
+     * @param collectionType must not be <code>null</code>. Must be an {@link ReflectionUtil#isInstantiableCollectionType(Class) instantiable collection type}.
+     * @param elementType    must not be <code>null</code>.
+     * @return a converter reading array properties into a new instance of the collection type. Never <code>null</code>.
+     */
+    @Nonnull
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static PropertyConverter collectionConverterFor(@Nonnull Class<? extends Collection> collectionType, @Nonnull Class<?> elementType) {
+        if (collectionType == null) {
+            throw new IllegalArgumentException("Method argument collectionType must not be null.");
+        }
+        if (elementType == null) {
+            throw new IllegalArgumentException("Method argument elementType must not be null.");
+        }
+
+        if (elementType.isEnum()) {
+            return new EnumCollectionConverter(collectionType, new EnumConstants((Class<Enum>) elementType));
+        }
+
+        return new CollectionConverter(collectionType, primitiveToWrapper(elementType));
+    }
+
+    /**
+     * Reads the property with the boxed equivalent of the target type.
+     */
+    private static class TypeConverter implements PropertyConverter {
+        private final Class<?> type;
+
+        private TypeConverter(Class<?> type) {
+            this.type = type;
+        }
+
+        @Override
+        public Object convert(@Nonnull ValueMap properties, @Nonnull String name) {
+            return properties.get(name, this.type);
+        }
+    }
+
+    /**
+     * A precomputed lookup of the constants of an enum by their {@link Enum#name() name}.
+     */
+    @SuppressWarnings("rawtypes")
+    private static class EnumConstants {
+        private final Class<Enum> type;
+        private final Map<String, Enum> constants;
+
+        private EnumConstants(Class<Enum> type) {
+            this.type = type;
+            Enum[] values = type.getEnumConstants();
+            this.constants = new HashMap<>(values.length * 2);
+            for (Enum value : values) {
+                this.constants.put(value.name(), value);
+            }
+        }
+
+        @CheckForNull
+        private Enum get(@CheckForNull String name) {
+            return name == null ? null : this.constants.get(name);
+        }
+    }
+
+    private static class EnumConverter implements PropertyConverter {
+        private final EnumConstants constants;
+
+        private EnumConverter(EnumConstants constants) {
+            this.constants = constants;
+        }
+
+        @Override
+        public Object convert(@Nonnull ValueMap properties, @Nonnull String name) {
+            return this.constants.get(properties.get(name, String.class));
+        }
+    }
+
+    /**
+     * Converts the names of enum constants to an array of the enum type. Names not corresponding to a constant are omitted.
+     */
+    @SuppressWarnings("rawtypes")
+    private static class EnumArrayConverter implements PropertyConverter {
+        private final EnumConstants constants;
+
+        private EnumArrayConverter(EnumConstants constants) {
+            this.constants = constants;
+        }
+
+        @Override
+        public Object convert(@Nonnull ValueMap properties, @Nonnull String name) {
+            String[] names = properties.get(name, String[].class);
+            if (names == null) {
+                return null;
+            }
+
+            Enum[] instances = (Enum[]) Array.newInstance(this.constants.type, names.length);
+            int numberOfInstances = 0;
+            for (String instanceName : names) {
+                Enum instance = this.constants.get(instanceName);
+                if (instance != null) {
+                    instances[numberOfInstances++] = instance;
+                }
+            }
+
+            if (numberOfInstances == instances.length) {
+                return instances;
+            }
+
+            Enum[] effectiveInstances = (Enum[]) Array.newInstance(this.constants.type, numberOfInstances);
+            System.arraycopy(instances, 0, effectiveInstances, 0, numberOfInstances);
+            return effectiveInstances;
+        }
+    }
+
+    /**
+     * Converts the names of enum constants directly to a collection of the enum type. Names not corresponding to a constant are omitted.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class EnumCollectionConverter implements PropertyConverter {
+        private final Class<? extends Collection> collectionType;
+        private final EnumConstants constants;
+
+        private EnumCollectionConverter(Class<? extends Collection> collectionType, EnumConstants constants) {
+            this.collectionType = collectionType;
+            this.constants = constants;
+        }
+
+        @Override
+        public Object convert(@Nonnull ValueMap properties, @Nonnull String name) {
+            String[] names = properties.get(name, String[].class);
+            if (names == null) {
+                return null;
+            }
+
+            Collection<Object> collection = instantiateCollectionType((Class) this.collectionType, names.length);
+            for (String instanceName : names) {
+                Enum instance = this.constants.get(instanceName);
+                if (instance != null) {
+                    collection.add(instance);
+                }
+            }
+            return collection;
+        }
+    }
+
+    /**
+     * Copies the elements of an array property into a collection. If the stored property already consists of
+     * instances of the element type, the elements are copied directly. Otherwise, the property is converted to an array of the element
+     * type by the value map first.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static class CollectionConverter implements PropertyConverter {
+        private final Class<? extends Collection> collectionType;
+        private final Class<?> elementType;
+        private final Class<?> arrayType;
+
+        private CollectionConverter(Class<? extends Collection> collectionType, Class<?> elementType) {
+            this.collectionType = collectionType;
+            this.elementType = elementType;
+            this.arrayType = Array.newInstance(elementType, 0).getClass();
+        }
+
+        @Override
+        public Object convert(@Nonnull ValueMap properties, @Nonnull String name) {
+            Object value = properties.get(name);
+            if (this.arrayType.isInstance(value) && !containsNull((Object[]) value)) {
+                Object[] elements = (Object[]) value;
+                Collection<Object> collection = instantiateCollectionType((Class) this.collectionType, elements.length);
+                addAll(collection, elements);
+                return collection;
+            }
+
+            if (this.elementType.isInstance(value)) {
+                Collection<Object> collection = instantiateCollectionType((Class) this.collectionType, 1);
+                collection.add(value);
+                return collection;
+            }
+
+            Object[] elements = (Object[]) properties.get(name, this.arrayType);
+            if (elements == null) {
+                return null;
+            }
+
+            Collection<Object> collection = instantiateCollectionType((Class) this.collectionType, elements.length);
+            addAll(collection, elements);
+            return collection;
+        }
+
+        private static boolean containsNull(Object[] elements) {
+            for (Object element : elements) {
+                if (element == null) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private PropertyConverters() {
+    }
+}
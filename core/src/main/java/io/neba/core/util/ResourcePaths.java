@@ -54,14 +54,12 @@ public class ResourcePaths {
     }
 
     private static class PathWithPlaceholders implements ResourcePath {
-        private final List<Value> segments;
+        private final String path;
+        private final Value[] segments;
 
         private PathWithPlaceholders(String path) {
-            this(segments(path));
-        }
-
-        private PathWithPlaceholders(List<Value> segments) {
-            this.segments = segments;
+            this.path = path;
+            this.segments = segments(path).toArray(new Value[0]);
         }
 
         public ResourcePath resolve(Function<String, String> placeholderResolver) {
@@ -69,17 +67,25 @@ public class ResourcePaths {
                 throw new IllegalArgumentException("Method argument placeholderResolver must not be null");
             }
 
-            return new PathWithoutPlaceholders(
-                    this.segments
-                            .stream()
-                            .map(s -> s.isPlaceholder() ? new Value(placeholderResolver.apply(s.value)) : s)
-                            .map(Value::getValue)
-                            .reduce("", String::concat));
+            final StringBuilder resolved = new StringBuilder(this.path.length() + 16);
+            for (Value segment : this.segments) {
+                if (segment.isPlaceholder()) {
+                    final String value = placeholderResolver.apply(segment.value);
+                    if (value == null) {
+                        throw new IllegalStateException("Unable to resolve the placeholder ${" + segment.value + "} in " + this.path + ".");
+                    }
+                    resolved.append(value);
+                } else {
+                    resolved.append(segment.value);
+                }
+            }
+
+            return new PathWithoutPlaceholders(resolved.toString());
         }
 
         @Override
         public String getPath() {
-            return this.segments.stream().map(Value::getValue).reduce("", String::concat);
+            return this.path;
         }
 
         @Override
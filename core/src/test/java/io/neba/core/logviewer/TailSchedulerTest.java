@@ -0,0 +1,170 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.logviewer;
+
+import io.neba.core.Eventual;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TailSchedulerTest implements Eventual {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private Tail tail;
+
+    private File file;
+
+    private TailScheduler testee;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = this.temporaryFolder.newFile("test.log");
+        lenient().doReturn(this.file.toPath().toAbsolutePath()).when(this.tail).getPath();
+
+        this.testee = new TailScheduler();
+        this.testee.activate();
+    }
+
+    @After
+    public void tearDown() {
+        this.testee.deactivate();
+    }
+
+    @Test
+    public void testFollowingTailIsSignaledWhenItsFileChanges() throws Exception {
+        withMode(Tail.Mode.FOLLOW);
+        addTail();
+
+        write(this.file, "line");
+
+        eventually(() -> verify(this.tail, atLeastOnce()).signal());
+    }
+
+    @Test
+    public void testFollowingTailIsNotSignaledWhenOtherFilesChange() throws Exception {
+        withMode(Tail.Mode.FOLLOW);
+        addTail();
+
+        write(this.temporaryFolder.newFile("other.log"), "line");
+        sleep();
+
+        verifyTailIsNotSignaled();
+    }
+
+    @Test
+    public void testRemovedTailIsNotSignaled() throws Exception {
+        withMode(Tail.Mode.FOLLOW);
+        addTail();
+        removeTail();
+
+        write(this.file, "line");
+        sleep();
+
+        verifyTailIsNotSignaled();
+    }
+
+    @Test
+    public void testTailingTailIsNotSignaled() throws Exception {
+        withMode(Tail.Mode.TAIL);
+        addTail();
+
+        write(this.file, "line");
+        sleep();
+
+        verifyTailIsNotSignaled();
+    }
+
+    @Test
+    public void testTailsAreStoppedUponDeactivation() {
+        withMode(Tail.Mode.TAIL);
+        addTail();
+
+        this.testee.deactivate();
+
+        verify(this.tail).stop();
+    }
+
+    @Test
+    public void testTasksAreExecutedAndScheduled() throws Exception {
+        CountDownLatch latch = new CountDownLatch(2);
+
+        this.testee.execute(latch::countDown);
+        this.testee.schedule(latch::countDown, 10);
+
+        assertThat(latch.await(10, SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testTasksAreDiscardedAfterDeactivation() {
+        this.testee.deactivate();
+
+        this.testee.execute(() -> {
+            throw new AssertionError("Must not be executed.");
+        });
+        this.testee.schedule(() -> {
+            throw new AssertionError("Must not be executed.");
+        }, 10);
+    }
+
+    private void withMode(Tail.Mode mode) {
+        doReturn(mode).when(this.tail).getMode();
+    }
+
+    private void addTail() {
+        this.testee.add(this.tail);
+    }
+
+    private void removeTail() {
+        this.testee.remove(this.tail);
+    }
+
+    private void verifyTailIsNotSignaled() {
+        verify(this.tail, never()).signal();
+    }
+
+    private void write(File file, String line) throws IOException {
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(line);
+        }
+    }
+
+    private void sleep() throws InterruptedException {
+        MILLISECONDS.sleep(500);
+    }
+}
@@ -23,7 +23,6 @@ import org.eclipse.jetty.websocket.api.Session;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 
@@ -47,7 +46,6 @@ public class TailSocketTest extends TailTests implements Eventual {
     @Mock
     private Session session;
 
-    @InjectMocks
     private TailSocket testee;
 
     @Before
@@ -61,6 +59,7 @@ public class TailSocketTest extends TailTests implements Eventual {
 
     @Before
     public void prepareWebSocketContext() {
+        this.testee = new TailSocket(this.logFiles, getTailScheduler());
         doReturn(getRemote()).when(this.session).getRemote();
         this.testee.onWebSocketConnect(session);
     }
@@ -72,7 +71,12 @@ public class TailSocketTest extends TailTests implements Eventual {
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorRequiresNonNullLogFiles() {
-        new TailSocket(null);
+        new TailSocket(null, getTailScheduler());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorRequiresNonNullTailScheduler() {
+        new TailSocket(this.logFiles, null);
     }
 
     @Test
@@ -17,24 +17,28 @@ package io.neba.core.logviewer;
 
 import io.neba.core.Eventual;
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
 import org.junit.After;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Path;
-import java.util.concurrent.ExecutorService;
+import java.util.ArrayList;
+import java.util.List;
 
 import static java.io.File.createTempFile;
 import static java.nio.file.Files.move;
-import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.lang3.StringUtils.repeat;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -42,7 +46,7 @@ import static org.mockito.Mockito.verify;
  */
 @RunWith(MockitoJUnitRunner.class)
 public class TailTest extends TailTests implements Eventual {
-    private final ExecutorService executorService = newSingleThreadExecutor();
+    private final List<WriteCallback> pendingWrites = new ArrayList<>();
 
     private Tail testee;
 
@@ -51,7 +55,6 @@ public class TailTest extends TailTests implements Eventual {
         if (this.testee != null) {
             this.testee.stop();
         }
-        this.executorService.shutdownNow();
     }
 
     @Test
@@ -112,12 +115,53 @@ public class TailTest extends TailTests implements Eventual {
     }
 
     @Test
-    public void testHandlingOfIoExceptionWhenSendingLineToClient() throws Exception {
-        doThrow(new IOException("THIS IS AN EXPECTED TEST EXCEPTION"))
-                .when(this.getRemote())
-                .sendBytes(any());
+    public void testTailStopsWhenSendingToClientFails() throws Exception {
+        File logFile = createTempFile("tailsocket-test-", ".log", this.getTestLogfileDirectory().getParentFile());
+        withFailingWrites();
+
+        followAsynchronously(logFile);
+        write(logFile, "first line");
+        eventually(() -> verifyBytesAreSent(1));
+
+        write(logFile, "second line");
+        sleepUpTo(500, MILLISECONDS);
+
+        verifyBytesAreSent(1);
+    }
+
+    @Test
+    public void testNextChunkIsOnlyReadOnceThePreviousChunkWasSent() throws Exception {
+        File logFile = createTempFile("tailsocket-test-", ".log", this.getTestLogfileDirectory().getParentFile());
+        write(logFile, repeat('x', 200 * 1024));
+        withPendingWrites();
+
+        followAsynchronously(logFile, 1024 * 1024);
+        eventually(() -> verifyBytesAreSent(1));
+        sleepUpTo(500, MILLISECONDS);
+        verifyBytesAreSent(1);
+
+        completePendingWrites();
+
+        eventually(() -> verifyBytesAreSent(2));
+    }
+
+    @Test
+    public void testFollowedFileChangesAreRead() throws Exception {
+        File logFile = createTempFile("tailsocket-test-", ".log", this.getTestLogfileDirectory().getParentFile());
+        followAsynchronously(logFile);
 
-        tailSynchronously("logs/error.log");
+        write(logFile, "first line");
+        eventually(() -> assertSendTextContains("first line"));
+
+        try (FileWriter writer = new FileWriter(logFile, true)) {
+            writer.write("\nsecond line");
+        }
+        eventually(() -> assertSendTextContains("first line\nsecond line"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHandlingOfNullSchedulerArgument() {
+        new Tail(null, mock(RemoteEndpoint.class), mock(File.class), 1000, Tail.Mode.TAIL);
     }
 
     @Test
@@ -143,12 +187,12 @@ public class TailTest extends TailTests implements Eventual {
 
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullFileArgument() {
-        new Tail(mock(RemoteEndpoint.class), null, 1000, Tail.Mode.TAIL);
+        new Tail(getTailScheduler(), mock(RemoteEndpoint.class), null, 1000, Tail.Mode.TAIL);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullRemoteArgument() {
-        new Tail(null, mock(File.class), 1000, Tail.Mode.TAIL);
+        new Tail(getTailScheduler(), null, mock(File.class), 1000, Tail.Mode.TAIL);
     }
 
     private void assertSendTextEndsWith(String s) {
@@ -167,19 +211,45 @@ public class TailTest extends TailTests implements Eventual {
         }
     }
 
-    private void tailSynchronously(String fileName) {
-        this.testee = new Tail(getRemote(), new File(getTestLogfileDirectory(), fileName), 1024L * 1024L, Tail.Mode.TAIL);
-        this.testee.run();
+    private void withFailingWrites() {
+        doAnswer(invocation -> {
+            ((WriteCallback) invocation.getArguments()[1]).writeFailed(new IOException("THIS IS AN EXPECTED TEST EXCEPTION"));
+            return null;
+        }).when(getRemote()).sendBytes(any(), any());
+    }
+
+    private void withPendingWrites() {
+        doAnswer(invocation -> {
+            synchronized (this.pendingWrites) {
+                this.pendingWrites.add((WriteCallback) invocation.getArguments()[1]);
+            }
+            return null;
+        }).when(getRemote()).sendBytes(any(), any());
+    }
+
+    private void completePendingWrites() {
+        synchronized (this.pendingWrites) {
+            this.pendingWrites.forEach(WriteCallback::writeSuccess);
+            this.pendingWrites.clear();
+        }
+    }
+
+    private void verifyBytesAreSent(int times) {
+        verify(getRemote(), times(times)).sendBytes(any(), any());
     }
 
     private void tailAsynchronously(String fileName) {
-        this.testee = new Tail(getRemote(), new File(getTestLogfileDirectory(), fileName), 1024L * 1024L, Tail.Mode.TAIL);
-        this.executorService.execute(this.testee);
+        this.testee = new Tail(getTailScheduler(), getRemote(), new File(getTestLogfileDirectory(), fileName), 1024L * 1024L, Tail.Mode.TAIL);
+        this.testee.start();
     }
 
     private void followAsynchronously(File logFile) {
-        this.testee = new Tail(getRemote(), logFile, 1024, Tail.Mode.FOLLOW);
-        this.executorService.execute(this.testee);
+        followAsynchronously(logFile, 1024);
+    }
+
+    private void followAsynchronously(File logFile, long bytesToTail) {
+        this.testee = new Tail(getTailScheduler(), getRemote(), logFile, bytesToTail, Tail.Mode.FOLLOW);
+        this.testee.start();
     }
 
     private Path rotate(File file) throws IOException {
@@ -16,6 +16,8 @@
 package io.neba.core.logviewer;
 
 import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
@@ -48,6 +50,7 @@ public abstract class TailTests {
     private File testLogfileDirectory;
     private StringBuilder receivedText;
     private Answer<?> recordText;
+    private TailScheduler tailScheduler;
 
     @Mock
     private RemoteEndpoint remote;
@@ -67,9 +70,25 @@ public abstract class TailTests {
             return null;
         };
 
-        doAnswer(recordText)
+        doAnswer(invocation -> {
+            recordText.answer(invocation);
+            ((WriteCallback) invocation.getArguments()[1]).writeSuccess();
+            return null;
+        })
                 .when(remote)
-                .sendBytes(any());
+                .sendBytes(any(), any());
+
+        this.tailScheduler = new TailScheduler();
+        this.tailScheduler.activate();
+    }
+
+    @After
+    public final void shutDownTailScheduler() {
+        this.tailScheduler.deactivate();
+    }
+
+    public TailScheduler getTailScheduler() {
+        return tailScheduler;
     }
 
     public File getTestLogfileDirectory() {
@@ -93,8 +112,8 @@ public abstract class TailTests {
         return new File(getTestLogfileDirectory(), relativePath).getAbsolutePath();
     }
 
-    public void verifyNoTextWasSent() throws IOException {
-        verify(getRemote(), never()).sendBytes(any());
+    public void verifyNoTextWasSent() {
+        verify(getRemote(), never()).sendBytes(any(), any());
     }
 
     public void write(File file, String line) throws IOException {
@@ -117,19 +136,20 @@ public abstract class TailTests {
     }
 
     /**
-     * Executes the callback as soon as {@link RemoteEndpoint#sendBytes(ByteBuffer) the mocked remote receives bytes}.
+     * Executes the callback as soon as {@link RemoteEndpoint#sendBytes(ByteBuffer, WriteCallback) the mocked remote receives bytes}.
      * This allows reacting when {@link Tail} is picking up data from a log file.
      *
      * @param c must not be <code>null</code>.
      */
-    public void uponWriteToRemoteDo(Callable<?> c) throws IOException {
+    public void uponWriteToRemoteDo(Callable<?> c) {
         doAnswer(invocation -> {
             // Still track the received text
             recordText.answer(invocation);
-            // As soon as bytes are received, call the callable and interrupt the test case, as it
+            // As soon as bytes are received, call the callable before completing the write, as the test case
             // may await this event.
             c.call();
+            ((WriteCallback) invocation.getArguments()[1]).writeSuccess();
             return null;
-        }).when(getRemote()).sendBytes(isA(ByteBuffer.class));
+        }).when(getRemote()).sendBytes(isA(ByteBuffer.class), any());
     }
 }
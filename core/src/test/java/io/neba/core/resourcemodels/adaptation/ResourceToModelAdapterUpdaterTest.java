@@ -35,9 +35,14 @@ import org.osgi.framework.ServiceRegistration;
 import java.util.Dictionary;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doAnswer;
@@ -81,6 +86,10 @@ public class ResourceToModelAdapterUpdaterTest implements Eventual {
     @Mock
     private ResourceToModelAdapterUpdater.Configuration configuration;
 
+    // Not injected, as the testee manages its executor and pending update itself.
+    private ScheduledExecutorService executorService;
+    private ScheduledFuture<?> pendingUpdate;
+
     private List<OsgiModelSource<?>> modelSources;
     private Dictionary<String, Object> updatedProperties;
 
@@ -91,6 +100,8 @@ public class ResourceToModelAdapterUpdaterTest implements Eventual {
     @SuppressWarnings("unchecked")
     public void prepareTest() {
         this.modelSources = new LinkedList<>();
+        this.executorService = mock(ScheduledExecutorService.class);
+        this.pendingUpdate = mock(ScheduledFuture.class);
 
         when(this.registry.getModelSources())
                 .thenReturn(this.modelSources);
@@ -119,6 +130,7 @@ public class ResourceToModelAdapterUpdaterTest implements Eventual {
 
     @Test
     public void testUpdatePerformsUpdateWhenBundleStarting() throws Exception {
+        withModel(TestModel.class);
         withStartingBundle();
         signalRegistryChange();
 
@@ -128,6 +140,7 @@ public class ResourceToModelAdapterUpdaterTest implements Eventual {
 
     @Test
     public void testUpdaterPerformsUpdateWhenBundleActive() throws Exception {
+        withModel(TestModel.class);
         withActiveBundle();
         signalRegistryChange();
 
@@ -137,6 +150,7 @@ public class ResourceToModelAdapterUpdaterTest implements Eventual {
 
     @Test
     public void testUnregistrationOfAlreadyUnregisteredService() throws Exception {
+        withModel(TestModel.class);
         signalIllegalStateWhenUnregisteringService();
         withStartingBundle();
         signalRegistryChange();
@@ -170,6 +184,54 @@ public class ResourceToModelAdapterUpdaterTest implements Eventual {
                 TestInterface.class.getName(), TestInterfaceExtended.class.getName());
     }
 
+    @Test
+    public void testAdapterIsNotReRegisteredIfAdapterTypesDidNotChange() {
+        withSynchronousExecutor();
+        withActiveBundle();
+        signalRegistryChange();
+
+        assertUpdaterDoesNotUpdateModelAdapter();
+    }
+
+    @Test
+    public void testAdapterTypesAreUpdatedWhenModelsOfABundleChange() {
+        withSynchronousExecutor();
+        withActiveBundle();
+        withModel(TestModel.class, 1L);
+        withModel(TestModelDerived.class, 2L);
+        signalRegistryChange();
+        assertAdaptersPropertyIs(TestModelDerived.class.getName(), TestModel.class.getName(),
+                TestInterface.class.getName(), TestInterfaceExtended.class.getName());
+
+        removeModelsOfBundle(2L);
+        signalRegistryChange();
+        assertAdaptersPropertyIs(TestModel.class.getName(), TestInterface.class.getName());
+    }
+
+    @Test
+    public void testRefreshesAreCoalescedWithinQuietPeriod() {
+        withQuietPeriod(1000);
+        withScheduledFuture();
+
+        signalRegistryChange();
+        signalRegistryChange();
+
+        verify(this.pendingUpdate).cancel(false);
+        verifyUpdateIsScheduledWithDelay(2, 1000);
+    }
+
+    @Test
+    public void testRefreshesArePostponedForAtMostTheMaximumDelay() throws InterruptedException {
+        withQuietPeriod(10);
+        withScheduledFuture();
+
+        signalRegistryChange();
+        Thread.sleep(10 * ResourceToModelAdapterUpdater.MAXIMUM_REFRESH_DELAY_FACTOR);
+        signalRegistryChange();
+
+        verifyUpdateIsScheduledWithDelay(1, 0);
+    }
+
     @Test
     public void testAdaptationFromSlingHttpServletRequestIsEnabledByDefault() {
         assertAdaptablesPropertyIs(Resource.class.getName(), SlingHttpServletRequest.class.getName());
@@ -199,12 +261,25 @@ public class ResourceToModelAdapterUpdaterTest implements Eventual {
     }
 
     private void withSynchronousExecutor() {
-        ExecutorService executorService = mock(ExecutorService.class);
         doAnswer(i -> {
             ((Runnable) i.getArguments()[0]).run();
             return null;
-        }).when(executorService).execute(isA(Runnable.class));
-        this.testee.setExecutorService(executorService);
+        }).when(this.executorService).schedule(isA(Runnable.class), anyLong(), any());
+        this.testee.setExecutorService(this.executorService);
+    }
+
+    private void withQuietPeriod(int millis) {
+        doReturn(millis).when(this.configuration).refreshQuietPeriod();
+    }
+
+    private void withScheduledFuture() {
+        doReturn(this.pendingUpdate).when(this.executorService).schedule(isA(Runnable.class), anyLong(), any());
+        doReturn(true).when(this.pendingUpdate).cancel(false);
+        this.testee.setExecutorService(this.executorService);
+    }
+
+    private void verifyUpdateIsScheduledWithDelay(int times, long millis) {
+        verify(this.executorService, times(times)).schedule(isA(Runnable.class), eq(MILLISECONDS.toNanos(millis)), eq(NANOSECONDS));
     }
 
     private void assertAdapterDoesNotHaveAnyAdapters() {
@@ -250,13 +325,22 @@ public class ResourceToModelAdapterUpdaterTest implements Eventual {
         this.testee.refresh();
     }
 
-    @SuppressWarnings({"rawtypes"})
     private void withModel(Class<?> modelType) {
+        withModel(modelType, 0L);
+    }
+
+    @SuppressWarnings({"rawtypes"})
+    private void withModel(Class<?> modelType, long bundleId) {
         OsgiModelSource source = mock(OsgiModelSource.class);
         when(source.getModelType()).thenReturn(modelType);
+        when(source.getBundleId()).thenReturn(bundleId);
         this.modelSources.add(source);
     }
 
+    private void removeModelsOfBundle(long bundleId) {
+        this.modelSources.removeIf(source -> source.getBundleId() == bundleId);
+    }
+
     private void signalIllegalStateWhenUnregisteringService() {
         doThrow(new IllegalStateException("THIS IS AN EXPECTED TEST EXCEPTION")).when(this.registration).unregister();
     }
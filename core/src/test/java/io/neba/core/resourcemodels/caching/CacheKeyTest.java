@@ -0,0 +1,64 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.core.util.Key;
+import org.junit.Test;
+
+import static io.neba.core.util.Key.key;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CacheKeyTest {
+    private final Key modelKey = key(Object.class);
+    private final Key fingerprint = key("/a/page", "selector", "html", null, null);
+
+    @Test
+    public void testKeysWithSameElementsAreEqual() {
+        CacheKey first = new CacheKey("/a/path", "some/type", "user", this.modelKey, this.fingerprint);
+        CacheKey second = new CacheKey("/a/path", "some/type", "user", key(Object.class), this.fingerprint);
+
+        assertThat(first).isEqualTo(second);
+        assertThat(first.hashCode()).isEqualTo(second.hashCode());
+    }
+
+    @Test
+    public void testKeysWithDifferentElementsAreNotEqual() {
+        CacheKey key = new CacheKey("/a/path", "some/type", "user", this.modelKey, null);
+
+        assertThat(key).isNotEqualTo(new CacheKey("/other/path", "some/type", "user", this.modelKey, null));
+        assertThat(key).isNotEqualTo(new CacheKey("/a/path", "other/type", "user", this.modelKey, null));
+        assertThat(key).isNotEqualTo(new CacheKey("/a/path", "some/type", "admin", this.modelKey, null));
+        assertThat(key).isNotEqualTo(new CacheKey("/a/path", "some/type", "user", key(String.class), null));
+        assertThat(key).isNotEqualTo(new CacheKey("/a/path", "some/type", "user", this.modelKey, this.fingerprint));
+    }
+
+    @Test
+    public void testFingerprintsAreComparedByIdentity() {
+        CacheKey key = new CacheKey("/a/path", "some/type", "user", this.modelKey, this.fingerprint);
+        Key equalFingerprint = key("/a/page", "selector", "html", null, null);
+
+        assertThat(key).isNotEqualTo(new CacheKey("/a/path", "some/type", "user", this.modelKey, equalFingerprint));
+    }
+
+    @Test
+    public void testKeyToleratesNullPathAndType() {
+        CacheKey key = new CacheKey(null, null, "user", this.modelKey, null);
+
+        assertThat(key).isEqualTo(new CacheKey(null, null, "user", this.modelKey, null));
+        assertThat(key.toString()).isEqualTo("CacheKey {null, Key {class java.lang.Object}, null, user}");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.caching;
+
+import io.neba.core.resourcemodels.metadata.ResourceModelStatistics;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.neba.core.resourcemodels.caching.RequestCacheStore.NULL_MODEL;
+import static io.neba.core.util.Key.key;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class RequestCacheStoreTest {
+    private RequestCacheStore testee;
+
+    @Before
+    public void setUp() {
+        this.testee = new RequestCacheStore();
+    }
+
+    @Test
+    public void testLookupInEmptyStore() {
+        assertThat(this.testee.get(cacheKey("/a/path"))).isNull();
+        assertThat(this.testee.size()).isZero();
+        assertThat(this.testee.getLookups()).isEqualTo(1);
+        assertThat(this.testee.getHits()).isZero();
+        assertThat(this.testee.getHitRatio()).isZero();
+    }
+
+    @Test
+    public void testStoredModelIsRetrieved() {
+        Object model = new Object();
+        this.testee.put(cacheKey("/a/path"), model, null);
+
+        assertThat(this.testee.get(cacheKey("/a/path"))).isSameAs(model);
+        assertThat(this.testee.get(cacheKey("/other/path"))).isNull();
+        assertThat(this.testee.getHitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    public void testNullModelIsStoredAsSentinel() {
+        this.testee.put(cacheKey("/a/path"), null, null);
+
+        assertThat(this.testee.get(cacheKey("/a/path"))).isSameAs(NULL_MODEL);
+        assertThat(this.testee.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void testStoringModelForKnownKeyReplacesModel() {
+        Object model = new Object();
+        this.testee.put(cacheKey("/a/path"), null, null);
+        this.testee.put(cacheKey("/a/path"), model, null);
+
+        assertThat(this.testee.get(cacheKey("/a/path"))).isSameAs(model);
+        assertThat(this.testee.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testStoreGrowsBeyondInitialCapacity() {
+        for (int i = 0; i < 1000; ++i) {
+            this.testee.put(cacheKey("/path/" + i), i, null);
+        }
+
+        assertThat(this.testee.size()).isEqualTo(1000);
+        for (int i = 0; i < 1000; ++i) {
+            assertThat(this.testee.get(cacheKey("/path/" + i))).isEqualTo(i);
+        }
+        assertThat(this.testee.getHitRatio()).isEqualTo(1);
+    }
+
+    @Test
+    public void testKeysWithEqualFingerprintsAreVerified() {
+        CacheKey first = new CacheKey("/a/path", null, "user", key(new SameHashCode()), null);
+        CacheKey second = new CacheKey("/a/path", null, "user", key(new SameHashCode()), null);
+        assertThat(first.fingerprint()).isEqualTo(second.fingerprint());
+
+        this.testee.put(first, "first", null);
+        assertThat(this.testee.get(second)).isNull();
+
+        this.testee.put(second, "second", null);
+        assertThat(this.testee.get(first)).isEqualTo("first");
+        assertThat(this.testee.get(second)).isEqualTo("second");
+        assertThat(this.testee.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testCacheHitIsCountedInStatisticsOfStoredModel() {
+        ResourceModelStatistics statistics = mock(ResourceModelStatistics.class);
+        this.testee.put(cacheKey("/a/path"), new Object(), statistics);
+
+        this.testee.get(cacheKey("/other/path"));
+        verify(statistics, never()).countCacheHit();
+
+        this.testee.get(cacheKey("/a/path"));
+        verify(statistics).countCacheHit();
+    }
+
+    private static CacheKey cacheKey(String path) {
+        return new CacheKey(path, "some/type", "user", key(Object.class), null);
+    }
+
+    private static class SameHashCode {
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+}
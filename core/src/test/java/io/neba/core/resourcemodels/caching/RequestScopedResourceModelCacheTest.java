@@ -332,6 +332,38 @@ public class RequestScopedResourceModelCacheTest {
         });
     }
 
+    @Test
+    public void testModelsAreCachedAgainWhenRequestStateIsRestoredInSafeMode() throws Exception {
+        request(() -> {
+
+            withSafeMode();
+            withRequestedPagePath("/a/page");
+            withSelector("some.selector");
+
+            withResourcePath("/junit/test/1");
+            putModelInCache();
+
+            withSelector("other.selector");
+            lookupModelFromCache();
+            assertModelIsNotKnownToCache();
+
+            withSelector(new String("some.selector"));
+            lookupModelFromCache();
+            assertModelIsInCache();
+        });
+    }
+
+    @Test
+    public void testCacheIsNotSensitiveToRequestStateOutsideOfSafeMode() throws Exception {
+        request(() -> {
+            withResourcePath("/junit/test/1");
+            putModelInCache();
+            lookupModelFromCache();
+            assertModelIsInCache();
+            verifyRequestStateIsNotEvaluated();
+        });
+    }
+
     @Test
     public void testCacheGracefullyHandlesMissingRequestContextDuringCacheWrite() {
         putModelInCache();
@@ -407,6 +439,11 @@ public class RequestScopedResourceModelCacheTest {
         });
     }
 
+    private void verifyRequestStateIsNotEvaluated() {
+        verify(this.request, never()).getRequestPathInfo();
+        verify(this.request, never()).getQueryString();
+    }
+
     private void verifyCacheHitIsCounted() {
         verify(this.resourceModelStatistics).countCacheHit();
     }
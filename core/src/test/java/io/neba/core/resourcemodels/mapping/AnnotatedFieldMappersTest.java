@@ -38,6 +38,7 @@ import static org.apache.commons.lang3.reflect.FieldUtils.getDeclaredField;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 /**
@@ -238,6 +239,27 @@ public class AnnotatedFieldMappersTest {
         assertMetadataHasMappers(this.metadata2);
     }
 
+    @Test
+    public void testLookupCacheIsInvalidatedWhenMappersChange() {
+        bind(this.mapper2);
+        assertMetadataHasMappers(this.metadata2, this.mapper2);
+
+        bind(this.mapper3);
+        assertMetadataHasMappers(this.metadata2, this.mapper2, this.mapper3);
+    }
+
+    @Test
+    public void testMetadataIsNotInspectedWithoutMappers() {
+        assertNoMapperExistFor(this.metadata1);
+        verify(this.metadata1, never()).getAnnotations();
+    }
+
+    @Test
+    public void testLookupYieldsSameMappingsForSameField() {
+        bind(this.mapper1);
+        assertThat(this.testee.get(this.metadata1)).isSameAs(this.testee.get(this.metadata1));
+    }
+
     private void verifyAnnotationsWhereQueriedOnlyOnce() {
         verify(this.metadata1).getAnnotations();
     }
@@ -24,6 +24,7 @@ import io.neba.core.resourcemodels.mapping.testmodels.OtherTestResourceModel;
 import io.neba.core.resourcemodels.mapping.testmodels.TestResourceModel;
 import io.neba.core.resourcemodels.metadata.MappedFieldMetaData;
 import io.neba.core.util.Annotations;
+import io.neba.core.util.PropertyConverters.PropertyConverter;
 import io.neba.core.util.ResourcePaths;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
@@ -53,7 +54,6 @@ import static io.neba.core.resourcemodels.mapping.testmodels.TestResourceModel.E
 import static io.neba.core.resourcemodels.mapping.testmodels.TestResourceModel.Enum.THREE;
 import static io.neba.core.resourcemodels.mapping.testmodels.TestResourceModel.Enum.TWO;
 import static java.lang.Boolean.FALSE;
-import static java.util.Collections.emptyList;
 import static org.apache.commons.lang3.ClassUtils.primitiveToWrapper;
 import static org.apache.commons.lang3.StringUtils.substringAfterLast;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -89,6 +89,7 @@ public class FieldValueMappingCallbackTest {
     private PlaceholderVariableResolvers placeholderVariableResolvers;
     @Mock
     private ResourcePaths.ResourcePath path;
+    private PropertyConverter propertyConverter;
     private Resource resource;
     private Resource parentOfResourceTargetedByMapping;
     private Resource resourceTargetedByMapping;
@@ -113,7 +114,7 @@ public class FieldValueMappingCallbackTest {
         doAnswer((Answer<Object>) inv -> ((Callable<Object>) inv.getArguments()[0]).call())
                 .when(this.mappedFieldMetadata)
                 .getLazyLoadingProxy(isA(Callable.class));
-        doReturn(emptyList()).when(this.annotatedFieldMappers).get(isA(MappedFieldMetaData.class));
+        doReturn(new AnnotationMapping[0]).when(this.annotatedFieldMappers).get(isA(MappedFieldMetaData.class));
         doReturn(this.path).when(this.mappedFieldMetadata).getPath();
     }
 
@@ -264,6 +265,21 @@ public class FieldValueMappingCallbackTest {
         assertFieldIsMapped();
     }
 
+    /**
+     * The {@link MappedFieldMetaData#getPropertyConverter() converter prepared with the field metadata}
+     * is used to read property values of the resource.
+     */
+    @Test
+    public void testMappingOfPropertyFieldUsesPreparedPropertyConverter() {
+        withField(TestResourceModel.Enum.class);
+        withPropertyTypedField();
+        withPropertyConverterYielding(TWO);
+        mapField();
+        withExpectedMappingResult(TWO);
+        assertFieldIsMapped();
+        assertPropertyConverterIsInvokedWithValueMap();
+    }
+
     /**
      * Tests mapping a {@link io.neba.api.annotations.ResourceModel} from a
      * {@link org.apache.sling.api.resource.ResourceUtil#isSyntheticResource(org.apache.sling.api.resource.Resource) synthetic}
@@ -522,6 +538,27 @@ public class FieldValueMappingCallbackTest {
         assertMappedFieldValueIsCollectionContainingTargetValue();
     }
 
+    /**
+     * Once loaded, a {@link Lazy} field must no longer reference the context of the mapping, e.g. the mapped resource,
+     * as models with lazy fields may be retained for a long time, e.g. in caches.
+     */
+    @Test
+    public void testLazyFieldReleasesMappingContextAfterLoading() throws Exception {
+        withResourceTargetedByMapping("/path/stored/in/property");
+        withLazyField();
+        mapSingleReferenceField(Resource.class, "/path/stored/in/property");
+
+        Object lazy = this.mappedFieldOfTypeObject;
+        assertThat(readField(lazy, "callback")).isNotNull();
+
+        loadLazyField();
+
+        assertThat(this.mappedFieldOfTypeObject).isSameAs(this.resourceTargetedByMapping);
+        assertThat(readField(lazy, "callback")).isNull();
+        assertThat(readField(lazy, "fieldData")).isNull();
+        assertThat(((Lazy<?>) lazy).orElse(null)).isSameAs(this.resourceTargetedByMapping);
+    }
+
     /**
      * Tests that {@link AnnotatedFieldMapper annotated field mappers} are supported on
      * {@link Lazy lazy-loading} resource model fields, i.e. that these mappers are invoked when the
@@ -1359,6 +1396,36 @@ public class FieldValueMappingCallbackTest {
         assertOngoingMappingDataIsAccurate();
     }
 
+    /**
+     * When multiple {@link AnnotatedFieldMapper field mappers} apply to a field, each mapper
+     * receives the value resolved by the previous mapper.
+     */
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public void testMultipleFieldMappersAreAppliedInSequence() {
+        AnnotatedFieldMapper secondMapper = mock(AnnotatedFieldMapper.class);
+        AnnotationMapping firstMapping = mock(AnnotationMapping.class);
+        AnnotationMapping secondMapping = mock(AnnotationMapping.class);
+        doReturn(this.annotatedFieldMapper).when(firstMapping).getMapper();
+        doReturn(secondMapper).when(secondMapping).getMapper();
+        doReturn(new AnnotationMapping[]{firstMapping, secondMapping}).when(this.annotatedFieldMappers).get(isA(MappedFieldMetaData.class));
+
+        List<Object> resolvedValues = new ArrayList<>();
+        doAnswer(invocationOnMock -> {
+            resolvedValues.add(((OngoingMapping) invocationOnMock.getArguments()[0]).getResolvedValue());
+            return "FirstMappedValue";
+        }).when(this.annotatedFieldMapper).map(isA(OngoingMapping.class));
+        doAnswer(invocationOnMock -> {
+            resolvedValues.add(((OngoingMapping) invocationOnMock.getArguments()[0]).getResolvedValue());
+            return "SecondMappedValue";
+        }).when(secondMapper).map(isA(OngoingMapping.class));
+
+        mapPropertyField(String.class, "PropertyValue");
+
+        assertThat(resolvedValues).containsExactly("PropertyValue", "FirstMappedValue");
+        assertMappedFieldValueIs("SecondMappedValue");
+    }
+
     /**
      * To prevent implementations of field mappers from having to worry about instantiating
      * suitable collection types for collection-typed fields, NEBA extends its guarantee (mappable collection-typed
@@ -1441,10 +1508,7 @@ public class FieldValueMappingCallbackTest {
         AnnotationMapping mapping = mock(AnnotationMapping.class);
         doReturn(this.annotatedFieldMapper).when(mapping).getMapper();
 
-        Collection<AnnotationMapping> mappings = new ArrayList<>();
-        mappings.add(mapping);
-
-        doReturn(mappings).when(this.annotatedFieldMappers).get(isA(MappedFieldMetaData.class));
+        doReturn(new AnnotationMapping[]{mapping}).when(this.annotatedFieldMappers).get(isA(MappedFieldMetaData.class));
 
         Answer retainMappingContext = invocationOnMock -> {
             ongoingMapping = (OngoingMapping) invocationOnMock.getArguments()[0];
@@ -1567,9 +1631,7 @@ public class FieldValueMappingCallbackTest {
     }
 
     private void withPathVariableResolution(String to) {
-        ResourcePaths.ResourcePath resolvedPath = mock(ResourcePaths.ResourcePath.class);
-        doReturn(to).when(resolvedPath).getPath();
-        doReturn(resolvedPath).when(this.path).resolve(any());
+        doReturn(to).when(this.placeholderVariableResolvers).resolve(this.path);
     }
 
     private void withResourceModelFactory() {
@@ -1646,6 +1708,16 @@ public class FieldValueMappingCallbackTest {
         withPropertyValue(propertyValue);
     }
 
+    private void withPropertyConverterYielding(Object value) {
+        this.propertyConverter = mock(PropertyConverter.class);
+        doReturn(value).when(this.propertyConverter).convert(any(), any());
+        doReturn(this.propertyConverter).when(this.mappedFieldMetadata).getPropertyConverter();
+    }
+
+    private void assertPropertyConverterIsInvokedWithValueMap() {
+        verify(this.propertyConverter).convert(this.valueMap, this.mappedFieldMetadata.getPath().getPath());
+    }
+
     private void withTypeParameter(Class<?> parameter) {
         doReturn(parameter).when(this.mappedFieldMetadata).getTypeParameter();
         doReturn(Array.newInstance(parameter, 0).getClass()).when(this.mappedFieldMetadata).getArrayTypeOfTypeParameter();
@@ -1708,6 +1780,12 @@ public class FieldValueMappingCallbackTest {
         doReturn(true).when(this.mappedFieldMetadata).isThisReference();
     }
 
+    private static Object readField(Object instance, String name) throws Exception {
+        Field field = instance.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
     private void loadLazyField() {
         this.mappedFieldOfTypeObject = ((Lazy<?>) this.mappedFieldOfTypeObject).asOptional().orElse(null);
     }
@@ -1788,7 +1866,7 @@ public class FieldValueMappingCallbackTest {
     }
 
     private void verifyFieldMapperResolvesPath() {
-        verify(this.path).resolve(any());
+        verify(this.placeholderVariableResolvers).resolve(this.path);
     }
 
     @SuppressWarnings("unchecked")
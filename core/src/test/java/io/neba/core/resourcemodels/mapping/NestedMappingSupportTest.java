@@ -24,6 +24,11 @@ import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.EmptyStackException;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.Mockito.doReturn;
@@ -175,6 +180,139 @@ public class NestedMappingSupportTest {
         assertNoModelsWhereRecorded();
     }
 
+    @Test
+    public void testDeeplyNestedMappingsOfDistinctModelsAreTracked() {
+        List<Mapping<?>> mappings = new ArrayList<>();
+        for (int i = 0; i < 100; ++i) {
+            withNewMapping();
+            beginMapping();
+            assertMappingWasNotAlreadyStarted();
+            mappings.add(this.mapping);
+        }
+
+        getOngoingMappings();
+        assertThat(this.ongoingMappings).containsExactlyElementsOf(mappings);
+
+        for (Mapping<?> ongoingMapping : mappings) {
+            assertThat(this.testee.hasOngoingMapping(ongoingMapping.getMetadata())).isTrue();
+            assertThat(this.testee.push(ongoingMapping)).isSameAs(ongoingMapping);
+        }
+
+        for (int i = mappings.size() - 1; i >= 0; --i) {
+            assertThat(this.testee.peek()).isSameAs(mappings.get(i));
+            endMapping();
+            assertThat(this.testee.hasOngoingMapping(mappings.get(i).getMetadata())).isFalse();
+        }
+
+        getOngoingMappings();
+        assertOngoingMappingsAreEmpty();
+        assertThat(this.testee.peek()).isNull();
+    }
+
+    @Test
+    public void testResourceModelIsNoLongerOngoingAfterAllItsMappingsEnded() {
+        beginMapping();
+        Mapping<?> parent = this.mapping;
+
+        withNewMapping();
+        beginMapping();
+        withNewMappingForSameResourceModel();
+        beginMapping();
+
+        endMapping();
+        assertMappingForCurrentResourceModelTypeExists();
+        endMapping();
+        assertNoMappingForCurrentResourceModelTypeExists();
+        assertThat(this.testee.hasOngoingMapping(parent.getMetadata())).isTrue();
+
+        endMapping();
+        assertThat(this.testee.hasOngoingMapping(parent.getMetadata())).isFalse();
+    }
+
+    @Test(expected = EmptyStackException.class)
+    public void testEndingMappingWithoutOngoingMappingIsRejected() {
+        endMapping();
+    }
+
+    @Test
+    public void testThreadLocalIsRemovedWhenMappingStackIsEmpty() throws Exception {
+        beginMapping();
+        assertThreadLocalMappingStackExists();
+
+        endMapping();
+        assertThreadLocalMappingStackIsRemoved();
+    }
+
+    @Test
+    public void testThreadLocalIsRemovedWhenRecordingEnds() throws Exception {
+        beginRecordingMappings();
+        beginMapping();
+        endMapping();
+        assertThreadLocalMappingStackExists();
+
+        endRecordingMappings();
+        assertThreadLocalMappingStackIsRemoved();
+    }
+
+    @Test
+    public void testMappingWithoutNestedMappingsAllocatesNoArrays() throws Exception {
+        beginRecordingMappings();
+        beginMapping();
+        assertMappingStackArraysAreNotAllocated();
+
+        endMapping();
+        assertMappingStackArraysAreNotAllocated();
+    }
+
+    @Test
+    public void testNestedMappingAllocatesArrays() throws Exception {
+        beginMapping();
+        withNewMapping();
+        beginMapping();
+
+        assertThat(mappingStackField("mappings")).isNotNull();
+        assertThat(mappingStackField("metadata")).isNotNull();
+    }
+
+    @Test
+    public void testReadingStateDoesNotCreateThreadLocal() throws Exception {
+        getOngoingMappings();
+        this.testee.peek();
+        this.testee.getRecordedMappings();
+        this.testee.hasOngoingMapping(this.mapping.getMetadata());
+        endRecordingMappings();
+
+        assertThreadLocalMappingStackIsRemoved();
+    }
+
+    private void assertThreadLocalMappingStackExists() throws Exception {
+        assertThat(threadLocalMappingStack().get()).isNotNull();
+    }
+
+    private void assertThreadLocalMappingStackIsRemoved() throws Exception {
+        assertThat(threadLocalMappingStack().get()).isNull();
+    }
+
+    private void assertMappingStackArraysAreNotAllocated() throws Exception {
+        assertThat(mappingStackField("mappings")).isNull();
+        assertThat(mappingStackField("hashCodes")).isNull();
+        assertThat(mappingStackField("metadata")).isNull();
+        assertThat(mappingStackField("counts")).isNull();
+    }
+
+    private Object mappingStackField(String name) throws Exception {
+        Object mappingStack = threadLocalMappingStack().get();
+        Field field = mappingStack.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(mappingStack);
+    }
+
+    private ThreadLocal<?> threadLocalMappingStack() throws Exception {
+        Field field = NestedMappingSupport.class.getDeclaredField("mappingStack");
+        field.setAccessible(true);
+        return (ThreadLocal<?>) field.get(this.testee);
+    }
+
     private void assertNoModelsWhereRecorded() {
         assertThat(this.testee.getRecordedMappings()).isNull();
     }
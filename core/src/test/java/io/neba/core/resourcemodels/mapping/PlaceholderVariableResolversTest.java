@@ -0,0 +1,311 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+package io.neba.core.resourcemodels.mapping;
+
+import io.neba.api.spi.PlaceholderVariableResolver;
+import io.neba.api.spi.PlaceholderVariableResolver.Cacheability;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import static io.neba.api.spi.PlaceholderVariableResolver.Cacheability.NONE;
+import static io.neba.api.spi.PlaceholderVariableResolver.Cacheability.REQUEST;
+import static io.neba.api.spi.PlaceholderVariableResolver.Cacheability.STATIC;
+import static io.neba.core.util.ResourcePaths.path;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PlaceholderVariableResolversTest {
+    private static final String SYSTEM_PROPERTY = "neba.test.placeholder";
+
+    @Mock
+    private PlaceholderVariableResolver resolver;
+    @Mock
+    private PlaceholderVariableResolver otherResolver;
+    @Mock
+    private ServletRequest request;
+    @Mock
+    private ServletResponse response;
+
+    private String resolvedPath;
+
+    private PlaceholderVariableResolvers testee;
+
+    @Before
+    public void setUp() {
+        this.testee = new PlaceholderVariableResolvers();
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(SYSTEM_PROPERTY);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullPathIsNotTolerated() {
+        this.testee.resolve(null);
+    }
+
+    @Test
+    public void testPathWithoutPlaceholdersIsNotResolved() {
+        bindResolver();
+        resolve("/some/path");
+        assertResolvedPathIs("/some/path");
+        verify(this.resolver, never()).resolve(anyString());
+    }
+
+    @Test
+    public void testPlaceholderIsResolvedByResolver() {
+        withResolution("language", "de", NONE);
+        bindResolver();
+
+        resolve("/content/${language}/page");
+
+        assertResolvedPathIs("/content/de/page");
+    }
+
+    @Test
+    public void testPlaceholderIsResolvedFromSystemPropertyIfNoResolverProvidesValue() {
+        withSystemProperty("value");
+
+        resolve("/content/${" + SYSTEM_PROPERTY + "}");
+
+        assertResolvedPathIs("/content/value");
+    }
+
+    @Test
+    public void testPathsOfNonCacheableResolversAreNotCached() {
+        withResolution("language", "de", NONE);
+        bindResolver();
+
+        resolve("/content/${language}");
+        resolve("/content/${language}");
+
+        verifyResolverIsInvoked(2);
+    }
+
+    @Test
+    public void testPathsOfStaticResolversAreCached() {
+        withResolution("language", "de", STATIC);
+        bindResolver();
+
+        resolve("/content/${language}");
+        resolve("/content/${language}");
+
+        assertResolvedPathIs("/content/de");
+        verifyResolverIsInvoked(1);
+    }
+
+    @Test
+    public void testStaticCacheIsClearedWhenResolversChange() {
+        withResolution("language", "de", STATIC);
+        bindResolver();
+        resolve("/content/${language}");
+
+        unbindResolver();
+        bindResolver();
+        resolve("/content/${language}");
+
+        verifyResolverIsInvoked(2);
+    }
+
+    @Test
+    public void testPathsOfRequestScopedResolversAreCachedDuringRequest() throws Exception {
+        withResolution("language", "de", REQUEST);
+        bindResolver();
+
+        request(() -> {
+            resolve("/content/${language}");
+            resolve("/content/${language}");
+        });
+
+        verifyResolverIsInvoked(1);
+
+        request(() -> resolve("/content/${language}"));
+
+        verifyResolverIsInvoked(2);
+        assertResolvedPathIs("/content/de");
+    }
+
+    @Test
+    public void testPathsOfRequestScopedResolversAreNotCachedOutsideOfRequests() {
+        withResolution("language", "de", REQUEST);
+        bindResolver();
+
+        resolve("/content/${language}");
+        resolve("/content/${language}");
+
+        verifyResolverIsInvoked(2);
+    }
+
+    @Test
+    public void testNarrowestCacheabilityOfConsultedResolversApplies() throws Exception {
+        doReturn(NONE).when(this.resolver).getCacheability();
+        bindResolver();
+        withSystemProperty("value");
+
+        request(() -> {
+            resolve("/content/${" + SYSTEM_PROPERTY + "}");
+            resolve("/content/${" + SYSTEM_PROPERTY + "}");
+        });
+
+        verify(this.resolver, times(2)).resolve(SYSTEM_PROPERTY);
+    }
+
+    @Test
+    public void testResolversThatAreNotConsultedDoNotAffectCacheability() {
+        withResolution("language", "de", STATIC);
+        bindResolver();
+        this.testee.bind(this.otherResolver);
+
+        resolve("/content/${language}");
+        resolve("/content/${language}");
+
+        verifyResolverIsInvoked(1);
+        verify(this.otherResolver, never()).resolve(anyString());
+        verify(this.otherResolver, never()).getCacheability();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnresolvablePlaceholderIsRejected() {
+        resolve("/content/${neba.test.unknown.placeholder}");
+    }
+
+    @Test
+    public void testNestedRequestsShareRequestScopedCache() throws Exception {
+        withResolution("language", "de", REQUEST);
+        bindResolver();
+
+        request(() -> {
+            resolve("/content/${language}");
+            request(() -> resolve("/content/${language}"));
+            resolve("/content/${language}");
+        });
+
+        verifyResolverIsInvoked(1);
+    }
+
+    @Test
+    public void testFilterProvidesNoRequestScopeWithoutRequestScopedResolvers() throws Exception {
+        withResolution("language", "de", STATIC);
+        bindResolver();
+
+        request(() -> assertThat(requestScopedPaths()).isNull());
+    }
+
+    @Test
+    public void testRequestScopedCacheIsCreatedUponFirstRequestScopedResolution() throws Exception {
+        withResolution("language", "de", REQUEST);
+        bindResolver();
+
+        request(() -> {
+            assertThat(requestScopedPaths()).isNotNull().isEmpty();
+            resolve("/content/${language}");
+            assertThat(requestScopedPaths()).containsEntry("/content/${language}", "/content/de");
+        });
+    }
+
+    @Test
+    public void testRequestScopeIsRemovedAfterRequest() throws Exception {
+        withResolution("language", "de", REQUEST);
+        bindResolver();
+
+        request(() -> resolve("/content/${language}"));
+
+        assertThat(requestScopedPaths()).isNull();
+    }
+
+    @Test
+    public void testRequestScopedResolversBoundAfterRequestsAreConsidered() throws Exception {
+        request(() -> assertThat(requestScopedPaths()).isNull());
+
+        withResolution("language", "de", REQUEST);
+        bindResolver();
+
+        request(() -> {
+            resolve("/content/${language}");
+            resolve("/content/${language}");
+        });
+
+        verifyResolverIsInvoked(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> requestScopedPaths() throws Exception {
+        Field field = PlaceholderVariableResolvers.class.getDeclaredField("requestScopedPaths");
+        field.setAccessible(true);
+        return ((ThreadLocal<Map<String, String>>) field.get(this.testee)).get();
+    }
+
+    private void request(Request request) throws Exception {
+        FilterChain chain = mock(FilterChain.class);
+        doAnswer(invocation -> {
+            request.request();
+            return null;
+        }).when(chain).doFilter(any(), any());
+        this.testee.doFilter(this.request, this.response, chain);
+    }
+
+    private void verifyResolverIsInvoked(int times) {
+        verify(this.resolver, times(times)).resolve("language");
+    }
+
+    private void withSystemProperty(String value) {
+        System.setProperty(SYSTEM_PROPERTY, value);
+    }
+
+    private void withResolution(String variableName, String value, Cacheability cacheability) {
+        doReturn(value).when(this.resolver).resolve(variableName);
+        doReturn(cacheability).when(this.resolver).getCacheability();
+    }
+
+    private void bindResolver() {
+        this.testee.bind(this.resolver);
+    }
+
+    private void unbindResolver() {
+        this.testee.unbind(this.resolver);
+    }
+
+    private void assertResolvedPathIs(String expected) {
+        assertThat(this.resolvedPath).isEqualTo(expected);
+    }
+
+    private void resolve(String path) {
+        this.resolvedPath = this.testee.resolve(path(path));
+    }
+
+    private interface Request {
+        void request() throws Exception;
+    }
+}
@@ -351,6 +351,7 @@ public class ResourceToModelMapperTest {
         doReturn(path).when(mappedFieldMetaData).getPath();
         doReturn(String.class).when(mappedFieldMetaData).getType();
         doReturn(field).when(mappedFieldMetaData).getField();
+        doReturn(new AnnotatedFieldMappers.AnnotationMapping[0]).when(this.annotatedFieldMappers).get(mappedFieldMetaData);
 
         doReturn(new MappedFieldMetaData[]{ mappedFieldMetaData }).when(this.modelMetaData).getMappableFields();
     }
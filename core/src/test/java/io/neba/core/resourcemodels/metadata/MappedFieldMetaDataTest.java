@@ -23,6 +23,7 @@ import io.neba.core.resourcemodels.mapping.testmodels.TestResourceModelWithInval
 import io.neba.core.resourcemodels.mapping.testmodels.TestResourceModelWithInvalidPathDeclaration;
 import io.neba.core.resourcemodels.mapping.testmodels.TestResourceModelWithUnsupportedCollectionTypes;
 import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.wrappers.ValueMapDecorator;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
@@ -31,11 +32,14 @@ import org.mockito.junit.MockitoJUnitRunner;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.function.Function;
 
 import static io.neba.core.util.ReflectionUtil.findField;
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -247,6 +251,24 @@ public class MappedFieldMetaDataTest {
         assertFieldIsInstantiableCollectionType();
     }
 
+    @Test
+    public void testPropertyConverterIsPreparedForPropertyTypedFields() {
+        createMetadataForTestModelFieldWithName("primitiveIntField");
+        assertConvertedPropertyValueIs(1, 1);
+
+        createMetadataForTestModelFieldWithName("collectionOfStrings");
+        assertConvertedPropertyValueIs(new String[]{"one", "two"}, asList("one", "two"));
+    }
+
+    @Test
+    public void testPropertyConverterIsNotPreparedForResourceOrReferenceFields() {
+        createMetadataForTestModelFieldWithName("referencedResource");
+        assertFieldHasNoPropertyConverter();
+
+        createMetadataForTestModelFieldWithName("thisResource");
+        assertFieldHasNoPropertyConverter();
+    }
+
     @Test
     public void testDetectionOfPathExpression() {
         createMetadataForTestModelFieldWithName("stringFieldWithPlaceholder");
@@ -293,6 +315,21 @@ public class MappedFieldMetaDataTest {
         assertLazyLoadingCallbackWasCalledExactlyOnceDuringTestExecution();
     }
 
+    @Test
+    public void testLazyLoadingCallbackIsReleasedAfterLoading() throws Exception {
+        createMetadataForTestModelFieldWithName("childrenAsResources");
+        createLazyLoadingProxy();
+        withListReturnedFromLazyLoadingCallback();
+
+        assertThat(readField(lazyLoadingHandler(), "factory")).isSameAs(this.callbackForLazyLoading);
+
+        ((List<?>) this.lazyLoadingProxy).isEmpty();
+
+        assertThat(readField(lazyLoadingHandler(), "factory")).isNull();
+        assertThat(((List<?>) this.lazyLoadingProxy).size()).isEqualTo(0);
+        assertLazyLoadingCallbackWasCalledExactlyOnceDuringTestExecution();
+    }
+
     @Test
     public void testResolutionOfArrayComponentType() {
         createMetadataForTestModelFieldWithName("collectionOfStrings");
@@ -355,6 +392,16 @@ public class MappedFieldMetaDataTest {
         assertThat(this.lazyLoadingProxy).isInstanceOf(expectedType);
     }
 
+    private Object lazyLoadingHandler() throws Exception {
+        return readField(this.lazyLoadingProxy, "__neba__lazyLoading_handler");
+    }
+
+    private static Object readField(Object instance, String name) throws Exception {
+        Field field = instance.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(instance);
+    }
+
     private void createLazyLoadingProxy() {
         this.lazyLoadingProxy = this.testee.getLazyLoadingProxy(this.callbackForLazyLoading);
     }
@@ -447,6 +494,17 @@ public class MappedFieldMetaDataTest {
         assertThat(this.testee.getAppendPathOnReference()).isEqualTo(path);
     }
 
+    private void assertConvertedPropertyValueIs(Object propertyValue, Object expected) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("property", propertyValue);
+        assertThat(this.testee.getPropertyConverter()).isNotNull();
+        assertThat(this.testee.getPropertyConverter().convert(new ValueMapDecorator(properties), "property")).isEqualTo(expected);
+    }
+
+    private void assertFieldHasNoPropertyConverter() {
+        assertThat(this.testee.getPropertyConverter()).isNull();
+    }
+
     private void assertFieldIsPropertyType() {
 		assertThat(this.testee.isPropertyType()).isTrue();
 	}
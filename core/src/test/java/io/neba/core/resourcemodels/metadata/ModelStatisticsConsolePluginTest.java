@@ -16,6 +16,7 @@
 
 package io.neba.core.resourcemodels.metadata;
 
+import io.neba.core.resourcemodels.registration.ModelRegistry;
 import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
@@ -33,7 +34,9 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
@@ -52,6 +55,8 @@ public class ModelStatisticsConsolePluginTest {
     private HttpServletResponse response;
     @Mock
     private ResourceModelMetaDataRegistrar registrar;
+    @Mock
+    private ModelRegistry modelRegistry;
 
     private ResourceModelMetaData modelMetaData;
     private List<ResourceModelMetaData> metadataList;
@@ -166,6 +171,15 @@ public class ModelStatisticsConsolePluginTest {
                        "}");
     }
 
+    @Test
+    public void testRetrievalOfLookupCacheStatistics() throws Exception {
+        withLookupCacheStatistics();
+        withRequestPath("/system/console/modelstatistics/api/statistics/lookupcache");
+        doGet();
+        verify(this.response).setContentType("application/json; charset=UTF-8");
+        assertResponseIsEqualTo("{\"capacity\":100,\"size\":10,\"hits\":30,\"misses\":10,\"hitRatio\":0.75,\"evictions\":2,\"averageLoadTime\":0.5}");
+    }
+
     @Test
     public void testResetOfStatistics() throws Exception {
         addStatistics("junit.test.type.NameOne", 1, 1L, 1, 1, 1, 1, 1, new int[]{}, new int[]{});
@@ -221,6 +235,18 @@ public class ModelStatisticsConsolePluginTest {
         assertResponseContains("\"greedyFields\":0");
     }
 
+    private void withLookupCacheStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("capacity", 100);
+        statistics.put("size", 10);
+        statistics.put("hits", 30L);
+        statistics.put("misses", 10L);
+        statistics.put("hitRatio", 0.75D);
+        statistics.put("evictions", 2L);
+        statistics.put("averageLoadTime", 0.5D);
+        doReturn(statistics).when(this.modelRegistry).getLookupCacheStatistics();
+    }
+
     private void withGreedyField() {
         MappedFieldMetaData mappedFieldMetaData = mock(MappedFieldMetaData.class);
         doReturn(new MappedFieldMetaData[]{ mappedFieldMetaData }).when(this.modelMetaData).getMappableFields();
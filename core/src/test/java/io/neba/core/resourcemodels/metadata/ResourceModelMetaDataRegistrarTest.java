@@ -16,10 +16,14 @@
 
 package io.neba.core.resourcemodels.metadata;
 
+import io.neba.core.resourcemodels.mapping.testmodels.ExtendedTestResourceModel;
 import io.neba.core.resourcemodels.mapping.testmodels.OtherTestResourceModel;
 import io.neba.core.resourcemodels.mapping.testmodels.TestResourceModel;
+import io.neba.core.resourcemodels.mapping.testmodels.TestResourceModelWithInvalidPathDeclaration;
 import io.neba.core.util.OsgiModelSource;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import net.sf.cglib.proxy.NoOp;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -30,6 +34,7 @@ import org.osgi.framework.Bundle;
 
 import static net.sf.cglib.proxy.Enhancer.create;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -120,6 +125,70 @@ public class ResourceModelMetaDataRegistrarTest {
         assertAllMetadataConsistsOfMetadataFor(TestResourceModel.class, OtherTestResourceModel.class);
     }
 
+    @Test
+    public void testRegistrationOfPreviouslyUnknownTypeIsVisibleToLookups() {
+        assertMetadataLookupFailsFor(TestResourceModel.class);
+        addModelType(TestResourceModel.class);
+        getMetaDataFor(createCglibProxy(TestResourceModel.class));
+        assertMetadataIsNotNull();
+    }
+
+    @Test
+    public void testRemovalOfPreviouslyResolvedTypeIsVisibleToLookups() {
+        addModelType(TestResourceModel.class);
+        getMetaDataFor(createCglibProxy(TestResourceModel.class));
+        assertMetadataIsNotNull();
+
+        removeBundle();
+
+        assertMetadataLookupFailsFor(createCglibProxy(TestResourceModel.class));
+        assertMetadataLookupFailsFor(TestResourceModel.class);
+    }
+
+    @Test
+    public void testLookupOfProxyTypeYieldsSameMetadataAsUserType() {
+        addModelType(TestResourceModel.class);
+        getMetaDataFor(TestResourceModel.class);
+        ResourceModelMetaData userTypeMetadata = this.metadata;
+
+        getMetaDataFor(createCglibProxy(TestResourceModel.class));
+        assertThat(this.metadata).isSameAs(userTypeMetadata);
+    }
+
+    @Test
+    public void testStatisticsAreRetainedWhenAnUnchangedModelTypeIsRegisteredAgain() {
+        addModelType(TestResourceModel.class);
+        getMetaDataFor(TestResourceModel.class);
+        this.metadata.getStatistics().countInstantiation();
+
+        removeBundle();
+        addModelType(TestResourceModel.class);
+
+        getMetaDataFor(TestResourceModel.class);
+        assertThat(this.metadata.getStatistics().getInstantiations()).isEqualTo(1);
+    }
+
+    @Test
+    public void testRetainedStatisticsExpire() {
+        this.testee.setRetainedStatisticsTimeToLive(0);
+        addModelType(TestResourceModel.class);
+        getMetaDataFor(TestResourceModel.class);
+        this.metadata.getStatistics().countInstantiation();
+
+        removeBundle();
+        addModelType(TestResourceModel.class);
+
+        getMetaDataFor(TestResourceModel.class);
+        assertThat(this.metadata.getStatistics().getInstantiations()).isEqualTo(0);
+    }
+
+    @Test
+    public void testStatisticsAreNotRetainedWhenModelTypeIsRegisteredForTheFirstTime() {
+        addModelType(TestResourceModel.class);
+        getMetaDataFor(TestResourceModel.class);
+        assertThat(this.metadata.getStatistics().getInstantiations()).isEqualTo(0);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testNullValuesAreNotToleratedForBundleDeRegistration() {
         this.testee.removeMetadataForModelsIn(null);
@@ -127,7 +196,41 @@ public class ResourceModelMetaDataRegistrarTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testNullValuesAreNotToleratedForModelRegistration() {
-        this.testee.register(null);
+        this.testee.register((OsgiModelSource<?>) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValuesAreNotToleratedForBulkModelRegistration() {
+        this.testee.register((Collection<OsgiModelSource<?>>) null);
+    }
+
+    @Test
+    public void testBulkRegistrationOfModelTypes() {
+        addModelTypes(TestResourceModel.class, OtherTestResourceModel.class, ExtendedTestResourceModel.class);
+        getAllMetadata();
+
+        assertAllMetadataConsistsOfMetadataFor(TestResourceModel.class, OtherTestResourceModel.class, ExtendedTestResourceModel.class);
+    }
+
+    @Test
+    public void testBulkRegistrationRetainsPreviouslyRegisteredModelTypes() {
+        addModelType(TestResourceModel.class);
+        addModelTypes(OtherTestResourceModel.class, ExtendedTestResourceModel.class);
+        getAllMetadata();
+
+        assertAllMetadataConsistsOfMetadataFor(TestResourceModel.class, OtherTestResourceModel.class, ExtendedTestResourceModel.class);
+    }
+
+    @Test
+    public void testBulkRegistrationPublishesNoMetadataIfTheMetadataOfAnyModelCannotBeCreated() {
+        assertThatThrownBy(() -> addModelTypes(TestResourceModel.class, OtherTestResourceModel.class, TestResourceModelWithInvalidPathDeclaration.class))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertMetadataLookupFailsFor(TestResourceModel.class);
+    }
+
+    private void assertMetadataLookupFailsFor(Class<?> type) {
+        assertThatThrownBy(() -> getMetaDataFor(type)).isInstanceOf(IllegalStateException.class);
     }
 
     private void clearAllMetaData() {
@@ -161,11 +264,23 @@ public class ResourceModelMetaDataRegistrarTest {
     }
 
     private void addModelType(Class<?> modelType) {
+        this.testee.register(mockModelSource(modelType));
+    }
+
+    private void addModelTypes(Class<?>... modelTypes) {
+        List<OsgiModelSource<?>> sources = new ArrayList<>();
+        for (Class<?> modelType : modelTypes) {
+            sources.add(mockModelSource(modelType));
+        }
+        this.testee.register(sources);
+    }
+
+    private OsgiModelSource<?> mockModelSource(Class<?> modelType) {
         @SuppressWarnings("unchecked")
         OsgiModelSource<Object> source = mock(OsgiModelSource.class);
         doReturn(modelType).when(source).getModelType();
         doReturn(this.bundleId).when(source).getBundleId();
-        this.testee.register(source);
+        return source;
     }
 
     private void getMetaDataFor(Class<?> modelType) {
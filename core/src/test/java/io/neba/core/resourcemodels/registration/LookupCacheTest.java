@@ -0,0 +1,236 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class LookupCacheTest {
+    private LookupCache<String, String> testee;
+    private List<String> loadedKeys;
+    private String value;
+
+    @Before
+    public void setUp() {
+        this.loadedKeys = new ArrayList<>();
+        withCapacity(10);
+    }
+
+    @Test
+    public void testValueIsLoadedOnce() {
+        get("key");
+        get("key");
+
+        assertValueIs("value of key");
+        assertLoadedKeysAre("key");
+        assertHitsAre(1);
+        assertMissesAre(1);
+    }
+
+    @Test
+    public void testNullValuesAreCached() {
+        getWithNullValue("key");
+        getWithNullValue("key");
+
+        assertValueIsNull();
+        assertLoadedKeysAre("key");
+        assertHitsAre(1);
+    }
+
+    @Test
+    public void testCapacityIsNotExceeded() {
+        for (int i = 0; i < 100; ++i) {
+            get("key" + i);
+        }
+
+        assertSizeIs(10);
+        assertEvictionsAre(90);
+    }
+
+    @Test
+    public void testFrequentlyUsedEntriesSurviveScanOfKeysUsedOnce() {
+        for (int i = 0; i < 5; ++i) {
+            get("hot" + i);
+            get("hot" + i);
+        }
+
+        // Push the frequently used entries to the main queue
+        for (int i = 0; i < 10; ++i) {
+            get("warmup" + i);
+        }
+
+        // A scan of distinct keys exceeding the capacity
+        for (int i = 0; i < 100; ++i) {
+            get("scan" + i);
+        }
+
+        this.loadedKeys.clear();
+        for (int i = 0; i < 5; ++i) {
+            get("hot" + i);
+        }
+
+        assertNoKeysWereLoaded();
+    }
+
+    @Test
+    public void testClearRemovesEntriesButRetainsCounters() {
+        get("key");
+        clear();
+
+        assertSizeIs(0);
+        assertMissesAre(1);
+
+        get("key");
+        assertLoadedKeysAre("key", "key");
+    }
+
+    @Test
+    public void testValuesLoadedWhileTheCacheIsClearedAreNotStored() {
+        this.testee.get("key", k -> {
+            clear();
+            return "stale value";
+        });
+
+        assertSizeIs(0);
+    }
+
+    @Test
+    public void testRemovalOfMatchingEntries() {
+        get("one");
+        get("two");
+
+        assertThat(this.testee.removeIf("value of one"::equals)).isEqualTo(1);
+
+        assertSizeIs(1);
+        this.loadedKeys.clear();
+        get("one");
+        get("two");
+        assertLoadedKeysAre("one");
+    }
+
+    @Test
+    public void testValuesLoadedWhileEntriesAreRemovedAreNotStored() {
+        this.testee.get("key", k -> {
+            this.testee.removeIf(v -> false);
+            return "stale value";
+        });
+
+        assertSizeIs(0);
+    }
+
+    @Test
+    public void testStatistics() {
+        get("key");
+        get("key");
+        get("key");
+
+        assertThat(this.testee.getStatistics())
+                .containsEntry("capacity", 10)
+                .containsEntry("size", 1)
+                .containsEntry("hits", 2L)
+                .containsEntry("misses", 1L)
+                .containsEntry("evictions", 0L)
+                .containsKeys("hitRatio", "totalLoadTime", "averageLoadTime");
+        assertThat((Double) this.testee.getStatistics().get("hitRatio")).isEqualTo(2D / 3D);
+    }
+
+    @Test
+    public void testFrequentlyUsedValuesExcludeValuesUsedOnce() {
+        get("hot");
+        get("hot");
+        get("cold");
+
+        assertThat(this.testee.getFrequentlyUsedValues(10)).containsExactly("value of hot");
+    }
+
+    @Test
+    public void testNumberOfFrequentlyUsedValuesIsLimited() {
+        for (int i = 0; i < 5; ++i) {
+            get("hot" + i);
+            get("hot" + i);
+        }
+
+        assertThat(this.testee.getFrequentlyUsedValues(3)).hasSize(3);
+    }
+
+    @Test
+    public void testCapacityMustBePositive() {
+        assertThatThrownBy(() -> withCapacity(0))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Method argument capacity must be greater than zero, got 0.");
+    }
+
+    private void withCapacity(int capacity) {
+        this.testee = new LookupCache<>(capacity);
+    }
+
+    private void get(String key) {
+        this.value = this.testee.get(key, k -> {
+            this.loadedKeys.add(k);
+            return "value of " + k;
+        });
+    }
+
+    private void getWithNullValue(String key) {
+        this.value = this.testee.get(key, k -> {
+            this.loadedKeys.add(k);
+            return null;
+        });
+    }
+
+    private void clear() {
+        this.testee.clear();
+    }
+
+    private void assertValueIs(String expected) {
+        assertThat(this.value).isEqualTo(expected);
+    }
+
+    private void assertValueIsNull() {
+        assertThat(this.value).isNull();
+    }
+
+    private void assertLoadedKeysAre(String... keys) {
+        assertThat(this.loadedKeys).containsExactly(keys);
+    }
+
+    private void assertNoKeysWereLoaded() {
+        assertThat(this.loadedKeys).isEmpty();
+    }
+
+    private void assertSizeIs(int size) {
+        assertThat(this.testee.size()).isEqualTo(size);
+    }
+
+    private void assertHitsAre(long hits) {
+        assertThat(this.testee.getHits()).isEqualTo(hits);
+    }
+
+    private void assertMissesAre(long misses) {
+        assertThat(this.testee.getMisses()).isEqualTo(misses);
+    }
+
+    private void assertEvictionsAre(long evictions) {
+        assertThat(this.testee.getEvictions()).isEqualTo(evictions);
+    }
+}
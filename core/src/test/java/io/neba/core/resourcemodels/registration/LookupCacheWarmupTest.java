@@ -0,0 +1,293 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import io.neba.core.util.OsgiModelSource;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.osgi.framework.BundleContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static io.neba.core.resourcemodels.registration.LookupRecord.Kind.ALL_MODELS;
+import static io.neba.core.resourcemodels.registration.LookupRecord.Kind.MODEL_NAME;
+import static io.neba.core.resourcemodels.registration.LookupRecord.Kind.MOST_SPECIFIC;
+import static io.neba.core.resourcemodels.registration.LookupRecord.Kind.TARGET_TYPE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LookupCacheWarmupTest {
+    private static class TargetType {}
+    private static class Model extends TargetType {}
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private ModelRegistry registry;
+    @Mock
+    private ResourceResolverFactory resourceResolverFactory;
+    @Mock
+    private ResourceResolver resolver;
+    @Mock
+    private BundleContext context;
+    @Mock
+    private ScheduledExecutorService executorService;
+    @Mock
+    private LookupCacheWarmup.Configuration configuration;
+
+    private File dataFile;
+
+    @InjectMocks
+    private LookupCacheWarmup testee;
+
+    @Before
+    public void setUp() {
+        this.dataFile = new File(this.temporaryFolder.getRoot(), LookupCacheWarmup.DATA_FILE_NAME);
+        this.testee.setExecutorService(this.executorService);
+    }
+
+    @Test
+    public void testNothingIsScheduledWhenDisabled() {
+        withWarmupDisabled();
+        activate();
+        verifyNoInteractions(this.executorService);
+    }
+
+    @Test
+    public void testPersistenceIsScheduled() {
+        withConfiguration();
+        activate();
+        verify(this.executorService).scheduleWithFixedDelay(any(), eq(5L), eq(5L), any());
+    }
+
+    @Test
+    public void testReplayIsNotScheduledWithoutPersistedLookups() {
+        withConfiguration();
+        activate();
+        verify(this.executorService, never()).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    public void testFrequentLookupsArePersisted() throws IOException {
+        withConfiguration();
+        withFrequentLookups(
+                new LookupRecord("/content/one", MOST_SPECIFIC, null),
+                new LookupRecord("/content/two", MODEL_NAME, "modelName"));
+        activate();
+
+        persist();
+
+        assertDataFileContains("MOST_SPECIFIC\t\t/content/one", "MODEL_NAME\tmodelName\t/content/two");
+    }
+
+    @Test
+    public void testPersistedLookupsAreRetainedWhenThereAreNoFrequentLookups() throws IOException {
+        withConfiguration();
+        withDataFile("ALL_MODELS\t\t/content/one");
+        withFrequentLookups();
+        activate();
+
+        persist();
+
+        assertDataFileContains("ALL_MODELS\t\t/content/one");
+    }
+
+    @Test
+    public void testLookupsArePersistedOnDeactivation() throws Exception {
+        withConfiguration();
+        withFrequentLookups(new LookupRecord("/content/one", ALL_MODELS, null));
+        activate();
+
+        deactivate();
+
+        InOrder inOrder = inOrder(this.executorService);
+        inOrder.verify(this.executorService).shutdownNow();
+        inOrder.verify(this.executorService).awaitTermination(anyLong(), any());
+        assertDataFileContains("ALL_MODELS\t\t/content/one");
+    }
+
+    @Test
+    public void testTemporaryFilesAreNotRetainedAfterPersistence() throws IOException {
+        withConfiguration();
+        withFrequentLookups(new LookupRecord("/content/one", ALL_MODELS, null));
+        activate();
+
+        persist();
+        persist();
+
+        assertThat(this.temporaryFolder.getRoot().list()).containsExactly(LookupCacheWarmup.DATA_FILE_NAME);
+    }
+
+    @Test
+    public void testPersistedLookupsAreReplayedOnceModelsAreRegistered() throws Exception {
+        withConfiguration();
+        withDataFile(
+                "MOST_SPECIFIC\t\t/content/one",
+                "ALL_MODELS\t\t/content/two",
+                "MODEL_NAME\tmodelName\t/content/one",
+                "TARGET_TYPE\t" + TargetType.class.getName() + "\t/content/two",
+                "malformed line");
+        withRegisteredModels();
+        Resource one = withResource("/content/one");
+        Resource two = withResource("/content/two");
+        activate();
+
+        replay();
+
+        verify(this.registry).lookupMostSpecificModels(one);
+        verify(this.registry).lookupAllModels(two);
+        verify(this.registry).lookupMostSpecificModels(one, "modelName");
+        verify(this.registry).lookupMostSpecificModels(two, TargetType.class);
+        verify(this.resolver).close();
+    }
+
+    @Test
+    public void testReplayIsPostponedUntilModelsAreRegistered() throws IOException {
+        withConfiguration();
+        withDataFile("MOST_SPECIFIC\t\t/content/one");
+        activate();
+
+        replay();
+
+        verify(this.executorService, times(2)).schedule(any(Runnable.class), anyLong(), any());
+        verifyNoInteractions(this.resourceResolverFactory);
+    }
+
+    @Test
+    public void testLookupsOfResourcesThatNoLongerExistAreSkipped() throws Exception {
+        withConfiguration();
+        withDataFile("MOST_SPECIFIC\t\t/content/gone");
+        withRegisteredModels();
+        withResolver();
+        activate();
+
+        replay();
+
+        verify(this.registry, never()).lookupMostSpecificModels(any());
+        verify(this.resolver).close();
+    }
+
+    @Test
+    public void testLookupsAreNotReplayedWithoutServiceUser() throws Exception {
+        withConfiguration();
+        withDataFile("MOST_SPECIFIC\t\t/content/one");
+        withRegisteredModels();
+        when(this.resourceResolverFactory.getServiceResourceResolver(anyMap())).thenThrow(new LoginException("THIS IS AN EXPECTED TEST EXCEPTION"));
+        activate();
+
+        replay();
+
+        verify(this.registry, never()).lookupMostSpecificModels(any());
+    }
+
+    private void withWarmupDisabled() {
+        when(this.configuration.enabled()).thenReturn(false);
+    }
+
+    private void withConfiguration() {
+        when(this.configuration.enabled()).thenReturn(true);
+        when(this.configuration.persistenceInterval()).thenReturn(5);
+        when(this.configuration.maximumNumberOfLookups()).thenReturn(100);
+        when(this.context.getDataFile(LookupCacheWarmup.DATA_FILE_NAME)).thenReturn(this.dataFile);
+    }
+
+    private void withDataFile(String... lines) throws IOException {
+        Files.write(this.dataFile.toPath(), asList(lines), UTF_8);
+    }
+
+    private void withFrequentLookups(LookupRecord... records) {
+        when(this.registry.getFrequentLookups(100)).thenReturn(asList(records));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void withRegisteredModels() {
+        OsgiModelSource<?> source = mock(OsgiModelSource.class);
+        doReturn(Model.class).when(source).getModelType();
+        doReturn(singletonList(source)).when(this.registry).getModelSources();
+        when(this.registry.getLastModification()).thenReturn(0L);
+    }
+
+    private void withResolver() throws LoginException {
+        when(this.resourceResolverFactory.getServiceResourceResolver(anyMap())).thenReturn(this.resolver);
+    }
+
+    private Resource withResource(String path) throws LoginException {
+        withResolver();
+        Resource resource = mock(Resource.class);
+        when(this.resolver.getResource(path)).thenReturn(resource);
+        return resource;
+    }
+
+    private void activate() {
+        this.testee.activate(this.context, this.configuration);
+    }
+
+    private void deactivate() {
+        this.testee.deactivate();
+    }
+
+    private void persist() {
+        this.testee.persist();
+    }
+
+    /**
+     * Runs the replay scheduled upon activation.
+     */
+    private void replay() {
+        ArgumentCaptor<Runnable> replay = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.executorService).schedule(replay.capture(), anyLong(), any());
+        replay.getValue().run();
+    }
+
+    private void assertDataFileContains(String... lines) throws IOException {
+        List<String> content = this.dataFile.exists() ? Files.readAllLines(this.dataFile.toPath(), UTF_8) : emptyList();
+        assertThat(content).containsExactly(lines);
+    }
+}
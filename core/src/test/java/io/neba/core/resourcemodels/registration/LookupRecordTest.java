@@ -0,0 +1,72 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.core.resourcemodels.registration;
+
+import org.junit.Test;
+
+import static io.neba.core.resourcemodels.registration.LookupRecord.Kind.ALL_MODELS;
+import static io.neba.core.resourcemodels.registration.LookupRecord.Kind.MODEL_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LookupRecordTest {
+    private LookupRecord record;
+
+    @Test
+    public void testRecordWithArgumentSurvivesRoundTrip() {
+        withRecord(new LookupRecord("/content/page", MODEL_NAME, "modelName"));
+        assertParsedLineEqualsRecord();
+    }
+
+    @Test
+    public void testRecordWithoutArgumentSurvivesRoundTrip() {
+        withRecord(new LookupRecord("/content/page", ALL_MODELS, null));
+        assertParsedLineEqualsRecord();
+    }
+
+    @Test
+    public void testPathsMayContainTheSeparator() {
+        withRecord(new LookupRecord("/content/a\tb", ALL_MODELS, null));
+        assertParsedLineEqualsRecord();
+    }
+
+    @Test
+    public void testMalformedLinesAreIgnored() {
+        assertLineIsIgnored(null);
+        assertLineIsIgnored("");
+        assertLineIsIgnored("ALL_MODELS");
+        assertLineIsIgnored("ALL_MODELS\t\t");
+        assertLineIsIgnored("UNKNOWN\t\t/content/page");
+    }
+
+    @Test
+    public void testLinesWithoutRequiredArgumentAreIgnored() {
+        assertLineIsIgnored("MODEL_NAME\t\t/content/page");
+        assertLineIsIgnored("TARGET_TYPE\t\t/content/page");
+    }
+
+    private void withRecord(LookupRecord record) {
+        this.record = record;
+    }
+
+    private void assertParsedLineEqualsRecord() {
+        assertThat(LookupRecord.parse(this.record.toLine())).isEqualTo(this.record);
+    }
+
+    private void assertLineIsIgnored(String line) {
+        assertThat(LookupRecord.parse(line)).isNull();
+    }
+}
@@ -22,12 +22,14 @@ import org.osgi.framework.ServiceListener;
 import org.osgi.framework.ServiceReference;
 import org.osgi.framework.Version;
 
+import java.util.Collection;
 import java.util.List;
 
 import static java.util.Collections.singletonList;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -137,8 +139,8 @@ public class ModelRegistrarTest {
     }
 
     private void verifyNoResourceModelIsRegistered() {
-        verify(this.resourceModelMetaDataRegistrar, never()).register(any());
-        verify(this.modelRegistry, never()).add(any(), any());
+        verify(this.resourceModelMetaDataRegistrar, never()).register(anyCollection());
+        verify(this.modelRegistry, never()).addAll(any());
         verify(this.resourceToModelAdapterUpdater, never()).refresh();
     }
 
@@ -153,8 +155,8 @@ public class ModelRegistrarTest {
     private void verifyResourceModelIsRegistered() {
         InOrder inOrder = Mockito.inOrder(this.resourceModelMetaDataRegistrar, this.modelRegistry, this.resourceToModelAdapterUpdater);
 
-        inOrder.verify(this.resourceModelMetaDataRegistrar).register(isA(OsgiModelSource.class));
-        inOrder.verify(this.modelRegistry).add(eq(this.modelResourceTypes), isA(OsgiModelSource.class));
+        inOrder.verify(this.resourceModelMetaDataRegistrar).register(argThat((Collection<OsgiModelSource<?>> sources) -> sources.size() == 1));
+        inOrder.verify(this.modelRegistry).addAll(argThat(typesBySource -> typesBySource.size() == 1 && typesBySource.containsValue(this.modelResourceTypes)));
         inOrder.verify(this.resourceToModelAdapterUpdater).refresh();
     }
 
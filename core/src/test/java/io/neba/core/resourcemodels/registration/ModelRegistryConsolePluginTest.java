@@ -54,6 +54,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -300,6 +301,15 @@ public class ModelRegistryConsolePluginTest {
         verifyDefaultComponentIconIsWritten();
     }
 
+    @Test
+    public void testRenderingOfLookupCacheStatistics() throws Exception {
+        withLookupCacheStatistics();
+
+        renderContent();
+
+        assertResponseContains("Lookup cache: 10 of 100 entries used, 30 hits, 10 misses (hit ratio 75.0%), 2 evictions, 0.500 ms average lookup time on misses.");
+    }
+
     @Test
     public void testModelTypesApi() throws Exception {
         withRegisteredModel("cq:Page", Model.class, 123L, "modelName");
@@ -525,6 +535,18 @@ public class ModelRegistryConsolePluginTest {
         verify(this.outputStream).write(buffer, 0, expected.length);
     }
 
+    private void withLookupCacheStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("capacity", 100);
+        statistics.put("size", 10);
+        statistics.put("hits", 30L);
+        statistics.put("misses", 10L);
+        statistics.put("hitRatio", 0.75D);
+        statistics.put("evictions", 2L);
+        statistics.put("averageLoadTime", 0.5D);
+        doReturn(statistics).when(this.modelRegistry).getLookupCacheStatistics();
+    }
+
     private void get(String requestUri) throws ServletException, IOException {
         doReturn(requestUri).when(this.request).getRequestURI();
         this.testee.doGet(this.request, this.response);
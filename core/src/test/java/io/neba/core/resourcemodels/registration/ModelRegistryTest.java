@@ -21,6 +21,7 @@ import io.neba.core.util.OsgiModelSource;
 import io.neba.core.util.ResolvedModelSource;
 import org.apache.sling.api.resource.Resource;
 import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -34,10 +35,15 @@ import javax.jcr.RepositoryException;
 import javax.jcr.nodetype.NodeType;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -113,6 +119,33 @@ public class ModelRegistryTest {
         assertRegistryFindsResourceModelsByResourceType();
         assertRegistryFindsResourceModelsByResourceType();
     }
+
+    @Test
+    public void testLookupCacheStatisticsCountHitsAndMisses() {
+        withModelForType("my/page/type", TargetType1.class);
+
+        Resource resource = mockResourceWithResourceType("my/page/type");
+        lookupModelSourcesForType(TargetType1.class, resource);
+        lookupModelSourcesForType(TargetType1.class, resource);
+        lookupModelSourcesForType(TargetType1.class, resource);
+
+        assertLookupCacheStatisticsContain("hits", 2L);
+        assertLookupCacheStatisticsContain("misses", 1L);
+        assertLookupCacheStatisticsContain("size", 1);
+    }
+
+    @Test
+    public void testLookupCacheCapacityIsConfigurable() {
+        withLookupCacheCapacity(1);
+        withModelForType("my/page/type", TargetType1.class);
+
+        lookupModelSourcesForType(TargetType1.class, mockResourceWithResourceType("my/page/type"));
+        lookupModelSourcesForType(TargetType1.class, mockResourceWithResourceType("my/other/type"));
+
+        assertLookupCacheStatisticsContain("capacity", 1);
+        assertLookupCacheStatisticsContain("size", 1);
+        assertLookupCacheStatisticsContain("evictions", 1L);
+    }
     
     @Test
     public void testModelSourceLookupByResourceSuperType() {
@@ -476,6 +509,172 @@ public class ModelRegistryTest {
         assertLookedUpModelSourcesAreNull();
     }
 
+    /**
+     * If no model is mapped to a node type, the node types of a resource cannot affect the lookup result. Thus,
+     * the resource must not be adapted to a {@link Node} to determine the lookup key.
+     */
+    @Test
+    public void testNodeTypesAreNotRetrievedForLookupKeyIfNoModelIsMappedToNodeType() throws Exception {
+        withModelForType("my/page/type", TargetType1.class);
+
+        Resource resource = mockResourceWithResourceType("my/page/type");
+
+        lookupModelSourcesForType(TargetType1.class, resource);
+        assertNumberOfLookedUpModelSourcesIs(1);
+
+        // Only the initial resolution of the models traverses the node type hierarchy.
+        clearInvocations(resource);
+        lookupModelSourcesForType(TargetType1.class, resource);
+        assertNumberOfLookedUpModelSourcesIs(1);
+        assertResourceIsNotAdaptedToNode(resource);
+    }
+
+    /**
+     * The node types of a resource are read from its properties, if possible.
+     */
+    @Test
+    public void testNodeTypesForLookupKeyAreReadFromResourceProperties() throws Exception {
+        withModelForType("some:JcrType", TargetType1.class);
+
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+        withPrimaryType(resource, "some:JcrType");
+        withPrimaryTypeProperty(resource, "some:JcrType");
+
+        lookupModelSourcesForType(TargetType1.class, resource);
+        assertNumberOfLookedUpModelSourcesIs(1);
+
+        // Only the initial resolution of the models traverses the node type hierarchy.
+        clearInvocations(resource);
+        lookupModelSourcesForType(TargetType1.class, resource);
+        assertNumberOfLookedUpModelSourcesIs(1);
+        assertResourceIsNotAdaptedToNode(resource);
+    }
+
+    /**
+     * Mixin types read from the resource properties must be part of the lookup key.
+     */
+    @Test
+    public void testLookupDependsOnMixinTypesReadFromResourceProperties() throws Exception {
+        withModelForType("mix:SomeMixin", TargetType1.class);
+
+        Resource resource = mockResourceWithResourceType("my/page/type");
+        withPrimaryType(resource, "nt:unstructured");
+        withMixinTypes(resource, "mix:SomeMixin");
+        withPrimaryTypeProperty(resource, "nt:unstructured", "mix:SomeMixin");
+
+        lookupModelSourcesForType(TargetType1.class, resource);
+        assertNumberOfLookedUpModelSourcesIs(1);
+
+        withMixinTypes(resource, "mix:OtherMixin");
+        withPrimaryTypeProperty(resource, "nt:unstructured", "mix:OtherMixin");
+
+        lookupModelSourcesForType(TargetType1.class, resource);
+        assertLookedUpModelSourcesAreNull();
+    }
+
+    @Test
+    public void testBulkAdditionOfModels() {
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+        lookupMostSpecificModelSources(resource);
+        assertLookedUpModelSourcesAreNull();
+
+        Map<OsgiModelSource<?>, String[]> typesBySource = new LinkedHashMap<>();
+        typesBySource.put(mockModelSource(TargetType1.class, "model1"), new String[]{"some/resourcetype"});
+        typesBySource.put(mockModelSource(TargetType2.class, "model2"), new String[]{"some/resourcetype", "other/resourcetype"});
+        this.testee.addAll(typesBySource);
+
+        lookupMostSpecificModelSources(resource);
+        assertLookedUpModelTypesAre(TargetType1.class, TargetType2.class);
+        lookupMostSpecificModelSources(mockResourceWithResourceType("other/resourcetype"));
+        assertLookedUpModelTypesAre(TargetType2.class);
+    }
+
+    @Test
+    public void testAdditionOfModelsOnlyInvalidatesLookupsOfAffectedTypes() {
+        withModelForType("some/resourcetype", TargetType1.class);
+        withModelForType("other/resourcetype", TargetType2.class);
+        Resource some = mockResourceWithResourceType("some/resourcetype");
+        Resource other = mockResourceWithResourceType("other/resourcetype");
+        lookupMostSpecificModelSources(some);
+        lookupMostSpecificModelSources(other);
+
+        withModelForType("other/resourcetype", TargetType3.class);
+
+        assertLookupCacheStatisticsContain("size", 1);
+        lookupMostSpecificModelSources(other);
+        assertLookedUpModelTypesAre(TargetType2.class, TargetType3.class);
+    }
+
+    @Test
+    public void testRemovalOfModelsOnlyInvalidatesLookupsOfAffectedTypes() {
+        withBundleId(1);
+        withModelForType("some/resourcetype", TargetType1.class);
+        withBundleId(2);
+        withModelForType("other/resourcetype", TargetType2.class);
+        lookupMostSpecificModelSources(mockResourceWithResourceType("some/resourcetype"));
+        lookupMostSpecificModelSources(mockResourceWithResourceType("other/resourcetype"));
+
+        removeBundle();
+
+        assertLookupCacheStatisticsContain("size", 1);
+    }
+
+    @Test
+    public void testLookupsAreInvalidatedWhenSupertypeModelsChange() {
+        withModelForType("some/supertype", TargetType1.class);
+        Resource resource = mockResourceWithResourceSuperType("some/resourcetype", "some/supertype");
+        lookupAllModelSourcesFor(resource);
+        assertLookedUpModelTypesAre(TargetType1.class);
+
+        withModelForType("some/supertype", TargetType2.class);
+
+        lookupAllModelSourcesFor(resource);
+        assertLookedUpModelTypesAre(TargetType1.class, TargetType2.class);
+    }
+
+    @Test
+    public void testFirstMappingOfNodeTypeInvalidatesAllLookups() {
+        withModelForType("some/resourcetype", TargetType1.class);
+        lookupMostSpecificModelSources(mockResourceWithResourceType("some/resourcetype"));
+
+        withModelForType("nt:unstructured", TargetType2.class);
+
+        assertLookupCacheStatisticsContain("size", 0);
+    }
+
+    @Test
+    public void testFrequentLookupsAreRecordedWithTheResourcePath() {
+        withModelForType("some/resourcetype", TargetType1.class);
+
+        Resource resource = mockResourceWithResourceType("some/resourcetype");
+        when(resource.getPath()).thenReturn("/content/some/resource");
+
+        lookupModelSourcesForType(TargetType1.class, resource);
+        lookupModelSourcesForType(TargetType1.class, resource);
+        lookupMostSpecificModelSources(resource);
+
+        assertThat(this.testee.getFrequentLookups(10))
+                .containsExactly(new LookupRecord("/content/some/resource", LookupRecord.Kind.TARGET_TYPE, TargetType1.class.getName()));
+    }
+
+    @Test
+    public void testAdditionOfModelsUpdatesLastModification() {
+        long before = System.currentTimeMillis();
+        withModelForType("some/resourcetype", TargetType1.class);
+        assertThat(this.testee.getLastModification()).isGreaterThanOrEqualTo(before);
+    }
+
+    private void withPrimaryTypeProperty(Resource resource, String primaryType, String... mixinTypes) {
+        ValueMap properties = mock(ValueMap.class);
+        when(properties.get("jcr:primaryType", String.class)).thenReturn(primaryType);
+        when(properties.get("jcr:mixinTypes", String[].class)).thenReturn(mixinTypes);
+        when(resource.getValueMap()).thenReturn(properties);
+    }
+
+    private void assertResourceIsNotAdaptedToNode(Resource resource) {
+        verify(resource, never()).adaptTo(Node.class);
+    }
+
     private void withPrimaryType(Resource resource, String nodeTypeName) throws RepositoryException {
         Node node = mock(Node.class);
         NodeType nodeType = mock(NodeType.class);
@@ -499,6 +698,16 @@ public class ModelRegistryTest {
         }
     }
 
+    private void withLookupCacheCapacity(int capacity) {
+        ModelRegistry.Configuration configuration = mock(ModelRegistry.Configuration.class);
+        when(configuration.lookupCacheCapacity()).thenReturn(capacity);
+        this.testee.activate(configuration);
+    }
+
+    private void assertLookupCacheStatisticsContain(String name, Object value) {
+        assertThat(this.testee.getLookupCacheStatistics()).containsEntry(name, value);
+    }
+
     private void withBundleId(final long withBundleId) {
         this.bundleId = withBundleId;
         when(this.bundle.getBundleId()).thenReturn(bundleId);
@@ -603,13 +812,17 @@ public class ModelRegistryTest {
         withModelForType(resourceType, modelType, "defaultModelName");
     }
 
-    @SuppressWarnings("unchecked")
     private void withModelForType(String resourceType, @SuppressWarnings("rawtypes") Class modelType, String modelModelName) {
+        this.testee.add(new String[] {resourceType}, mockModelSource(modelType, modelModelName));
+    }
+
+    @SuppressWarnings("unchecked")
+    private OsgiModelSource<?> mockModelSource(@SuppressWarnings("rawtypes") Class modelType, String modelModelName) {
         OsgiModelSource<?> source = mock(OsgiModelSource.class);
         when(source.getModelType()).thenReturn(modelType);
         when(source.getBundleId()).thenReturn(this.bundleId);
         when(source.getModelName()).thenReturn(modelModelName);
-        this.testee.add(new String[] {resourceType}, source);
+        return source;
     }
 
     private void withModelSourcesForAllResourceModels() {
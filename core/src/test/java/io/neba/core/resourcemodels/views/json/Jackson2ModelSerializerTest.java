@@ -15,7 +15,10 @@
 */
 package io.neba.core.resourcemodels.views.json;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import io.neba.api.resourcemodels.Lazy;
 import io.neba.core.resourcemodels.mapping.Mapping;
 import org.apache.sling.api.resource.Resource;
@@ -25,6 +28,7 @@ import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -33,6 +37,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
+import static java.util.Arrays.asList;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -97,6 +102,66 @@ public class Jackson2ModelSerializerTest {
         assertJsonIs("{\":type\":\"some/resource/type\",\"helloWorld\":\"Hello, world\",\"lazy\":\"Lazy value\",\"resource\":\"/some/resource/path\",\"subModelProperty\":\"sub model property\"}");
     }
 
+    @Test
+    public void testBinaryFormatsAreSupportedIfDataformatModulesArePresent() {
+        assertThat(this.testee.supports(ViewFormat.JSON)).isTrue();
+        assertThat(this.testee.supports(ViewFormat.SMILE)).isTrue();
+        assertThat(this.testee.supports(ViewFormat.CBOR)).isTrue();
+    }
+
+    @Test
+    public void testSmileSerializationUsesJsonViewSupport() throws IOException {
+        withRecordedMapping();
+        withTypeGenerationEnabled();
+        initializeModelSerializer();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.testee.serialize(out, this.testModel, ViewFormat.SMILE);
+
+        assertThat(new ObjectMapper().writeValueAsString(new ObjectMapper(new SmileFactory()).readTree(out.toByteArray())))
+                .isEqualTo("{\":type\":\"some/resource/type\",\"helloWorld\":\"Hello, world\",\"lazy\":\"Lazy value\",\"resource\":\"/some/resource/path\",\"subModelProperty\":\"sub model property\"}");
+    }
+
+    @Test
+    public void testLineWriterWritesOneModelPerLine() throws IOException {
+        this.out = new StringWriter();
+        try (Jackson2ModelSerializer.LineWriter lines = this.testee.lineWriter(new PrintWriter(this.out))) {
+            lines.write(new SubModel());
+            lines.write(new SubModel());
+        }
+
+        assertJsonIs("{\"subModelProperty\":\"sub model property\"}\n{\"subModelProperty\":\"sub model property\"}\n");
+    }
+
+    @Test
+    public void testLineWriterDoesNotFlushEachModel() throws IOException {
+        this.out = new StringWriter();
+        Jackson2ModelSerializer.LineWriter lines = this.testee.lineWriter(new PrintWriter(this.out));
+        lines.write(new SubModel());
+
+        assertJsonIs("");
+
+        lines.flush();
+        assertJsonIs("{\"subModelProperty\":\"sub model property\"}\n");
+    }
+
+    @Test
+    public void testUserDefinedTypePropertyIsNotOverridden() throws IOException {
+        withTestModel(new TestModelWithTypeProperty());
+        withRecordedMapping();
+        withTypeGenerationEnabled();
+        initializeModelSerializer();
+
+        serialize();
+
+        assertJsonIs("{\":type\":\"user/defined/type\"}");
+    }
+
+    @Test
+    public void testWarmUpBuildsSerializersForSerializableTypes() {
+        assertThat(this.testee.warmUp(asList(TestModel.class, TestModelWithDate.class, EmptyModel.class))).isEqualTo(2);
+    }
+
     private void withTypeGenerationEnabled() {
         this.addTypeAttribute = true;
     }
@@ -173,6 +238,17 @@ public class Jackson2ModelSerializerTest {
         }
     }
 
+    @SuppressWarnings("unused")
+    private static class TestModelWithTypeProperty {
+        @JsonProperty(":type")
+        public String getType() {
+            return "user/defined/type";
+        }
+    }
+
+    private static class EmptyModel {
+    }
+
     @SuppressWarnings("unused")
     private static class TestModelWithDate {
         public Date getDate() {
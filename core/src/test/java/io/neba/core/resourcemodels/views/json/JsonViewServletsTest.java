@@ -17,8 +17,18 @@ package io.neba.core.resourcemodels.views.json;
 
 
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.neba.api.annotations.Children;
+import io.neba.api.annotations.Path;
 import io.neba.api.services.ResourceModelResolver;
+import io.neba.core.resourcemodels.mapping.AnnotatedFieldMappers;
 import io.neba.core.resourcemodels.mapping.NestedMappingSupport;
+import io.neba.core.resourcemodels.metadata.ResourceModelMetaData;
+import io.neba.core.resourcemodels.metadata.ResourceModelMetaDataRegistrar;
+import io.neba.core.resourcemodels.registration.ModelRegistry;
+import io.neba.core.util.OsgiModelSource;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 import org.apache.sling.api.request.RequestPathInfo;
@@ -27,23 +37,36 @@ import org.apache.sling.api.resource.ResourceMetadata;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
+import org.osgi.framework.BundleEvent;
 import org.osgi.service.component.ComponentContext;
 
 import javax.servlet.Servlet;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.lang.reflect.Method;
 import java.util.Enumeration;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
 
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
 import static java.util.Arrays.stream;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static javax.servlet.http.HttpServletResponse.SC_BAD_REQUEST;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_MODIFIED;
@@ -53,19 +76,23 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class JsonViewServletsTest {
     private static final long RESOURCE_MODIFICATION_TIMESTAMP = 123L;
     private static final String IF_NONE_MATCH = "If-None-Match";
+    private static final long MODEL_BUNDLE_ID = 1L;
 
     @Mock
     private ResourceModelResolver resourceModelResolver;
@@ -89,9 +116,20 @@ public class JsonViewServletsTest {
     private RequestPathInfo requestPathInfo;
     @Mock
     private Bundle bundle;
+    @Mock
+    private ModelRegistry modelRegistry;
+    @Mock
+    private OsgiModelSource<?> modelSource;
+    @Mock
+    private ResourceModelMetaDataRegistrar metaDataRegistrar;
+    @Mock
+    private AnnotatedFieldMappers fieldMappers;
+    @Mock
+    private ScheduledExecutorService executorService;
 
     private PrintWriter writer;
     private StringWriter out;
+    private ByteArrayOutputStream binaryOut;
 
     private String[] selectors;
 
@@ -119,6 +157,21 @@ public class JsonViewServletsTest {
         doReturn("/some/resource/path").when(resource).getPath();
 
         doAnswer((inv) -> this.writer).when(this.response).getWriter();
+        doAnswer((inv) -> new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+            }
+
+            @Override
+            public void write(int b) {
+                binaryOut.write(b);
+            }
+        }).when(this.response).getOutputStream();
 
         doReturn(this.bundle).when(this.context).getUsingBundle();
         doReturn(this.bundleContext).when(this.context).getBundleContext();
@@ -127,6 +180,12 @@ public class JsonViewServletsTest {
         doReturn(new String[]{"SerializationFeature.WRITE_DATES_AS_TIMESTAMPS=true"})
                 .when(this.configuration).jacksonSettings();
 
+        doReturn(TestModel.class).when(this.modelSource).getModelType();
+        doReturn(MODEL_BUNDLE_ID).when(this.modelSource).getBundleId();
+        doReturn(singletonList(this.modelSource)).when(this.modelRegistry).getModelSources();
+        lenient().doReturn(new AnnotatedFieldMappers.AnnotationMapping<?, ?>[0]).when(this.fieldMappers).get(any());
+
+        this.testee.setExecutorService(this.executorService);
         activate();
     }
 
@@ -289,6 +348,267 @@ public class JsonViewServletsTest {
         verifyCacheControlHeaderInResponseIs("private, max-age=0");
     }
 
+    @Test
+    public void testSmileRenderingViaExtension() throws IOException {
+        withExtension("smile");
+
+        serveRequest();
+
+        assertContentTypeIs("application/x-jackson-smile");
+        verifyCharacterEncodingIsNotSet();
+        assertBinaryContentIs(new ObjectMapper(new SmileFactory()), "{\"test\":\"Test value\"}");
+    }
+
+    @Test
+    public void testCborRenderingViaExtension() throws IOException {
+        withExtension("cbor");
+
+        serveRequest();
+
+        assertContentTypeIs("application/cbor");
+        assertBinaryContentIs(new ObjectMapper(new CBORFactory()), "{\"test\":\"Test value\"}");
+    }
+
+    @Test
+    public void testBinaryFormatNegotiationViaAcceptHeader() throws IOException {
+        withExtension("json");
+        withAcceptHeader("text/html, application/x-jackson-smile;q=0.5, application/cbor;q=0.9");
+
+        serveRequest();
+
+        assertContentTypeIs("application/cbor");
+        verifyVaryHeaderIsAccept();
+        assertBinaryContentIs(new ObjectMapper(new CBORFactory()), "{\"test\":\"Test value\"}");
+    }
+
+    @Test
+    public void testJsonIsRenderedIfNoBinaryFormatIsAccepted() throws IOException {
+        withExtension("json");
+        withAcceptHeader("application/json, */*");
+
+        serveRequest();
+
+        assertContentTypeIs("application/json");
+        verifyVaryHeaderIsAccept();
+        assertJsonIs("{\"test\":\"Test value\"}");
+    }
+
+    @Test
+    public void testEtagsAreSpecificToBinaryFormats() throws IOException {
+        withEtagsEnabled();
+        withExtension("smile");
+
+        serveRequest();
+
+        verify(this.response).setHeader("Etag", "W/\"" + RESOURCE_MODIFICATION_TIMESTAMP + '-' + resource.getPath() + "-smile\"");
+    }
+
+    @Test
+    public void testNdjsonStreamsChildrenOfModelLineByLine() throws IOException {
+        withExtension("ndjson");
+        withModel(new ModelWithChildren());
+        withChildren(new TestModel(), null, new TestModel());
+
+        serveRequest();
+
+        assertContentTypeIs("application/x-ndjson");
+        assertCharacterEncodingIs("UTF-8");
+        assertJsonIs("{\"test\":\"Test value\"}\n{\"test\":\"Test value\"}\n");
+        verify(this.nestedMappingSupport, times(4)).beginRecordingMappings();
+        verify(this.nestedMappingSupport, times(4)).endRecordingMappings();
+    }
+
+    @Test
+    public void testNdjsonStreamsChildrenOfNamedModel() throws IOException {
+        withExtension("ndjson");
+        withSelectors("model", "modelName");
+        doReturn(new ModelWithChildren()).when(this.resourceModelResolver).resolveMostSpecificModelWithName(this.resource, "modelName");
+        withModelMetaData(ModelWithChildren.class);
+        withChildren(new TestModel());
+
+        serveRequest();
+
+        assertJsonIs("{\"test\":\"Test value\"}\n");
+    }
+
+    @Test
+    public void testNdjsonStreamsChildResourcesIfChildrenAreResources() throws IOException {
+        withExtension("ndjson");
+        withModel(new ModelWithChildResources());
+        Resource child = withChildren(new TestModel())[0];
+        doReturn("/some/resource/path/child").when(child).getPath();
+
+        serveRequest();
+
+        verify(child, never()).adaptTo(any());
+        assertJsonIs("\"/some/resource/path/child\"\n");
+    }
+
+    @Test
+    public void testNdjsonIsRejectedForModelsWithoutChildren() throws IOException {
+        withExtension("ndjson");
+        withModelMetaData(TestModel.class);
+
+        serveRequest();
+
+        verify(this.response).sendError(SC_BAD_REQUEST, "Only models with exactly one @Children field can be streamed, " +
+                "but the model " + TestModel.class.getName() + " has 0.");
+        verify(this.resource, never()).listChildren();
+    }
+
+    @Test
+    public void testNdjsonIsRejectedForModelsWithMultipleChildren() throws IOException {
+        withExtension("ndjson");
+        withModel(new ModelWithMultipleChildren());
+
+        serveRequest();
+
+        verify(this.response).sendError(SC_BAD_REQUEST, "Only models with exactly one @Children field can be streamed, " +
+                "but the model " + ModelWithMultipleChildren.class.getName() + " has 2.");
+    }
+
+    @Test
+    public void testNdjsonIsRejectedForChildrenOfOtherResources() throws IOException {
+        withExtension("ndjson");
+        withModel(new ModelWithChildrenOfOtherResource());
+
+        serveRequest();
+
+        verifyChildrenAreRejectedAsNotStreamable(ModelWithChildrenOfOtherResource.class);
+    }
+
+    @Test
+    public void testNdjsonIsRejectedForChildrenResolvedBelowEveryChild() throws IOException {
+        withExtension("ndjson");
+        withModel(new ModelWithChildrenResolvedBelowEveryChild());
+
+        serveRequest();
+
+        verifyChildrenAreRejectedAsNotStreamable(ModelWithChildrenResolvedBelowEveryChild.class);
+    }
+
+    @Test
+    public void testNdjsonIsRejectedForChildrenWithCustomFieldMappers() throws IOException {
+        withExtension("ndjson");
+        withModel(new ModelWithChildren());
+        doReturn(new AnnotatedFieldMappers.AnnotationMapping<?, ?>[]{mock(AnnotatedFieldMappers.AnnotationMapping.class)})
+                .when(this.fieldMappers).get(any());
+
+        serveRequest();
+
+        verifyChildrenAreRejectedAsNotStreamable(ModelWithChildren.class);
+    }
+
+    @Test
+    public void testNdjsonYieldsNotFoundWithoutModel() throws IOException {
+        withExtension("ndjson");
+        withMissingModel();
+
+        serveRequest();
+
+        verify(this.response).sendError(SC_NOT_FOUND, "No model could be resolved for resource /some/resource/path");
+        verify(this.resource, never()).listChildren();
+    }
+
+    @Test
+    public void testNdjsonDoesNotGenerateEtags() throws IOException {
+        withEtagsEnabled();
+        withExtension("ndjson");
+        withModel(new ModelWithChildren());
+        withChildren();
+
+        serveRequest();
+
+        verify(this.response, never()).setHeader(eq("Etag"), any());
+        assertJsonIs("");
+    }
+
+    @Test
+    public void testSerializerIsRefreshedWhenModelBundleIsUnresolved() {
+        bundleChanged(MODEL_BUNDLE_ID, BundleEvent.UNRESOLVED);
+        verifySerializerWasCreated(2);
+    }
+
+    @Test
+    public void testSerializerIsNotRefreshedForIrrelevantBundleEventTypes() {
+        bundleChanged(MODEL_BUNDLE_ID, BundleEvent.STARTED);
+        bundleChanged(MODEL_BUNDLE_ID, BundleEvent.STOPPED);
+        bundleChanged(MODEL_BUNDLE_ID, BundleEvent.RESOLVED);
+        verifySerializerWasCreated(1);
+    }
+
+    @Test
+    public void testSerializerIsNotRefreshedWhenBundlesWithoutModelsChange() {
+        bundleChanged(2L, BundleEvent.UNRESOLVED);
+        verifySerializerWasCreated(1);
+    }
+
+    @Test
+    public void testSerializerIsRefreshedWhenPreviouslyRegisteredModelBundleIsUnresolved() {
+        doReturn(emptyList()).when(this.modelRegistry).getModelSources();
+
+        bundleChanged(MODEL_BUNDLE_ID, BundleEvent.UNRESOLVED);
+
+        verifySerializerWasCreated(2);
+    }
+
+    @Test
+    public void testRegistrationChangesArePolledUponActivation() {
+        verify(this.executorService).scheduleWithFixedDelay(any(), eq(1L), eq(1L), eq(SECONDS));
+    }
+
+    @Test
+    public void testPollingIsStoppedUponDeactivation() {
+        deactivate();
+        verify(this.executorService).shutdownNow();
+    }
+
+    @Test
+    public void testSerializerIsRefreshedOnceModelRegistrationHasSettled() {
+        withLastModelRegistryModification(currentTimeMillis() - 5000);
+
+        pollRegistrationChanges();
+        verifySerializerWasCreated(2);
+
+        pollRegistrationChanges();
+        verifySerializerWasCreated(2);
+    }
+
+    @Test
+    public void testSerializerIsNotRefreshedWhileModelsAreRegistered() {
+        withLastModelRegistryModification(currentTimeMillis());
+
+        pollRegistrationChanges();
+
+        verifySerializerWasCreated(1);
+    }
+
+    @Test
+    public void testSerializerIsNotRefreshedWithoutModelRegistrationChanges() {
+        pollRegistrationChanges();
+        verifySerializerWasCreated(1);
+    }
+
+    private void withLastModelRegistryModification(long timestamp) {
+        doReturn(timestamp).when(this.modelRegistry).getLastModification();
+    }
+
+    private void pollRegistrationChanges() {
+        ArgumentCaptor<Runnable> poll = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.executorService).scheduleWithFixedDelay(poll.capture(), anyLong(), anyLong(), any());
+        poll.getValue().run();
+    }
+
+    private void bundleChanged(long bundleId, int eventType) {
+        Bundle changedBundle = mock(Bundle.class);
+        doReturn(bundleId).when(changedBundle).getBundleId();
+        this.testee.bundleChanged(new BundleEvent(eventType, changedBundle));
+    }
+
+    private void verifySerializerWasCreated(int times) {
+        verify(this.configuration, times(times)).jacksonSettings();
+    }
+
     private void activate() {
         this.testee.activate(this.context, this.configuration);
     }
@@ -361,6 +681,53 @@ public class JsonViewServletsTest {
         doReturn(null).when(this.resourceModelResolver).resolveMostSpecificModelWithName(any(), any());
     }
 
+    private void withModel(Object model) {
+        doReturn(model).when(this.resourceModelResolver).resolveMostSpecificModel(this.resource);
+        withModelMetaData(model.getClass());
+    }
+
+    private void withModelMetaData(Class<?> modelType) {
+        doReturn(new ResourceModelMetaData(modelType)).when(this.metaDataRegistrar).get(modelType);
+    }
+
+    private void verifyChildrenAreRejectedAsNotStreamable(Class<?> modelType) throws IOException {
+        verify(this.response).sendError(SC_BAD_REQUEST, "The @Children field children of the model " + modelType.getName() +
+                " cannot be streamed. Only the children of the model's resource without @Path, @Reference, " +
+                "resolveBelowEveryChild or custom field mappers can be streamed.");
+        verify(this.resource, never()).listChildren();
+    }
+
+    private Resource[] withChildren(Object... models) {
+        Resource[] children = new Resource[models.length];
+        for (int i = 0; i < models.length; ++i) {
+            children[i] = mock(Resource.class);
+            lenient().doReturn(models[i]).when(children[i]).adaptTo(TestModel.class);
+        }
+        Iterator<Resource> iterator = asList(children).iterator();
+        doReturn(iterator).when(this.resource).listChildren();
+        return children;
+    }
+
+    private void withExtension(String extension) {
+        doReturn(extension).when(this.requestPathInfo).getExtension();
+    }
+
+    private void withAcceptHeader(String value) {
+        doReturn(value).when(this.request).getHeader("Accept");
+    }
+
+    private void verifyVaryHeaderIsAccept() {
+        verify(this.response).setHeader("Vary", "Accept");
+    }
+
+    private void verifyCharacterEncodingIsNotSet() {
+        verify(this.response, never()).setCharacterEncoding(any());
+    }
+
+    private void assertBinaryContentIs(ObjectMapper binaryMapper, String expectedJson) throws IOException {
+        assertThat(new ObjectMapper().writeValueAsString(binaryMapper.readTree(this.binaryOut.toByteArray()))).isEqualTo(expectedJson);
+    }
+
     private void withSelectors(String... selectors) {
         this.selectors = selectors;
     }
@@ -380,6 +747,7 @@ public class JsonViewServletsTest {
     private void serveRequest() throws IOException {
         this.out = new StringWriter();
         this.writer = new PrintWriter(this.out);
+        this.binaryOut = new ByteArrayOutputStream();
 
         this.testee.doGet(this.request, this.response);
     }
@@ -389,4 +757,32 @@ public class JsonViewServletsTest {
             return "Test value";
         }
     }
+
+    private static class ModelWithChildren {
+        @Children
+        private List<TestModel> children;
+    }
+
+    private static class ModelWithChildResources {
+        @Children
+        private List<Resource> children;
+    }
+
+    private static class ModelWithMultipleChildren {
+        @Children
+        private List<TestModel> children;
+        @Children
+        private List<Resource> otherChildren;
+    }
+
+    private static class ModelWithChildrenOfOtherResource {
+        @Children
+        @Path("/other/resource")
+        private List<TestModel> children;
+    }
+
+    private static class ModelWithChildrenResolvedBelowEveryChild {
+        @Children(resolveBelowEveryChild = "jcr:content")
+        private List<TestModel> children;
+    }
 }
@@ -0,0 +1,88 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+package io.neba.core.resourcemodels.views.json;
+
+import org.junit.Test;
+
+import java.util.function.Predicate;
+
+import static io.neba.core.resourcemodels.views.json.ViewFormat.CBOR;
+import static io.neba.core.resourcemodels.views.json.ViewFormat.JSON;
+import static io.neba.core.resourcemodels.views.json.ViewFormat.NDJSON;
+import static io.neba.core.resourcemodels.views.json.ViewFormat.SMILE;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ViewFormatTest {
+    private static final Predicate<ViewFormat> ALL_AVAILABLE = f -> true;
+    private static final Predicate<ViewFormat> NONE_AVAILABLE = f -> false;
+
+    @Test
+    public void testResolutionByExtension() {
+        assertThat(ViewFormat.forExtension("json")).isSameAs(JSON);
+        assertThat(ViewFormat.forExtension("smile")).isSameAs(SMILE);
+        assertThat(ViewFormat.forExtension("cbor")).isSameAs(CBOR);
+        assertThat(ViewFormat.forExtension("ndjson")).isSameAs(NDJSON);
+        assertThat(ViewFormat.forExtension("html")).isNull();
+        assertThat(ViewFormat.forExtension(null)).isNull();
+    }
+
+    @Test
+    public void testNegotiationDefaultsToJson() {
+        assertThat(ViewFormat.negotiate(null, ALL_AVAILABLE)).isSameAs(JSON);
+        assertThat(ViewFormat.negotiate("", ALL_AVAILABLE)).isSameAs(JSON);
+        assertThat(ViewFormat.negotiate("*/*", ALL_AVAILABLE)).isSameAs(JSON);
+        assertThat(ViewFormat.negotiate("application/json", ALL_AVAILABLE)).isSameAs(JSON);
+    }
+
+    @Test
+    public void testNegotiationChoosesFirstAcceptedBinaryFormatOfEqualQuality() {
+        assertThat(ViewFormat.negotiate("application/x-jackson-smile, application/cbor", ALL_AVAILABLE)).isSameAs(SMILE);
+        assertThat(ViewFormat.negotiate("application/cbor;q=0.5, application/x-jackson-smile;q=0.5", ALL_AVAILABLE)).isSameAs(CBOR);
+    }
+
+    @Test
+    public void testNegotiationChoosesBinaryFormatWithHighestQuality() {
+        assertThat(ViewFormat.negotiate("text/html,Application/CBOR;q=0.8,application/x-jackson-smile", ALL_AVAILABLE)).isSameAs(SMILE);
+        assertThat(ViewFormat.negotiate("application/x-jackson-smile;q=0.5, application/cbor; Q=0.9", ALL_AVAILABLE)).isSameAs(CBOR);
+    }
+
+    @Test
+    public void testNegotiationSkipsUnacceptableFormats() {
+        assertThat(ViewFormat.negotiate("application/x-jackson-smile;q=0", ALL_AVAILABLE)).isSameAs(JSON);
+        assertThat(ViewFormat.negotiate("application/x-jackson-smile;q=0, application/cbor;q=0.1", ALL_AVAILABLE)).isSameAs(CBOR);
+        assertThat(ViewFormat.negotiate("application/x-jackson-smile;q=invalid", ALL_AVAILABLE)).isSameAs(JSON);
+    }
+
+    @Test
+    public void testNegotiationPrefersJsonWithHigherQuality() {
+        assertThat(ViewFormat.negotiate("application/json, application/cbor;q=0.5", ALL_AVAILABLE)).isSameAs(JSON);
+        assertThat(ViewFormat.negotiate("*/*;q=0.1, application/cbor", ALL_AVAILABLE)).isSameAs(CBOR);
+    }
+
+    @Test
+    public void testNegotiationIgnoresUnavailableFormats() {
+        assertThat(ViewFormat.negotiate("application/x-jackson-smile, application/cbor", NONE_AVAILABLE)).isSameAs(JSON);
+        assertThat(ViewFormat.negotiate("application/x-jackson-smile, application/cbor", f -> f == CBOR)).isSameAs(CBOR);
+    }
+
+    @Test
+    public void testOnlyTextualFormatsAreNotBinary() {
+        assertThat(JSON.isBinary()).isFalse();
+        assertThat(NDJSON.isBinary()).isFalse();
+        assertThat(SMILE.isBinary()).isTrue();
+        assertThat(CBOR.isBinary()).isTrue();
+    }
+}
@@ -0,0 +1,203 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+package io.neba.core.util;
+
+import io.neba.core.util.PropertyConverters.PropertyConverter;
+import org.apache.sling.api.wrappers.ValueMapDecorator;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.neba.core.util.PropertyConverters.collectionConverterFor;
+import static io.neba.core.util.PropertyConverters.converterFor;
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PropertyConvertersTest {
+    private enum Enum {
+        ONE, TWO
+    }
+
+    private Map<String, Object> properties;
+    private PropertyConverter converter;
+    private Object result;
+
+    @Before
+    public void setUp() {
+        this.properties = new HashMap<>();
+    }
+
+    @Test
+    public void testConvertersAreCreatedOncePerType() {
+        assertThat(converterFor(Enum.class)).isSameAs(converterFor(Enum.class));
+        assertThat(converterFor(int.class)).isSameAs(converterFor(int.class));
+    }
+
+    @Test
+    public void testPrimitiveTypesAreReadAsBoxedTypes() {
+        withProperty(1);
+        withConverterFor(int.class);
+        convert();
+        assertResultIs(1);
+    }
+
+    @Test
+    public void testStringTypeConversion() {
+        withProperty(true);
+        withConverterFor(String.class);
+        convert();
+        assertResultIs("true");
+    }
+
+    @Test
+    public void testEnumConversion() {
+        withProperty("TWO");
+        withConverterFor(Enum.class);
+        convert();
+        assertResultIs(Enum.TWO);
+    }
+
+    @Test
+    public void testEnumConversionYieldsNullForUnknownConstants() {
+        withProperty("THREE");
+        withConverterFor(Enum.class);
+        convert();
+        assertResultIsNull();
+    }
+
+    @Test
+    public void testEnumConversionYieldsNullForMissingProperties() {
+        withConverterFor(Enum.class);
+        convert();
+        assertResultIsNull();
+    }
+
+    @Test
+    public void testEnumArrayConversionOmitsUnknownConstants() {
+        withProperty(new String[]{"ONE", "", "nonsense", "TWO"});
+        withConverterFor(Enum[].class);
+        convert();
+        assertResultIs(new Enum[]{Enum.ONE, Enum.TWO});
+    }
+
+    @Test
+    public void testEnumArrayConversionYieldsNullForMissingProperties() {
+        withConverterFor(Enum[].class);
+        convert();
+        assertResultIsNull();
+    }
+
+    @Test
+    public void testEnumCollectionConversion() {
+        withProperty(new String[]{"TWO", "nonsense", "ONE"});
+        withCollectionConverterFor(List.class, Enum.class);
+        convert();
+        assertResultIs(asList(Enum.TWO, Enum.ONE));
+    }
+
+    @Test
+    public void testCollectionConversionCopiesElementsOfMatchingArrays() {
+        withProperty(new String[]{"one", "two"});
+        withCollectionConverterFor(List.class, String.class);
+        convert();
+        assertResultIs(asList("one", "two"));
+    }
+
+    @Test
+    public void testCollectionConversionConvertsElementsOfOtherArrays() {
+        withProperty(new String[]{"1", "2"});
+        withCollectionConverterFor(Set.class, int.class);
+        convert();
+        assertResultIsInstanceOf(LinkedHashSet.class);
+        assertResultContainsExactly(1, 2);
+    }
+
+    @Test
+    public void testCollectionConversionOfSingleValues() {
+        withProperty("one");
+        withCollectionConverterFor(List.class, String.class);
+        convert();
+        assertResultIs(asList("one"));
+    }
+
+    @Test
+    public void testCollectionConversionYieldsNullForMissingProperties() {
+        withCollectionConverterFor(List.class, String.class);
+        convert();
+        assertResultIsNull();
+    }
+
+    @Test
+    public void testNullTypeIsNotAllowed() {
+        assertThatThrownBy(() -> converterFor(null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Method argument type must not be null.");
+    }
+
+    @Test
+    public void testNullCollectionTypeIsNotAllowed() {
+        assertThatThrownBy(() -> collectionConverterFor(null, String.class))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Method argument collectionType must not be null.");
+    }
+
+    @Test
+    public void testNullElementTypeIsNotAllowed() {
+        assertThatThrownBy(() -> collectionConverterFor(List.class, null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Method argument elementType must not be null.");
+    }
+
+    private void withProperty(Object value) {
+        this.properties.put("property", value);
+    }
+
+    private void withConverterFor(Class<?> type) {
+        this.converter = converterFor(type);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void withCollectionConverterFor(Class<? extends Collection> collectionType, Class<?> elementType) {
+        this.converter = collectionConverterFor(collectionType, elementType);
+    }
+
+    private void convert() {
+        this.result = this.converter.convert(new ValueMapDecorator(this.properties), "property");
+    }
+
+    private void assertResultIs(Object expected) {
+        assertThat(this.result).isEqualTo(expected);
+    }
+
+    private void assertResultIsNull() {
+        assertThat(this.result).isNull();
+    }
+
+    private void assertResultIsInstanceOf(Class<?> type) {
+        assertThat(this.result).isInstanceOf(type);
+    }
+
+    private void assertResultContainsExactly(Object... elements) {
+        assertThat((Iterable<?>) this.result).containsExactly(elements);
+    }
+}
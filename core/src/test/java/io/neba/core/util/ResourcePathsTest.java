@@ -79,6 +79,11 @@ public class ResourcePathsTest {
         assertReplacedValueIs("test-value");
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void testUnresolvableVariableIsRejected() {
+        replace("/some/${unresolvable}/path");
+    }
+
     @Test
     public void testDetectionOfVariables() {
         assertThat(path("").hasPlaceholders()).isFalse();
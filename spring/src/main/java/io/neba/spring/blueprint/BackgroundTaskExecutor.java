@@ -0,0 +1,233 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.spring.blueprint;
+
+import org.eclipse.gemini.blueprint.context.BundleContextAware;
+import org.osgi.framework.BundleContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.CheckForNull;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.Integer.parseInt;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Runtime.getRuntime;
+import static java.util.Locale.ROOT;
+
+/**
+ * Executes the {@link org.springframework.scheduling.annotation.Async asynchronous} methods of the NEBA extender context,
+ * such as the {@link ContextShutdownHandler context shutdown handling}, in a bounded thread pool. Context state changes
+ * such as context creation or refresh are not executed by this executor but synchronously by the {@link FelixTaskExecutor}.
+ * <br />
+ * The executor is configured using the following framework (or system) properties:
+ * <ul>
+ * <li><code>io.neba.spring.executor.poolSize</code>: The maximum number of threads, defaults to the number of processors, but at most 4.</li>
+ * <li><code>io.neba.spring.executor.queueCapacity</code>: The maximum number of queued tasks, defaults to 1000.</li>
+ * <li><code>io.neba.spring.executor.rejectionPolicy</code>: What happens to a task if the pool and the queue are exhausted:
+ * <code>CALLER_RUNS</code> (the default) executes the task in the submitting thread, <code>ABORT</code> throws a
+ * {@link RejectedExecutionException} and <code>DISCARD</code> drops the task.</li>
+ * <li><code>io.neba.spring.executor.virtualThreads</code>: Whether to use virtual threads instead of platform threads
+ * if the runtime supports them, defaults to <code>false</code>. The pool size and queue capacity apply in any case.</li>
+ * <li><code>io.neba.spring.executor.shutdownTimeout</code>: The number of seconds to wait for the completion of
+ * pending tasks upon shutdown, defaults to 30.</li>
+ * </ul>
+ * Tasks submitted after the executor was shut down, e.g. the handling of bundles stopping while the extender
+ * itself stops, are executed in the submitting thread regardless of the rejection policy, such that the
+ * removal of resource models and MVC infrastructure of these bundles is not lost.
+ */
+@Service("defaultExecutor")
+public class BackgroundTaskExecutor extends ThreadPoolTaskExecutor implements BundleContextAware {
+    static final String POOL_SIZE = "io.neba.spring.executor.poolSize";
+    static final String QUEUE_CAPACITY = "io.neba.spring.executor.queueCapacity";
+    static final String REJECTION_POLICY = "io.neba.spring.executor.rejectionPolicy";
+    static final String VIRTUAL_THREADS = "io.neba.spring.executor.virtualThreads";
+    static final String SHUTDOWN_TIMEOUT = "io.neba.spring.executor.shutdownTimeout";
+
+    private static final String THREAD_NAME_PREFIX = "neba-async-";
+    private static final int DEFAULT_POOL_SIZE = max(1, min(4, getRuntime().availableProcessors()));
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    private static final int DEFAULT_SHUTDOWN_TIMEOUT = 30;
+
+    /**
+     * The behavior when a task can neither be executed nor queued.
+     */
+    enum RejectionPolicy {
+        CALLER_RUNS(new ThreadPoolExecutor.CallerRunsPolicy()),
+        ABORT(new ThreadPoolExecutor.AbortPolicy()),
+        DISCARD(new ThreadPoolExecutor.DiscardPolicy());
+
+        private final RejectedExecutionHandler handler;
+
+        RejectionPolicy(RejectedExecutionHandler handler) {
+            this.handler = handler;
+        }
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final AtomicLong rejectedTasks = new AtomicLong();
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+    private int queueCapacity;
+
+    public BackgroundTaskExecutor() {
+        setThreadNamePrefix(THREAD_NAME_PREFIX);
+        setCorePoolSize(DEFAULT_POOL_SIZE);
+        setMaxPoolSize(DEFAULT_POOL_SIZE);
+        setQueueCapacity(DEFAULT_QUEUE_CAPACITY);
+        setAllowCoreThreadTimeOut(true);
+        setWaitForTasksToCompleteOnShutdown(true);
+        setAwaitTerminationSeconds(DEFAULT_SHUTDOWN_TIMEOUT);
+        setRejectedExecutionHandler(this::rejectedExecution);
+    }
+
+    /**
+     * Applies the configuration from the framework properties. Invoked before the executor is
+     * {@link #afterPropertiesSet() initialized}.
+     */
+    @Override
+    public void setBundleContext(BundleContext bundleContext) {
+        int poolSize = positiveInt(bundleContext, POOL_SIZE, DEFAULT_POOL_SIZE);
+        setCorePoolSize(poolSize);
+        setMaxPoolSize(poolSize);
+        setQueueCapacity(positiveInt(bundleContext, QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY));
+        setAwaitTerminationSeconds(positiveInt(bundleContext, SHUTDOWN_TIMEOUT, DEFAULT_SHUTDOWN_TIMEOUT));
+
+        String rejectionPolicy = bundleContext.getProperty(REJECTION_POLICY);
+        if (rejectionPolicy != null) {
+            try {
+                this.rejectionPolicy = RejectionPolicy.valueOf(rejectionPolicy.trim().toUpperCase(ROOT));
+            } catch (IllegalArgumentException e) {
+                this.logger.warn("Ignoring the unknown rejection policy {}={}, using {}.", REJECTION_POLICY, rejectionPolicy, this.rejectionPolicy);
+            }
+        }
+
+        if (Boolean.parseBoolean(bundleContext.getProperty(VIRTUAL_THREADS))) {
+            ThreadFactory virtualThreadFactory = virtualThreadFactory();
+            if (virtualThreadFactory == null) {
+                this.logger.warn("Virtual threads are not supported by this Java runtime, using platform threads.");
+            } else {
+                setThreadFactory(virtualThreadFactory);
+            }
+        }
+    }
+
+    @Override
+    public void setQueueCapacity(int queueCapacity) {
+        super.setQueueCapacity(queueCapacity);
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        this.logger.info("Executing asynchronous tasks using at most {} thread(s) and {} queued task(s), rejection policy {}.",
+                getMaxPoolSize(), this.queueCapacity, this.rejectionPolicy);
+    }
+
+    /**
+     * Waits for the completion of pending tasks for at most the configured shutdown timeout.
+     */
+    @Override
+    public void shutdown() {
+        this.logger.info("Shutting down with {} active and {} queued task(s). {} task(s) were completed and {} rejected.",
+                getActiveCount(), getQueuedTaskCount(), getCompletedTaskCount(), getRejectedTaskCount());
+        super.shutdown();
+    }
+
+    /**
+     * @return the number of tasks waiting for execution.
+     */
+    public int getQueuedTaskCount() {
+        ThreadPoolExecutor executor = getThreadPoolExecutorIfInitialized();
+        return executor == null ? 0 : executor.getQueue().size();
+    }
+
+    /**
+     * @return the approximate number of executed tasks.
+     */
+    public long getCompletedTaskCount() {
+        ThreadPoolExecutor executor = getThreadPoolExecutorIfInitialized();
+        return executor == null ? 0 : executor.getCompletedTaskCount();
+    }
+
+    /**
+     * @return the number of tasks that could neither be executed nor queued and were
+     * subject to the {@link RejectionPolicy rejection policy}.
+     */
+    public long getRejectedTaskCount() {
+        return this.rejectedTasks.get();
+    }
+
+    private void rejectedExecution(Runnable task, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            task.run();
+            return;
+        }
+        this.rejectedTasks.incrementAndGet();
+        this.logger.warn("The executor is exhausted with {} queued task(s), applying the rejection policy {}.",
+                executor.getQueue().size(), this.rejectionPolicy);
+        this.rejectionPolicy.handler.rejectedExecution(task, executor);
+    }
+
+    @CheckForNull
+    private ThreadPoolExecutor getThreadPoolExecutorIfInitialized() {
+        try {
+            return getThreadPoolExecutor();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    private int positiveInt(BundleContext bundleContext, String key, int defaultValue) {
+        String value = bundleContext.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int result = parseInt(value.trim());
+            if (result > 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // Handled below.
+        }
+        this.logger.warn("Ignoring the invalid value {}={}, expected a positive number. Using {}.", key, value, defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * @return a factory for named virtual threads, or <code>null</code> if the runtime does not support virtual threads.
+     */
+    @CheckForNull
+    private static ThreadFactory virtualThreadFactory() {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, THREAD_NAME_PREFIX, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
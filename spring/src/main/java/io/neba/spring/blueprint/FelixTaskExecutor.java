@@ -23,7 +23,8 @@ import org.springframework.stereotype.Service;
  * Synchronously executes context-related task as Apache Felix exhibits race conditions and deadlocks
  * when bundle state (including contained classes) is modified and read concurrently.
  * A bean with this name and type is automatically used by gemini-blueprint-extender to execute
- * context state change tasks, such as context creation or refresh.
+ * context state change tasks, such as context creation or refresh. Other asynchronous tasks
+ * are executed by the {@link BackgroundTaskExecutor}.
  *
  * @author Olaf Otto
  */
@@ -27,24 +27,33 @@ import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.servlet.DispatcherServlet;
 import org.springframework.web.servlet.HandlerAdapter;
+import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.handler.AbstractHandlerMapping;
+import org.springframework.web.servlet.handler.AbstractUrlHandlerMapping;
 import org.springframework.web.servlet.handler.BeanNameUrlHandlerMapping;
 import org.springframework.web.servlet.mvc.HttpRequestHandlerAdapter;
 import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
 import org.springframework.web.servlet.mvc.support.DefaultHandlerExceptionResolver;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
 import javax.servlet.ServletConfig;
 import javax.servlet.http.HttpServletRequest;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import static java.util.Collections.emptySet;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
 import static org.springframework.beans.factory.BeanFactoryUtils.GENERATED_BEAN_NAME_SEPARATOR;
@@ -64,14 +73,20 @@ import static org.springframework.beans.factory.BeanFactoryUtils.GENERATED_BEAN_
  * @author Olaf Otto
  */
 public class BundleSpecificDispatcherServlet extends DispatcherServlet implements ApplicationListener<ApplicationEvent> {
+    private static final String RESOLVED_HANDLER_ATTRIBUTE = BundleSpecificDispatcherServlet.class.getName() + ".resolvedHandler";
+
     private final ServletConfig servletConfig;
     private final ConfigurableListableBeanFactory factory;
     private final ServletResolver servletResolver;
+    private final ScriptViewCache scriptViewCache;
 
     private boolean initialized = false;
+    private volatile Set<String> pathPrefixes = emptySet();
+    private volatile Runnable refreshListener;
 
     BundleSpecificDispatcherServlet(ServletConfig servletConfig,
                                     ServletResolver servletResolver,
+                                    ScriptViewCache scriptViewCache,
                                     ConfigurableListableBeanFactory factory) {
 
         super();
@@ -84,10 +99,14 @@ public class BundleSpecificDispatcherServlet extends DispatcherServlet implement
         if (servletResolver == null) {
             throw new IllegalArgumentException("method parameter servletResolver must not be null");
         }
+        if (scriptViewCache == null) {
+            throw new IllegalArgumentException("method parameter scriptViewCache must not be null");
+        }
 
         this.servletConfig = servletConfig;
         this.factory = factory;
         this.servletResolver = servletResolver;
+        this.scriptViewCache = scriptViewCache;
 
         setPublishEvents(true);
         setDispatchOptionsRequest(true);
@@ -118,9 +137,76 @@ public class BundleSpecificDispatcherServlet extends DispatcherServlet implement
                 // Picks up the previously registered MVC infrastructure
                 onRefresh(applicationContext);
 
+                this.pathPrefixes = determinePathPrefixes();
                 this.initialized = true;
             }
+
+            Runnable listener = this.refreshListener;
+            if (listener != null) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Determines the literal prefixes of the paths the handler mappings of this servlet may map. The prefix of a path pattern
+     * ends before the path segment containing the first wildcard or template variable, e.g. <code>/a/b</code> for
+     * <code>/a/b/{c}</code> or <code>/a/b/**</code>. An empty prefix signals that the servlet may map any path, e.g. since
+     * a handler mapping has a default handler or the mapped paths of a handler mapping cannot be determined.
+     */
+    private Set<String> determinePathPrefixes() {
+        Set<String> prefixes = new HashSet<>();
+        List<HandlerMapping> handlerMappings = getHandlerMappings();
+        if (handlerMappings == null) {
+            return prefixes;
+        }
+
+        for (HandlerMapping handlerMapping : handlerMappings) {
+            if (handlerMapping instanceof AbstractHandlerMapping && ((AbstractHandlerMapping) handlerMapping).getDefaultHandler() != null) {
+                prefixes.add("");
+            } else if (handlerMapping instanceof RequestMappingInfoHandlerMapping) {
+                for (RequestMappingInfo info : ((RequestMappingInfoHandlerMapping) handlerMapping).getHandlerMethods().keySet()) {
+                    Set<String> patterns = info.getPatternValues();
+                    if (patterns.isEmpty()) {
+                        prefixes.add("");
+                    }
+                    patterns.forEach(pattern -> prefixes.add(literalPrefixOf(pattern)));
+                }
+            } else if (handlerMapping instanceof AbstractUrlHandlerMapping) {
+                AbstractUrlHandlerMapping urlHandlerMapping = (AbstractUrlHandlerMapping) handlerMapping;
+                if (urlHandlerMapping.getRootHandler() != null) {
+                    prefixes.add("/");
+                }
+                urlHandlerMapping.getHandlerMap().keySet().forEach(pattern -> prefixes.add(literalPrefixOf(pattern)));
+            } else {
+                prefixes.add("");
+            }
         }
+
+        return prefixes;
+    }
+
+    private static String literalPrefixOf(String pattern) {
+        if (!pattern.startsWith("/")) {
+            return "";
+        }
+
+        int end = pattern.length();
+        for (int i = 0; i < pattern.length(); ++i) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '{') {
+                // A wildcard may match an empty path segment or none at all, e.g. /a/** matches /a.
+                end = pattern.lastIndexOf('/', i);
+                break;
+            }
+        }
+
+        // A trailing slash may be optional.
+        while (end > 0 && pattern.charAt(end - 1) == '/') {
+            --end;
+        }
+
+        return pattern.substring(0, end);
     }
 
     /**
@@ -200,7 +286,7 @@ public class BundleSpecificDispatcherServlet extends DispatcherServlet implement
     private void addNebaViewResolver() {
         this.factory.registerSingleton(
                 generateBeanNameFor(NebaViewResolver.class),
-                new NebaViewResolver(this.servletResolver));
+                new NebaViewResolver(this.servletResolver, this.scriptViewCache));
     }
 
     /**
@@ -246,6 +332,27 @@ public class BundleSpecificDispatcherServlet extends DispatcherServlet implement
     }
 
     /**
+     * @return the literal prefixes of the paths this servlet may have a handler for, see {@link #determinePathPrefixes()}.
+     * Never <code>null</code> but rather empty if the servlet is not yet initialized.
+     */
+    @Nonnull
+    Set<String> getPathPrefixes() {
+        return this.pathPrefixes;
+    }
+
+    /**
+     * @param refreshListener is invoked after this servlet was initialized or re-initialized due to a refresh of the application
+     *                        context. Can be <code>null</code>.
+     */
+    void setRefreshListener(@CheckForNull Runnable refreshListener) {
+        this.refreshListener = refreshListener;
+    }
+
+    /**
+     * If a handler is found, it is retained in the request and {@link #getHandler(HttpServletRequest) used} when this servlet
+     * subsequently {@link #service(javax.servlet.ServletRequest, javax.servlet.ServletResponse) services} the request. The handler
+     * is thus only resolved once.
+     *
      * @param request must not be <code>null</code>.
      */
     public boolean hasHandlerFor(HttpServletRequest request) {
@@ -257,10 +364,44 @@ public class BundleSpecificDispatcherServlet extends DispatcherServlet implement
             return false;
         }
 
+        HandlerExecutionChain handler;
         try {
-            return super.getHandler(request) != null;
+            handler = super.getHandler(request);
         } catch (Exception e) {
             throw new RuntimeException("Unable to lookup a handler for " + request + ".", e);
         }
+
+        if (handler == null) {
+            return false;
+        }
+
+        request.setAttribute(RESOLVED_HANDLER_ATTRIBUTE, new ResolvedHandler(this, handler));
+        return true;
+    }
+
+    /**
+     * Uses the handler {@link #hasHandlerFor(HttpServletRequest) resolved} by this servlet for the request, if any.
+     */
+    @Override
+    protected HandlerExecutionChain getHandler(@Nonnull HttpServletRequest request) throws Exception {
+        Object resolvedHandler = request.getAttribute(RESOLVED_HANDLER_ATTRIBUTE);
+        if (resolvedHandler instanceof ResolvedHandler && ((ResolvedHandler) resolvedHandler).servlet == this) {
+            request.removeAttribute(RESOLVED_HANDLER_ATTRIBUTE);
+            return ((ResolvedHandler) resolvedHandler).handler;
+        }
+        return super.getHandler(request);
+    }
+
+    /**
+     * A handler resolved by a specific servlet.
+     */
+    private static class ResolvedHandler {
+        private final BundleSpecificDispatcherServlet servlet;
+        private final HandlerExecutionChain handler;
+
+        ResolvedHandler(BundleSpecificDispatcherServlet servlet, HandlerExecutionChain handler) {
+            this.servlet = servlet;
+            this.handler = handler;
+        }
     }
 }
@@ -41,13 +41,15 @@ import java.util.Hashtable;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import static java.util.Optional.ofNullable;
 import static javax.servlet.http.HttpServletResponse.SC_NOT_FOUND;
 import static org.springframework.beans.factory.BeanFactoryUtils.GENERATED_BEAN_NAME_SEPARATOR;
 
 /**
  * Dispatches controller requests to the bundle-specific {@link BundleSpecificDispatcherServlet dispatcher servlet}. The first
  * {@link BundleSpecificDispatcherServlet#hasHandlerFor(javax.servlet.http.HttpServletRequest)} responsible servlet} wins.
- * If no servlet is responsible, a 404 response is returned.<br />
+ * If no servlet is responsible, a 404 response is returned. Only the servlets selected by a {@link RoutingIndex} are asked
+ * whether they are responsible for a request.<br />
  * {@link #enableMvc(org.springframework.beans.factory.config.ConfigurableListableBeanFactory, org.osgi.framework.BundleContext) Enables}
  * and {@link #disableMvc(org.osgi.framework.Bundle) disables} MVC capabilities in bundles
  * via the injection of the {@link BundleSpecificDispatcherServlet} into the {@link ConfigurableListableBeanFactory bean factory}
@@ -60,11 +62,20 @@ import static org.springframework.beans.factory.BeanFactoryUtils.GENERATED_BEAN_
 public class MvcServlet extends SlingAllMethodsServlet {
     private final Map<Bundle, BundleSpecificDispatcherServlet> mvcCapableBundles = new ConcurrentHashMap<>();
     private final Logger logger = LoggerFactory.getLogger("mvc");
+    private final Object routingIndexLock = new Object();
+    /**
+     * Selects the dispatcher servlets that may be responsible for a request. <code>null</code> if the index
+     * must be re-created, see {@link #invalidateRoutingIndex()}.
+     */
+    private volatile RoutingIndex routingIndex;
+    private long routingIndexGeneration;
 
     @Autowired
     private ServletContext servletContext;
     @Autowired
     private ServletResolver servletResolver;
+    @Autowired
+    private ScriptViewCache scriptViewCache;
 
     /**
      * Enables MVC capabilities in the given factory by injecting a {@link BundleSpecificDispatcherServlet}.
@@ -87,8 +98,10 @@ public class MvcServlet extends SlingAllMethodsServlet {
         factory.ignoreDependencyInterface(ServletConfigAware.class);
 
         final BundleSpecificDispatcherServlet dispatcherServlet = createBundleSpecificDispatcherServlet(factory, servletConfig);
+        dispatcherServlet.setRefreshListener(this::invalidateRoutingIndex);
         factory.registerSingleton(generateNameFor(BundleSpecificDispatcherServlet.class), dispatcherServlet);
         this.mvcCapableBundles.put(context.getBundle(), dispatcherServlet);
+        invalidateRoutingIndex();
     }
 
     /**
@@ -101,11 +114,46 @@ public class MvcServlet extends SlingAllMethodsServlet {
             throw new IllegalArgumentException("Method argument bundle must not be null.");
         }
 
-        this.mvcCapableBundles.remove(bundle);
+        ofNullable(this.mvcCapableBundles.remove(bundle)).ifPresent(servlet -> servlet.setRefreshListener(null));
+        invalidateRoutingIndex();
+    }
+
+    /**
+     * Signals that the {@link #routingIndex} no longer represents the dispatcher servlets or their path prefixes, e.g.
+     * since a servlet was added or removed or re-initialized due to a refresh of its application context.
+     */
+    private void invalidateRoutingIndex() {
+        synchronized (this.routingIndexLock) {
+            ++this.routingIndexGeneration;
+            this.routingIndex = null;
+        }
+    }
+
+    private RoutingIndex getRoutingIndex() {
+        RoutingIndex index = this.routingIndex;
+        if (index != null) {
+            return index;
+        }
+
+        long generation;
+        synchronized (this.routingIndexLock) {
+            generation = this.routingIndexGeneration;
+        }
+
+        index = new RoutingIndex(this.mvcCapableBundles.values());
+
+        synchronized (this.routingIndexLock) {
+            // Only publish the index if it was not invalidated while it was created.
+            if (generation == this.routingIndexGeneration) {
+                this.routingIndex = index;
+            }
+        }
+
+        return index;
     }
 
     BundleSpecificDispatcherServlet createBundleSpecificDispatcherServlet(ConfigurableListableBeanFactory factory, ServletConfig config) {
-        return new BundleSpecificDispatcherServlet(config, this.servletResolver, factory);
+        return new BundleSpecificDispatcherServlet(config, this.servletResolver, this.scriptViewCache, factory);
     }
 
     @Override
@@ -164,7 +212,7 @@ public class MvcServlet extends SlingAllMethodsServlet {
     private void handle(SlingHttpServletRequest request, SlingHttpServletResponse response) throws ServletException, IOException {
         final SlingMvcServletRequest slingRequest = new SlingMvcServletRequest(request);
 
-        for (BundleSpecificDispatcherServlet context : this.mvcCapableBundles.values()) {
+        for (BundleSpecificDispatcherServlet context : getRoutingIndex().getCandidates(slingRequest)) {
             if (context.hasHandlerFor(slingRequest)) {
                 context.service(slingRequest, response);
                 return;
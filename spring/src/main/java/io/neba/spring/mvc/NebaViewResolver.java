@@ -35,20 +35,27 @@ import static org.springframework.web.servlet.view.UrlBasedViewResolver.REDIRECT
 
 /**
  * Supports "redirect:" and "forward:" views and falls back to eh {@link SlingServletView} for a provided view name.
+ * Script views are {@link ScriptViewCache cached}.
  *
  * @author Olaf Otto
  */
 public class NebaViewResolver implements ViewResolver, Ordered {
     private final ServletResolver servletResolver;
+    private final ScriptViewCache scriptViewCache;
 
     /**
      * @param servletResolver must not be <code>null</code>.
+     * @param scriptViewCache must not be <code>null</code>.
      */
-    public NebaViewResolver(ServletResolver servletResolver) {
+    public NebaViewResolver(ServletResolver servletResolver, ScriptViewCache scriptViewCache) {
         if (servletResolver == null) {
             throw new IllegalArgumentException("Method argument servletResolver must not be null.");
         }
+        if (scriptViewCache == null) {
+            throw new IllegalArgumentException("Method argument scriptViewCache must not be null.");
+        }
         this.servletResolver = servletResolver;
+        this.scriptViewCache = scriptViewCache;
     }
 
     /**
@@ -77,7 +84,10 @@ public class NebaViewResolver implements ViewResolver, Ordered {
 
     private SlingServletView resolveScriptingView(String resourceType) {
         final ResourceResolver resourceResolver = ((SlingHttpServletRequest) ((ServletRequestAttributes) getRequestAttributes()).getRequest()).getResourceResolver();
+        return this.scriptViewCache.get(resourceType, resourceResolver, () -> resolveScriptingView(resourceType, resourceResolver));
+    }
 
+    private SlingServletView resolveScriptingView(String resourceType, ResourceResolver resourceResolver) {
         // Support script inheritance by traversing the type hierarchy of the resource.
         // The type hierarchy is also traversed by the Servlet Resolver, but the resolver
         // only does this compliant to the Sling Script resolution when invoked with a HTTP request.
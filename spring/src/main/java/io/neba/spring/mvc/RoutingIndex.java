@@ -0,0 +1,118 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.spring.mvc;
+
+import org.springframework.web.util.UrlPathHelper;
+
+import javax.annotation.Nonnull;
+import javax.servlet.http.HttpServletRequest;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+import static java.util.Locale.ROOT;
+
+/**
+ * Selects the {@link BundleSpecificDispatcherServlet dispatcher servlets} that may have a
+ * {@link BundleSpecificDispatcherServlet#hasHandlerFor(HttpServletRequest) handler} for a request, such that
+ * the handler mappings are only evaluated by these servlets.
+ * <br />
+ * The index is a trie of the {@link BundleSpecificDispatcherServlet#getPathPrefixes() path prefixes} of the servlets.
+ * A servlet is a candidate for a request if one of its prefixes is a prefix of the path of the request. Since the
+ * handler mappings of a servlet may use any path matching configuration, prefixes are compared ignoring case and with
+ * both the decoded and the raw path of the request, within the servlet mapping as well as within the application.
+ * The index thus never excludes a servlet that has a handler for the request.
+ * <br />
+ * An index represents the servlets and their path prefixes at the time of its creation and must be re-created
+ * whenever either changes.
+ */
+final class RoutingIndex {
+    private static final UrlPathHelper DECODING_PATH_HELPER = new UrlPathHelper();
+    private static final UrlPathHelper RAW_PATH_HELPER = new UrlPathHelper();
+
+    static {
+        RAW_PATH_HELPER.setUrlDecode(false);
+        RAW_PATH_HELPER.setRemoveSemicolonContent(false);
+    }
+
+    private final List<BundleSpecificDispatcherServlet> servlets;
+    private final Node root = new Node();
+
+    /**
+     * @param servlets must not be <code>null</code>. The candidates for a request are provided in the order of this collection.
+     */
+    RoutingIndex(@Nonnull Collection<BundleSpecificDispatcherServlet> servlets) {
+        this.servlets = new ArrayList<>(servlets);
+        for (int i = 0; i < this.servlets.size(); ++i) {
+            for (String prefix : this.servlets.get(i).getPathPrefixes()) {
+                this.root.add(prefix.toLowerCase(ROOT), i);
+            }
+        }
+    }
+
+    /**
+     * @param request must not be <code>null</code>.
+     * @return the servlets that may have a handler for the request. Never <code>null</code>.
+     */
+    @Nonnull
+    List<BundleSpecificDispatcherServlet> getCandidates(@Nonnull HttpServletRequest request) {
+        if (this.servlets.isEmpty()) {
+            return emptyList();
+        }
+
+        BitSet candidates = new BitSet(this.servlets.size());
+        this.root.collect(DECODING_PATH_HELPER.getPathWithinServletMapping(request), candidates);
+        this.root.collect(DECODING_PATH_HELPER.getPathWithinApplication(request), candidates);
+        this.root.collect(RAW_PATH_HELPER.getPathWithinServletMapping(request), candidates);
+        this.root.collect(RAW_PATH_HELPER.getPathWithinApplication(request), candidates);
+
+        List<BundleSpecificDispatcherServlet> result = new ArrayList<>(candidates.cardinality());
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            result.add(this.servlets.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * A node of the prefix trie. Contains the indices of the servlets having the prefix represented by the path from the root to the node.
+     */
+    private static class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private final BitSet servlets = new BitSet();
+
+        void add(String prefix, int servlet) {
+            Node node = this;
+            for (int i = 0; i < prefix.length(); ++i) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+            }
+            node.servlets.set(servlet);
+        }
+
+        void collect(String path, BitSet candidates) {
+            String lowerCasePath = path.toLowerCase(ROOT);
+            Node node = this;
+            for (int i = 0; node != null; ++i) {
+                candidates.or(node.servlets);
+                node = i < lowerCasePath.length() ? node.children.get(lowerCasePath.charAt(i)) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.spring.mvc;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.osgi.service.event.Event;
+import org.osgi.service.event.EventHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static java.util.Optional.ofNullable;
+
+/**
+ * Caches the {@link SlingServletView script views} {@link NebaViewResolver resolved} for a view name, including the
+ * information that no script exists for a view name. Views are cached per view name and
+ * {@link ResourceResolver#getSearchPath() search path} of the resolving resource resolver.
+ * <br />
+ * The resolution of a view depends on the scripts and the resource type hierarchy in the search path as well as on the
+ * registered servlets. This cache is thus published as an OSGi {@link EventHandler} for resource changes under
+ * <code>/apps</code> and <code>/libs</code> and for servlet service events, and is cleared upon any such event.
+ *
+ * @see NebaViewResolver
+ */
+@Service
+public class ScriptViewCache implements EventHandler {
+    /**
+     * Protects against unlimited growth, e.g. due to view names derived from request parameters.
+     */
+    private static final int MAXIMUM_SIZE = 1000;
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+    private final Map<Key, Optional<SlingServletView>> views = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * @param viewName       must not be <code>null</code>.
+     * @param resolver       must not be <code>null</code>.
+     * @param viewResolution resolves the view if it is not cached. Must not be <code>null</code>. The view provided by
+     *                       the resolution may be <code>null</code>.
+     * @return the cached or resolved view, or <code>null</code> if no view exists for the view name.
+     */
+    @CheckForNull
+    SlingServletView get(@Nonnull String viewName, @Nonnull ResourceResolver resolver, @Nonnull Supplier<SlingServletView> viewResolution) {
+        final Key key = new Key(viewName, resolver.getSearchPath());
+        Optional<SlingServletView> view = this.views.get(key);
+        if (view != null) {
+            return view.orElse(null);
+        }
+
+        final long generation = this.generation.get();
+        view = ofNullable(viewResolution.get());
+
+        if (this.views.size() >= MAXIMUM_SIZE) {
+            this.views.clear();
+        }
+
+        this.views.put(key, view);
+        // Discard the view if the cache was invalidated during the resolution, as it might be stale.
+        if (generation != this.generation.get()) {
+            this.views.remove(key, view);
+        }
+
+        return view.orElse(null);
+    }
+
+    @Override
+    public void handleEvent(Event event) {
+        if (this.logger.isTraceEnabled()) {
+            this.logger.trace("Invalidating the script view cache due to the event {}.", event);
+        }
+        clear();
+    }
+
+    private void clear() {
+        this.generation.incrementAndGet();
+        this.views.clear();
+    }
+
+    /**
+     * A view name and the search path in which the scripts of the view were resolved.
+     */
+    private static class Key {
+        private final String viewName;
+        private final String[] searchPath;
+        private final int hashCode;
+
+        Key(String viewName, String[] searchPath) {
+            this.viewName = viewName;
+            this.searchPath = searchPath;
+            this.hashCode = 31 * viewName.hashCode() + Arrays.hashCode(searchPath);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || obj.getClass() != getClass()) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return Objects.equals(this.viewName, other.viewName) && Arrays.equals(this.searchPath, other.searchPath);
+        }
+    }
+}
@@ -19,26 +19,39 @@ package io.neba.spring.mvc;
 import org.apache.sling.api.request.RequestParameter;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.annotation.CheckForNull;
 import javax.annotation.Nonnull;
-import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
 
-import static org.apache.commons.io.IOUtils.closeQuietly;
-import static org.apache.commons.io.IOUtils.copy;
+import static java.nio.file.Files.deleteIfExists;
+import static java.nio.file.StandardOpenOption.CREATE_NEW;
+import static java.nio.file.StandardOpenOption.WRITE;
 
 
 /**
  * Uses the {@link org.apache.sling.api.SlingHttpServletRequest} {@link RequestParameter} API
  * to provide a {@link MultipartFile}.
+ * <br />
+ * Large parts should be {@link #transferTo(Path) transferred} or {@link #transferTo(WritableByteChannel) streamed}
+ * rather than {@link #getBytes() read into memory}. If the part was spooled to disk by the container, its contents
+ * are transferred using {@link FileChannel#transferTo(long, long, WritableByteChannel)}, i.e. without being copied
+ * through the heap.
  *  
  * @author Olaf Otto
  */
 public class SlingMultipartFile implements MultipartFile {
+	private static final int BUFFER_SIZE = 8192;
+
 	private final RequestParameter source;
 	private final String name;
 
@@ -73,6 +86,10 @@ public class SlingMultipartFile implements MultipartFile {
 		return this.source.getSize();
 	}
 
+	/**
+	 * Loads the entire part into memory. Use {@link #transferTo(Path)} or {@link #transferTo(WritableByteChannel)}
+	 * for large parts.
+	 */
 	@Override
 	@Nonnull
 	public byte[] getBytes() {
@@ -86,18 +103,89 @@ public class SlingMultipartFile implements MultipartFile {
 
 	@Override
 	public void transferTo(File dest) throws IOException, IllegalStateException {
-		if (dest.exists() && !dest.delete()) {
+		transferTo(dest.toPath());
+	}
+
+	@Override
+	public void transferTo(Path dest) throws IOException, IllegalStateException {
+		try {
+			deleteIfExists(dest);
+		} catch (IOException e) {
 			throw new IOException(
-					"Destination file [" + dest.getAbsolutePath() + "] already exists and could not be deleted");
+					"Destination file [" + dest.toAbsolutePath() + "] already exists and could not be deleted", e);
 		}
-		final InputStream in = getInputStream();
-		final OutputStream out = new BufferedOutputStream(new FileOutputStream(dest));
-		try {
-            copy(in, out);
-            out.flush();
-		} finally {
-            closeQuietly(out);
-		    closeQuietly(in);
+		try (FileChannel out = FileChannel.open(dest, CREATE_NEW, WRITE)) {
+			transferTo(out);
+		}
+	}
+
+	/**
+	 * Streams the contents of this part to the given stream without loading them into memory.
+	 * The stream is not closed.
+	 *
+	 * @param out must not be <code>null</code>.
+	 * @return the number of transferred bytes.
+	 */
+	public long transferTo(@Nonnull OutputStream out) throws IOException {
+		if (out == null) {
+			throw new IllegalArgumentException("Method argument out must not be null.");
+		}
+		if (out instanceof FileOutputStream) {
+			return transferTo(((FileOutputStream) out).getChannel());
+		}
+		long transferred = transferTo(Channels.newChannel(out));
+		out.flush();
+		return transferred;
+	}
+
+	/**
+	 * Streams the contents of this part to the given channel without loading them into memory.
+	 * The channel is not closed.
+	 *
+	 * @param out must not be <code>null</code>.
+	 * @return the number of transferred bytes.
+	 */
+	public long transferTo(@Nonnull WritableByteChannel out) throws IOException {
+		if (out == null) {
+			throw new IllegalArgumentException("Method argument out must not be null.");
+		}
+		try (InputStream in = getInputStream()) {
+			if (in instanceof FileInputStream) {
+				return transfer(((FileInputStream) in).getChannel(), out);
+			}
+			return copy(Channels.newChannel(in), out);
+		}
+	}
+
+	/**
+	 * Transfers the remaining contents of a file, e.g. the part spooled to disk, such that the
+	 * operating system may copy them directly to the target. Stops if the file is truncated or the
+	 * target accepts no more bytes, e.g. a non-blocking channel.
+	 */
+	private static long transfer(FileChannel in, WritableByteChannel out) throws IOException {
+		long position = in.position();
+		long transferred = 0;
+		long remaining;
+		while ((remaining = in.size() - position - transferred) > 0) {
+			long count = in.transferTo(position + transferred, remaining, out);
+			if (count == 0) {
+				break;
+			}
+			transferred += count;
+		}
+		return transferred;
+	}
+
+	private static long copy(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		long transferred = 0;
+		while (in.read(buffer) != -1) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				transferred += out.write(buffer);
+			}
+			buffer.clear();
 		}
+		return transferred;
 	}
 }
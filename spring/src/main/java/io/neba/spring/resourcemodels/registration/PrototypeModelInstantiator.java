@@ -0,0 +1,238 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.spring.resourcemodels.registration;
+
+import org.springframework.beans.PropertyValues;
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.BeanNotOfRequiredTypeException;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.CommonAnnotationBeanPostProcessor;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nonnull;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Arrays.asList;
+import static org.springframework.beans.BeanUtils.instantiateClass;
+import static org.springframework.beans.factory.config.AutowireCapableBeanFactory.AUTOWIRE_NO;
+import static org.springframework.util.ReflectionUtils.makeAccessible;
+
+/**
+ * Creates instances of a prototype resource model bean without passing through the generic bean creation of the
+ * {@link AbstractBeanFactory bean factory}, i.e. without merging and checking the bean definition, resolving the
+ * constructor and determining the applicable {@link BeanPostProcessor post processors} for every instance.
+ * <br />
+ * An instantiator is only {@link #forBean(ConfigurableListableBeanFactory, String, Class) provided} for beans whose
+ * creation is fully described by their class, the {@link BeanFactoryAware aware interfaces}, the {@link InitializingBean
+ * initializing bean} contract and the post processors of the factory, e.g. classes with a default constructor and
+ * annotation-based injection. The post processors must be known not to alter the instantiation of the bean
+ * (see {@link InstantiationAwareBeanPostProcessor#postProcessBeforeInstantiation(Class, String)}). For all other beans,
+ * the bean factory must be used.
+ */
+final class PrototypeModelInstantiator {
+    /**
+     * The {@link InstantiationAwareBeanPostProcessor instantiation aware post processors} that never provide a
+     * bean instance before instantiation and do not add property values.
+     */
+    private static final Set<String> SUPPORTED_INSTANTIATION_AWARE_POST_PROCESSORS = new HashSet<>(asList(
+            AutowiredAnnotationBeanPostProcessor.class.getName(),
+            CommonAnnotationBeanPostProcessor.class.getName(),
+            "org.springframework.context.annotation.ConfigurationClassPostProcessor$ImportAwareBeanPostProcessor"));
+
+    private final ConfigurableListableBeanFactory factory;
+    private final String beanName;
+    private final Class<?> requiredType;
+    private final Constructor<?> constructor;
+    private final PropertyValues propertyValues;
+    private final boolean invokeAfterPropertiesSet;
+    private final List<InstantiationAwareBeanPostProcessor> instantiationAwarePostProcessors;
+    private final List<BeanPostProcessor> postProcessors;
+
+    /**
+     * Must be invoked once the {@link ConfigurableListableBeanFactory#isConfigurationFrozen() configuration of the factory is frozen}
+     * and the bean was created by the factory at least once, such that the bean definition is completely post-processed.
+     *
+     * @param factory      must not be <code>null</code>.
+     * @param beanName     must not be <code>null</code>.
+     * @param requiredType must not be <code>null</code>.
+     * @return an instantiator for the bean, or <code>null</code> if the bean must be obtained from the factory.
+     */
+    @CheckForNull
+    static PrototypeModelInstantiator forBean(@Nonnull ConfigurableListableBeanFactory factory, @Nonnull String beanName, @Nonnull Class<?> requiredType) {
+        if (!(factory instanceof AbstractBeanFactory) || !factory.isConfigurationFrozen() || !factory.containsBeanDefinition(beanName)) {
+            return null;
+        }
+
+        BeanDefinition definition = factory.getMergedBeanDefinition(beanName);
+        if (!(definition instanceof RootBeanDefinition) || !isSimplePrototype((RootBeanDefinition) definition)) {
+            return null;
+        }
+
+        Class<?> beanClass = ((RootBeanDefinition) definition).getBeanClass();
+        Constructor<?>[] constructors = beanClass.getDeclaredConstructors();
+        if (FactoryBean.class.isAssignableFrom(beanClass) || constructors.length != 1 || constructors[0].getParameterCount() != 0) {
+            return null;
+        }
+
+        List<InstantiationAwareBeanPostProcessor> instantiationAwarePostProcessors = new ArrayList<>();
+        List<BeanPostProcessor> postProcessors = ((AbstractBeanFactory) factory).getBeanPostProcessors();
+        for (BeanPostProcessor postProcessor : postProcessors) {
+            if (postProcessor instanceof InstantiationAwareBeanPostProcessor) {
+                if (!SUPPORTED_INSTANTIATION_AWARE_POST_PROCESSORS.contains(postProcessor.getClass().getName())) {
+                    return null;
+                }
+                instantiationAwarePostProcessors.add((InstantiationAwareBeanPostProcessor) postProcessor);
+            }
+        }
+
+        makeAccessible(constructors[0]);
+        boolean invokeAfterPropertiesSet = InitializingBean.class.isAssignableFrom(beanClass) &&
+                !((RootBeanDefinition) definition).isExternallyManagedInitMethod("afterPropertiesSet");
+
+        return new PrototypeModelInstantiator(
+                factory,
+                beanName,
+                requiredType,
+                constructors[0],
+                definition.getPropertyValues(),
+                invokeAfterPropertiesSet,
+                instantiationAwarePostProcessors,
+                new ArrayList<>(postProcessors));
+    }
+
+    private static boolean isSimplePrototype(AbstractBeanDefinition definition) {
+        return definition.isPrototype() &&
+                !definition.isAbstract() &&
+                !definition.isSynthetic() &&
+                definition.hasBeanClass() &&
+                definition.getInstanceSupplier() == null &&
+                definition.getFactoryBeanName() == null &&
+                definition.getFactoryMethodName() == null &&
+                definition.getResolvedAutowireMode() == AUTOWIRE_NO &&
+                !definition.hasConstructorArgumentValues() &&
+                !definition.hasPropertyValues() &&
+                !definition.hasMethodOverrides() &&
+                definition.getInitMethodName() == null &&
+                (definition.getDependsOn() == null || definition.getDependsOn().length == 0);
+    }
+
+    private PrototypeModelInstantiator(ConfigurableListableBeanFactory factory,
+                                       String beanName,
+                                       Class<?> requiredType,
+                                       Constructor<?> constructor,
+                                       PropertyValues propertyValues,
+                                       boolean invokeAfterPropertiesSet,
+                                       List<InstantiationAwareBeanPostProcessor> instantiationAwarePostProcessors,
+                                       List<BeanPostProcessor> postProcessors) {
+        this.factory = factory;
+        this.beanName = beanName;
+        this.requiredType = requiredType;
+        this.constructor = constructor;
+        this.propertyValues = propertyValues;
+        this.invokeAfterPropertiesSet = invokeAfterPropertiesSet;
+        this.instantiationAwarePostProcessors = instantiationAwarePostProcessors;
+        this.postProcessors = postProcessors;
+    }
+
+    /**
+     * Creates the bean like {@link AbstractBeanFactory#getBean(String, Class)}: Instantiates the bean, populates it
+     * using the {@link InstantiationAwareBeanPostProcessor instantiation aware post processors}, invokes the aware methods,
+     * the {@link BeanPostProcessor#postProcessBeforeInitialization(Object, String) post processors before initialization},
+     * {@link InitializingBean#afterPropertiesSet()} and the {@link BeanPostProcessor#postProcessAfterInitialization(Object, String)
+     * post processors after initialization}.
+     *
+     * @return never <code>null</code>.
+     */
+    @Nonnull
+    Object instantiate() {
+        Object bean = instantiateClass(this.constructor);
+
+        populate(bean);
+        invokeAwareMethods(bean);
+
+        Object result = bean;
+        for (BeanPostProcessor postProcessor : this.postProcessors) {
+            Object current = postProcessor.postProcessBeforeInitialization(result, this.beanName);
+            if (current == null) {
+                break;
+            }
+            result = current;
+        }
+
+        if (this.invokeAfterPropertiesSet) {
+            try {
+                ((InitializingBean) bean).afterPropertiesSet();
+            } catch (Exception e) {
+                throw new BeanCreationException(this.beanName, "Invocation of init method failed", e);
+            }
+        }
+
+        for (BeanPostProcessor postProcessor : this.postProcessors) {
+            Object current = postProcessor.postProcessAfterInitialization(result, this.beanName);
+            if (current == null) {
+                break;
+            }
+            result = current;
+        }
+
+        if (!this.requiredType.isInstance(result)) {
+            throw new BeanNotOfRequiredTypeException(this.beanName, this.requiredType, result.getClass());
+        }
+
+        return result;
+    }
+
+    private void populate(Object bean) {
+        for (InstantiationAwareBeanPostProcessor postProcessor : this.instantiationAwarePostProcessors) {
+            if (!postProcessor.postProcessAfterInstantiation(bean, this.beanName)) {
+                return;
+            }
+        }
+        // The supported post processors inject the bean and do not contribute property values that would have to be applied.
+        for (InstantiationAwareBeanPostProcessor postProcessor : this.instantiationAwarePostProcessors) {
+            postProcessor.postProcessProperties(this.propertyValues, bean, this.beanName);
+        }
+    }
+
+    private void invokeAwareMethods(Object bean) {
+        if (bean instanceof BeanNameAware) {
+            ((BeanNameAware) bean).setBeanName(this.beanName);
+        }
+        if (bean instanceof BeanClassLoaderAware && this.factory.getBeanClassLoader() != null) {
+            ((BeanClassLoaderAware) bean).setBeanClassLoader(this.factory.getBeanClassLoader());
+        }
+        if (bean instanceof BeanFactoryAware) {
+            ((BeanFactoryAware) bean).setBeanFactory(this.factory);
+        }
+    }
+}
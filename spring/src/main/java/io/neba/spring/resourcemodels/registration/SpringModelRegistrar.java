@@ -23,23 +23,38 @@ import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.index.CandidateComponentsIndex;
+import org.springframework.context.index.CandidateComponentsIndexLoader;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.PreDestroy;
 import java.lang.annotation.IncompleteAnnotationException;
+import java.util.ArrayList;
 import java.util.Hashtable;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 
-import static java.util.Arrays.stream;
+import static java.lang.Runtime.getRuntime;
+import static java.lang.System.currentTimeMillis;
 import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static java.util.stream.Collectors.toList;
 import static org.osgi.framework.Constants.SERVICE_DESCRIPTION;
 import static org.osgi.framework.Constants.SERVICE_VENDOR;
-import static org.springframework.beans.factory.BeanFactoryUtils.beanNamesForTypeIncludingAncestors;
+import static org.springframework.beans.factory.config.BeanDefinition.ROLE_INFRASTRUCTURE;
 
 /**
  * Whenever a {@link org.springframework.beans.factory.BeanFactory} is initialized, this registrar
@@ -47,6 +62,11 @@ import static org.springframework.beans.factory.BeanFactoryUtils.beanNamesForTyp
  * searches} the factory's bean definitions for beans annotated with
  * {@link ResourceModel}. The discovered models are published via a dedicated {@link ResourceModelFactory} for
  * the provided bundle.
+ * <br />
+ * To support large application contexts, candidate beans are selected using the bean definitions only, and the
+ * annotations of the candidates are checked in parallel. Bundles may further narrow down the candidates by listing their
+ * resource model types in a Spring components index, e.g. <code>com.acme.MyModel=io.neba.api.annotations.ResourceModel</code>
+ * in <code>META-INF/spring.components</code>.
  *
  * @author Olaf Otto
  * @see ResourceModelFactory
@@ -54,31 +74,35 @@ import static org.springframework.beans.factory.BeanFactoryUtils.beanNamesForTyp
  */
 @Service
 public class SpringModelRegistrar {
+    private static final int DISCOVERY_THREADS = getRuntime().availableProcessors();
+    private static final long DISCOVERY_THREAD_KEEP_ALIVE_SECONDS = 10;
+
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private final Map<Bundle, ServiceRegistration<?>> bundlesWithModels = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor discoveryExecutor;
+
+    public SpringModelRegistrar() {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("neba-model-discovery-");
+        threadFactory.setDaemon(true);
+        this.discoveryExecutor = new ThreadPoolExecutor(
+                DISCOVERY_THREADS, DISCOVERY_THREADS,
+                DISCOVERY_THREAD_KEEP_ALIVE_SECONDS, SECONDS,
+                new LinkedBlockingQueue<>(),
+                threadFactory);
+        // Discovery only happens when application contexts start. Idle threads are thus not retained.
+        this.discoveryExecutor.allowCoreThreadTimeOut(true);
+    }
 
     public void registerModels(BundleContext bundleContext, ConfigurableListableBeanFactory factory) {
         final Bundle bundle = bundleContext.getBundle();
         logger.info("Discovering resource models in bundle {}  ...", bundle.getSymbolicName());
 
-        final List<SpringBasedModelDefinition> modelDefinitions =
-                stream(beanNamesForTypeIncludingAncestors(factory, Object.class))
-                        .map(beanName -> {
-                            final Class<?> modelType = factory.getType(beanName);
-                            if (modelType == null) {
-                                logger.error("The spring application context cannot determine the type of the resource model bean {} in bundle {}. Skipping this model.", beanName, bundle);
-                                return null;
-                            }
-
-                            final ResourceModel model = getResourceModelAnnotation(factory, beanName, modelType);
-
-                            if (model == null) {
-                                return null;
-                            }
-                            return new SpringBasedModelDefinition(model, beanName, modelType);
-                        })
-                        .filter(Objects::nonNull)
-                        .collect(toList());
+        final long start = currentTimeMillis();
+        final List<String> candidates = getCandidateBeanNames(factory);
+        final List<SpringBasedModelDefinition> modelDefinitions = getModelDefinitions(bundle, factory, candidates);
+
+        logger.info("Discovered {} resource models among {} candidate beans in bundle {} in {} ms.",
+                modelDefinitions.size(), candidates.size(), bundle.getSymbolicName(), currentTimeMillis() - start);
 
         Hashtable<String, Object> properties = new Hashtable<>();
         properties.put(SERVICE_DESCRIPTION, "Provides NEBA resource models from Spring Beans annotated with @" + ResourceModel.class.getSimpleName() + ".");
@@ -91,6 +115,98 @@ public class SpringModelRegistrar {
         ));
     }
 
+    /**
+     * Determines the names of the beans that may be resource models solely based on the bean definitions of the factory
+     * and its ancestors, i.e. without resolving any bean type. Abstract and {@link BeanDefinition#ROLE_INFRASTRUCTURE infrastructure}
+     * beans are never resource models. If a {@link CandidateComponentsIndexLoader components index} lists
+     * {@link ResourceModel resource model} types, beans with a different type are not considered, either.
+     */
+    private List<String> getCandidateBeanNames(ConfigurableListableBeanFactory factory) {
+        final Set<String> indexedModelTypes = getIndexedModelTypes(factory);
+        final Set<String> beanNames = new LinkedHashSet<>();
+        final List<String> candidates = new ArrayList<>();
+
+        BeanFactory current = factory;
+        while (current instanceof ConfigurableListableBeanFactory) {
+            ConfigurableListableBeanFactory listableFactory = (ConfigurableListableBeanFactory) current;
+            for (String beanName : listableFactory.getBeanDefinitionNames()) {
+                // Beans of a child factory override beans with the same name in an ancestor factory.
+                if (beanNames.add(beanName) && isCandidate(listableFactory.getMergedBeanDefinition(beanName), indexedModelTypes)) {
+                    candidates.add(beanName);
+                }
+            }
+            current = listableFactory.getParentBeanFactory();
+        }
+
+        return candidates;
+    }
+
+    private static boolean isCandidate(BeanDefinition definition, @CheckForNull Set<String> indexedModelTypes) {
+        if (definition.isAbstract() || definition.getRole() == ROLE_INFRASTRUCTURE) {
+            return false;
+        }
+        // The bean class of beans created by a factory method does not represent the bean type.
+        return indexedModelTypes == null ||
+                definition.getFactoryMethodName() != null ||
+                definition.getBeanClassName() == null ||
+                indexedModelTypes.contains(definition.getBeanClassName());
+    }
+
+    /**
+     * @return the names of the {@link ResourceModel resource model} types listed in the Spring components index
+     * (<code>META-INF/spring.components</code>) of the bundle, or <code>null</code> if there is no such index or it does not
+     * list resource models.
+     */
+    @CheckForNull
+    private static Set<String> getIndexedModelTypes(ConfigurableListableBeanFactory factory) {
+        CandidateComponentsIndex index = CandidateComponentsIndexLoader.loadIndex(factory.getBeanClassLoader());
+        if (index == null) {
+            return null;
+        }
+        Set<String> modelTypes = index.getCandidateTypes("", ResourceModel.class.getName());
+        return modelTypes.isEmpty() ? null : modelTypes;
+    }
+
+    /**
+     * Resolves the types and {@link ResourceModel} annotations of the candidate beans in parallel. Types are
+     * resolved without initializing {@link org.springframework.beans.factory.FactoryBean factory beans}.
+     */
+    private List<SpringBasedModelDefinition> getModelDefinitions(Bundle bundle, ConfigurableListableBeanFactory factory, List<String> candidates) {
+        final List<Callable<SpringBasedModelDefinition>> discoveries = candidates.stream()
+                .map(beanName -> (Callable<SpringBasedModelDefinition>) () -> getModelDefinition(bundle, factory, beanName))
+                .collect(toList());
+
+        final List<SpringBasedModelDefinition> modelDefinitions = new ArrayList<>();
+        try {
+            for (Future<SpringBasedModelDefinition> discovery : this.discoveryExecutor.invokeAll(discoveries)) {
+                ofNullable(discovery.get()).ifPresent(modelDefinitions::add);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while discovering the resource models in bundle " + bundle + ".", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to discover the resource models in bundle " + bundle + ".", e.getCause());
+        }
+        return modelDefinitions;
+    }
+
+    @CheckForNull
+    private SpringBasedModelDefinition getModelDefinition(Bundle bundle, ConfigurableListableBeanFactory factory, String beanName) {
+        final Class<?> modelType = factory.getType(beanName, false);
+        if (modelType == null) {
+            logger.debug("The spring application context cannot determine the type of the bean {} in bundle {} " +
+                    "without initializing a factory bean. Skipping this bean.", beanName, bundle);
+            return null;
+        }
+
+        final ResourceModel model = getResourceModelAnnotation(factory, beanName, modelType);
+
+        if (model == null) {
+            return null;
+        }
+        return new SpringBasedModelDefinition(model, beanName, modelType);
+    }
+
     private ResourceModel getResourceModelAnnotation(ConfigurableListableBeanFactory factory, String n, Class<?> beanType) {
         try {
             return factory.findAnnotationOnBean(n, ResourceModel.class);
@@ -108,6 +224,7 @@ public class SpringModelRegistrar {
 
     @PreDestroy
     protected void shutdown() {
+        this.discoveryExecutor.shutdownNow();
         this.bundlesWithModels.forEach((b, s) -> {
             try {
                 s.unregister();
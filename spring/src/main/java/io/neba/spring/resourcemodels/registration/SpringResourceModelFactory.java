@@ -22,23 +22,36 @@ import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Optional.ofNullable;
 
 /**
  * Retrieves resource model beans from a {@link org.springframework.beans.factory.ListableBeanFactory#getBean(String, Class) bean factory}.
+ * Once the configuration of the factory is frozen, prototype models are created using a {@link PrototypeModelInstantiator}
+ * that is prepared once per model, if the model bean supports it.
  */
 class SpringResourceModelFactory implements ResourceModelFactory {
-    private final List<SpringBasedModelDefinition> modelDefinitions;
+    private final Collection<ModelDefinition<?>> modelDefinitions;
     private final ConfigurableListableBeanFactory factory;
+    /**
+     * Contains the instantiators of the model definitions that were already provided once the configuration of the bean
+     * factory was frozen. Model definitions whose beans must be obtained from the factory are mapped to an empty instantiator.
+     */
+    private final Map<SpringBasedModelDefinition, Optional<PrototypeModelInstantiator>> instantiators = new ConcurrentHashMap<>();
 
     SpringResourceModelFactory(List<SpringBasedModelDefinition> modelDefinitions, ConfigurableListableBeanFactory factory) {
-        this.modelDefinitions = modelDefinitions;
+        this.modelDefinitions = unmodifiableList(new ArrayList<>(modelDefinitions));
         this.factory = factory;
     }
 
     @Override
     @Nonnull
     public Collection<ModelDefinition<?>> getModelDefinitions() {
-        return new ArrayList<>(this.modelDefinitions);
+        return this.modelDefinitions;
     }
 
     @Override
@@ -48,7 +61,20 @@ class SpringResourceModelFactory implements ResourceModelFactory {
         }
 
         SpringBasedModelDefinition springBasedModelDefinition = (SpringBasedModelDefinition) modelDefinition;
+        Optional<PrototypeModelInstantiator> instantiator = this.instantiators.get(springBasedModelDefinition);
+        if (instantiator != null && instantiator.isPresent()) {
+            return callback.map(modelDefinition.getType().cast(instantiator.get().instantiate()));
+        }
+
         T bean = factory.getBean(springBasedModelDefinition.getBeanName(), modelDefinition.getType());
+
+        // The bean was created by the factory at least once, thus its bean definition is completely processed.
+        if (instantiator == null && this.factory.isConfigurationFrozen()) {
+            this.instantiators.put(
+                    springBasedModelDefinition,
+                    ofNullable(PrototypeModelInstantiator.forBean(this.factory, springBasedModelDefinition.getBeanName(), modelDefinition.getType())));
+        }
+
         return callback.map(bean);
     }
 }
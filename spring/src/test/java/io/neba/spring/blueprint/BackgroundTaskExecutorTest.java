@@ -0,0 +1,223 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.spring.blueprint;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.osgi.framework.BundleContext;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.neba.spring.blueprint.BackgroundTaskExecutor.POOL_SIZE;
+import static io.neba.spring.blueprint.BackgroundTaskExecutor.QUEUE_CAPACITY;
+import static io.neba.spring.blueprint.BackgroundTaskExecutor.REJECTION_POLICY;
+import static io.neba.spring.blueprint.BackgroundTaskExecutor.SHUTDOWN_TIMEOUT;
+import static io.neba.spring.blueprint.BackgroundTaskExecutor.VIRTUAL_THREADS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BackgroundTaskExecutorTest {
+    @Mock
+    private BundleContext bundleContext;
+
+    private final CountDownLatch blocker = new CountDownLatch(1);
+    private final CountDownLatch blockingTaskStarted = new CountDownLatch(1);
+    private final AtomicReference<Thread> executingThread = new AtomicReference<>();
+
+    private BackgroundTaskExecutor testee;
+
+    @Before
+    public void setUp() {
+        lenient().doReturn(null).when(this.bundleContext).getProperty(anyString());
+        this.testee = new BackgroundTaskExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        this.blocker.countDown();
+        this.testee.destroy();
+    }
+
+    @Test
+    public void testTasksAreExecutedAsynchronously() throws Exception {
+        initialize();
+
+        executeRecordingTask();
+        shutdown();
+
+        assertThat(this.executingThread.get()).isNotNull().isNotSameAs(Thread.currentThread());
+        assertThat(this.executingThread.get().getName()).startsWith("neba-async-");
+        assertThat(this.testee.getCompletedTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testPoolSizeIsConfigurable() {
+        withProperty(POOL_SIZE, "3");
+        initialize();
+
+        assertThat(this.testee.getCorePoolSize()).isEqualTo(3);
+        assertThat(this.testee.getMaxPoolSize()).isEqualTo(3);
+    }
+
+    @Test
+    public void testInvalidPoolSizeIsIgnored() {
+        withProperty(POOL_SIZE, "-1");
+        initialize();
+
+        assertThat(this.testee.getMaxPoolSize()).isPositive();
+    }
+
+    @Test
+    public void testExhaustedExecutorRunsTasksInCallerByDefault() throws Exception {
+        withSingleThreadAndQueueCapacityOfOne();
+        initialize();
+
+        executeBlockingTask();
+        executeBlockingTask();
+        executeRecordingTask();
+
+        assertThat(this.executingThread.get()).isSameAs(Thread.currentThread());
+        assertThat(this.testee.getQueuedTaskCount()).isEqualTo(1);
+        assertThat(this.testee.getRejectedTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testExhaustedExecutorAbortsTasksWithAbortPolicy() throws Exception {
+        withSingleThreadAndQueueCapacityOfOne();
+        withProperty(REJECTION_POLICY, "abort");
+        initialize();
+
+        executeBlockingTask();
+        executeBlockingTask();
+
+        assertThatThrownBy(this::executeRecordingTask).isInstanceOf(TaskRejectedException.class);
+        assertThat(this.executingThread.get()).isNull();
+        assertThat(this.testee.getRejectedTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testExhaustedExecutorDiscardsTasksWithDiscardPolicy() throws Exception {
+        withSingleThreadAndQueueCapacityOfOne();
+        withProperty(REJECTION_POLICY, "DISCARD");
+        initialize();
+
+        executeBlockingTask();
+        executeBlockingTask();
+        executeRecordingTask();
+
+        this.blocker.countDown();
+        shutdown();
+
+        assertThat(this.executingThread.get()).isNull();
+        assertThat(this.testee.getRejectedTaskCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testUnknownRejectionPolicyIsIgnored() throws Exception {
+        withSingleThreadAndQueueCapacityOfOne();
+        withProperty(REJECTION_POLICY, "unknown");
+        initialize();
+
+        executeBlockingTask();
+        executeBlockingTask();
+        executeRecordingTask();
+
+        assertThat(this.executingThread.get()).isSameAs(Thread.currentThread());
+    }
+
+    @Test
+    public void testShutdownWaitsForPendingTasks() throws Exception {
+        withProperty(SHUTDOWN_TIMEOUT, "10");
+        initialize();
+
+        executeBlockingTask();
+        executeRecordingTask();
+        new Thread(this.blocker::countDown).start();
+        shutdown();
+
+        assertThat(this.executingThread.get()).isNotNull();
+        assertThat(this.testee.getCompletedTaskCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testTasksSubmittedAfterShutdownAreRunInCaller() throws Exception {
+        withProperty(REJECTION_POLICY, "ABORT");
+        initialize();
+        shutdown();
+
+        executeRecordingTask();
+
+        assertThat(this.executingThread.get()).isSameAs(Thread.currentThread());
+        assertThat(this.testee.getRejectedTaskCount()).isZero();
+    }
+
+    @Test
+    public void testUnsupportedVirtualThreadsFallBackToPlatformThreads() throws Exception {
+        withProperty(VIRTUAL_THREADS, "true");
+        initialize();
+
+        executeRecordingTask();
+        shutdown();
+
+        assertThat(this.executingThread.get()).isNotNull().isNotSameAs(Thread.currentThread());
+    }
+
+    private void withSingleThreadAndQueueCapacityOfOne() {
+        withProperty(POOL_SIZE, "1");
+        withProperty(QUEUE_CAPACITY, "1");
+    }
+
+    private void withProperty(String key, String value) {
+        doReturn(value).when(this.bundleContext).getProperty(key);
+    }
+
+    private void initialize() {
+        this.testee.setBundleContext(this.bundleContext);
+        this.testee.afterPropertiesSet();
+    }
+
+    private void executeBlockingTask() throws InterruptedException {
+        this.testee.execute(() -> {
+            this.blockingTaskStarted.countDown();
+            try {
+                this.blocker.await(10, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        this.blockingTaskStarted.await(10, SECONDS);
+    }
+
+    private void executeRecordingTask() {
+        this.testee.execute(() -> this.executingThread.set(Thread.currentThread()));
+    }
+
+    private void shutdown() {
+        this.testee.shutdown();
+    }
+}
@@ -35,13 +35,16 @@ import org.springframework.context.event.ContextClosedEvent;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerAdapter;
+import org.springframework.web.servlet.HandlerExecutionChain;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.ViewResolver;
 import org.springframework.web.servlet.handler.BeanNameUrlHandlerMapping;
 import org.springframework.web.servlet.mvc.HttpRequestHandlerAdapter;
 import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
 import org.springframework.web.servlet.mvc.method.annotation.ExceptionHandlerExceptionResolver;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
@@ -56,6 +59,7 @@ import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -67,6 +71,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -88,12 +93,15 @@ public class BundleSpecificDispatcherServletTest {
     @Mock
     private ServletResolver servletResolver;
     @Mock
+    private ScriptViewCache scriptViewCache;
+    @Mock
     private SlingMvcServletRequest request;
     @Mock
     private SlingHttpServletResponse response;
 
     private List<HandlerMethodArgumentResolver> registeredArgumentResolvers = new ArrayList<>();
     private HandlerMapping handlerMapping;
+    private Map<String, Object> requestAttributes = new HashMap<>();
 
     private BundleSpecificDispatcherServlet testee;
 
@@ -122,7 +130,7 @@ public class BundleSpecificDispatcherServletTest {
         };
         doAnswer(createMock).when(this.factory).createBean(isA(Class.class));
 
-        this.testee = new BundleSpecificDispatcherServlet(this.servletConfig, this.servletResolver, this.factory);
+        this.testee = new BundleSpecificDispatcherServlet(this.servletConfig, this.servletResolver, this.scriptViewCache, this.factory);
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -132,17 +140,22 @@ public class BundleSpecificDispatcherServletTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullFactoryInConstructor() {
-        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), this.servletResolver, null);
+        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), this.servletResolver, this.scriptViewCache, null);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullServletConfigInConstructor() {
-        new BundleSpecificDispatcherServlet(null, this.servletResolver, mock(ConfigurableListableBeanFactory.class));
+        new BundleSpecificDispatcherServlet(null, this.servletResolver, this.scriptViewCache, mock(ConfigurableListableBeanFactory.class));
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void testHandlingOfNullServletResolverInConstructor() {
-        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), null, mock(ConfigurableListableBeanFactory.class));
+        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), null, this.scriptViewCache, mock(ConfigurableListableBeanFactory.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHandlingOfNullScriptViewCacheInConstructor() {
+        new BundleSpecificDispatcherServlet(mock(ServletConfig.class), this.servletResolver, null, mock(ConfigurableListableBeanFactory.class));
     }
 
     @Test
@@ -347,6 +360,81 @@ public class BundleSpecificDispatcherServletTest {
         verifyHandlerMappingIsUsedForRequest();
     }
 
+    @Test
+    public void testHandlerResolvedForRequestIsUsedWhenServicingTheRequest() throws Exception {
+        withRequestAttributes();
+        withExistingHandlerMapping();
+        signalContextRefreshed();
+
+        assertServletHasHandlerForRequest();
+        HandlerExecutionChain handler = this.testee.getHandler(this.request);
+
+        assertThat(handler).isNotNull();
+        verify(this.handlerMapping, times(1)).getHandler(eq(this.request));
+        assertThat(this.requestAttributes).isEmpty();
+    }
+
+    @Test
+    public void testHandlerIsResolvedWhenServicingTheRequestWithoutPriorHandlerLookup() throws Exception {
+        withRequestAttributes();
+        withExistingHandlerMapping();
+        signalContextRefreshed();
+
+        this.testee.getHandler(this.request);
+
+        verifyHandlerMappingIsUsedForRequest();
+    }
+
+    @Test
+    public void testPathPrefixesAreEmptyWhenServletIsNotInitialized() {
+        assertThat(this.testee.getPathPrefixes()).isEmpty();
+    }
+
+    @Test
+    public void testPathPrefixesOfRequestMappings() {
+        withRequestMappings("/a/b/{c}", "/d/**", "/e/f", "/g/", "/h*", "i");
+        signalContextRefreshed();
+
+        assertThat(this.testee.getPathPrefixes()).containsOnly("/a/b", "/d", "/e/f", "/g", "", "/i");
+    }
+
+    @Test
+    public void testServletMayHandleAnyPathWithUnknownHandlerMappings() {
+        withExistingHandlerMapping();
+        signalContextRefreshed();
+
+        assertThat(this.testee.getPathPrefixes()).containsOnly("");
+    }
+
+    @Test
+    public void testRefreshListenerIsInvokedWhenContextIsRefreshed() {
+        Runnable listener = mock(Runnable.class);
+        this.testee.setRefreshListener(listener);
+
+        signalContextRefreshed();
+
+        verify(listener).run();
+    }
+
+    private void withRequestMappings(String... patterns) {
+        RequestMappingHandlerMapping mapping = mockExistingBean(RequestMappingHandlerMapping.class);
+        doReturn(null).when(mapping).getDefaultHandler();
+        Map<RequestMappingInfo, HandlerMethod> handlerMethods = new HashMap<>();
+        for (String pattern : patterns) {
+            handlerMethods.put(RequestMappingInfo.paths(pattern).build(), mock(HandlerMethod.class));
+        }
+        doReturn(handlerMethods).when(mapping).getHandlerMethods();
+    }
+
+    private void withRequestAttributes() {
+        doAnswer(invocation -> this.requestAttributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(this.request).setAttribute(anyString(), any());
+        doAnswer(invocation -> this.requestAttributes.get(invocation.<String>getArgument(0)))
+                .when(this.request).getAttribute(anyString());
+        doAnswer(invocation -> this.requestAttributes.remove(invocation.<String>getArgument(0)))
+                .when(this.request).removeAttribute(anyString());
+    }
+
     private void verifyBeanIsFetchedFromApplicationContext(String beanName) {
         verify(this.applicationContext).getBean(beanName);
     }
@@ -18,10 +18,12 @@ package io.neba.spring.mvc;
 
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.request.RequestPathInfo;
 import org.apache.sling.api.servlets.ServletResolver;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
@@ -33,14 +35,19 @@ import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import java.io.IOException;
+import java.util.HashSet;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.singleton;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
@@ -62,11 +69,16 @@ public class MvcServletTest {
     @Mock
     private SlingHttpServletResponse response;
     @Mock
+    private RequestPathInfo requestPathInfo;
+    @Mock
     @SuppressWarnings("unused") // injected into testee
     private ServletConfig servletConfig;
     @Mock
     @SuppressWarnings("unused") // injected into testee
     private ServletResolver servletResolver;
+    @Mock
+    @SuppressWarnings("unused") // injected into testee
+    private ScriptViewCache scriptViewCache;
 
     private BundleSpecificDispatcherServlet injectedDispatcherServlet;
 
@@ -94,6 +106,13 @@ public class MvcServletTest {
                 .createBundleSpecificDispatcherServlet(eq(this.factory), isA(ServletConfig.class));
 
         doReturn("GET").when(request).getMethod();
+
+        lenient().doReturn("").when(this.request).getContextPath();
+        lenient().doReturn(this.requestPathInfo).when(this.request).getRequestPathInfo();
+        lenient().doReturn("/bin/mvc").when(this.requestPathInfo).getResourcePath();
+        lenient().doReturn("do").when(this.requestPathInfo).getExtension();
+        lenient().doReturn("/echo").when(this.requestPathInfo).getSuffix();
+        lenient().doReturn(singleton("")).when(this.dispatcherServlet).getPathPrefixes();
     }
 
     @Test(expected = IllegalArgumentException.class)
@@ -163,6 +182,40 @@ public class MvcServletTest {
         verifyMvcContextServicedRequestOnce();
     }
 
+    @Test
+    public void testOnlyCandidatesOfRoutingIndexAreAskedForAHandler() throws Exception {
+        enableMvc();
+        withMvcContextPathPrefixes("/other");
+
+        serviceRequest();
+
+        verify(this.dispatcherServlet, never()).hasHandlerFor(any());
+    }
+
+    @Test
+    public void testRoutingIndexIsRecreatedWhenDispatcherServletIsRefreshed() throws Exception {
+        enableMvc();
+        withMvcContextPathPrefixes("/other");
+        serviceRequest();
+
+        withMvcContextPathPrefixes("/echo");
+        withMvcContextResponsible();
+        signalDispatcherServletRefreshed();
+        serviceRequest();
+
+        verifyMvcContextServicedRequestOnce();
+    }
+
+    private void signalDispatcherServletRefreshed() {
+        ArgumentCaptor<Runnable> listener = ArgumentCaptor.forClass(Runnable.class);
+        verify(this.dispatcherServlet).setRefreshListener(listener.capture());
+        listener.getValue().run();
+    }
+
+    private void withMvcContextPathPrefixes(String... prefixes) {
+        doReturn(new HashSet<>(asList(prefixes))).when(this.dispatcherServlet).getPathPrefixes();
+    }
+
     private void withPatchRequest() {
         doReturn("PATCH").when(this.request).getMethod();
     }
@@ -24,7 +24,6 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -47,6 +46,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.web.context.request.RequestContextHolder.resetRequestAttributes;
 import static org.springframework.web.context.request.RequestContextHolder.setRequestAttributes;
@@ -69,11 +69,12 @@ public class NebaViewResolverTest {
 
     private View resolvedView;
 
-    @InjectMocks
     private NebaViewResolver testee;
 
     @Before
     public void setUp() {
+        this.testee = new NebaViewResolver(this.servletResolver, new ScriptViewCache());
+
         doReturn("")
                 .when(this.request)
                 .getContextPath();
@@ -96,7 +97,33 @@ public class NebaViewResolverTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void testConstructorRequiresNonNullServletResolver() {
-        new NebaViewResolver(null);
+        new NebaViewResolver(null, new ScriptViewCache());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorRequiresNonNullScriptViewCache() {
+        new NebaViewResolver(this.servletResolver, null);
+    }
+
+    @Test
+    public void testResolvedScriptViewIsCached() {
+        withDefaultScriptForType("app/components/myComponent");
+
+        resolve("app/components/myComponent");
+        View firstView = this.resolvedView;
+        resolve("app/components/myComponent");
+
+        assertThat(this.resolvedView).isSameAs(firstView);
+        verify(this.servletResolver, times(1)).resolveServlet(this.resourceResolver, "app/components/myComponent/myComponent");
+    }
+
+    @Test
+    public void testUnresolvableScriptViewIsCached() {
+        resolve("nonexistent/view");
+        resolve("nonexistent/view");
+
+        assertViewIsNull();
+        verify(this.servletResolver, times(1)).resolveServlet(this.resourceResolver, "nonexistent/view/view");
     }
 
     @Test(expected = IllegalArgumentException.class)
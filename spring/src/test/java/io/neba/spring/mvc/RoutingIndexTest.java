@@ -0,0 +1,151 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.spring.mvc;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.HashSet;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RoutingIndexTest {
+    @Mock
+    private BundleSpecificDispatcherServlet servlet1;
+    @Mock
+    private BundleSpecificDispatcherServlet servlet2;
+
+    private MockHttpServletRequest request;
+    private List<BundleSpecificDispatcherServlet> candidates;
+
+    private RoutingIndex testee;
+
+    @Before
+    public void setUp() {
+        this.request = new MockHttpServletRequest("GET", "/bin/mvc.do/echo/test");
+        this.request.setServletPath("/bin/mvc.do");
+        this.request.setPathInfo("/echo/test");
+    }
+
+    @Test
+    public void testServletsWithMatchingPrefixAreCandidates() {
+        withPathPrefixes(this.servlet1, "/echo");
+        withPathPrefixes(this.servlet2, "/other");
+        createIndex();
+
+        getCandidates();
+
+        assertCandidatesAre(this.servlet1);
+    }
+
+    @Test
+    public void testServletsWithoutPathPrefixesAreNoCandidates() {
+        withPathPrefixes(this.servlet1);
+        withPathPrefixes(this.servlet2, "/echo/test/more");
+        createIndex();
+
+        getCandidates();
+
+        assertCandidatesAre();
+    }
+
+    @Test
+    public void testEmptyPrefixMatchesAnyPath() {
+        withPathPrefixes(this.servlet1, "/other");
+        withPathPrefixes(this.servlet2, "");
+        createIndex();
+
+        getCandidates();
+
+        assertCandidatesAre(this.servlet2);
+    }
+
+    @Test
+    public void testCandidatesAreProvidedInOrderOfServlets() {
+        withPathPrefixes(this.servlet1, "/echo/test");
+        withPathPrefixes(this.servlet2, "/echo");
+        createIndex();
+
+        getCandidates();
+
+        assertCandidatesAre(this.servlet1, this.servlet2);
+    }
+
+    @Test
+    public void testPrefixesAreMatchedIgnoringCase() {
+        withPathPrefixes(this.servlet1, "/ECHO");
+        withPathPrefixes(this.servlet2, "/other");
+        createIndex();
+
+        getCandidates();
+
+        assertCandidatesAre(this.servlet1);
+    }
+
+    @Test
+    public void testPrefixesAreMatchedWithPathWithinApplication() {
+        withPathPrefixes(this.servlet1, "/bin/mvc.do/echo");
+        withPathPrefixes(this.servlet2, "/other");
+        createIndex();
+
+        getCandidates();
+
+        assertCandidatesAre(this.servlet1);
+    }
+
+    @Test
+    public void testPrefixesAreMatchedWithDecodedAndRawPath() {
+        withRequestPath("/bin/mvc.do", "/a%20b/c");
+        withPathPrefixes(this.servlet1, "/a b");
+        withPathPrefixes(this.servlet2, "/a%20b");
+        createIndex();
+
+        getCandidates();
+
+        assertCandidatesAre(this.servlet1, this.servlet2);
+    }
+
+    private void withRequestPath(String servletPath, String pathInfo) {
+        this.request.setRequestURI(servletPath + pathInfo);
+        this.request.setServletPath(servletPath);
+        this.request.setPathInfo(pathInfo);
+    }
+
+    private void withPathPrefixes(BundleSpecificDispatcherServlet servlet, String... prefixes) {
+        doReturn(new HashSet<>(asList(prefixes))).when(servlet).getPathPrefixes();
+    }
+
+    private void createIndex() {
+        this.testee = new RoutingIndex(asList(this.servlet1, this.servlet2));
+    }
+
+    private void getCandidates() {
+        this.candidates = this.testee.getCandidates(this.request);
+    }
+
+    private void assertCandidatesAre(BundleSpecificDispatcherServlet... servlets) {
+        assertThat(this.candidates).containsExactly(servlets);
+    }
+}
@@ -0,0 +1,150 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.spring.mvc;
+
+import org.apache.sling.api.resource.ResourceResolver;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.osgi.service.event.Event;
+
+import javax.servlet.Servlet;
+import java.util.HashMap;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ScriptViewCacheTest {
+    @Mock
+    private ResourceResolver resolver;
+    @Mock
+    private Supplier<SlingServletView> viewResolution;
+
+    private SlingServletView view;
+    private SlingServletView cachedView;
+
+    private ScriptViewCache testee;
+
+    @Before
+    public void setUp() {
+        this.view = new SlingServletView("some/type", mock(Servlet.class));
+        withSearchPath("/apps/", "/libs/");
+        this.testee = new ScriptViewCache();
+    }
+
+    @Test
+    public void testViewIsResolvedOnlyOnce() {
+        withResolvableView();
+
+        getView("some/type");
+        getView("some/type");
+
+        assertCachedViewIsResolvedView();
+        verifyViewIsResolved(1);
+    }
+
+    @Test
+    public void testMissingViewIsCached() {
+        getView("some/type");
+        getView("some/type");
+
+        assertCachedViewIsNull();
+        verifyViewIsResolved(1);
+    }
+
+    @Test
+    public void testViewsAreCachedPerSearchPath() {
+        withResolvableView();
+
+        getView("some/type");
+        withSearchPath("/custom/");
+        getView("some/type");
+
+        verifyViewIsResolved(2);
+    }
+
+    @Test
+    public void testViewsAreCachedPerViewName() {
+        withResolvableView();
+
+        getView("some/type");
+        getView("other/type");
+
+        verifyViewIsResolved(2);
+    }
+
+    @Test
+    public void testCacheIsClearedUponEvent() {
+        withResolvableView();
+
+        getView("some/type");
+        signalChange();
+        getView("some/type");
+
+        verifyViewIsResolved(2);
+    }
+
+    @Test
+    public void testViewResolvedDuringInvalidationIsNotCached() {
+        doReturn(this.view).when(this.viewResolution).get();
+        Supplier<SlingServletView> invalidatingResolution = () -> {
+            signalChange();
+            return this.viewResolution.get();
+        };
+
+        this.cachedView = this.testee.get("some/type", this.resolver, invalidatingResolution);
+        getView("some/type");
+
+        assertCachedViewIsResolvedView();
+        verifyViewIsResolved(2);
+    }
+
+    private void withSearchPath(String... searchPath) {
+        doReturn(searchPath).when(this.resolver).getSearchPath();
+    }
+
+    private void withResolvableView() {
+        doReturn(this.view).when(this.viewResolution).get();
+    }
+
+    private void signalChange() {
+        this.testee.handleEvent(new Event("org/apache/sling/api/resource/Resource/CHANGED", new HashMap<String, Object>()));
+    }
+
+    private void getView(String viewName) {
+        this.cachedView = this.testee.get(viewName, this.resolver, this.viewResolution);
+    }
+
+    private void verifyViewIsResolved(int times) {
+        verify(this.viewResolution, times(times)).get();
+    }
+
+    private void assertCachedViewIsResolvedView() {
+        assertThat(this.cachedView).isSameAs(this.view);
+    }
+
+    private void assertCachedViewIsNull() {
+        assertThat(this.cachedView).isNull();
+    }
+}
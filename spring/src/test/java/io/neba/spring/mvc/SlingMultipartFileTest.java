@@ -27,12 +27,23 @@ import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 
 import static org.hamcrest.CoreMatchers.is;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.WRITE;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -44,9 +55,12 @@ public class SlingMultipartFileTest {
     private RequestParameter requestParameter;
     
     private String paramName = "test";
-    private ByteArrayInputStream inputStream;
+    private InputStream inputStream;
     private File destinationFile;
+    private File spooledFile;
     private String multipartContent;
+    private ByteArrayOutputStream outputStream;
+    private long transferredBytes;
 
     private SlingMultipartFile testee;
 
@@ -56,8 +70,12 @@ public class SlingMultipartFileTest {
     }
 
     @After
-    public void removeTempFile() {
+    public void removeTempFile() throws IOException {
+        if (this.inputStream != null) {
+            this.inputStream.close();
+        }
         FileUtils.deleteQuietly(this.destinationFile);
+        FileUtils.deleteQuietly(this.spooledFile);
     }
     
     @Test
@@ -77,6 +95,143 @@ public class SlingMultipartFileTest {
         assertDestinationFileContentIsMultiPartContent();
     }
 
+    @Test
+    public void testTransferToPath() throws Exception {
+        withMultipartFileContents("Junit Test");
+        withDestinationFile(File.createTempFile("junt-test", ".tmp"));
+        transferMultipartFileToDestinationPath();
+        assertDestinationFileContentIsMultiPartContent();
+    }
+
+    @Test
+    public void testTransferOfSpooledFileToFile() throws Exception {
+        withSpooledMultipartFileContents("Junit Test");
+        withDestinationFile(File.createTempFile("junt-test", ".tmp"));
+        transferMultipartFileToDestinationFile();
+        assertDestinationFileContentIsMultiPartContent();
+        verifyContentsAreNotLoadedIntoMemory();
+    }
+
+    @Test
+    public void testStreamingToOutputStream() throws Exception {
+        withMultipartFileContents("Junit Test");
+        transferMultipartFileToOutputStream();
+        assertOutputStreamContentIsMultiPartContent();
+        assertTransferredBytesAre(10);
+        verifyContentsAreNotLoadedIntoMemory();
+    }
+
+    @Test
+    public void testStreamingOfSpooledFileToChannel() throws Exception {
+        withSpooledMultipartFileContents("Junit Test");
+        transferMultipartFileToChannel();
+        assertOutputStreamContentIsMultiPartContent();
+        assertTransferredBytesAre(10);
+        verifyContentsAreNotLoadedIntoMemory();
+    }
+
+    @Test
+    public void testStreamingOfPartsLargerThanTheBuffer() throws Exception {
+        withMultipartFileContents(new String(new char[20000]).replace('\0', 'x'));
+        transferMultipartFileToChannel();
+        assertOutputStreamContentIsMultiPartContent();
+        assertTransferredBytesAre(20000);
+    }
+
+    @Test(timeout = 10000)
+    public void testStreamingOfSpooledFileStopsIfTargetAcceptsNoBytes() throws Exception {
+        withSpooledMultipartFileContents("Junit Test");
+        transferMultipartFileToChannelAccepting(0);
+        assertTransferredBytesAre(0);
+    }
+
+    @Test(timeout = 10000)
+    public void testStreamingOfSpooledFileStopsIfFileIsTruncated() throws Exception {
+        withSpooledMultipartFileContents("Junit Test");
+        transferMultipartFileToChannelTruncatingSpooledFileAfter(4);
+        assertTransferredBytesAre(4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testStreamingToNullStreamIsNotAllowed() throws Exception {
+        this.testee.transferTo((ByteArrayOutputStream) null);
+    }
+
+    private void verifyContentsAreNotLoadedIntoMemory() {
+        verify(this.requestParameter, never()).get();
+    }
+
+    private void assertTransferredBytesAre(long bytes) {
+        assertThat(this.transferredBytes, is(bytes));
+    }
+
+    private void assertOutputStreamContentIsMultiPartContent() {
+        assertThat(new String(this.outputStream.toByteArray(), UTF_8), is(this.multipartContent));
+    }
+
+    private void transferMultipartFileToOutputStream() throws IOException {
+        this.outputStream = new ByteArrayOutputStream();
+        this.transferredBytes = this.testee.transferTo(this.outputStream);
+    }
+
+    private void transferMultipartFileToChannel() throws IOException {
+        this.outputStream = new ByteArrayOutputStream();
+        this.transferredBytes = this.testee.transferTo(Channels.newChannel(this.outputStream));
+    }
+
+    /**
+     * Transfers to a channel accepting at most the given number of bytes per write, like a non-blocking channel.
+     */
+    private void transferMultipartFileToChannelAccepting(int bytesPerWrite) throws IOException {
+        this.transferredBytes = this.testee.transferTo(new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) {
+                int accepted = Math.min(bytesPerWrite, src.remaining());
+                src.position(src.position() + accepted);
+                return accepted;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    /**
+     * Transfers to a channel accepting the given number of bytes and truncating the spooled file upon the first write.
+     */
+    private void transferMultipartFileToChannelTruncatingSpooledFileAfter(int bytes) throws IOException {
+        this.transferredBytes = this.testee.transferTo(new WritableByteChannel() {
+            @Override
+            public int write(ByteBuffer src) throws IOException {
+                try (FileChannel channel = FileChannel.open(spooledFile.toPath(), WRITE)) {
+                    channel.truncate(bytes);
+                }
+                int accepted = Math.min(bytes, src.remaining());
+                src.position(src.position() + accepted);
+                return accepted;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    private void transferMultipartFileToDestinationPath() throws IOException {
+        this.testee.transferTo(this.destinationFile.toPath());
+    }
+
     private void createDestinationFile() throws IOException {
         this.destinationFile.createNewFile();
     }
@@ -99,4 +254,12 @@ public class SlingMultipartFileTest {
         this.inputStream = new ByteArrayInputStream(string.getBytes());
         when(this.requestParameter.getInputStream()).thenReturn(this.inputStream);
     }
+
+    private void withSpooledMultipartFileContents(final String string) throws IOException {
+        this.multipartContent = string;
+        this.spooledFile = File.createTempFile("junit-spooled", ".tmp");
+        FileUtils.writeStringToFile(this.spooledFile, string, UTF_8);
+        this.inputStream = new FileInputStream(this.spooledFile);
+        when(this.requestParameter.getInputStream()).thenReturn(this.inputStream);
+    }
 }
@@ -0,0 +1,259 @@
+/*
+  Copyright 2013 the original author or authors.
+
+  Licensed under the Apache License, Version 2.0 the "License";
+  you may not use this file except in compliance with the License.
+  You may obtain a copy of the License at
+
+  http://www.apache.org/licenses/LICENSE-2.0
+
+  Unless required by applicable law or agreed to in writing, software
+  distributed under the License is distributed on an "AS IS" BASIS,
+  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+  See the License for the specific language governing permissions and
+  limitations under the License.
+*/
+
+package io.neba.spring.resourcemodels.registration;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.BeanNotOfRequiredTypeException;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.context.annotation.CommonAnnotationBeanPostProcessor;
+
+import javax.annotation.PostConstruct;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.beans.factory.config.BeanDefinition.SCOPE_PROTOTYPE;
+import static org.springframework.beans.factory.config.BeanDefinition.SCOPE_SINGLETON;
+
+public class PrototypeModelInstantiatorTest {
+    private static final String BEAN_NAME = "model";
+
+    public static class Dependency {
+    }
+
+    public static class Model implements BeanNameAware, BeanFactoryAware, InitializingBean {
+        @Autowired
+        private Dependency dependency;
+        private String beanName;
+        private BeanFactory beanFactory;
+        private boolean postConstructInvoked;
+        private boolean afterPropertiesSetInvoked;
+
+        @PostConstruct
+        public void postConstruct() {
+            this.postConstructInvoked = true;
+        }
+
+        @Override
+        public void afterPropertiesSet() {
+            this.afterPropertiesSetInvoked = true;
+        }
+
+        @Override
+        public void setBeanName(String name) {
+            this.beanName = name;
+        }
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            this.beanFactory = beanFactory;
+        }
+    }
+
+    public static class ModelWithConstructorInjection {
+        @Autowired
+        public ModelWithConstructorInjection(Dependency dependency) {
+        }
+    }
+
+    private DefaultListableBeanFactory factory;
+    private PrototypeModelInstantiator instantiator;
+    private Object instance;
+
+    @Before
+    public void setUp() {
+        this.factory = new DefaultListableBeanFactory();
+        this.factory.registerSingleton("dependency", new Dependency());
+        AutowiredAnnotationBeanPostProcessor autowiredAnnotationBeanPostProcessor = new AutowiredAnnotationBeanPostProcessor();
+        autowiredAnnotationBeanPostProcessor.setBeanFactory(this.factory);
+        CommonAnnotationBeanPostProcessor commonAnnotationBeanPostProcessor = new CommonAnnotationBeanPostProcessor();
+        commonAnnotationBeanPostProcessor.setBeanFactory(this.factory);
+        withPostProcessor(autowiredAnnotationBeanPostProcessor);
+        withPostProcessor(commonAnnotationBeanPostProcessor);
+    }
+
+    @Test
+    public void testPrototypeModelIsCreatedLikeByTheBeanFactory() {
+        withModelBean(Model.class, SCOPE_PROTOTYPE);
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+        instantiate();
+
+        assertThat(this.instance).isInstanceOf(Model.class);
+        Model model = (Model) this.instance;
+        assertThat(model.dependency).isSameAs(this.factory.getBean(Dependency.class));
+        assertThat(model.beanName).isEqualTo(BEAN_NAME);
+        assertThat(model.beanFactory).isSameAs(this.factory);
+        assertThat(model.postConstructInvoked).isTrue();
+        assertThat(model.afterPropertiesSetInvoked).isTrue();
+    }
+
+    @Test
+    public void testEachInstantiationCreatesANewInstance() {
+        withModelBean(Model.class, SCOPE_PROTOTYPE);
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+
+        assertThat(this.instantiator.instantiate()).isNotSameAs(this.instantiator.instantiate());
+    }
+
+    @Test
+    public void testNoInstantiatorIsProvidedBeforeTheConfigurationIsFrozen() {
+        withModelBean(Model.class, SCOPE_PROTOTYPE);
+
+        createInstantiator(Model.class);
+
+        assertNoInstantiatorIsProvided();
+    }
+
+    @Test
+    public void testNoInstantiatorIsProvidedForSingletons() {
+        withModelBean(Model.class, SCOPE_SINGLETON);
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+
+        assertNoInstantiatorIsProvided();
+    }
+
+    @Test
+    public void testNoInstantiatorIsProvidedForBeansWithPropertyValues() {
+        GenericBeanDefinition definition = withModelBean(Model.class, SCOPE_PROTOTYPE);
+        definition.getPropertyValues().add("beanName", "value");
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+
+        assertNoInstantiatorIsProvided();
+    }
+
+    @Test
+    public void testNoInstantiatorIsProvidedForBeansWithInitMethod() {
+        GenericBeanDefinition definition = withModelBean(Model.class, SCOPE_PROTOTYPE);
+        definition.setInitMethodName("postConstruct");
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+
+        assertNoInstantiatorIsProvided();
+    }
+
+    @Test
+    public void testNoInstantiatorIsProvidedForConstructorInjection() {
+        withModelBean(ModelWithConstructorInjection.class, SCOPE_PROTOTYPE);
+        withFrozenConfiguration();
+
+        createInstantiator(ModelWithConstructorInjection.class);
+
+        assertNoInstantiatorIsProvided();
+    }
+
+    @Test
+    public void testNoInstantiatorIsProvidedForUnknownInstantiationAwarePostProcessors() {
+        withPostProcessor(new InstantiationAwareBeanPostProcessor() {
+        });
+        withModelBean(Model.class, SCOPE_PROTOTYPE);
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+
+        assertNoInstantiatorIsProvided();
+    }
+
+    @Test
+    public void testNoInstantiatorIsProvidedForUnknownBeans() {
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+
+        assertNoInstantiatorIsProvided();
+    }
+
+    @Test
+    public void testPostProcessorsMayReplaceTheBean() {
+        Model replacement = new Model();
+        withPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return replacement;
+            }
+        });
+        withModelBean(Model.class, SCOPE_PROTOTYPE);
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+        instantiate();
+
+        assertThat(this.instance).isSameAs(replacement);
+    }
+
+    @Test
+    public void testBeanMustBeOfRequiredTypeAfterPostProcessing() {
+        withPostProcessor(new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return new Object();
+            }
+        });
+        withModelBean(Model.class, SCOPE_PROTOTYPE);
+        withFrozenConfiguration();
+
+        createInstantiator(Model.class);
+
+        assertThatThrownBy(this.instantiator::instantiate).isInstanceOf(BeanNotOfRequiredTypeException.class);
+    }
+
+    private void withPostProcessor(BeanPostProcessor postProcessor) {
+        this.factory.addBeanPostProcessor(postProcessor);
+    }
+
+    private GenericBeanDefinition withModelBean(Class<?> type, String scope) {
+        GenericBeanDefinition definition = new GenericBeanDefinition();
+        definition.setBeanClass(type);
+        definition.setScope(scope);
+        this.factory.registerBeanDefinition(BEAN_NAME, definition);
+        return definition;
+    }
+
+    private void withFrozenConfiguration() {
+        this.factory.freezeConfiguration();
+    }
+
+    private void createInstantiator(Class<?> requiredType) {
+        this.instantiator = PrototypeModelInstantiator.forBean(this.factory, BEAN_NAME, requiredType);
+    }
+
+    private void instantiate() {
+        assertThat(this.instantiator).isNotNull();
+        this.instance = this.instantiator.instantiate();
+    }
+
+    private void assertNoInstantiatorIsProvided() {
+        assertThat(this.instantiator).isNull();
+    }
+}
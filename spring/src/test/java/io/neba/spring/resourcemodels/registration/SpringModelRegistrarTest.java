@@ -19,7 +19,9 @@ package io.neba.spring.resourcemodels.registration;
 import io.neba.api.annotations.ResourceModel;
 import io.neba.api.spi.ResourceModelFactory;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
@@ -27,35 +29,56 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.osgi.framework.Bundle;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceRegistration;
+import org.springframework.beans.factory.CannotLoadBeanClassException;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.IncompleteAnnotationException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isA;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.beans.factory.config.BeanDefinition.ROLE_INFRASTRUCTURE;
 
 /**
  * @author Olaf Otto
  */
 @RunWith(MockitoJUnitRunner.class)
 public class SpringModelRegistrarTest {
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
     private ConfigurableListableBeanFactory factory;
     @Mock
     private Bundle bundle;
     @Mock
     private BundleContext context;
     private Set<String> beanNamesInApplicationContext = new HashSet<>();
+    private Map<String, GenericBeanDefinition> beanDefinitions = new HashMap<>();
     private ResourceModelFactory publishedService;
     private ServiceRegistration serviceRegistration;
 
@@ -143,12 +166,127 @@ public class SpringModelRegistrarTest {
         assertModelIsPublishedWithName("bean2");
     }
 
+    @Test
+    public void testFailureToResolveModelTypeIsSignaled() {
+        withBeanFactory();
+        withResourceModelsInApplicationContext("bean1", "bean2");
+        withResolvableModelType();
+        withFailingTypeResolutionOfBean("bean1");
+
+        assertThatThrownBy(this::registerResourceModels)
+                .isInstanceOf(IllegalStateException.class)
+                .hasCauseInstanceOf(CannotLoadBeanClassException.class);
+    }
+
+    @Test
+    public void testInfrastructureBeansAreSkipped() {
+        withBeanFactory();
+        withResourceModelsInApplicationContext("bean1", "bean2");
+        withResolvableModelType();
+        withInfrastructureBean("bean1");
+        registerResourceModels();
+
+        assertModelIsPublishedWithName("bean2");
+        verifyTypeOfBeanIsNotResolved("bean1");
+    }
+
+    @Test
+    public void testAbstractBeansAreSkipped() {
+        withBeanFactory();
+        withResourceModelsInApplicationContext("bean1", "bean2");
+        withResolvableModelType();
+        withAbstractBean("bean2");
+        registerResourceModels();
+
+        assertModelIsPublishedWithName("bean1");
+        verifyTypeOfBeanIsNotResolved("bean2");
+    }
+
+    @Test
+    public void testModelsInParentFactoryAreDiscovered() {
+        withBeanFactory();
+        withResourceModelsInApplicationContext("bean1");
+        withParentFactoryContainingResourceModels("bean1", "bean2");
+        withResolvableModelType();
+        registerResourceModels();
+
+        assertAllModelsArePublishedViaModelFactory();
+    }
+
+    @Test
+    public void testComponentsIndexRestrictsCandidates() throws IOException {
+        withBeanFactory();
+        withResourceModelsInApplicationContext("bean1", "bean2");
+        withBeanClass("bean1", ModelBean.class.getName());
+        withBeanClass("bean2", "com.acme.NotAModel");
+        withComponentsIndex(ModelBean.class.getName() + "=" + ResourceModel.class.getName());
+        withResolvableModelType();
+        registerResourceModels();
+
+        assertModelIsPublishedWithName("bean1");
+        verifyTypeOfBeanIsNotResolved("bean2");
+    }
+
+    @Test
+    public void testComponentsIndexWithoutResourceModelsDoesNotRestrictCandidates() throws IOException {
+        withBeanFactory();
+        withResourceModelsInApplicationContext("bean1", "bean2");
+        withBeanClass("bean1", ModelBean.class.getName());
+        withBeanClass("bean2", "com.acme.OtherModel");
+        withComponentsIndex("com.acme.SomeComponent=org.springframework.stereotype.Component");
+        withResolvableModelType();
+        registerResourceModels();
+
+        assertAllModelsArePublishedViaModelFactory();
+    }
+
+    private void verifyTypeOfBeanIsNotResolved(String beanName) {
+        verify(this.factory, never()).getType(eq(beanName), anyBoolean());
+        verify(this.factory, never()).getType(beanName);
+    }
+
+    private void withInfrastructureBean(String beanName) {
+        this.beanDefinitions.get(beanName).setRole(ROLE_INFRASTRUCTURE);
+        this.beanNamesInApplicationContext.remove(beanName);
+    }
+
+    private void withAbstractBean(String beanName) {
+        this.beanDefinitions.get(beanName).setAbstract(true);
+        this.beanNamesInApplicationContext.remove(beanName);
+    }
+
+    private void withBeanClass(String beanName, String className) {
+        this.beanDefinitions.get(beanName).setBeanClassName(className);
+    }
+
+    private void withComponentsIndex(String... entries) throws IOException {
+        File metaInf = this.temporaryFolder.newFolder("META-INF");
+        Files.write(new File(metaInf, "spring.components").toPath(), asList(entries), UTF_8);
+        ClassLoader classLoader = new URLClassLoader(new URL[]{this.temporaryFolder.getRoot().toURI().toURL()}, null);
+        when(this.factory.getBeanClassLoader()).thenReturn(classLoader);
+    }
+
+    private void withParentFactoryContainingResourceModels(String... beanNames) {
+        ConfigurableListableBeanFactory parent = mock(ConfigurableListableBeanFactory.class);
+        when(parent.getBeanDefinitionNames()).thenReturn(beanNames);
+        for (String name : beanNames) {
+            lenient().when(parent.getMergedBeanDefinition(name)).thenReturn(new GenericBeanDefinition());
+            mockResourceModelWithBeanName(name);
+        }
+        when(this.factory.getParentBeanFactory()).thenReturn(parent);
+    }
+
     private void withUnknownTypeOfBean(String name) {
-        doReturn(null).when(this.factory).getType(name);
+        doReturn(null).when(this.factory).getType(name, false);
+    }
+
+    private void withFailingTypeResolutionOfBean(String name) {
+        doThrow(new CannotLoadBeanClassException("THIS IS AN EXPECTED TEST EXCEPTION", name, "com.acme.Model", new ClassNotFoundException()))
+                .when(this.factory).getType(name, false);
     }
 
     private void withResolvableModelType() {
-        doReturn(ModelBean.class).when(this.factory).getType(any());
+        doReturn(ModelBean.class).when(this.factory).getType(any(), eq(false));
     }
 
     private void withIncompleteResourceModelAnnotation() {
@@ -185,12 +323,19 @@ public class SpringModelRegistrarTest {
     }
 
     private void withResourceModelsInApplicationContext(String... beanNames) {
-        when(this.factory.getBeanNamesForType(eq(Object.class))).thenReturn(beanNames);
+        when(this.factory.getBeanDefinitionNames()).thenReturn(beanNames);
         for (String name : beanNames) {
+            withBeanDefinition(name);
             mockResourceModelWithBeanName(name);
         }
     }
 
+    private void withBeanDefinition(String name) {
+        GenericBeanDefinition definition = new GenericBeanDefinition();
+        this.beanDefinitions.put(name, definition);
+        when(this.factory.getMergedBeanDefinition(name)).thenReturn(definition);
+    }
+
     private void mockResourceModelWithBeanName(String name) {
         ResourceModel type = mock(ResourceModel.class);
         when(type.name()).thenReturn("");
@@ -199,7 +344,8 @@ public class SpringModelRegistrarTest {
     }
 
     private void withResourceModelWithBeanNameAndUserDefinedName(String beanName, String userDefinedName) {
-        when(this.factory.getBeanNamesForType(eq(Object.class))).thenReturn(new String[]{beanName});
+        when(this.factory.getBeanDefinitionNames()).thenReturn(new String[]{beanName});
+        withBeanDefinition(beanName);
         ResourceModel type = mock(ResourceModel.class);
         when(this.factory.findAnnotationOnBean(eq(beanName), eq(ResourceModel.class))).thenReturn(type);
         when(type.name()).thenReturn(userDefinedName);
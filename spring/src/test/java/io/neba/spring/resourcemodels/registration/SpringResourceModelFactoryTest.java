@@ -14,6 +14,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
@@ -57,8 +58,40 @@ public class SpringResourceModelFactoryTest {
         assertResourceModelFactoryProvidesModelReturnedFromCallback();
     }
 
+    @Test
+    public void testModelDefinitionsAreNotCopiedForEachRetrieval() {
+        assertThat(this.testee.getModelDefinitions()).isSameAs(this.testee.getModelDefinitions());
+    }
+
+    @Test
+    public void testModelsAreObtainedFromBeanFactoryWhileConfigurationIsNotFrozen() {
+        provideModel();
+        provideModel();
+
+        verifyModelBeanIsObtainedFromBeanFactory(2);
+    }
+
+    @Test
+    public void testInstantiationStrategyIsDeterminedOnceConfigurationIsFrozen() {
+        withFrozenConfiguration();
+
+        provideModel();
+        provideModel();
+
+        verify(this.factory, times(1)).isConfigurationFrozen();
+        verifyModelBeanIsObtainedFromBeanFactory(2);
+    }
+
+    private void withFrozenConfiguration() {
+        doReturn(true).when(this.factory).isConfigurationFrozen();
+    }
+
     private void verifyModelBeanIsObtainedFromBeanFactory() {
-        verify(this.factory).getBean(BEAN_NAME, getClass());
+        verifyModelBeanIsObtainedFromBeanFactory(1);
+    }
+
+    private void verifyModelBeanIsObtainedFromBeanFactory(int times) {
+        verify(this.factory, times(times)).getBean(BEAN_NAME, getClass());
     }
 
     private void assertResourceModelFactoryProvidesModelReturnedFromCallback() {